@@ -26,6 +26,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -63,6 +64,7 @@ import org.slf4j.MDC;
 import org.slf4j.MDC.MDCCloseable;
 import org.springframework.context.ApplicationContext;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
@@ -82,6 +84,7 @@ import de.metas.security.IUserLoginListener;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /**
  * Model Validation Engine
@@ -187,6 +190,15 @@ public class ModelValidationEngine implements IModelValidationEngine
 		// metas: tsa: begin: break this in 2 parts because if the get() method is called during initialization we will end with multiple instances of ModelVaidationEngine
 	}
 
+	/**
+	 * @return a new engine which is not initialized, i.e. has no model interceptors registered
+	 */
+	@VisibleForTesting
+	static ModelValidationEngine newInstanceForUnitTesting()
+	{
+		return new ModelValidationEngine();
+	}
+
 	private void init()
 	{
 		// metas: tsa: end
@@ -439,6 +451,12 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private ArrayList<ModelValidator> m_validators = new ArrayList<>();
 	/** Model Change Listeners */
 	private Hashtable<String, ArrayList<ModelValidator>> m_modelChangeListeners = new Hashtable<>();
+	/**
+	 * Model Change dispatch table: the {@link #m_modelChangeListeners} which are handling a given change type.
+	 * When listeners are added/removed, it's replaced by a new (empty) instance instead of being cleared,
+	 * so an entry which is computed concurrently from the old listeners can only end up in the discarded instance.
+	 */
+	private volatile ConcurrentHashMap<ModelChangeDispatchKey, ImmutableList<ModelValidator>> m_modelChangeDispatchTable = new ConcurrentHashMap<>();
 	/** Document Validation Listeners */
 	private Hashtable<String, ArrayList<ModelValidator>> m_docValidateListeners = new Hashtable<>();
 	/** Data Import Validation Listeners */
@@ -639,6 +657,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 				logger.debug("Listener " + listener + " already added for " + propertyName);
 			}
 		}
+
+		resetModelChangeDispatchTable();
 	}	// addModelValidator
 
 	@Override
@@ -679,6 +699,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			m_modelChangeListeners.remove(propertyName);
 		}
+
+		resetModelChangeDispatchTable();
 	}	// removeModelValidator
 
 	@Override
@@ -735,15 +757,15 @@ public class ModelValidationEngine implements IModelValidationEngine
 			//
 			// Retrieve system level model interceptors
 			final String propertyNameSystem = getPropertyName(po.get_TableName());
-			final List<ModelValidator> interceptorsSystem = m_modelChangeListeners.get(propertyNameSystem);
-			final int countSystemInterceptors = interceptorsSystem != null ? interceptorsSystem.size() : 0;
+			final List<ModelValidator> interceptorsSystem = getModelChangeListeners(propertyNameSystem, po.get_TableName(), changeType);
+			final int countSystemInterceptors = interceptorsSystem.size();
 			countInterceptors += countSystemInterceptors;
 
 			//
 			// Retrieve client level model interceptors
 			final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-			final List<ModelValidator> interceptorsClient = m_modelChangeListeners.get(propertyNameClient);
-			final int countClientInterceptors = interceptorsClient != null ? interceptorsClient.size() : 0;
+			final List<ModelValidator> interceptorsClient = getModelChangeListeners(propertyNameClient, po.get_TableName(), changeType);
+			final int countClientInterceptors = interceptorsClient.size();
 			countInterceptors += countClientInterceptors;
 
 			//
@@ -785,6 +807,69 @@ public class ModelValidationEngine implements IModelValidationEngine
 		}
 	}	// fireModelChange
 
+	private void resetModelChangeDispatchTable()
+	{
+		// NOTE: don't clear() the current instance, see m_modelChangeDispatchTable's javadoc
+		m_modelChangeDispatchTable = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @return model change listeners registered for given property name, without those which are known to do nothing for given change type
+	 */
+	@VisibleForTesting
+	ImmutableList<ModelValidator> getModelChangeListeners(
+			@NonNull final String propertyName,
+			@NonNull final String tableName,
+			@NonNull final ModelChangeType changeType)
+	{
+		final ConcurrentHashMap<ModelChangeDispatchKey, ImmutableList<ModelValidator>> modelChangeDispatchTable = m_modelChangeDispatchTable;
+		return modelChangeDispatchTable.computeIfAbsent(
+				ModelChangeDispatchKey.of(propertyName, changeType),
+				key -> retrieveModelChangeListeners(propertyName, tableName, changeType));
+	}
+
+	private ImmutableList<ModelValidator> retrieveModelChangeListeners(
+			@NonNull final String propertyName,
+			@NonNull final String tableName,
+			@NonNull final ModelChangeType changeType)
+	{
+		final List<ModelValidator> listeners = m_modelChangeListeners.get(propertyName);
+		if (listeners == null || listeners.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		// iterate a copy, because listeners might be added/removed while we are asking them
+		return ImmutableList.copyOf(listeners)
+				.stream()
+				.filter(listener -> isModelChangeHandled(listener, tableName, changeType))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static boolean isModelChangeHandled(
+			@NonNull final ModelValidator listener,
+			@NonNull final String tableName,
+			@NonNull final ModelChangeType changeType)
+	{
+		if (listener instanceof ModelInterceptor2ModelValidatorWrapper)
+		{
+			return ((ModelInterceptor2ModelValidatorWrapper)listener).isModelChangeHandled(tableName, changeType);
+		}
+		else
+		{
+			return true;
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	private static class ModelChangeDispatchKey
+	{
+		@NonNull
+		String propertyName;
+		@NonNull
+		ModelChangeType changeType;
+	}
+
 	private final void executeInTrx(final String trxName, final TimingType changeTypeOrDocTiming, @NonNull final Runnable runnable)
 	{
 		final boolean runInTrx = changeTypeOrDocTiming != ModelChangeType.BEFORE_SAVE_TRX;
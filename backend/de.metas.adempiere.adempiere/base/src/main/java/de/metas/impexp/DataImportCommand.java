@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
@@ -21,6 +22,7 @@ import de.metas.common.util.time.SystemTime;
 import de.metas.impexp.config.DataImportConfigId;
 import de.metas.impexp.format.ImpFormat;
 import de.metas.impexp.format.ImportTableDescriptor;
+import de.metas.impexp.parser.ImpDataLine;
 import de.metas.impexp.parser.ImpDataParser;
 import de.metas.impexp.parser.ImpDataParserFactory;
 import de.metas.impexp.processing.IImportProcessFactory;
@@ -66,6 +68,8 @@ final class DataImportCommand
 	private final ImpDataParserFactory parserFactory = new ImpDataParserFactory();
 
 	private static final String SYSCONFIG_InsertBatchSize = "de.metas.impexp.insertBatchSize";
+	private static final String SYSCONFIG_ParseThreads = "de.metas.impexp.parseThreads";
+	private static final String SYSCONFIG_InsertUsingCopy = "de.metas.impexp.insertUsingCopy";
 
 	//
 	// Parameters
@@ -217,24 +221,28 @@ final class DataImportCommand
 
 	private InsertIntoImportTableResult readSourceAndInsertIntoImportTable()
 	{
-		final ImpDataParser sourceParser = parserFactory.createParser(importFormat);
+		final ImpDataParser sourceParser = parserFactory.createParser(importFormat, getParseThreads());
 
-		final InsertIntoImportTableRequest request = InsertIntoImportTableRequest.builder()
-				.importFormat(importFormat)
-				.clientId(clientId)
-				.orgId(orgId)
-				.userId(userId)
-				.dataImportRunId(getOrCreateDataImportRunId())
-				.dataImportConfigId(dataImportConfigId)
-				.insertBatchSize(getInsertBatchSize())
-				.stream(sourceParser.streamDataLines(data))
-				.build();
+		try (final Stream<ImpDataLine> dataLines = sourceParser.streamDataLines(data))
+		{
+			final InsertIntoImportTableRequest request = InsertIntoImportTableRequest.builder()
+					.importFormat(importFormat)
+					.clientId(clientId)
+					.orgId(orgId)
+					.userId(userId)
+					.dataImportRunId(getOrCreateDataImportRunId())
+					.dataImportConfigId(dataImportConfigId)
+					.insertBatchSize(getInsertBatchSize())
+					.insertUsingCopy(isInsertUsingCopy())
+					.stream(dataLines)
+					.build();
 
-		final InsertIntoImportTableResult result = insertIntoImportTableService.insertData(request)
-				.withFromResource(extractURI(data));
-		logger.debug("Insert into import table result: {}", result);
+			final InsertIntoImportTableResult result = insertIntoImportTableService.insertData(request)
+					.withFromResource(extractURI(data));
+			logger.debug("Insert into import table result: {}", result);
 
-		return result;
+			return result;
+		}
 	}
 
 	@Nullable
@@ -255,6 +263,16 @@ final class DataImportCommand
 		return sysConfigBL.getIntValue(SYSCONFIG_InsertBatchSize, -1);
 	}
 
+	private int getParseThreads()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_ParseThreads, 1);
+	}
+
+	private boolean isInsertUsingCopy()
+	{
+		return sysConfigBL.getBooleanValue(SYSCONFIG_InsertUsingCopy, true);
+	}
+
 	private PInstanceId getOrCreateRecordsToImportSelectionId()
 	{
 		if (_recordsToImportSelectionId == null)
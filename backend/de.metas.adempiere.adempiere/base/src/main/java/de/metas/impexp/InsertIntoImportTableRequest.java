@@ -61,6 +61,11 @@ public class InsertIntoImportTableRequest
 
 	int insertBatchSize;
 
+	/**
+	 * If true, the lines are written using PostgreSQL's {@code COPY FROM STDIN}, which is much faster than batched INSERTs for big files.
+	 */
+	boolean insertUsingCopy;
+
 	@NonNull
 	final Stream<ImpDataLine> stream;
 }
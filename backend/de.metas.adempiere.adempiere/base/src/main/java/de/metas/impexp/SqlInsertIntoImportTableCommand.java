@@ -1,5 +1,9 @@
 package de.metas.impexp;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -12,11 +16,18 @@ import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.service.ClientId;
 import org.compiere.util.DB;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Trx;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 
@@ -27,13 +38,16 @@ import de.metas.impexp.format.ImportTableDescriptor;
 import de.metas.impexp.parser.ImpDataLine;
 import de.metas.impexp.util.SqlAndParamsExtractor;
 import de.metas.impexp.util.SqlAndParamsExtractor.ParametersExtractor;
+import de.metas.logging.LogManager;
 import de.metas.organization.OrgId;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.GuavaCollectors;
 import de.metas.util.Services;
+import de.metas.util.StringUtils;
 import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -59,12 +73,17 @@ import lombok.NonNull;
 
 /**
  * Inserts {@link ImpDataLine}s into import tables.
+ * <p>
+ * If {@code insertUsingCopy} is set, each batch of lines is written into a temporary table using PostgreSQL's {@code COPY FROM STDIN}
+ * and then moved into the import table with one {@code INSERT ... SELECT}, which assigns the IDs and the standard columns.
  * 
  * @author metas-dev <dev@metasfresh.com>
  *
  */
 final class SqlInsertIntoImportTableCommand
 {
+	private static final Logger logger = LogManager.getLogger(SqlInsertIntoImportTableCommand.class);
+
 	// services
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 
@@ -81,11 +100,12 @@ final class SqlInsertIntoImportTableCommand
 	private final DataImportRunId dataImportRunId;
 	private final DataImportConfigId dataImportConfigId;
 	private final int insertBatchSize;
+	private final boolean insertUsingCopy;
 	private Stream<ImpDataLine> linesStream;
 
 	//
 	// State
-	private SqlAndParamsExtractor<ImpDataLine> _sqlInsertIntoImportTable; // lazy
+	private ImportTableSqls _importTableSqls; // lazy
 	private int countTotalRows = 0;
 	private int countValidRows = 0;
 	private final ArrayList<InsertIntoImportTableResult.Error> errors = new ArrayList<>();
@@ -99,6 +119,7 @@ final class SqlInsertIntoImportTableCommand
 			@NonNull final DataImportRunId dataImportRunId,
 			@Nullable final DataImportConfigId dataImportConfigId,
 			final int insertBatchSize,
+			final boolean insertUsingCopy,
 			@NonNull final Stream<ImpDataLine> linesStream)
 	{
 		this.importTableDescriptor = importFormat.getImportTableDescriptor();
@@ -111,6 +132,7 @@ final class SqlInsertIntoImportTableCommand
 		this.dataImportRunId = dataImportRunId;
 		this.dataImportConfigId = dataImportConfigId;
 		this.insertBatchSize = insertBatchSize > 0 ? insertBatchSize : DEFAULT_InsertBatchSize;
+		this.insertUsingCopy = insertUsingCopy;
 
 		this.linesStream = linesStream;
 	}
@@ -144,12 +166,22 @@ final class SqlInsertIntoImportTableCommand
 			return;
 		}
 
-		trxManager.run(ITrx.TRXNAME_ThreadInherited, () -> insertIntoDatabaseInTrx(lines));
+		trxManager.run(ITrx.TRXNAME_ThreadInherited, () -> {
+			final PGConnection pgConnection = insertUsingCopy ? getPGConnectionOrNull() : null;
+			if (pgConnection != null)
+			{
+				copyIntoDatabaseInTrx(lines, pgConnection);
+			}
+			else
+			{
+				insertIntoDatabaseInTrx(lines);
+			}
+		});
 	}
 
 	private void insertIntoDatabaseInTrx(final List<ImpDataLine> lines)
 	{
-		final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor = getInsertIntoImportTableSql();
+		final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor = getImportTableSqls().getInsertSql();
 		final String sql = sqlAndParamsExtractor.getSql();
 
 		PreparedStatement pstmt = null;
@@ -164,20 +196,7 @@ final class SqlInsertIntoImportTableCommand
 				DB.setParameters(pstmt, params);
 				pstmt.addBatch();
 
-				// Update stats:
-				countTotalRows++;
-				if (line.hasErrors())
-				{
-					errors.add(InsertIntoImportTableResult.Error.builder()
-							.message(line.getErrorMessageAsStringOrNull())
-							.lineNo(line.getFileLineNo())
-							.lineContent(line.getLineString())
-							.build());
-				}
-				else
-				{
-					countValidRows++;
-				}
+				updateStats(line);
 			}
 
 			pstmt.executeBatch();
@@ -192,26 +211,179 @@ final class SqlInsertIntoImportTableCommand
 		}
 	}
 
-	private SqlAndParamsExtractor<ImpDataLine> getInsertIntoImportTableSql()
+	private void copyIntoDatabaseInTrx(final List<ImpDataLine> lines, final PGConnection pgConnection)
+	{
+		final ImportTableSqls importTableSqls = getImportTableSqls();
+		final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor = importTableSqls.getInsertSql();
+
+		final StringBuilder copyData = new StringBuilder();
+		for (final ImpDataLine line : lines)
+		{
+			appendCopyRow(copyData, sqlAndParamsExtractor.extractParameters(line));
+			updateStats(line);
+		}
+
+		DB.executeUpdateEx(importTableSqls.getCreateCopyTableSql(), ITrx.TRXNAME_ThreadInherited);
+
+		final String copySql = importTableSqls.getCopySql();
+		try
+		{
+			final CopyManager copyManager = pgConnection.getCopyAPI();
+			copyManager.copyIn(copySql, new StringReader(copyData.toString()));
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, copySql);
+		}
+		catch (final IOException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+
+		DB.executeUpdateEx(importTableSqls.getInsertFromCopyTableSql(), ITrx.TRXNAME_ThreadInherited);
+		DB.executeUpdateEx(importTableSqls.getDropCopyTableSql(), ITrx.TRXNAME_ThreadInherited);
+	}
+
+	/**
+	 * @return the connection of the current (thread inherited) transaction or null if it's not a PostgreSQL connection (e.g. in unit tests)
+	 */
+	@Nullable
+	private PGConnection getPGConnectionOrNull()
 	{
-		SqlAndParamsExtractor<ImpDataLine> sqlInsertIntoImportTable = this._sqlInsertIntoImportTable;
-		if (sqlInsertIntoImportTable == null)
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (!(trx instanceof Trx))
+		{
+			logger.debug("COPY not supported for {}. Using INSERT.", trx);
+			return null;
+		}
+
+		try
+		{
+			final Connection connection = ((Trx)trx).getConnection();
+			if (connection == null || !connection.isWrapperFor(PGConnection.class))
+			{
+				logger.debug("COPY not supported for {}. Using INSERT.", connection);
+				return null;
+			}
+			return connection.unwrap(PGConnection.class);
+		}
+		catch (final SQLException ex)
 		{
-			sqlInsertIntoImportTable = this._sqlInsertIntoImportTable = createInsertIntoImportTableSql();
+			logger.warn("Failed getting the PostgreSQL connection from {}. Using INSERT.", trx, ex);
+			return null;
 		}
-		return sqlInsertIntoImportTable;
 	}
 
 	/**
-	 * IMPORTANT: keep in sync with {@link #extractSqlInsertParams(ImpDataLine)}
+	 * Appends one row in the {@code COPY} text format (see "Text Format" in PostgreSQL's COPY documentation).
 	 */
-	private SqlAndParamsExtractor<ImpDataLine> createInsertIntoImportTableSql()
+	@VisibleForTesting
+	static void appendCopyRow(final StringBuilder copyData, final List<Object> values)
+	{
+		boolean firstValue = true;
+		for (final Object value : values)
+		{
+			if (!firstValue)
+			{
+				copyData.append('\t');
+			}
+			firstValue = false;
+
+			if (value == null)
+			{
+				copyData.append("\\N");
+			}
+			else
+			{
+				appendCopyValueEscaped(copyData, toCopyValueString(value));
+			}
+		}
+		copyData.append('\n');
+	}
+
+	private static String toCopyValueString(@NonNull final Object value)
+	{
+		if (value instanceof Boolean)
+		{
+			return StringUtils.ofBoolean((Boolean)value);
+		}
+		else if (value instanceof BigDecimal)
+		{
+			return ((BigDecimal)value).toPlainString();
+		}
+		else
+		{
+			// NOTE: java.sql.Timestamp.toString() is understood by PostgreSQL
+			return value.toString();
+		}
+	}
+
+	private static void appendCopyValueEscaped(final StringBuilder copyData, final String valueStr)
+	{
+		for (int i = 0, length = valueStr.length(); i < length; i++)
+		{
+			final char ch = valueStr.charAt(i);
+			switch (ch)
+			{
+				case '\\':
+					copyData.append("\\\\");
+					break;
+				case '\t':
+					copyData.append("\\t");
+					break;
+				case '\n':
+					copyData.append("\\n");
+					break;
+				case '\r':
+					copyData.append("\\r");
+					break;
+				default:
+					copyData.append(ch);
+			}
+		}
+	}
+
+	private void updateStats(final ImpDataLine line)
+	{
+		countTotalRows++;
+		if (line.hasErrors())
+		{
+			errors.add(InsertIntoImportTableResult.Error.builder()
+					.message(line.getErrorMessageAsStringOrNull())
+					.lineNo(line.getFileLineNo())
+					.lineContent(line.getLineString())
+					.build());
+		}
+		else
+		{
+			countValidRows++;
+		}
+	}
+
+	private ImportTableSqls getImportTableSqls()
+	{
+		ImportTableSqls importTableSqls = this._importTableSqls;
+		if (importTableSqls == null)
+		{
+			importTableSqls = this._importTableSqls = createImportTableSqls();
+		}
+		return importTableSqls;
+	}
+
+	/**
+	 * Creates the INSERT statement and the statements which are needed to insert using {@code COPY}.
+	 * For {@code COPY}, each {@code ?} parameter of the INSERT statement becomes a column of the temporary table, which has the same name as the import table's column.
+	 */
+	private ImportTableSqls createImportTableSqls()
 	{
 		final String tableName = importTableDescriptor.getTableName();
 		final String keyColumnName = importTableDescriptor.getKeyColumnName();
+		final String copyTableName = "tmp_" + tableName;
 
 		final StringBuilder sqlColumns = new StringBuilder();
 		final StringBuilder sqlValues = new StringBuilder();
+		final StringBuilder sqlSelectValues = new StringBuilder();
+		final List<String> copyColumnNames = new ArrayList<>();
 		final List<ParametersExtractor<ImpDataLine>> sqlParamsExtractors = new ArrayList<>();
 
 		sqlColumns.append(keyColumnName);
@@ -237,6 +409,7 @@ final class SqlInsertIntoImportTableCommand
 		{
 			sqlColumns.append(", ").append(importTableDescriptor.getImportLineNoColumnName());
 			sqlValues.append(", ?");
+			copyColumnNames.add(importTableDescriptor.getImportLineNoColumnName());
 			sqlParamsExtractors.add(dataLine -> ImmutableList.of(dataLine.getFileLineNo()));
 		}
 
@@ -246,6 +419,7 @@ final class SqlInsertIntoImportTableCommand
 		{
 			sqlColumns.append(", ").append(importTableDescriptor.getImportLineContentColumnName());
 			sqlValues.append(", ?");
+			copyColumnNames.add(importTableDescriptor.getImportLineContentColumnName());
 			sqlParamsExtractors.add(dataLine -> Collections.singletonList(dataLine.getLineString()));
 		}
 
@@ -271,6 +445,7 @@ final class SqlInsertIntoImportTableCommand
 			final int errorMaxLength = importTableDescriptor.getErrorMsgMaxLength();
 			sqlColumns.append(", ").append(ImportTableDescriptor.COLUMNNAME_I_ErrorMsg);
 			sqlValues.append(", ?");
+			copyColumnNames.add(ImportTableDescriptor.COLUMNNAME_I_ErrorMsg);
 			sqlParamsExtractors.add(dataLine -> Collections.singletonList(dataLine.getErrorMessageAsStringOrNull(errorMaxLength)));
 		}
 
@@ -281,14 +456,58 @@ final class SqlInsertIntoImportTableCommand
 			{
 				sqlColumns.append(", ").append(column.getColumnName());
 				sqlValues.append(", ?");
+				copyColumnNames.add(column.getColumnName());
 			}
 			sqlParamsExtractors.add(dataLine -> dataLine.getJdbcValues(columns));
 		}
 
-		return SqlAndParamsExtractor.<ImpDataLine> builder()
-				.sql("INSERT INTO " + tableName + "(" + sqlColumns + ") VALUES (" + sqlValues + ")")
-				.parametersExtractors(sqlParamsExtractors)
+		//
+		// Same values as the INSERT statement, but the parameters are taken from the copy table.
+		// NOTE: all other values are numbers or 'Y'/'N', so each '?' is a parameter.
+		int copyColumnIndex = 0;
+		for (int i = 0; i < sqlValues.length(); i++)
+		{
+			final char ch = sqlValues.charAt(i);
+			if (ch == '?')
+			{
+				sqlSelectValues.append(copyColumnNames.get(copyColumnIndex++));
+			}
+			else
+			{
+				sqlSelectValues.append(ch);
+			}
+		}
+
+		final String copyColumnNamesSql = String.join(", ", copyColumnNames);
+
+		return ImportTableSqls.builder()
+				.insertSql(SqlAndParamsExtractor.<ImpDataLine> builder()
+						.sql("INSERT INTO " + tableName + "(" + sqlColumns + ") VALUES (" + sqlValues + ")")
+						.parametersExtractors(sqlParamsExtractors)
+						.build())
+				// the copy table's columns have the same types as the import table's columns, so COPY converts the values the same way INSERT does
+				.createCopyTableSql("CREATE TEMPORARY TABLE " + copyTableName + " ON COMMIT DROP AS SELECT " + copyColumnNamesSql + " FROM " + tableName + " WITH NO DATA")
+				.copySql("COPY " + copyTableName + " (" + copyColumnNamesSql + ") FROM STDIN")
+				.insertFromCopyTableSql("INSERT INTO " + tableName + "(" + sqlColumns + ") SELECT " + sqlSelectValues + " FROM " + copyTableName)
+				.dropCopyTableSql("DROP TABLE " + copyTableName)
 				.build();
 	}
 
+	@Value
+	@Builder
+	private static class ImportTableSqls
+	{
+		@NonNull
+		SqlAndParamsExtractor<ImpDataLine> insertSql;
+
+		@NonNull
+		String createCopyTableSql;
+		@NonNull
+		String copySql;
+		@NonNull
+		String insertFromCopyTableSql;
+		@NonNull
+		String dropCopyTableSql;
+	}
+
 }
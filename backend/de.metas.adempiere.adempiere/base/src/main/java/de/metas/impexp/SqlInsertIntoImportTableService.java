@@ -39,6 +39,7 @@ public class SqlInsertIntoImportTableService implements InsertIntoImportTableSer
 				.dataImportRunId(request.getDataImportRunId())
 				.dataImportConfigId(request.getDataImportConfigId())
 				.insertBatchSize(request.getInsertBatchSize())
+				.insertUsingCopy(request.isInsertUsingCopy())
 				.linesStream(request.getStream())
 				.build();
 
@@ -51,7 +51,10 @@ public final class ImpFormatColumn
 	private final boolean constantIsString;
 	private final int maxLength;
 
-	private DateFormat _dateFormat = null; // lazy
+	/**
+	 * One instance per thread, because {@link DateFormat}s are not thread-safe and the lines might be parsed concurrently.
+	 */
+	private final ThreadLocal<DateFormat> _dateFormat = ThreadLocal.withInitial(this::createDateFormat);
 
 	@Builder
 	private ImpFormatColumn(
@@ -137,33 +140,33 @@ public final class ImpFormatColumn
 
 	private DateFormat getDateFormat()
 	{
-		DateFormat dateFormat = _dateFormat;
-		if (dateFormat == null)
+		return _dateFormat.get();
+	}
+
+	private DateFormat createDateFormat()
+	{
+		DateFormat dateFormat = null;
+		final String dateFormatPattern = getDataFormat();
+		if (!Check.isEmpty(dateFormatPattern, true))
 		{
-			final String dateFormatPattern = getDataFormat();
-			if (!Check.isEmpty(dateFormatPattern, true))
+			try
 			{
-				try
-				{
-					dateFormat = new SimpleDateFormat(dateFormatPattern);
-				}
-				catch (Exception ex)
-				{
-					dateFormat = null;
-					logger.warn("Invalid date format '{}'. Considering defaults.", dateFormatPattern, ex);
-				}
+				dateFormat = new SimpleDateFormat(dateFormatPattern);
 			}
-
-			if (dateFormat == null)
+			catch (Exception ex)
 			{
-				dateFormat = DateFormat.getDateInstance();
+				dateFormat = null;
+				logger.warn("Invalid date format '{}'. Considering defaults.", dateFormatPattern, ex);
 			}
+		}
 
-			dateFormat.setLenient(true);
-
-			this._dateFormat = dateFormat;
+		if (dateFormat == null)
+		{
+			dateFormat = DateFormat.getDateInstance();
 		}
 
+		dateFormat.setLenient(true);
+
 		return dateFormat;
 	}
 
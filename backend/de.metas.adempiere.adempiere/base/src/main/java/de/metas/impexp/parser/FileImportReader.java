@@ -26,6 +26,7 @@
 package de.metas.impexp.parser;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.io.LineProcessor;
@@ -33,12 +34,21 @@ import de.metas.util.Check;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author metas-dev <dev@metasfresh.com>
@@ -68,15 +78,24 @@ final class FileImportReader
 		}
 	}
 
-	final private static class MultiLineProcessor implements LineProcessor<List<String>>
+	/**
+	 * Joins the physical lines which belong to the same quoted multi-line text.
+	 * <p>
+	 * The last line is kept until it's clear that the next line is not appended to it, so the lines can also be processed incrementally.
+	 */
+	private static final class MultiLineAggregator
 	{
 		private boolean openQuote = false;
 		private boolean closedQuote = false;
 		private boolean quoteOpenRightNow = false;
-		private final List<String> loadedDataLines = new ArrayList<>();
+		private StringBuilder pendingLine = null;
+		private boolean pendingLineNotBlank = false; // lines are appended only to not blank lines, so it stays the same until the line is completed
 
-		@Override
-		public boolean processLine(final String line) throws IOException
+		/**
+		 * @return the previous line, if it's complete; <code>null</code> otherwise
+		 */
+		@Nullable
+		public String processLine(@NonNull final String line)
 		{
 			// If previous line had a " which is not closed, then add all to the previous line, until we meet next ".
 			// Of course, account that there could be multiple quotes on the same line.
@@ -93,15 +112,21 @@ final class FileImportReader
 					quoteOpenRightNow = true;
 				}
 			}
+
+			String completedLine = null;
+
 			//
 			// if open quote, add this line to the previous
-			if (openQuote && !quoteOpenRightNow && !loadedDataLines.isEmpty() && checkLastLoadedDataLineIsNotBlank())
+			if (openQuote && !quoteOpenRightNow && pendingLine != null && pendingLineNotBlank)
 			{
-				appendToPreviousLine(line);
+				// append the new line, because the char exists
+				pendingLine.append("\n").append(line);
 			}
 			else
 			{
-				loadedDataLines.add(line);
+				completedLine = flush();
+				pendingLine = new StringBuilder(line);
+				pendingLineNotBlank = Check.isNotBlank(line);
 				quoteOpenRightNow = false;
 			}
 
@@ -113,41 +138,89 @@ final class FileImportReader
 				closedQuote = false;
 				quoteOpenRightNow = false;
 			}
-			return true;
+			return completedLine;
 		}
 
-		private boolean checkLastLoadedDataLineIsNotBlank()
+		/**
+		 * @return the last line or <code>null</code> if there is none
+		 */
+		@Nullable
+		public String flush()
 		{
-			return Check.isNotBlank(loadedDataLines.get(loadedDataLines.size() - 1));
+			final String line = pendingLine != null ? pendingLine.toString() : null;
+			pendingLine = null;
+			return line;
 		}
+	}
 
-		/**
-		 * add current line to the previous one
-		 */
-		private void appendToPreviousLine(@NonNull final String line)
+	final private static class MultiLineProcessor implements LineProcessor<List<String>>
+	{
+		private final MultiLineAggregator aggregator = new MultiLineAggregator();
+		private final List<String> loadedDataLines = new ArrayList<>();
+
+		@Override
+		public boolean processLine(@NonNull final String line)
 		{
-			final StringBuilder previousLine = new StringBuilder();
-			final int index = loadedDataLines.size() - 1;
-			previousLine.append(loadedDataLines.get(index));
-			// append the new line, because the char exists
-			if (Check.isNotBlank(previousLine.toString()))
+			final String completedLine = aggregator.processLine(line);
+			if (completedLine != null)
 			{
-				previousLine.append("\n");
+				loadedDataLines.add(completedLine);
 			}
-			previousLine.append(line);
-			//
-			// now remove the line and add the new line
-			loadedDataLines.remove(index);
-			loadedDataLines.add(previousLine.toString());
+			return true;
 		}
 
 		@Override
 		public List<String> getResult()
 		{
+			final String lastLine = aggregator.flush();
+			if (lastLine != null)
+			{
+				loadedDataLines.add(lastLine);
+			}
 			return loadedDataLines;
 		}
 	}
 
+	/**
+	 * Lazily reads the lines from a {@link BufferedReader}, optionally joining multi-line texts.
+	 */
+	private static final class StreamingLinesIterator extends AbstractIterator<String>
+	{
+		private final BufferedReader reader;
+		@Nullable
+		private final MultiLineAggregator multiLineAggregator;
+
+		private StreamingLinesIterator(@NonNull final BufferedReader reader, final boolean multiline)
+		{
+			this.reader = reader;
+			this.multiLineAggregator = multiline ? new MultiLineAggregator() : null;
+		}
+
+		@Override
+		protected String computeNext()
+		{
+			try
+			{
+				String line;
+				while ((line = reader.readLine()) != null)
+				{
+					final String completedLine = multiLineAggregator != null ? multiLineAggregator.processLine(line) : line;
+					if (completedLine != null)
+					{
+						return completedLine;
+					}
+				}
+
+				final String lastLine = multiLineAggregator != null ? multiLineAggregator.flush() : null;
+				return lastLine != null ? lastLine : endOfData();
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+	}
+
 	/**
 	 * Read file that has at least on filed with multiline text
 	 * <br>
@@ -186,6 +259,47 @@ final class FileImportReader
 		return ByteSource.wrap(data).asCharSource(charset).readLines(new SingleLineProcessor());
 	}
 
+	/**
+	 * Same as {@link #readMultiLines(byte[], Charset)} but the lines are read only when the stream is consumed, so the whole content is never loaded in memory.
+	 * <p>
+	 * The given input stream is closed when the returned stream is closed.
+	 */
+	public Stream<String> streamMultiLines(@NonNull final InputStream in, @NonNull final Charset charset)
+	{
+		return streamLines(in, charset, true);
+	}
+
+	/**
+	 * Same as {@link #readRegularLines(byte[], Charset)} but the lines are read only when the stream is consumed, so the whole content is never loaded in memory.
+	 * <p>
+	 * The given input stream is closed when the returned stream is closed.
+	 */
+	public Stream<String> streamRegularLines(@NonNull final InputStream in, @NonNull final Charset charset)
+	{
+		return streamLines(in, charset, false);
+	}
+
+	private Stream<String> streamLines(@NonNull final InputStream in, @NonNull final Charset charset, final boolean multiline)
+	{
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset));
+		final StreamingLinesIterator linesIterator = new StreamingLinesIterator(reader, multiline);
+
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(linesIterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> closeQuietly(reader));
+	}
+
+	private static void closeQuietly(final BufferedReader reader)
+	{
+		try
+		{
+			reader.close();
+		}
+		catch (final IOException ex)
+		{
+			// nothing to do
+		}
+	}
+
 	/**
 	 * Build the preview from the loaded lines
 	 *
@@ -1,16 +1,30 @@
 package de.metas.impexp.parser;
 
+import com.google.common.collect.AbstractIterator;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.ToString;
 import org.adempiere.exceptions.AdempiereException;
-import org.compiere.util.Util;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.springframework.core.io.Resource;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /*
  * #%L
@@ -37,59 +51,72 @@ import java.util.stream.Stream;
 @ToString
 public final class ImpDataParser
 {
+	private static final int PARSE_CHUNK_SIZE = 1000;
+
 	private final boolean multiline;
 	private final @NonNull ImpDataLineParser lineParser;
 	private final @NonNull Charset charset;
 	private final int skipFirstNRows;
+	private final int parseThreads;
 
 	@Builder
 	private ImpDataParser(
 			final boolean multiline,
 			@NonNull final ImpDataLineParser lineParser,
 			@NonNull final Charset charset,
-			final int skipFirstNRows
+			final int skipFirstNRows,
+			final int parseThreads
 	)
 	{
 		this.multiline = multiline;
 		this.lineParser = lineParser;
 		this.charset = charset;
 		this.skipFirstNRows = Math.max(skipFirstNRows,0);
+		this.parseThreads = Math.max(parseThreads, 1);
 	}
 
+	/**
+	 * Streams the parsed lines, reading the resource incrementally. The returned stream shall be closed when done, in order to release the resource.
+	 * <p>
+	 * If {@code parseThreads} is greater than one, the lines are parsed in chunks on that many threads, but they are still streamed in their original order.
+	 */
 	public Stream<ImpDataLine> streamDataLines(final Resource resource)
 	{
-		final AtomicInteger nextLineNo = new AtomicInteger(1);
+		final Stream<String> sourceLines = streamSourceLines(resource)
+				.skip(skipFirstNRows);
 
-		return streamSourceLines(resource)
-				.skip(skipFirstNRows)
-				.map(lineStr -> createImpDataLine(lineStr, nextLineNo));
+		if (parseThreads <= 1)
+		{
+			final AtomicInteger nextLineNo = new AtomicInteger(1);
+			return sourceLines.map(lineStr -> createImpDataLine(lineStr, nextLineNo.getAndIncrement()));
+		}
+		else
+		{
+			final ParallelParsingIterator dataLinesIterator = new ParallelParsingIterator(sourceLines.iterator());
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(dataLinesIterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+					.onClose(dataLinesIterator::shutdown)
+					.onClose(sourceLines::close);
+		}
 	}
 
 	private Stream<String> streamSourceLines(final Resource resource)
 	{
-		final byte[] data = toByteArray(resource);
-		try
+		final InputStream in = getInputStream(resource);
+		if (multiline)
 		{
-			if (multiline)
-			{
-				return FileImportReader.readMultiLines(data, charset).stream();
-			}
-			else
-			{
-				return FileImportReader.readRegularLines(data, charset).stream();
-			}
+			return FileImportReader.streamMultiLines(in, charset);
 		}
-		catch (final IOException ex)
+		else
 		{
-			throw new AdempiereException("Failed reading resource: " + resource, ex);
+			return FileImportReader.streamRegularLines(in, charset);
 		}
 	}
 
-	private static byte[] toByteArray(final Resource resource)
+	private static InputStream getInputStream(final Resource resource)
 	{
 		try
 		{
-			return Util.readBytes(resource.getInputStream());
+			return resource.getInputStream();
 		}
 		catch (final IOException ex)
 		{
@@ -97,12 +124,12 @@ public final class ImpDataParser
 		}
 	}
 
-	private ImpDataLine createImpDataLine(final String lineStr, final AtomicInteger nextLineNo)
+	private ImpDataLine createImpDataLine(final String lineStr, final int fileLineNo)
 	{
 		try
 		{
 			return ImpDataLine.builder()
-					.fileLineNo(nextLineNo.getAndIncrement())
+					.fileLineNo(fileLineNo)
 					.lineStr(lineStr)
 					.cells(lineParser.parseDataCells(lineStr))
 					.build();
@@ -110,10 +137,103 @@ public final class ImpDataParser
 		catch (final Exception ex)
 		{
 			return ImpDataLine.builder()
-					.fileLineNo(nextLineNo.getAndIncrement())
+					.fileLineNo(fileLineNo)
 					.lineStr(lineStr)
 					.parseError(ErrorMessage.of(ex))
 					.build();
 		}
 	}
+
+	private List<ImpDataLine> createImpDataLines(final List<String> lineStrs, final int firstFileLineNo)
+	{
+		final ArrayList<ImpDataLine> result = new ArrayList<>(lineStrs.size());
+		int fileLineNo = firstFileLineNo;
+		for (final String lineStr : lineStrs)
+		{
+			result.add(createImpDataLine(lineStr, fileLineNo++));
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the source lines in chunks and parses each chunk on a worker thread.
+	 * At most two chunks per thread are parsed or waiting to be consumed at a time, so the memory usage doesn't depend on the file size.
+	 */
+	private final class ParallelParsingIterator extends AbstractIterator<ImpDataLine>
+	{
+		private final Iterator<String> sourceLines;
+		private final ExecutorService executor;
+		private final int maxPendingChunks;
+		private final ArrayDeque<Future<List<ImpDataLine>>> pendingChunks = new ArrayDeque<>();
+		private Iterator<ImpDataLine> currentChunk = Collections.emptyIterator();
+		private int nextFileLineNo = 1;
+
+		private ParallelParsingIterator(@NonNull final Iterator<String> sourceLines)
+		{
+			this.sourceLines = sourceLines;
+			this.executor = Executors.newFixedThreadPool(parseThreads, CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(ImpDataParser.class.getSimpleName())
+					.setDaemon(true)
+					.build());
+			this.maxPendingChunks = parseThreads * 2;
+		}
+
+		@Override
+		protected ImpDataLine computeNext()
+		{
+			while (!currentChunk.hasNext())
+			{
+				submitChunks();
+				if (pendingChunks.isEmpty())
+				{
+					shutdown();
+					return endOfData();
+				}
+
+				currentChunk = waitForChunk(pendingChunks.removeFirst()).iterator();
+			}
+
+			return currentChunk.next();
+		}
+
+		private void submitChunks()
+		{
+			while (pendingChunks.size() < maxPendingChunks && sourceLines.hasNext())
+			{
+				final List<String> lineStrs = new ArrayList<>(PARSE_CHUNK_SIZE);
+				while (lineStrs.size() < PARSE_CHUNK_SIZE && sourceLines.hasNext())
+				{
+					lineStrs.add(sourceLines.next());
+				}
+
+				final int firstFileLineNo = nextFileLineNo;
+				nextFileLineNo += lineStrs.size();
+				pendingChunks.addLast(executor.submit(() -> createImpDataLines(lineStrs, firstFileLineNo)));
+			}
+		}
+
+		private List<ImpDataLine> waitForChunk(final Future<List<ImpDataLine>> chunk)
+		{
+			try
+			{
+				return chunk.get();
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			catch (final ExecutionException ex)
+			{
+				throw AdempiereException.wrapIfNeeded(ex.getCause());
+			}
+		}
+
+		private void shutdown()
+		{
+			pendingChunks.forEach(chunk -> chunk.cancel(true));
+			pendingChunks.clear();
+			executor.shutdownNow();
+		}
+	}
 }
@@ -30,6 +30,14 @@ public class ImpDataParserFactory
 	private final ImpDataLineParserFactory lineParserFactory = new ImpDataLineParserFactory();
 
 	public ImpDataParser createParser(@NonNull final ImpFormat impFormat)
+	{
+		return createParser(impFormat, 1);
+	}
+
+	/**
+	 * @param parseThreads number of threads which parse the lines; if less than two, the lines are parsed in the consumer's thread
+	 */
+	public ImpDataParser createParser(@NonNull final ImpFormat impFormat, final int parseThreads)
 	{
 		final ImpDataLineParser lineParser = lineParserFactory.createParser(impFormat);
 
@@ -38,6 +46,7 @@ public class ImpDataParserFactory
 				.lineParser(lineParser)
 				.charset(impFormat.getCharset())
 				.skipFirstNRows(impFormat.getSkipFirstNRows())
+				.parseThreads(parseThreads)
 				.build();
 	}
 
@@ -74,6 +74,9 @@ public final class ImportProcessResult
 	//
 	//
 
+	/**
+	 * Thread-safe, because in parallel mode the import workers report into the same collector.
+	 */
 	@ToString
 	public static class ImportProcessResultCollector
 	{
@@ -106,45 +109,45 @@ public final class ImportProcessResult
 			this.importStartTime = Instant.now();
 		}
 
-		public ImportProcessResult toResult()
+		public synchronized ImportProcessResult toResult()
 		{
 			return new ImportProcessResult(this);
 		}
 
-		public ImportProcessResultCollector importTableName(@NonNull final String importTableName)
+		public synchronized ImportProcessResultCollector importTableName(@NonNull final String importTableName)
 		{
 			this.importTableName = importTableName;
 			return this;
 		}
 
-		public void setCountImportRecordsDeleted(final int countImportRecordsDeleted)
+		public synchronized void setCountImportRecordsDeleted(final int countImportRecordsDeleted)
 		{
 			Check.assumeGreaterOrEqualToZero(countImportRecordsDeleted, "countImportRecordsDeleted");
 			this.countImportRecordsDeleted.set(countImportRecordsDeleted);
 		}
 
-		public void setCountImportRecordsWithValidationErrors(final int count)
+		public synchronized void setCountImportRecordsWithValidationErrors(final int count)
 		{
 			Check.assumeGreaterOrEqualToZero(count, "count");
 			this.countImportRecordsWithValidationErrors.set(count);
 		}
 
-		public void addCountImportRecordsConsidered(final int count)
+		public synchronized void addCountImportRecordsConsidered(final int count)
 		{
 			countImportRecordsConsidered.add(count);
 		}
 
-		public void addInsertsIntoTargetTable(final int count)
+		public synchronized void addInsertsIntoTargetTable(final int count)
 		{
 			countInsertsIntoTargetTable.add(count);
 		}
 
-		public void addUpdatesIntoTargetTable(final int count)
+		public synchronized void addUpdatesIntoTargetTable(final int count)
 		{
 			countUpdatesIntoTargetTable.add(count);
 		}
 
-		public void actualImportError(@NonNull final ActualImportRecordsResult.Error error)
+		public synchronized void actualImportError(@NonNull final ActualImportRecordsResult.Error error)
 		{
 			actualImportErrors.add(error);
 		}
@@ -11,6 +11,13 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -22,7 +29,10 @@ import org.adempiere.db.util.AbstractPreparedStatementBlindIterator;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.api.IParams;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
@@ -34,6 +44,7 @@ import org.compiere.util.ISqlUpdateReturnProcessor;
 import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
@@ -74,6 +85,16 @@ public abstract class ImportProcessTemplate<ImportRecordType, ImportGroupKey>
 	private final IErrorManager errorManager = Services.get(IErrorManager.class);
 	private final DBFunctionsRepository dbFunctionsRepo = SpringContextHolder.instance.getBean(DBFunctionsRepository.class);
 	private final ImportTableDescriptorRepository importTableDescriptorRepo = SpringContextHolder.instance.getBean(ImportTableDescriptorRepository.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	/**
+	 * Number of threads used to import the groups, if the import process supports it (see {@link #isParallelImportSupported()}). 1 means the records are imported in the calling thread.
+	 */
+	static final String SYSCONFIG_ImportThreads = "de.metas.impexp.processing.ImportProcessTemplate.ImportThreads";
+	/**
+	 * How many import groups a worker claims at once, in parallel mode.
+	 */
+	static final String SYSCONFIG_GroupsPerWorkerRange = "de.metas.impexp.processing.ImportProcessTemplate.GroupsPerWorkerRange";
 
 	//
 	// Parameters
@@ -312,12 +333,7 @@ public abstract class ImportProcessTemplate<ImportRecordType, ImportGroupKey>
 	@Override
 	public final ImportProcessResult run()
 	{
-		if (resultCollector != null)
-		{
-			throw new AdempiereException("Process already started: " + this);
-		}
-		resultCollector = ImportProcessResult.newCollector(getTargetTableName())
-				.importTableName(getImportTableName());
+		startResultCollector();
 
 		// Assume we are not running in another transaction because that could introduce deadlocks,
 		// because we are creating the transactions here.
@@ -361,6 +377,27 @@ public abstract class ImportProcessTemplate<ImportRecordType, ImportGroupKey>
 		return result;
 	}
 
+	/**
+	 * Runs only the actual import of the records provided by {@link #retrieveRecordsToImport()}, without deleting, resetting and validating the import records before.
+	 */
+	@VisibleForTesting
+	final ImportProcessResult runImportDataOnly()
+	{
+		startResultCollector();
+		importData();
+		return resultCollector.toResult();
+	}
+
+	private void startResultCollector()
+	{
+		if (resultCollector != null)
+		{
+			throw new AdempiereException("Process already started: " + this);
+		}
+		resultCollector = ImportProcessResult.newCollector(getTargetTableName())
+				.importTableName(getImportTableName());
+	}
+
 	@Override
 	public int deleteImportRecords(@NonNull final ImportDataDeleteRequest request)
 	{
@@ -460,10 +497,51 @@ public abstract class ImportProcessTemplate<ImportRecordType, ImportGroupKey>
 
 	protected abstract ImportGroupKey extractImportGroupKey(final ImportRecordType importRecord);
 
+	/**
+	 * @return true if the import groups are independent of each other, so they can be imported concurrently, each in its own transaction.
+	 * 		Groups which need to be imported by the same worker anyway shall be kept together by overriding {@link #isSameWorkerRange(Object, Object)}.
+	 * 		The import process's instance is shared by all workers, so it shall not hold per-group state other than the one from the state holder.
+	 */
+	protected boolean isParallelImportSupported()
+	{
+		return false;
+	}
+
+	/**
+	 * Used only in parallel mode.
+	 *
+	 * @return true if the given record shall be imported by the same worker as the previous one, even if it belongs to another import group,
+	 * 		e.g. because the import relies on the state which the previous record left in the state holder.
+	 */
+	protected boolean isSameWorkerRange(
+			@NonNull final ImportRecordType previousImportRecord,
+			@NonNull final ImportRecordType importRecord)
+	{
+		return false;
+	}
+
+	private int getImportThreads()
+	{
+		return isParallelImportSupported() ? sysConfigBL.getIntValue(SYSCONFIG_ImportThreads, 1) : 1;
+	}
+
 	/**
 	 * Actual data import.
 	 */
 	private final void importData()
+	{
+		final int importThreads = getImportThreads();
+		if (importThreads > 1)
+		{
+			importDataInParallel(importThreads);
+		}
+		else
+		{
+			importDataSequentially();
+		}
+	}
+
+	private void importDataSequentially()
 	{
 		final ITrxItemProcessorExecutorService trxItemProcessorExecutorService = Services.get(ITrxItemProcessorExecutorService.class);
 
@@ -530,6 +608,174 @@ public abstract class ImportProcessTemplate<ImportRecordType, ImportGroupKey>
 				.process(retrieveRecordsToImport());
 	}
 
+	/**
+	 * Reads the records to import in this thread and groups them, like the sequential import does.
+	 * Consecutive groups are bundled into ranges, and each range is imported by one worker, group by group, each group in its own transaction.
+	 * So the groups of a range are imported in their original order, and a failed group is rolled back and marked as error, without affecting the other groups.
+	 */
+	private void importDataInParallel(final int importThreads)
+	{
+		final int groupsPerWorkerRange = Math.max(sysConfigBL.getIntValue(SYSCONFIG_GroupsPerWorkerRange, 100), 1);
+		final ExecutorService executor = Executors.newFixedThreadPool(importThreads, CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(getClass().getSimpleName())
+				.setDaemon(true)
+				.build());
+		// limits the ranges which are read but not imported yet
+		final Semaphore pendingRanges = new Semaphore(importThreads * 2);
+		final List<Future<?>> futures = new ArrayList<>();
+		final Map<String, ImportWorkerStats> statsByWorker = new ConcurrentHashMap<>();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		try
+		{
+			ImportGroup<ImportGroupKey, ImportRecordType> currentGroup = null;
+			ImportRecordType previousImportRecord = null;
+			List<ImportGroup<ImportGroupKey, ImportRecordType>> currentRange = new ArrayList<>();
+
+			for (final ImportRecordType importRecord : IteratorUtils.asIterable(retrieveRecordsToImport()))
+			{
+				final ImportGroupKey groupKey = extractImportGroupKey(importRecord);
+				if (currentGroup == null || !Objects.equals(currentGroup.getGroupKey(), groupKey))
+				{
+					if (currentGroup != null)
+					{
+						currentRange.add(currentGroup);
+						if (currentRange.size() >= groupsPerWorkerRange && !isSameWorkerRange(previousImportRecord, importRecord))
+						{
+							futures.add(submitRange(executor, pendingRanges, currentRange, statsByWorker));
+							currentRange = new ArrayList<>();
+						}
+					}
+					currentGroup = ImportGroup.newInstance(groupKey);
+				}
+
+				currentGroup.addImportRecord(importRecord);
+				previousImportRecord = importRecord;
+			}
+
+			if (currentGroup != null)
+			{
+				currentRange.add(currentGroup);
+			}
+			if (!currentRange.isEmpty())
+			{
+				futures.add(submitRange(executor, pendingRanges, currentRange, statsByWorker));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
+		finally
+		{
+			futures.forEach(future -> future.cancel(true));
+			executor.shutdownNow();
+		}
+
+		stopwatch.stop();
+		loggable.addLog("Imported using {} threads in {}", importThreads, stopwatch);
+		statsByWorker.values().forEach(stats -> loggable.addLog("{}", stats));
+	}
+
+	private Future<?> submitRange(
+			@NonNull final ExecutorService executor,
+			@NonNull final Semaphore pendingRanges,
+			@NonNull final List<ImportGroup<ImportGroupKey, ImportRecordType>> range,
+			@NonNull final Map<String, ImportWorkerStats> statsByWorker) throws InterruptedException
+	{
+		final Properties ctx = Env.copyCtx(getCtx());
+		final ILoggable workerLoggable = Loggables.synchronizedLoggable(loggable);
+
+		pendingRanges.acquire();
+		try
+		{
+			return executor.submit(() -> {
+				try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx);
+						final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(workerLoggable))
+				{
+					final ImportWorkerStats stats = statsByWorker.computeIfAbsent(Thread.currentThread().getName(), ImportWorkerStats::new);
+					importRange(range, stats);
+				}
+				finally
+				{
+					pendingRanges.release();
+				}
+			});
+		}
+		catch (final RuntimeException ex)
+		{
+			pendingRanges.release();
+			throw ex;
+		}
+	}
+
+	private void importRange(
+			@NonNull final List<ImportGroup<ImportGroupKey, ImportRecordType>> range,
+			@NonNull final ImportWorkerStats stats)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final IMutable<Object> stateHolder = new Mutable<>();
+		int countRecords = 0;
+		int countErrors = 0;
+
+		for (final ImportGroup<ImportGroupKey, ImportRecordType> importGroup : range)
+		{
+			countRecords += importGroup.getImportRecords().size();
+			try
+			{
+				trxManager.runInNewTrx(() -> importGroup(importGroup, stateHolder));
+			}
+			catch (final Exception ex)
+			{
+				// same as CancelChunkAndRollBack in sequential mode: the group's transaction was rolled back, now we flag its records
+				countErrors++;
+				trxManager.runInNewTrx(() -> markAsError(importGroup, ex));
+			}
+		}
+
+		stats.add(range.size(), countRecords, countErrors, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+	}
+
+	private static final class ImportWorkerStats
+	{
+		private final String workerName;
+		private int countGroups = 0;
+		private int countRecords = 0;
+		private int countErrors = 0;
+		private long durationMillis = 0;
+
+		private ImportWorkerStats(@NonNull final String workerName)
+		{
+			this.workerName = workerName;
+		}
+
+		public synchronized void add(final int countGroups, final int countRecords, final int countErrors, final long durationMillis)
+		{
+			this.countGroups += countGroups;
+			this.countRecords += countRecords;
+			this.countErrors += countErrors;
+			this.durationMillis += durationMillis;
+		}
+
+		@Override
+		public synchronized String toString()
+		{
+			final double recordsPerSecond = countRecords * 1000.0 / Math.max(durationMillis, 1);
+			return String.format("%s: %d groups, %d records, %d errors in %dms (%.1f records/s)",
+					workerName, countGroups, countRecords, countErrors, durationMillis, recordsPerSecond);
+		}
+	}
+
 	@VisibleForTesting
 	protected Iterator<ImportRecordType> retrieveRecordsToImport()
 	{
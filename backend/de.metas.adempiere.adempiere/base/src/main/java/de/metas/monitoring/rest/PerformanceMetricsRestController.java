@@ -0,0 +1,73 @@
+package de.metas.monitoring.rest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.metas.monitoring.adapter.metrics.DurationHistogramSnapshot;
+import de.metas.monitoring.adapter.metrics.PerformanceMetricsRegistry;
+import de.metas.util.GuavaCollectors;
+import lombok.NonNull;
+
+@RequestMapping(PerformanceMetricsRestController.ENDPOINT)
+@RestController
+public class PerformanceMetricsRestController
+{
+	public static final String ENDPOINT_API = "/api";
+	public static final String ENDPOINT = ENDPOINT_API + "/performanceMetrics";
+
+	private static final MediaType PROMETHEUS_TEXT_FORMAT = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+
+	private final PerformanceMetricsRegistry registry;
+
+	public PerformanceMetricsRestController(@NonNull final PerformanceMetricsRegistry registry)
+	{
+		this.registry = registry;
+	}
+
+	/**
+	 * Scrape endpoint, in Prometheus' text format.
+	 */
+	@GetMapping
+	public ResponseEntity<String> scrape()
+	{
+		return ResponseEntity.ok()
+				.contentType(PROMETHEUS_TEXT_FORMAT)
+				.body(registry.toPrometheusString());
+	}
+
+	@GetMapping("/summary")
+	public List<String> getSummary()
+	{
+		return registry.getSnapshots()
+				.stream()
+				.map(DurationHistogramSnapshot::toSummaryString)
+				.collect(GuavaCollectors.toImmutableList());
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.printing;
+
+import com.google.common.base.Stopwatch;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concatenates PDF documents into the given output stream, page by page, without keeping the source documents or the result in memory.
+ * <p>
+ * Each source document is released after its pages were copied and the output stream is flushed after every {@code flushEveryDocuments} documents.
+ * Source documents which are given as {@link InputStream}s are spooled to a temporary file and read from there on demand,
+ * so a big source document doesn't have to fit into memory either.
+ */
+public final class StreamingPdfConcatenator implements IAutoCloseable
+{
+	private static final transient Logger logger = LogManager.getLogger(StreamingPdfConcatenator.class);
+
+	private static final int DEFAULT_FlushEveryDocuments = 100;
+
+	private final OutputStream out;
+	private final int flushEveryDocuments;
+	private final Document document;
+	private final PdfCopy pdfCopy;
+	private boolean closed = false;
+
+	private final Stopwatch stopwatch = Stopwatch.createStarted();
+	private int documentsCount = 0;
+	private int pagesCount = 0;
+	private long maxUsedMemoryBytes = 0;
+
+	public StreamingPdfConcatenator(@NonNull final OutputStream out)
+	{
+		this(out, DEFAULT_FlushEveryDocuments);
+	}
+
+	public StreamingPdfConcatenator(@NonNull final OutputStream out, final int flushEveryDocuments)
+	{
+		this.out = out;
+		this.flushEveryDocuments = flushEveryDocuments > 0 ? flushEveryDocuments : DEFAULT_FlushEveryDocuments;
+
+		document = new Document();
+		try
+		{
+			pdfCopy = new PdfCopy(document, out);
+			pdfCopy.setCloseStream(false);
+		}
+		catch (final DocumentException e)
+		{
+			throw new AdempiereException(e);
+		}
+		document.open();
+	}
+
+	/**
+	 * Adds all pages of given PDF. The stream is consumed but not closed.
+	 *
+	 * @return number of pages added
+	 */
+	public int addDocument(@NonNull final InputStream pdfIn)
+	{
+		return addDocument(pdfIn, 1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Adds the given pages of given PDF. The stream is consumed but not closed.
+	 *
+	 * @param pageFrom first page to add (1 based)
+	 * @param pageTo   last page to add; if greater than the number of pages, all pages until the end of the document are added
+	 * @return number of pages added
+	 */
+	public int addDocument(@NonNull final InputStream pdfIn, final int pageFrom, final int pageTo)
+	{
+		Path tempFile = null;
+		try
+		{
+			tempFile = Files.createTempFile(StreamingPdfConcatenator.class.getSimpleName(), ".pdf");
+			Files.copy(pdfIn, tempFile, StandardCopyOption.REPLACE_EXISTING);
+
+			// partial reading: the PDF objects are read from file when they are needed
+			final PdfReader reader = new PdfReader(new RandomAccessFileOrArray(tempFile.toString(), false, true), null);
+			return addPages(reader, pageFrom, pageTo);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed adding PDF document", e);
+		}
+		finally
+		{
+			deleteTempFile(tempFile);
+		}
+	}
+
+	/**
+	 * @return number of pages added
+	 */
+	public int addDocument(@NonNull final byte[] pdfData)
+	{
+		return addDocument(pdfData, 1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @see #addDocument(InputStream, int, int)
+	 */
+	public int addDocument(@NonNull final byte[] pdfData, final int pageFrom, final int pageTo)
+	{
+		try
+		{
+			return addPages(new PdfReader(pdfData), pageFrom, pageTo);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed adding PDF document", e);
+		}
+	}
+
+	private int addPages(@NonNull final PdfReader reader, final int pageFrom, final int pageTo) throws IOException
+	{
+		if (closed)
+		{
+			reader.close();
+			throw new AdempiereException("Concatenator is already closed");
+		}
+
+		int pagesAdded = 0;
+		try
+		{
+			final int pageFromToUse = Math.max(pageFrom, 1);
+			final int pageToToUse = Math.min(pageTo, reader.getNumberOfPages());
+			for (int page = pageFromToUse; page <= pageToToUse; page++)
+			{
+				pdfCopy.addPage(pdfCopy.getImportedPage(reader, page));
+				pagesAdded++;
+			}
+
+			// write out the pages of this reader and release the reader's resources
+			pdfCopy.freeReader(reader);
+		}
+		catch (final DocumentException e)
+		{
+			throw new AdempiereException("Failed adding pages " + pageFrom + "-" + pageTo + " after " + pagesAdded + " pages", e);
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		documentsCount++;
+		pagesCount += pagesAdded;
+		updateMaxUsedMemory();
+
+		if (documentsCount % flushEveryDocuments == 0)
+		{
+			out.flush();
+			logger.debug("Flushed after {} documents: {}", documentsCount, getStats());
+		}
+
+		return pagesAdded;
+	}
+
+	private void updateMaxUsedMemory()
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		final long usedMemoryBytes = runtime.totalMemory() - runtime.freeMemory();
+		if (usedMemoryBytes > maxUsedMemoryBytes)
+		{
+			maxUsedMemoryBytes = usedMemoryBytes;
+		}
+	}
+
+	private static void deleteTempFile(final Path tempFile)
+	{
+		if (tempFile == null)
+		{
+			return;
+		}
+
+		try
+		{
+			Files.deleteIfExists(tempFile);
+		}
+		catch (final IOException e)
+		{
+			logger.warn("Failed deleting temporary file {}. Ignored.", tempFile, e);
+		}
+	}
+
+	/**
+	 * Finishes the PDF document. The underlying output stream is flushed but not closed.
+	 */
+	@Override
+	public void close()
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+
+		document.close();
+
+		stopwatch.stop();
+		logger.debug("Closed: {}", getStats());
+	}
+
+	public int getPagesCount()
+	{
+		return pagesCount;
+	}
+
+	public Stats getStats()
+	{
+		final Duration duration = Duration.ofMillis(stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		final long millis = Math.max(duration.toMillis(), 1);
+
+		return Stats.builder()
+				.documentsCount(documentsCount)
+				.pagesCount(pagesCount)
+				.duration(duration)
+				.pagesPerSecond(pagesCount * 1000.0 / millis)
+				.maxUsedMemoryBytes(maxUsedMemoryBytes)
+				.build();
+	}
+
+	@Value
+	@Builder
+	public static class Stats
+	{
+		int documentsCount;
+		int pagesCount;
+		@NonNull
+		Duration duration;
+		double pagesPerSecond;
+
+		/**
+		 * Highest used heap memory, sampled after each added document
+		 */
+		long maxUsedMemoryBytes;
+
+		@Override
+		public String toString()
+		{
+			return String.format("%d documents, %d pages in %s (%.1f pages/sec), max used memory %d MB",
+					documentsCount, pagesCount, duration, pagesPerSecond, maxUsedMemoryBytes / 1024 / 1024);
+		}
+	}
+}
@@ -10,6 +10,9 @@ import org.adempiere.ad.expression.exceptions.ExpressionCompileException;
 import org.compiere.util.CtxName;
 import org.compiere.util.CtxNames;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /*
  * #%L
  * de.metas.adempiere.adempiere.base
@@ -48,6 +51,14 @@ public abstract class AbstractChunkBasedExpressionCompiler<V, ET extends IExpres
 	protected static final String PARAMETER_DOUBLE_TAG = PARAMETER_TAG + PARAMETER_TAG;
 
 	// NOTE to developer: make sure there are no variables here since we are using a shared instance
+	// (the thread-safe interning cache below is the only exception)
+
+	/**
+	 * Expressions compiled without a context, interned by their expression string. Compiled expressions are immutable so they can be shared.
+	 */
+	private final Cache<String, ET> compiledExpressionsWithoutContext = CacheBuilder.newBuilder()
+			.maximumSize(20_000)
+			.build();
 
 	protected AbstractChunkBasedExpressionCompiler()
 	{
@@ -72,6 +83,26 @@ public abstract class AbstractChunkBasedExpressionCompiler<V, ET extends IExpres
 			return getNullExpression();
 		}
 
+		// The result depends on the context only when there is one
+		if (context == null || context == ExpressionContext.EMPTY)
+		{
+			final ET compiledExpression = compiledExpressionsWithoutContext.getIfPresent(expressionStr);
+			if (compiledExpression != null)
+			{
+				return compiledExpression;
+			}
+
+			final ET newCompiledExpression = compile0(context, expressionStr);
+			compiledExpressionsWithoutContext.put(expressionStr, newCompiledExpression);
+			return newCompiledExpression;
+		}
+
+		return compile0(context, expressionStr);
+	}
+
+	private ET compile0(final ExpressionContext context, final String expressionStr)
+	{
+
 		String inStr = expressionStr;
 		int i = inStr.indexOf(PARAMETER_TAG);
 		if (i < 0)
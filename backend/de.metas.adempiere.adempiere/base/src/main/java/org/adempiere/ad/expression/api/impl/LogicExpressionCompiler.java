@@ -37,10 +37,13 @@ import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.Env;
 
 import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import de.metas.organization.OrgId;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.Value;
 
 public class LogicExpressionCompiler implements ILogicExpressionCompiler
 {
@@ -52,6 +55,13 @@ public class LogicExpressionCompiler implements ILogicExpressionCompiler
 
 	private static final String TUPLE_OPERATORS = Joiner.on("").join(LogicTuple.OPERATORS);
 
+	/**
+	 * Compiled expressions are immutable, so we intern them: the same logic (e.g. AD_Field.DisplayLogic) is compiled only once and all its users share the same instance.
+	 */
+	private final Cache<CompiledExpressionKey, ILogicExpression> compiledExpressions = CacheBuilder.newBuilder()
+			.maximumSize(20_000)
+			.build();
+
 	private LogicExpressionCompiler()
 	{
 	}
@@ -77,6 +87,22 @@ public class LogicExpressionCompiler implements ILogicExpressionCompiler
 	{
 		Check.assume(!Check.isEmpty(expressionStr, true), "expressionStr is not empty");
 
+		final boolean useOperatorPrecedence = isUseOperatorPrecedence();
+		final CompiledExpressionKey key = CompiledExpressionKey.of(expressionStr, useOperatorPrecedence);
+		final ILogicExpression compiledExpression = compiledExpressions.getIfPresent(key);
+		if (compiledExpression != null)
+		{
+			return compiledExpression;
+		}
+
+		final ILogicExpression newCompiledExpression = compile0(expressionStr, useOperatorPrecedence);
+		compiledExpressions.put(key, newCompiledExpression);
+		return newCompiledExpression;
+	}
+
+	private ILogicExpression compile0(final String expressionStr, final boolean useOperatorPrecedence)
+	{
+
 		// NOTE: we shall not trim nor replace all whitespaces (i.e. replaceAll(" ", "")) from expressionStr because
 		// there can be values which really need to contain white spaces
 		final StringTokenizer st = new StringTokenizer(expressionStr, LOGIC_OPERATORS, true);
@@ -100,10 +126,10 @@ public class LogicExpressionCompiler implements ILogicExpressionCompiler
 					+ "\n Allowed logic operators are: " + LOGIC_OPERATORS);
 		}
 
-		return compile(tokens.iterator(), false);
+		return compile(tokens.iterator(), false, useOperatorPrecedence);
 	}
 
-	private ILogicExpression compile(final Iterator<String> tokens, final boolean goingDown)
+	private ILogicExpression compile(final Iterator<String> tokens, final boolean goingDown, final boolean useOperatorPrecedence)
 	{
 		LogicExpressionBuilder result = new LogicExpressionBuilder();
 		while (tokens.hasNext())
@@ -114,7 +140,7 @@ public class LogicExpressionCompiler implements ILogicExpressionCompiler
 			// Sub-expression start
 			if ("(".equals(token))
 			{
-				final ILogicExpression child = compile(tokens, false);
+				final ILogicExpression child = compile(tokens, false, useOperatorPrecedence);
 				result.addChild(child);
 			}
 			//
@@ -128,15 +154,15 @@ public class LogicExpressionCompiler implements ILogicExpressionCompiler
 				}
 				else
 				{
-					if (isUseOperatorPrecedence() && AbstractLogicExpression.LOGIC_OPERATOR_AND.equals(operator))
+					if (useOperatorPrecedence && AbstractLogicExpression.LOGIC_OPERATOR_AND.equals(operator))
 					{
 						// If precedence is enabled, & nodes are sent down the tree, | nodes up.
-						final ILogicExpression right = LogicExpressionBuilder.build(result.getRight(), operator, compile(tokens, false));
+						final ILogicExpression right = LogicExpressionBuilder.build(result.getRight(), operator, compile(tokens, false, useOperatorPrecedence));
 						result.setRight(right);
 					}
 					else
 					{
-						result = result.buildAndCompose(operator, compile(tokens, true));
+						result = result.buildAndCompose(operator, compile(tokens, true, useOperatorPrecedence));
 					}
 				}
 			}
@@ -201,4 +227,11 @@ public class LogicExpressionCompiler implements ILogicExpressionCompiler
 
 		return false;
 	}
+
+	@Value(staticConstructor = "of")
+	private static class CompiledExpressionKey
+	{
+		String expressionStr;
+		boolean useOperatorPrecedence;
+	}
 }
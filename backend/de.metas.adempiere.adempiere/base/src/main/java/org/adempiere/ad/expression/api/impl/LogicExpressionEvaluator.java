@@ -4,6 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableMap;
 import de.metas.logging.LogManager;
+import lombok.NonNull;
 import org.adempiere.ad.expression.api.ConstantLogicExpression;
 import org.adempiere.ad.expression.api.ILogicExpression;
 import org.adempiere.ad.expression.api.ILogicExpressionEvaluator;
@@ -231,16 +232,14 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 			{
 				final LogicTuple tuple = (LogicTuple)expr;
 
-				final String firstEval = ctx.getValue(tuple.getOperand1());
-				//noinspection StringEquality // we're using string == string instead of string.equals(string)
-				if (firstEval == VALUE_NotFound)
+				final LogicTupleOperandValue firstEval = ctx.getOperandValue(tuple.getOperand1(), tuple.getConstantOperandValue1());
+				if (firstEval == null)
 				{
 					logger.trace("tuple {} => null because first operand could not be evaluated", expr);
 					return null;
 				}
-				final String secondEval = ctx.getValue(tuple.getOperand2());
-				//noinspection StringEquality // we're using string == string instead of string.equals(string)
-				if (secondEval == VALUE_NotFound)
+				final LogicTupleOperandValue secondEval = ctx.getOperandValue(tuple.getOperand2(), tuple.getConstantOperandValue2());
+				if (secondEval == null)
 				{
 					logger.trace("tuple {} => null because second operand could not be evaluated", expr);
 					return null;
@@ -248,7 +247,7 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 
 				final String operator = tuple.getOperator();
 				final boolean result = evaluateLogicTuple(firstEval, operator, secondEval);
-				logger.trace("tuple {} => \"{}\" {} \"{}\" => {}", expr, firstEval, operator, secondEval, result);
+				logger.trace("tuple {} => \"{}\" {} \"{}\" => {}", expr, firstEval.getValueStr(), operator, secondEval.getValueStr(), result);
 
 				return result;
 			}
@@ -317,14 +316,22 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 	 */
 	static boolean evaluateLogicTuple(@Nullable final String valueObj1, final String operand, @Nullable final String valueObj2)
 	{
-		if (valueObj1 == null || operand == null || valueObj2 == null)
+		return evaluateLogicTuple(LogicTupleOperandValue.of(valueObj1), operand, LogicTupleOperandValue.of(valueObj2));
+	}
+
+	/**
+	 * Same as {@link #evaluateLogicTuple(String, String, String)}, but works on values which were already unquoted and converted to numbers (where possible).
+	 */
+	private static boolean evaluateLogicTuple(@NonNull final LogicTupleOperandValue value1, final String operand, @NonNull final LogicTupleOperandValue value2)
+	{
+		if (value1.isNull() || operand == null || value2.isNull())
 		{
 			return false;
 		}
 
 		boolean stringCaseAlreadyChecked = false;
-		final String value1Str = stripQuotes(valueObj1);
-		final String value2Str = stripQuotes(valueObj2);
+		final String value1Str = value1.getValueStr();
+		final String value2Str = value2.getValueStr();
 
 		//
 		// Try comparing as Strings first for Equals case (short circuit)
@@ -340,19 +347,11 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 		//
 		// Try comparing BigDecimals
 		// If both values are numbers there's no need to retry string comparison
-		try
+		final BigDecimal value1BD = value1.getValueBD();
+		final BigDecimal value2BD = value2.getValueBD();
+		if (value1BD != null && value2BD != null)
 		{
-			if (isPossibleNumber(value1Str)
-					&& isPossibleNumber(value2Str))
-			{
-				final BigDecimal value1BD = new BigDecimal(value1Str);
-				final BigDecimal value2BD = new BigDecimal(value2Str);
-				return evaluateLogicTupleForComparables(value1BD, operand, value2BD);
-			}
-		}
-		catch (final Exception ex)
-		{
-			logger.trace("Failed extracting BigDecimals but going forward (value1Str={}, value2Str={})", value1Str, value2Str, ex);
+			return evaluateLogicTupleForComparables(value1BD, operand, value2BD);
 		}
 
 		//
@@ -573,6 +572,29 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 					.toString();
 		}
 
+		/**
+		 * Gets the operand's value, prepared for comparison.
+		 *
+		 * @param constantOperandValue the already prepared value, in case the operand is a constant
+		 * @return value or {@code null} if the operand is a parameter which was not found
+		 */
+		@Nullable
+		public LogicTupleOperandValue getOperandValue(final Object operand, @Nullable final LogicTupleOperandValue constantOperandValue) throws ExpressionEvaluationException
+		{
+			if (constantOperandValue != null)
+			{
+				return constantOperandValue;
+			}
+
+			final String value = getValue(operand);
+			//noinspection StringEquality // we're using string == string instead of string.equals(string)
+			if (value == VALUE_NotFound)
+			{
+				return null;
+			}
+			return LogicTupleOperandValue.of(value);
+		}
+
 		/**
 		 * Gets parameter value from context
 		 *
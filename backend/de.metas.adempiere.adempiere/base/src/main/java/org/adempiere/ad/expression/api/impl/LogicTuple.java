@@ -68,6 +68,10 @@ import javax.annotation.Nullable;
 
 	private final String operator;
 
+	/** Constant operands, already prepared for comparison; {@code null} if the operand is a parameter */
+	private final LogicTupleOperandValue constantOperandValue1;
+	private final LogicTupleOperandValue constantOperandValue2;
+
 	private final Boolean constantValue;
 
 	private ImmutableSet<CtxName> _parameters; // lazy
@@ -90,6 +94,8 @@ import javax.annotation.Nullable;
 		this.isParameter1 = operand1 instanceof CtxName;
 		this.operand2 = operand2;
 		this.isParameter2 = operand2 instanceof CtxName;
+		this.constantOperandValue1 = isParameter1 ? null : LogicTupleOperandValue.ofConstantOperand(operand1.toString());
+		this.constantOperandValue2 = isParameter2 ? null : LogicTupleOperandValue.ofConstantOperand(operand2.toString());
 
 		this.constantValue = constantValue;
 
@@ -108,6 +114,8 @@ import javax.annotation.Nullable;
 		operand2 = from.operand2;
 		isParameter2 = from.isParameter2;
 		operator = from.operator;
+		constantOperandValue1 = from.constantOperandValue1;
+		constantOperandValue2 = from.constantOperandValue2;
 
 		this.constantValue = constantValue;
 	}
@@ -234,6 +242,24 @@ import javax.annotation.Nullable;
 		return operand2;
 	}
 
+	/**
+	 * @return operand1 prepared for comparison or {@code null} if operand1 is a parameter
+	 */
+	@Nullable
+	/* package */ LogicTupleOperandValue getConstantOperandValue1()
+	{
+		return constantOperandValue1;
+	}
+
+	/**
+	 * @return operand2 prepared for comparison or {@code null} if operand2 is a parameter
+	 */
+	@Nullable
+	/* package */ LogicTupleOperandValue getConstantOperandValue2()
+	{
+		return constantOperandValue2;
+	}
+
 	/**
 	 * @return operator; never returns null
 	 */
@@ -0,0 +1,89 @@
+package org.adempiere.ad.expression.api.impl;
+
+import java.math.BigDecimal;
+
+import javax.annotation.Nullable;
+
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A {@link LogicTuple} operand value, prepared for comparison: unquoted and, if it looks like a number, already converted to {@link BigDecimal}.
+ * <p>
+ * For constant operands it is computed once, when the tuple is created, so evaluating the tuple does not have to parse it again.
+ */
+@Value
+/* package */ class LogicTupleOperandValue
+{
+	public static final LogicTupleOperandValue NULL = new LogicTupleOperandValue(null, null);
+
+	/**
+	 * @param operand constant operand, as it was written in the expression
+	 */
+	public static LogicTupleOperandValue ofConstantOperand(final String operand)
+	{
+		// NOTE: we can trim whitespaces in this case; if user really wants to have spaces at the beginning/ending of the string, he/she shall quote it
+		return of(LogicExpressionEvaluator.stripQuotes(operand.trim()));
+	}
+
+	public static LogicTupleOperandValue of(@Nullable final String value)
+	{
+		if (value == null)
+		{
+			return NULL;
+		}
+
+		final String valueStr = LogicExpressionEvaluator.stripQuotes(value);
+		return new LogicTupleOperandValue(valueStr, toBigDecimalOrNull(valueStr));
+	}
+
+	@Nullable
+	private static BigDecimal toBigDecimalOrNull(final String valueStr)
+	{
+		if (!LogicExpressionEvaluator.isPossibleNumber(valueStr))
+		{
+			return null;
+		}
+
+		try
+		{
+			return new BigDecimal(valueStr);
+		}
+		catch (final NumberFormatException ex)
+		{
+			return null;
+		}
+	}
+
+	@Nullable
+	String valueStr;
+
+	@Nullable
+	BigDecimal valueBD;
+
+	public boolean isNull()
+	{
+		return valueStr == null;
+	}
+}
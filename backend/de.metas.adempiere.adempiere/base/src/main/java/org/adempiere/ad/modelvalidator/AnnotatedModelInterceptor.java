@@ -1,6 +1,5 @@
 package org.adempiere.ad.modelvalidator;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Set;
@@ -13,13 +12,16 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
 import org.compiere.model.I_AD_Client;
 import org.compiere.model.ModelValidator;
+import org.compiere.model.PO;
 import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Throwables;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
@@ -42,6 +44,9 @@ import lombok.NonNull;
 	private final transient Object annotatedObject;
 	private ClientId clientId;
 
+	/** Dispatch table: pointcuts indexed by {@link PointcutKey} and timing */
+	private final transient ImmutableMap<PointcutKey, ImmutableListMultimap<Integer, Pointcut>> pointcutsByKeyAndTiming;
+
 	/**
 	 * @param annotatedObject
 	 */
@@ -50,6 +55,31 @@ import lombok.NonNull;
 		this.annotatedObject = annotatedObject;
 		this.descriptor = new AnnotatedModelInterceptorDescriptorBuilder(annotatedObject.getClass())
 				.build();
+		this.pointcutsByKeyAndTiming = indexPointcutsByTiming(descriptor);
+	}
+
+	private static ImmutableMap<PointcutKey, ImmutableListMultimap<Integer, Pointcut>> indexPointcutsByTiming(final AnnotatedModelInterceptorDescriptor descriptor)
+	{
+		final ImmutableMap.Builder<PointcutKey, ImmutableListMultimap<Integer, Pointcut>> result = ImmutableMap.builder();
+		for (final PointcutKey key : descriptor.getPointcutKeys())
+		{
+			final ImmutableListMultimap.Builder<Integer, Pointcut> pointcutsByTiming = ImmutableListMultimap.builder();
+			for (final Pointcut pointcut : descriptor.getPointcuts(key))
+			{
+				for (final Integer timing : pointcut.getTimings())
+				{
+					pointcutsByTiming.put(timing, pointcut);
+				}
+			}
+			result.put(key, pointcutsByTiming.build());
+		}
+		return result.build();
+	}
+
+	private ImmutableList<Pointcut> getPointcuts(final PointcutKey key, final int timing)
+	{
+		final ImmutableListMultimap<Integer, Pointcut> pointcutsByTiming = pointcutsByKeyAndTiming.get(key);
+		return pointcutsByTiming != null ? pointcutsByTiming.get(timing) : ImmutableList.of();
 	}
 
 	@Override
@@ -150,6 +180,12 @@ import lombok.NonNull;
 		// nothing
 	}
 
+	@Override
+	public boolean isModelChangeHandled(@NonNull final String tableName, @NonNull final ModelChangeType changeType)
+	{
+		return !getPointcuts(PointcutKey.of(tableName, PointcutType.ModelChange), changeType.toInt()).isEmpty();
+	}
+
 	@Override
 	public final void onModelChange(final Object model, final ModelChangeType changeType)
 	{
@@ -166,7 +202,7 @@ import lombok.NonNull;
 	{
 		final String tableName = InterfaceWrapperHelper.getModelTableName(po);
 		final PointcutKey key = PointcutKey.of(tableName, type);
-		final ImmutableSet<Pointcut> pointcuts = descriptor.getPointcuts(key);
+		final ImmutableList<Pointcut> pointcuts = getPointcuts(key, timing);
 		if (pointcuts.isEmpty())
 		{
 			return;
@@ -180,14 +216,6 @@ import lombok.NonNull;
 
 	private void execute(final Pointcut pointcut, final Object po, final int timing)
 	{
-		//
-		// Check timings
-		final Set<Integer> timings = pointcut.getTimings();
-		if (!timings.contains(timing))
-		{
-			return;
-		}
-
 		//
 		// Check if UserAction required (i.e. user manually changed this record from a window)
 		if (pointcut.isOnlyIfUIAction())
@@ -216,11 +244,10 @@ import lombok.NonNull;
 		// Else, does not make sense.
 		if (isTimingChange(timing))
 		{
-			final Set<String> columnsToCheckForChanges = pointcut.getColumnNamesToCheckForChanges();
-			if (!columnsToCheckForChanges.isEmpty())
+			if (!pointcut.getColumnNamesToCheckForChanges().isEmpty())
 			{
 				// none of our columns had changed; skip
-				if (!InterfaceWrapperHelper.isValueChanged(po, columnsToCheckForChanges))
+				if (!isAnyColumnToCheckChanged(pointcut, po))
 				{
 					return;
 				}
@@ -257,6 +284,25 @@ import lombok.NonNull;
 		}
 	}
 
+	private static boolean isAnyColumnToCheckChanged(final Pointcut pointcut, final Object po)
+	{
+		final PO strictPO = InterfaceWrapperHelper.getStrictPO(po);
+		if (strictPO == null)
+		{
+			return InterfaceWrapperHelper.isValueChanged(po, pointcut.getColumnNamesToCheckForChanges());
+		}
+
+		// for POs, check by column index; that's much cheaper than looking up each column name
+		for (final int columnIndex : pointcut.getColumnIndexesToCheckForChanges(strictPO.getPOInfo()))
+		{
+			if (strictPO.is_ValueChanged(columnIndex))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@VisibleForTesting
 	private final void executeNow(
 			@NonNull final Object po,
@@ -302,26 +348,10 @@ import lombok.NonNull;
 	private void executeNow0(
 			@NonNull final Object model,
 			@NonNull final Pointcut pointcut,
-			final int timing) throws IllegalAccessException, InvocationTargetException
+			final int timing) throws Exception
 	{
-		final Method method = pointcut.getMethod();
-
-		// Make sure the method is accessible
-		if (!method.isAccessible())
-		{
-			method.setAccessible(true);
-		}
-
 		final Stopwatch stopwatch = Stopwatch.createStarted();
-		if (pointcut.isMethodRequiresTiming())
-		{
-			final Object timingParam = pointcut.convertToMethodTimingParameterType(timing);
-			method.invoke(annotatedObject, model, timingParam);
-		}
-		else
-		{
-			method.invoke(annotatedObject, model);
-		}
+		pointcut.invoke(annotatedObject, model, timing);
 
 		logger.trace("Executed in {}: {} (timing={}) on {}", stopwatch, pointcut, timing, model);
 	}
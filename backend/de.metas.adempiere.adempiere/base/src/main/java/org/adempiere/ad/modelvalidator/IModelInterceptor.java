@@ -61,6 +61,16 @@ public interface IModelInterceptor
 		// does nothing by default
 	}
 
+	/**
+	 * Called by the engine to build its dispatch table, so that it won't call {@link #onModelChange(Object, ModelChangeType)} for nothing.
+	 *
+	 * @return false if this interceptor is known to do nothing for given table and change type
+	 */
+	default boolean isModelChangeHandled(final String tableName, final ModelChangeType changeType)
+	{
+		return true;
+	}
+
 	/**
 	 * Model Change of a monitored Table. Called after PO.beforeSave/PO.beforeDelete when you called addModelChange for the table
 	 *
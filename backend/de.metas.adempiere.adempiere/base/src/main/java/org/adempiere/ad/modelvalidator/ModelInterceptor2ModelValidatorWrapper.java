@@ -93,6 +93,14 @@ public final class ModelInterceptor2ModelValidatorWrapper implements ModelValida
 		return interceptor.getAD_Client_ID();
 	}
 
+	/**
+	 * @see IModelInterceptor#isModelChangeHandled(String, ModelChangeType)
+	 */
+	public final boolean isModelChangeHandled(final String tableName, final ModelChangeType changeType)
+	{
+		return interceptor.isModelChangeHandled(tableName, changeType);
+	}
+
 	@Override
 	public final String modelChange(final PO po, final int changeTypeCode) throws Exception
 	{
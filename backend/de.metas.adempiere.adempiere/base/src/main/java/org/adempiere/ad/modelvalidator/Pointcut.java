@@ -22,12 +22,16 @@ package org.adempiere.ad.modelvalidator;
  * #L%
  */
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import org.adempiere.ad.service.IDeveloperModeBL;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.EqualsBuilder;
+import org.compiere.model.POInfo;
 
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableSet;
@@ -35,9 +39,11 @@ import com.google.common.primitives.Ints;
 
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Value;
 
 @Getter
 /* package */final class Pointcut implements Comparable<Pointcut>
@@ -52,6 +58,14 @@ import lombok.NonNull;
 	private final Class<?> methodTimingParameterType;
 	private final ImmutableSet<String> columnNamesToCheckForChanges;
 
+	/** {@link #method} adapted to {@code (Object annotatedObject, Object model[, Object timing])void} */
+	@Getter(AccessLevel.NONE)
+	private final MethodHandle methodHandle;
+
+	/** Indexes of {@link #columnNamesToCheckForChanges}, computed on first use for the given {@link POInfo} */
+	@Getter(AccessLevel.NONE)
+	private volatile ColumnIndexes columnIndexesToCheckForChanges;
+
 	private final boolean onlyIfUIAction;
 	private final boolean skipIfCopying;
 
@@ -102,6 +116,29 @@ import lombok.NonNull;
 				ignoreColumnNames);
 
 		this.methodTimingParameterType = extractMethodTimingParameterType(method);
+		this.methodHandle = createMethodHandle(method);
+	}
+
+	private static MethodHandle createMethodHandle(final Method method)
+	{
+		// Make sure the method is accessible
+		if (!method.isAccessible())
+		{
+			method.setAccessible(true);
+		}
+
+		try
+		{
+			final MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+			final MethodType genericType = method.getParameterCount() == 1
+					? MethodType.methodType(void.class, Object.class, Object.class)
+					: MethodType.methodType(void.class, Object.class, Object.class, Object.class);
+			return methodHandle.asType(genericType);
+		}
+		catch (final IllegalAccessException e)
+		{
+			throw new AdempiereException("Cannot access " + method, e);
+		}
 	}
 
 	private static Class<?> extractModelClass(final Method method, final Class<?> providedModelClass)
@@ -295,6 +332,72 @@ import lombok.NonNull;
 		return methodTimingParameterType != null;
 	}
 
+	/**
+	 * Invokes the pointcut's method.
+	 *
+	 * @param annotatedObject the interceptor instance which declares this pointcut
+	 * @param model the model, already wrapped to {@link #getModelClass()}
+	 * @throws Exception whatever the pointcut's method threw; {@link Error}s are propagated as they are
+	 */
+	public void invoke(
+			@NonNull final Object annotatedObject,
+			@NonNull final Object model,
+			final int timing) throws Exception
+	{
+		try
+		{
+			if (methodTimingParameterType != null)
+			{
+				final Object timingParam = convertToMethodTimingParameterType(timing);
+				methodHandle.invokeExact(annotatedObject, model, timingParam);
+			}
+			else
+			{
+				methodHandle.invokeExact(annotatedObject, model);
+			}
+		}
+		catch (final Exception | Error e)
+		{
+			throw e;
+		}
+		catch (final Throwable e)
+		{
+			// shall not happen, because every Throwable is either an Exception or an Error
+			throw new AdempiereException("Failed invoking " + method, e);
+		}
+	}
+
+	/**
+	 * @return indexes of {@link #getColumnNamesToCheckForChanges()} in given {@link POInfo}; columns which are not part of the table are skipped
+	 */
+	public int[] getColumnIndexesToCheckForChanges(@NonNull final POInfo poInfo)
+	{
+		ColumnIndexes columnIndexes = this.columnIndexesToCheckForChanges;
+		if (columnIndexes == null || columnIndexes.getPoInfo() != poInfo)
+		{
+			// NOTE: POInfo instances are cached, so we will recompute the indexes only if the table's POInfo was reloaded
+			columnIndexes = this.columnIndexesToCheckForChanges = ColumnIndexes.of(poInfo, columnNamesToCheckForChanges);
+		}
+		return columnIndexes.getIndexes();
+	}
+
+	@Value
+	private static class ColumnIndexes
+	{
+		POInfo poInfo;
+		int[] indexes;
+
+		static ColumnIndexes of(final POInfo poInfo, final ImmutableSet<String> columnNames)
+		{
+			return new ColumnIndexes(
+					poInfo,
+					columnNames.stream()
+							.mapToInt(poInfo::getColumnIndex)
+							.filter(index -> index >= 0)
+							.toArray());
+		}
+	}
+
 	public Object convertToMethodTimingParameterType(final int timing)
 	{
 		if (methodTimingParameterType == null)
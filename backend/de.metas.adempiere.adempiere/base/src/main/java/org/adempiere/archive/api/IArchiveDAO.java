@@ -82,6 +82,15 @@ public interface IArchiveDAO extends ISingletonService
 
 	<T> Stream<AdArchive> streamArchivesForFilter(IQueryFilter<T> outboundLogFilter, Class<T> objectClass);
 
+	/**
+	 * Like {@link #streamArchivesForFilter(IQueryFilter, Class)}, but returns the {@code AD_Archive} records instead of copying their binary data into {@link AdArchive}s.
+	 * <p>
+	 * NOTE: the records are loaded completely, so for archives which are stored in the database, each record still holds its {@code BinaryData}.
+	 * The stream is lazy though, so when the records are consumed one by one (e.g. with {@link IArchiveBL#getBinaryDataAsStream(I_AD_Archive)}),
+	 * only the current archive is kept in memory and not all of them.
+	 */
+	<T> Stream<I_AD_Archive> streamArchiveRecordsForFilter(IQueryFilter<T> outboundLogFilter, Class<T> objectClass);
+
 	void updatePrintedRecords(ImmutableSet<ArchiveId> ids, UserId userId);
 
 	<T extends I_AD_Archive> T retrieveArchive(@NonNull ArchiveId archiveId, @NonNull Class<T> modelClass);
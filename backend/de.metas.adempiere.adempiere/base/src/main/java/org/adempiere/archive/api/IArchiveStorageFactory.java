@@ -40,7 +40,11 @@ public interface IArchiveStorageFactory extends ISingletonService
 	enum StorageType
 	{
 		Database("DB"),
-		Filesystem("FS");
+		Filesystem("FS"),
+		/**
+		 * Deduplicated, hash keyed files; see {@link org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage}
+		 */
+		ContentAddressed("CA");
 
 		@Getter
 		private final String code;
@@ -151,6 +151,13 @@ public class ArchiveDAO implements IArchiveDAO
 
 	@Override
 	public <T> Stream<AdArchive> streamArchivesForFilter(@NonNull final IQueryFilter<T> outboundLogFilter, final Class<T> objectClass)
+	{
+		return streamArchiveRecordsForFilter(outboundLogFilter, objectClass)
+				.map(arch -> AdArchive.builder().id(ArchiveId.ofRepoId(arch.getAD_Archive_ID())).archiveData(archiveBL.getBinaryData(arch)).build());
+	}
+
+	@Override
+	public <T> Stream<I_AD_Archive> streamArchiveRecordsForFilter(@NonNull final IQueryFilter<T> outboundLogFilter, final Class<T> objectClass)
 	{
 		final IQueryBuilder<T> queryBuilder = queryBL.createQueryBuilder(objectClass)
 				.addOnlyActiveRecordsFilter().filter(outboundLogFilter);
@@ -159,8 +166,7 @@ public class ArchiveDAO implements IArchiveDAO
 				.iterateAndStream()
 				.map(log -> retrieveLastArchives(Env.getCtx(), TableRecordReference.ofReferenced(log), QueryLimit.ONE).stream().findFirst())
 				.filter(Optional::isPresent)
-				.map(Optional::get)
-				.map(arch -> AdArchive.builder().id(ArchiveId.ofRepoId(arch.getAD_Archive_ID())).archiveData(archiveBL.getBinaryData(arch)).build());
+				.map(Optional::get);
 	}
 
 	@Override
@@ -29,11 +29,13 @@ import lombok.NonNull;
 import lombok.Value;
 import org.adempiere.archive.api.IArchiveStorageFactory;
 import org.adempiere.archive.spi.IArchiveStorage;
+import org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage;
 import org.adempiere.archive.spi.impl.DBArchiveStorage;
 import org.adempiere.archive.spi.impl.FilesystemArchiveStorage;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ClientId;
 import org.adempiere.service.IClientDAO;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.reflect.ClassReference;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.I_AD_Client;
@@ -48,6 +50,12 @@ public class ArchiveStorageFactory implements IArchiveStorageFactory
 {
 	private static final Logger logger = LogManager.getLogger(ArchiveStorageFactory.class);
 	private final IClientDAO clientDAO = Services.get(IClientDAO.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	/**
+	 * If enabled, new archives of tenants which don't store their archives on file system are stored using the {@link StorageType#ContentAddressed} storage.
+	 */
+	private static final String SYSCONFIG_StoreArchiveContentAddressed = "org.adempiere.archive.StoreArchiveContentAddressed";
 
 	@Value(staticConstructor = "of")
 	private static class ArchiveStorageClassKey
@@ -73,6 +81,7 @@ public class ArchiveStorageFactory implements IArchiveStorageFactory
 		// Register defaults
 		registerArchiveStorage(StorageType.Database, AccessMode.ALL, DBArchiveStorage.class);
 		registerArchiveStorage(StorageType.Filesystem, AccessMode.SERVER, FilesystemArchiveStorage.class);
+		registerArchiveStorage(StorageType.ContentAddressed, AccessMode.SERVER, ContentAddressedArchiveStorage.class);
 	}
 
 	@Override
@@ -116,6 +125,10 @@ public class ArchiveStorageFactory implements IArchiveStorageFactory
 		{
 			return StorageType.Filesystem;
 		}
+		else if (sysConfigBL.getBooleanValue(SYSCONFIG_StoreArchiveContentAddressed, false, adClientId.getRepoId()))
+		{
+			return StorageType.ContentAddressed;
+		}
 		else
 		{
 			return StorageType.Database;
@@ -128,6 +141,10 @@ public class ArchiveStorageFactory implements IArchiveStorageFactory
 		{
 			return StorageType.Filesystem;
 		}
+		else if (ContentAddressedArchiveStorage.isContentAddressedReference(archive.getBinaryData()))
+		{
+			return StorageType.ContentAddressed;
+		}
 		else
 		{
 			return StorageType.Database;
@@ -0,0 +1,71 @@
+package org.adempiere.archive.process;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import de.metas.process.JavaProcess;
+import de.metas.process.RunOutOfTrx;
+import de.metas.util.Services;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.archive.api.IArchiveStorageFactory;
+import org.adempiere.archive.api.IArchiveStorageFactory.StorageType;
+import org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+
+import java.time.Duration;
+
+/**
+ * Deletes the files of the current tenant's {@link ContentAddressedArchiveStorage} which were written for archives whose transactions were rolled back,
+ * and which are not referenced by any other archive.
+ * <p>
+ * Only files which are pending for longer than configured in AD_SysConfig {@value #SYSCONFIG_MinPendingHours} are considered,
+ * so the transactions which are still running are not affected.
+ */
+public class AD_Archive_ContentAddressedStorage_GC extends JavaProcess
+{
+	private final IArchiveStorageFactory archiveStorageFactory = Services.get(IArchiveStorageFactory.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	private static final String SYSCONFIG_MinPendingHours = "org.adempiere.archive.process.AD_Archive_ContentAddressedStorage_GC.MinPendingHours";
+
+	@Override
+	@RunOutOfTrx
+	protected String doIt()
+	{
+		final Duration minAge = Duration.ofHours(sysConfigBL.getIntValue(SYSCONFIG_MinPendingHours, 24));
+		final ContentAddressedArchiveStorage storage = (ContentAddressedArchiveStorage)archiveStorageFactory.getArchiveStorage(getCtx(), StorageType.ContentAddressed);
+
+		final int countDeleted = storage.collectGarbage(AD_Archive_ContentAddressedStorage_GC::isReferenced, minAge);
+
+		return "@Deleted@ #" + countDeleted;
+	}
+
+	/**
+	 * NOTE: there is no index on BinaryData, but this is only checked for the few files of rolled back transactions.
+	 */
+	private static boolean isReferenced(final String reference)
+	{
+		final String sql = "SELECT 1 FROM AD_Archive WHERE IsFileSystem='N' AND BinaryData=convert_to(?, 'UTF8') LIMIT 1";
+		return DB.getSQLValueEx(ITrx.TRXNAME_None, sql, reference) > 0;
+	}
+}
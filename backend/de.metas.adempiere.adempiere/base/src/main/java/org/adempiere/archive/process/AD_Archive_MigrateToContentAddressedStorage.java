@@ -0,0 +1,140 @@
+package org.adempiere.archive.process;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import de.metas.organization.OrgId;
+import de.metas.process.JavaProcess;
+import de.metas.process.RunOutOfTrx;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.archive.api.IArchiveStorageFactory;
+import org.adempiere.archive.api.IArchiveStorageFactory.StorageType;
+import org.adempiere.archive.spi.IArchiveStorage;
+import org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.I_AD_Archive;
+
+import java.util.List;
+
+/**
+ * Moves the data of the current tenant's database archives to the {@link ContentAddressedArchiveStorage}.
+ * <p>
+ * Each archive is saved on its own, so the process can be scheduled and interrupted at any time; archives which were already migrated are skipped.
+ * One run migrates at most as many archives as configured in AD_SysConfig {@value #SYSCONFIG_MaxArchivesPerRun}.
+ * <p>
+ * The highest AD_Archive_ID up to which all archives were migrated is remembered in the tenant's AD_SysConfig {@value #SYSCONFIG_LastMigratedArchiveId},
+ * and the next run continues from there. It's not moved past an archive which failed, so that archive is tried again in the next run.
+ * To migrate from the beginning again (e.g. because some archives were committed after the process has passed their IDs), set it to 0.
+ */
+public class AD_Archive_MigrateToContentAddressedStorage extends JavaProcess
+{
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final IArchiveStorageFactory archiveStorageFactory = Services.get(IArchiveStorageFactory.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	private static final String SYSCONFIG_MaxArchivesPerRun = "org.adempiere.archive.process.AD_Archive_MigrateToContentAddressedStorage.MaxArchivesPerRun";
+	private static final String SYSCONFIG_BatchSize = "org.adempiere.archive.process.AD_Archive_MigrateToContentAddressedStorage.BatchSize";
+	private static final String SYSCONFIG_LastMigratedArchiveId = "org.adempiere.archive.process.AD_Archive_MigrateToContentAddressedStorage.LastMigratedArchiveId";
+
+	@Override
+	@RunOutOfTrx
+	protected String doIt()
+	{
+		final int maxArchives = sysConfigBL.getIntValue(SYSCONFIG_MaxArchivesPerRun, 10000);
+		final int batchSize = sysConfigBL.getIntValue(SYSCONFIG_BatchSize, 100);
+		final IArchiveStorage targetStorage = archiveStorageFactory.getArchiveStorage(getCtx(), StorageType.ContentAddressed);
+
+		int lastSavedArchiveId = sysConfigBL.getIntValue(SYSCONFIG_LastMigratedArchiveId, 0, getClientId().getRepoId(), OrgId.ANY.getRepoId());
+		int lastMigratedArchiveId = lastSavedArchiveId;
+		int lastArchiveId = lastSavedArchiveId;
+		int countMigrated = 0;
+		int countErrors = 0;
+		while (countMigrated + countErrors < maxArchives)
+		{
+			final List<I_AD_Archive> archives = retrieveNextDatabaseArchives(lastArchiveId, batchSize);
+			if (archives.isEmpty())
+			{
+				break;
+			}
+
+			for (final I_AD_Archive archive : archives)
+			{
+				lastArchiveId = archive.getAD_Archive_ID();
+				if (!ContentAddressedArchiveStorage.isContentAddressedReference(archive.getBinaryData()))
+				{
+					try
+					{
+						migrate(archive, targetStorage);
+						countMigrated++;
+					}
+					catch (final Exception ex)
+					{
+						countErrors++;
+						addLog("Failed migrating AD_Archive_ID={}: {}", lastArchiveId, ex.getLocalizedMessage());
+						log.warn("Failed migrating AD_Archive_ID={}", lastArchiveId, ex);
+					}
+				}
+
+				if (countErrors == 0)
+				{
+					lastMigratedArchiveId = lastArchiveId;
+				}
+			}
+
+			if (lastMigratedArchiveId != lastSavedArchiveId)
+			{
+				sysConfigBL.setValue(SYSCONFIG_LastMigratedArchiveId, lastMigratedArchiveId, getClientId(), OrgId.ANY);
+				lastSavedArchiveId = lastMigratedArchiveId;
+			}
+		}
+
+		return "@Updated@ #" + countMigrated + ", @Error@ #" + countErrors;
+	}
+
+	private List<I_AD_Archive> retrieveNextDatabaseArchives(final int lastArchiveId, final int batchSize)
+	{
+		return queryBL.createQueryBuilderOutOfTrx(I_AD_Archive.class)
+				.addEqualsFilter(I_AD_Archive.COLUMNNAME_AD_Client_ID, getClientId().getRepoId())
+				.addEqualsFilter(I_AD_Archive.COLUMNNAME_IsFileSystem, false)
+				.addCompareFilter(I_AD_Archive.COLUMNNAME_AD_Archive_ID, Operator.GREATER, lastArchiveId)
+				.orderBy(I_AD_Archive.COLUMNNAME_AD_Archive_ID)
+				.setLimit(batchSize)
+				.create()
+				.list(I_AD_Archive.class);
+	}
+
+	private void migrate(final I_AD_Archive archive, final IArchiveStorage targetStorage)
+	{
+		final IArchiveStorage sourceStorage = archiveStorageFactory.getArchiveStorage(archive);
+		final byte[] data = sourceStorage.getBinaryData(archive);
+		if (data == null || data.length == 0)
+		{
+			return;
+		}
+
+		targetStorage.setBinaryData(archive, data);
+		InterfaceWrapperHelper.save(archive);
+	}
+}
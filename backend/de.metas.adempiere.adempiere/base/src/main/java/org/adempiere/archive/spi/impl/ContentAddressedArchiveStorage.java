@@ -0,0 +1,507 @@
+package org.adempiere.archive.spi.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import de.metas.common.util.time.SystemTime;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.IClientDAO;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.I_AD_Archive;
+import org.compiere.model.I_AD_Client;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores the archive data in files which are named by the SHA-256 hash of their content, so identical documents (reprints, dunning copies etc) are stored only once.
+ * <p>
+ * The {@link I_AD_Archive#COLUMNNAME_BinaryData} column contains only the reference ({@value #REFERENCE_PREFIX} followed by the hash).
+ * The files are gzipped and never changed once written, so they can be read as a stream, without inflating them into memory.
+ * <p>
+ * The files are written right away, and not when the archive's transaction is committed. So each write also creates a "pending" marker,
+ * which is deleted after the commit. If the transaction is rolled back (or the server dies), the marker remains
+ * and {@link #collectGarbage(Predicate, Duration)} deletes the file, unless it is referenced by another archive.
+ */
+public class ContentAddressedArchiveStorage extends AbstractArchiveStorage
+{
+	private static final Logger logger = LogManager.getLogger(ContentAddressedArchiveStorage.class);
+
+	public static final String REFERENCE_PREFIX = "CAS:sha256:";
+	private static final byte[] REFERENCE_PREFIX_BYTES = REFERENCE_PREFIX.getBytes(StandardCharsets.UTF_8);
+
+	private static final String SYSCONFIG_RootDirectory = "org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage.RootDirectory";
+	private static final String SYSCONFIG_CompressionLevel = "org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage.CompressionLevel";
+
+	private static final String FILE_EXTENSION = ".gz";
+	private static final String PENDING_DIRECTORY = "pending";
+	private static final String QUARANTINE_EXTENSION = ".gc";
+
+	private Path rootDirectory;
+	private int compressionLevel = Deflater.BEST_SPEED;
+
+	public static boolean isContentAddressedReference(@Nullable final byte[] binaryData)
+	{
+		if (binaryData == null || binaryData.length <= REFERENCE_PREFIX_BYTES.length)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < REFERENCE_PREFIX_BYTES.length; i++)
+		{
+			if (binaryData[i] != REFERENCE_PREFIX_BYTES[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void init(@NonNull final ClientId adClientId)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+		String rootDirectoryStr = sysConfigBL.getValue(SYSCONFIG_RootDirectory, null, adClientId.getRepoId());
+		if (Check.isBlank(rootDirectoryStr))
+		{
+			final I_AD_Client client = Services.get(IClientDAO.class).getById(adClientId);
+			final String archivePath = File.separatorChar == '\\' ? client.getWindowsArchivePath() : client.getUnixArchivePath();
+			rootDirectoryStr = Check.isBlank(archivePath) ? null : Paths.get(archivePath, "content-addressed").toString();
+		}
+
+		this.rootDirectory = Check.isBlank(rootDirectoryStr) ? null : Paths.get(rootDirectoryStr);
+		this.compressionLevel = sysConfigBL.getIntValue(SYSCONFIG_CompressionLevel, Deflater.BEST_SPEED, adClientId.getRepoId());
+		logger.info("init: rootDirectory={}, compressionLevel={}", rootDirectory, compressionLevel);
+	}
+
+	private Path getRootDirectory()
+	{
+		if (rootDirectory == null)
+		{
+			throw new AdempiereException("ContentAddressedArchiveStorage is not configured. Please set AD_SysConfig " + SYSCONFIG_RootDirectory + " or the tenant's archive path.");
+		}
+		return rootDirectory;
+	}
+
+	@Override
+	public I_AD_Archive newArchive(final Properties ctx, final String trxName)
+	{
+		final I_AD_Archive archive = super.newArchive(ctx, trxName);
+		archive.setIsFileSystem(false);
+		return archive;
+	}
+
+	@Nullable
+	@Override
+	public byte[] getBinaryData(final I_AD_Archive archive)
+	{
+		try (final InputStream in = getBinaryDataAsStream(archive))
+		{
+			return in != null ? ByteStreams.toByteArray(in) : null;
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed reading archive data", e)
+					.setParameter("AD_Archive_ID", archive.getAD_Archive_ID());
+		}
+	}
+
+	@Nullable
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
+	{
+		final String hash = extractHash(archive.getBinaryData());
+		if (hash == null)
+		{
+			return null;
+		}
+
+		final Path file = getFile(hash);
+		try
+		{
+			return new GZIPInputStream(new BufferedInputStream(newInputStream(hash)));
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed reading archive data", e)
+					.setParameter("AD_Archive_ID", archive.getAD_Archive_ID())
+					.setParameter("file", file);
+		}
+	}
+
+	private InputStream newInputStream(@NonNull final String hash) throws IOException
+	{
+		try
+		{
+			return Files.newInputStream(getFile(hash));
+		}
+		catch (final NoSuchFileException e)
+		{
+			// the garbage collector might have just moved it into quarantine, and moves it back because it's referenced
+			return Files.newInputStream(getQuarantinedFile(hash));
+		}
+	}
+
+	@Override
+	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final byte[] uncompressedData)
+	{
+		if (uncompressedData.length == 0)
+		{
+			throw new AdempiereException("uncompressedData may not be empty")
+					.appendParametersToMessage()
+					.setParameter("AD_Archive", archive);
+		}
+
+		final String hash = Hashing.sha256().hashBytes(uncompressedData).toString();
+
+		// NOTE: create the marker before checking if the file exists, so the garbage collector won't delete it in meantime
+		final Path pendingMarker = createPendingMarker(hash);
+
+		final Path file = getFile(hash);
+		if (Files.exists(file))
+		{
+			logger.debug("Archive data {} already exists in {}; not writing it again", hash, file);
+		}
+		else
+		{
+			writeFile(file, uncompressedData);
+		}
+
+		archive.setBinaryData(toReference(hash).getBytes(StandardCharsets.UTF_8));
+		archive.setIsFileSystem(false);
+
+		Services.get(ITrxManager.class)
+				.getTrxListenerManagerOrAutoCommit(InterfaceWrapperHelper.getTrxName(archive))
+				.runAfterCommit(() -> deletePendingMarker(pendingMarker));
+	}
+
+	private Path createPendingMarker(@NonNull final String hash)
+	{
+		final Path pendingMarker = getPendingDirectory().resolve(hash + "." + UUID.randomUUID());
+		try
+		{
+			Files.createDirectories(pendingMarker.getParent());
+			return Files.createFile(pendingMarker);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed creating pending marker", e)
+					.setParameter("file", pendingMarker);
+		}
+	}
+
+	private static void deletePendingMarker(@NonNull final Path pendingMarker)
+	{
+		try
+		{
+			Files.deleteIfExists(pendingMarker);
+		}
+		catch (final IOException e)
+		{
+			// not a problem; the garbage collector will check it again
+			logger.warn("Failed deleting {}. Ignored.", pendingMarker, e);
+		}
+	}
+
+	/**
+	 * Deletes the files which were written for archives whose transactions were rolled back (or never finished), unless they are referenced by other archives.
+	 * <p>
+	 * Only the files of pending markers older than the given {@code minAge} are considered, so the transactions which are still running are not affected.
+	 *
+	 * @param isReferenced tells if there is any archive which references the given {@value #REFERENCE_PREFIX} reference
+	 * @return number of deleted files
+	 */
+	public int collectGarbage(@NonNull final Predicate<String> isReferenced, @NonNull final Duration minAge)
+	{
+		final Path pendingDirectory = getPendingDirectory();
+		if (!Files.isDirectory(pendingDirectory))
+		{
+			return 0;
+		}
+
+		final Instant maxPendingSince = SystemTime.asInstant().minus(minAge);
+
+		final ImmutableSet<String> hashes;
+		try (final Stream<Path> pendingMarkers = Files.list(pendingDirectory))
+		{
+			hashes = pendingMarkers
+					.map(ContentAddressedArchiveStorage::extractHashFromPendingMarker)
+					.filter(Objects::nonNull)
+					.collect(ImmutableSet.toImmutableSet());
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed listing pending markers", e)
+					.setParameter("directory", pendingDirectory);
+		}
+
+		int countDeleted = 0;
+		for (final String hash : hashes)
+		{
+			try
+			{
+				final ImmutableList<Path> pendingMarkers = getPendingMarkers(hash);
+				if (!isPendingSinceBefore(pendingMarkers, maxPendingSince))
+				{
+					continue;
+				}
+
+				if (!isReferenced.test(toReference(hash)) && deleteIfNotUsed(hash, pendingMarkers, isReferenced))
+				{
+					countDeleted++;
+					logger.debug("Deleted not referenced archive data {}", hash);
+				}
+
+				for (final Path pendingMarker : pendingMarkers)
+				{
+					Files.deleteIfExists(pendingMarker);
+				}
+			}
+			catch (final IOException e)
+			{
+				logger.warn("Failed collecting garbage for {}. Skipped.", hash, e);
+			}
+		}
+
+		return countDeleted;
+	}
+
+	/**
+	 * Moves the file into quarantine first, and only then checks again if the data is still not used. So a concurrent {@link #setBinaryData(I_AD_Archive, byte[])}
+	 * either creates its pending marker before the file is moved (then we see the marker and move the file back), or it doesn't find the file and writes it again.
+	 *
+	 * @return true if the file was deleted
+	 */
+	private boolean deleteIfNotUsed(
+			@NonNull final String hash,
+			@NonNull final ImmutableList<Path> pendingMarkers,
+			@NonNull final Predicate<String> isReferenced) throws IOException
+	{
+		final Path file = getFile(hash);
+		final Path quarantinedFile = getQuarantinedFile(hash);
+		try
+		{
+			moveAtomically(file, quarantinedFile);
+		}
+		catch (final NoSuchFileException e)
+		{
+			if (!Files.exists(quarantinedFile)) // might be left over from a garbage collection which did not finish
+			{
+				return false;
+			}
+		}
+
+		if (!isReferenced.test(toReference(hash)) && pendingMarkers.equals(getPendingMarkers(hash)))
+		{
+			Files.delete(quarantinedFile);
+			return true;
+		}
+
+		// the same content was just stored for another archive; if it was written again in meantime, the content is the same anyway
+		moveAtomically(quarantinedFile, file);
+		logger.debug("Archive data {} is in use again; moved it back from quarantine", hash);
+		return false;
+	}
+
+	private ImmutableList<Path> getPendingMarkers(@NonNull final String hash) throws IOException
+	{
+		try (final DirectoryStream<Path> pendingMarkers = Files.newDirectoryStream(getPendingDirectory(), hash + ".*"))
+		{
+			return ImmutableList.copyOf(pendingMarkers);
+		}
+	}
+
+	private static boolean isPendingSinceBefore(final ImmutableList<Path> pendingMarkers, final Instant maxPendingSince) throws IOException
+	{
+		for (final Path pendingMarker : pendingMarkers)
+		{
+			if (Files.getLastModifiedTime(pendingMarker).toInstant().isAfter(maxPendingSince))
+			{
+				return false;
+			}
+		}
+		return !pendingMarkers.isEmpty();
+	}
+
+	@Nullable
+	private static String extractHashFromPendingMarker(@NonNull final Path pendingMarker)
+	{
+		final String fileName = pendingMarker.getFileName().toString();
+		final int idx = fileName.indexOf('.');
+		if (idx <= 0)
+		{
+			return null;
+		}
+
+		try
+		{
+			return HashCode.fromString(fileName.substring(0, idx)).toString();
+		}
+		catch (final IllegalArgumentException e)
+		{
+			return null;
+		}
+	}
+
+	private static String toReference(@NonNull final String hash)
+	{
+		return REFERENCE_PREFIX + hash;
+	}
+
+	/**
+	 * Writes to a temporary file first and then moves it, so that a concurrent reader never sees a partially written file.
+	 */
+	private void writeFile(@NonNull final Path file, @NonNull final byte[] uncompressedData)
+	{
+		Path tempFile = null;
+		try
+		{
+			Files.createDirectories(file.getParent());
+			tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+			try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))
+			{
+				{
+					def.setLevel(compressionLevel);
+				}
+			})
+			{
+				out.write(uncompressedData);
+			}
+
+			moveAtomically(tempFile, file);
+			tempFile = null;
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed writing archive data", e)
+					.setParameter("file", file);
+		}
+		finally
+		{
+			if (tempFile != null)
+			{
+				try
+				{
+					Files.deleteIfExists(tempFile);
+				}
+				catch (final IOException e)
+				{
+					logger.warn("Failed deleting {}. Ignored.", tempFile, e);
+				}
+			}
+		}
+	}
+
+	private static void moveAtomically(@NonNull final Path source, @NonNull final Path target) throws IOException
+	{
+		try
+		{
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (final AtomicMoveNotSupportedException e)
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * @return {@code <root>/ab/cd/abcd...ef.gz}, to keep the number of files per directory low
+	 */
+	private Path getFile(@NonNull final String hash)
+	{
+		return getRootDirectory()
+				.resolve(hash.substring(0, 2))
+				.resolve(hash.substring(2, 4))
+				.resolve(hash + FILE_EXTENSION);
+	}
+
+	/**
+	 * @return the file's name while the garbage collector decides if it can be deleted; it's in the same directory, so it can be moved atomically
+	 */
+	private Path getQuarantinedFile(@NonNull final String hash)
+	{
+		final Path file = getFile(hash);
+		return file.resolveSibling(file.getFileName() + QUARANTINE_EXTENSION);
+	}
+
+	private Path getPendingDirectory()
+	{
+		return getRootDirectory().resolve(PENDING_DIRECTORY);
+	}
+
+	@Nullable
+	private static String extractHash(@Nullable final byte[] binaryData)
+	{
+		if (!isContentAddressedReference(binaryData))
+		{
+			return null;
+		}
+
+		final String hash = new String(binaryData, REFERENCE_PREFIX_BYTES.length, binaryData.length - REFERENCE_PREFIX_BYTES.length, StandardCharsets.UTF_8);
+
+		// make sure it's really a hash and nobody can make us read other files
+		return HashCode.fromString(hash).toString();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ContentAddressedArchiveStorage [rootDirectory=" + rootDirectory + "]";
+	}
+}
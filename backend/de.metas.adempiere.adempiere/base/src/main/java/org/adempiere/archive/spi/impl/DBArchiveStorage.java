@@ -25,6 +25,8 @@ package org.adempiere.archive.spi.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Properties;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
@@ -107,6 +109,35 @@ public class DBArchiveStorage extends AbstractArchiveStorage
 		return inflatedData;
 	} // getBinaryData
 
+	/**
+	 * @return stream which inflates the data while it's read, instead of inflating all of it upfront
+	 */
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
+	{
+		final byte[] deflatedData = archive.getBinaryData();
+		if (deflatedData == null || deflatedData.length == 0)
+		{
+			return null;
+		}
+
+		final ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(deflatedData));
+		try
+		{
+			final ZipEntry entry = zip.getNextEntry();
+			if (entry == null)
+			{
+				zip.close();
+				return null;
+			}
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException(e);
+		}
+		return zip;
+	}
+
 	@Override
 	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final byte[] uncompressedData)
 	{
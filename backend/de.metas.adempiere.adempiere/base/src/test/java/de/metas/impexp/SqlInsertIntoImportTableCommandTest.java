@@ -0,0 +1,74 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.impexp;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlInsertIntoImportTableCommandTest
+{
+	private static String toCopyRow(final Object... values)
+	{
+		final StringBuilder copyData = new StringBuilder();
+		SqlInsertIntoImportTableCommand.appendCopyRow(copyData, Arrays.asList(values));
+		return copyData.toString();
+	}
+
+	@Test
+	public void valuesAreSeparatedByTab_andRowEndsWithNewline()
+	{
+		assertThat(toCopyRow("a", "b", "c")).isEqualTo("a\tb\tc\n");
+	}
+
+	@Test
+	public void nullValue_isWrittenAsNullMarker()
+	{
+		assertThat(toCopyRow("a", null, "c")).isEqualTo("a\t\\N\tc\n");
+	}
+
+	@Test
+	public void nullMarkerText_isNotTakenAsNull()
+	{
+		assertThat(toCopyRow("\\N")).isEqualTo("\\\\N\n");
+	}
+
+	@Test
+	public void tabNewlineCarriageReturnAndBackslash_areEscaped()
+	{
+		assertThat(toCopyRow("a\tb", "line1\nline2\r\n", "c:\\temp"))
+				.isEqualTo("a\\tb\tline1\\nline2\\r\\n\tc:\\\\temp\n");
+	}
+
+	@Test
+	public void nonStringValues()
+	{
+		assertThat(toCopyRow(true, false, new BigDecimal("1E+3"), 12, Timestamp.valueOf("2021-03-04 05:06:07")))
+				.isEqualTo("Y\tN\t1000\t12\t2021-03-04 05:06:07.0\n");
+	}
+}
@@ -26,6 +26,8 @@ import org.apache.commons.io.FileUtils;
 import org.assertj.core.api.Assertions;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.File;
 import java.io.IOException;
@@ -34,6 +36,8 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -213,4 +217,38 @@ public class FileImportReaderTest
 		assertTrue(lines.get(1).endsWith("90"));
 		assertTrue(lines.get(2).endsWith("100"));
 	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "multiplelines.csv", "OnlyAppendIfInQuotesPreserveFirstLine.csv", "NumberOfEmptyLinesIsPreserved.csv", "evenNumberOfQuotes.csv", "regularlines.csv" })
+	public void streamMultiLines_sameAsReadMultiLines(final String fileName) throws IOException
+	{
+		final URL url = getClass().getResource(packagePath + "/" + fileName);
+		assertNotNull("url null", url);
+		final File file = FileUtils.toFile(url);
+
+		final Charset charset = StandardCharsets.UTF_8;
+		final List<String> expectedLines = FileImportReader.readMultiLines(file, charset);
+
+		try (final Stream<String> stream = FileImportReader.streamMultiLines(url.openStream(), charset))
+		{
+			Assertions.assertThat(stream.collect(Collectors.toList())).containsExactlyElementsOf(expectedLines);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "multiplelines.csv", "regularlines.csv" })
+	public void streamRegularLines_sameAsReadRegularLines(final String fileName) throws IOException
+	{
+		final URL url = getClass().getResource(packagePath + "/" + fileName);
+		assertNotNull("url null", url);
+		final File file = FileUtils.toFile(url);
+
+		final Charset charset = StandardCharsets.UTF_8;
+		final List<String> expectedLines = FileImportReader.readRegularLines(file, charset);
+
+		try (final Stream<String> stream = FileImportReader.streamRegularLines(url.openStream(), charset))
+		{
+			Assertions.assertThat(stream.collect(Collectors.toList())).containsExactlyElementsOf(expectedLines);
+		}
+	}
 }
@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.impexp.parser;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImpDataParserTest
+{
+	/**
+	 * More than a few parse chunks, so that the chunks are parsed concurrently.
+	 */
+	private static final int LINES_COUNT = 5_500;
+
+	@Test
+	public void parallelParsing_keepsTheLineOrder()
+	{
+		final String header = "header";
+		final List<String> lines = IntStream.rangeClosed(1, LINES_COUNT)
+				.mapToObj(i -> "line" + i)
+				.collect(ImmutableList.toImmutableList());
+		final String fileContent = Stream.concat(Stream.of(header), lines.stream()).collect(Collectors.joining("\n"));
+
+		final ImpDataParser parser = ImpDataParser.builder()
+				.lineParser(line -> {
+					// make the chunks finish in random order
+					if (ThreadLocalRandom.current().nextInt(100) == 0)
+					{
+						sleep(ThreadLocalRandom.current().nextInt(5));
+					}
+					return ImmutableList.of();
+				})
+				.charset(StandardCharsets.UTF_8)
+				.skipFirstNRows(1)
+				.parseThreads(4)
+				.build();
+
+		final List<ImpDataLine> dataLines;
+		try (final Stream<ImpDataLine> stream = parser.streamDataLines(new ByteArrayResource(fileContent.getBytes(StandardCharsets.UTF_8))))
+		{
+			dataLines = stream.collect(ImmutableList.toImmutableList());
+		}
+
+		assertThat(dataLines).extracting(ImpDataLine::getLineString).isEqualTo(lines);
+		assertThat(dataLines).extracting(ImpDataLine::getFileLineNo)
+				.isEqualTo(IntStream.rangeClosed(1, LINES_COUNT).boxed().collect(ImmutableList.toImmutableList()));
+	}
+
+	private static void sleep(final int millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
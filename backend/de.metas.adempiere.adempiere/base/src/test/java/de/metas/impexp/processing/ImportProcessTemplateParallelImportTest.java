@@ -0,0 +1,251 @@
+package de.metas.impexp.processing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IMutable;
+import org.compiere.SpringContextHolder;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.impexp.format.ImportTableDescriptorRepository;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ImportProcessTemplateParallelImportTest
+{
+	private static final int GROUPS = 20;
+	private static final int RECORDS_PER_GROUP = 5;
+	private static final String FAILING_GROUP = "G07";
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		SpringContextHolder.registerJUnitBean(new ImportTableDescriptorRepository());
+		SpringContextHolder.registerJUnitBean(DBFunctionsRepository.class, new DBFunctionsRepository()
+		{
+			@Override
+			public DBFunctions retrieveByTableName(@NonNull final String tableName)
+			{
+				return DBFunctions.builder().tableName(tableName).build();
+			}
+		});
+
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(ImportProcessTemplate.SYSCONFIG_ImportThreads, 4, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(ImportProcessTemplate.SYSCONFIG_GroupsPerWorkerRange, 3, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	@Test
+	public void groupsAreImportedInOrder_and_failingGroupIsMarkedAsError()
+	{
+		final ImmutableList<TestImportRecord> importRecords = createImportRecords();
+		final TestImportProcess importProcess = new TestImportProcess(importRecords);
+		importProcess.setCtx(Env.getCtx());
+
+		final ImportProcessResult result = importProcess.runImportDataOnly();
+
+		// the records were imported by the workers, not by the calling thread
+		assertThat(importProcess.groupsByThreadName).isNotEmpty().doesNotContainKey(Thread.currentThread().getName());
+
+		// each group's records were passed in their original order, and each worker imported its groups in their original order
+		for (int groupNo = 0; groupNo < GROUPS; groupNo++)
+		{
+			final String groupKey = groupKey(groupNo);
+			final List<Integer> expectedRecordIds = importRecords.stream()
+					.filter(importRecord -> importRecord.getGroupKey().equals(groupKey))
+					.map(TestImportRecord::getId)
+					.collect(ImmutableList.toImmutableList());
+			assertThat(importProcess.recordIdsByGroup.get(groupKey)).as("group %s", groupKey).isEqualTo(expectedRecordIds);
+		}
+		importProcess.groupsByThreadName.values().forEach(groupKeys -> assertThat(groupKeys).isSorted());
+
+		// the failing group was marked as error record by record, the other groups were imported
+		final List<Integer> failingGroupRecordIds = importProcess.recordIdsByGroup.get(FAILING_GROUP);
+		assertThat(importProcess.errorMsgByRecordId)
+				.containsOnlyKeys(failingGroupRecordIds)
+				.allSatisfy((recordId, errorMsg) -> assertThat(errorMsg).contains("failed to import " + FAILING_GROUP));
+		assertThat(importProcess.importedRecordIds)
+				.hasSize((GROUPS - 1) * RECORDS_PER_GROUP)
+				.doesNotContainAnyElementsOf(failingGroupRecordIds);
+
+		assertThat(result.getActualImport().getCountImportRecordsConsidered()).hasValue(GROUPS * RECORDS_PER_GROUP);
+		assertThat(result.getActualImport().getCountInsertsIntoTargetTable()).hasValue(GROUPS - 1);
+	}
+
+	private static ImmutableList<TestImportRecord> createImportRecords()
+	{
+		final ImmutableList.Builder<TestImportRecord> importRecords = ImmutableList.builder();
+		int nextId = 1;
+		for (int groupNo = 0; groupNo < GROUPS; groupNo++)
+		{
+			for (int i = 0; i < RECORDS_PER_GROUP; i++)
+			{
+				// the failing record is not the first one of its group, so the group's previous records need to be rolled back and flagged, too
+				final boolean fail = groupKey(groupNo).equals(FAILING_GROUP) && i == 2;
+				importRecords.add(new TestImportRecord(nextId++, groupKey(groupNo), fail));
+			}
+		}
+		return importRecords.build();
+	}
+
+	private static String groupKey(final int groupNo)
+	{
+		return String.format("G%02d", groupNo);
+	}
+
+	@Value
+	private static class TestImportRecord
+	{
+		int id;
+		String groupKey;
+		boolean fail;
+	}
+
+	private static class TestImportProcess extends ImportProcessTemplate<TestImportRecord, String>
+	{
+		private final ImmutableList<TestImportRecord> importRecords;
+
+		private final Map<String, List<Integer>> recordIdsByGroup = new ConcurrentHashMap<>();
+		private final Map<String, List<String>> groupsByThreadName = new ConcurrentHashMap<>();
+		private final List<Integer> importedRecordIds = new ArrayList<>();
+		private final Map<Integer, String> errorMsgByRecordId = new ConcurrentHashMap<>();
+
+		private TestImportProcess(@NonNull final ImmutableList<TestImportRecord> importRecords)
+		{
+			this.importRecords = importRecords;
+		}
+
+		@Override
+		public Class<TestImportRecord> getImportModelClass()
+		{
+			return TestImportRecord.class;
+		}
+
+		@Override
+		public String getImportTableName()
+		{
+			return "I_Test";
+		}
+
+		@Override
+		protected String getTargetTableName()
+		{
+			return "Test";
+		}
+
+		@Override
+		protected boolean isParallelImportSupported()
+		{
+			return true;
+		}
+
+		@Override
+		protected void updateAndValidateImportRecords()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected String getImportOrderBySql()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected TestImportRecord retrieveImportRecord(final Properties ctx, final ResultSet rs)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected Iterator<TestImportRecord> retrieveRecordsToImport()
+		{
+			return importRecords.iterator();
+		}
+
+		@Override
+		protected String extractImportGroupKey(final TestImportRecord importRecord)
+		{
+			return importRecord.getGroupKey();
+		}
+
+		@Override
+		protected ImportGroupResult importRecords(
+				final String groupKey,
+				final List<TestImportRecord> importRecords,
+				final IMutable<Object> stateHolder)
+		{
+			groupsByThreadName.computeIfAbsent(Thread.currentThread().getName(), threadName -> new ArrayList<>()).add(groupKey);
+
+			final List<Integer> recordIds = recordIdsByGroup.computeIfAbsent(groupKey, key -> new ArrayList<>());
+			for (final TestImportRecord importRecord : importRecords)
+			{
+				recordIds.add(importRecord.getId());
+				if (importRecord.isFail())
+				{
+					throw new AdempiereException("failed to import " + groupKey);
+				}
+			}
+
+			return ImportGroupResult.ONE_INSERTED;
+		}
+
+		@Override
+		protected void markImported(final TestImportRecord importRecord)
+		{
+			synchronized (importedRecordIds)
+			{
+				importedRecordIds.add(importRecord.getId());
+			}
+		}
+
+		@Override
+		protected void markAsError(
+				@NonNull final ImportGroup<String, TestImportRecord> importGroup,
+				@NonNull final Throwable exception)
+		{
+			importGroup.getImportRecords().forEach(importRecord -> errorMsgByRecordId.put(importRecord.getId(), AdempiereException.extractMessage(exception)));
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.impexp.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.google.common.base.Stopwatch;
+
+/**
+ * Writes a semicolon separated product/price list file, to be used for benchmarking the data import (see {@code DataImportService}).
+ * <p>
+ * Every 50th line contains a quoted multi-line description and every 1000th line contains an invalid price, so both the multi-line reading and the per-line error handling are exercised.
+ * <p>
+ * Usage: {@code ImportBenchmarkFileGenerator [file] [lines]}; defaults: a temporary file and 2,000,000 lines.
+ */
+public class ImportBenchmarkFileGenerator
+{
+	private static final int DEFAULT_LINES = 2_000_000;
+
+	public static void main(final String[] args) throws IOException
+	{
+		final Path file = args.length > 0 ? Paths.get(args[0]) : Files.createTempFile("import-benchmark-", ".csv");
+		final int lines = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_LINES;
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		generate(file, lines);
+		System.out.println("Wrote " + lines + " lines to " + file + " (" + Files.size(file) / 1024 / 1024 + " MB) in " + stopwatch);
+	}
+
+	public static void generate(final Path file, final int lines) throws IOException
+	{
+		try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			writer.write("Value;Name;Description;UOM;PriceList;PriceStd;ValidFrom");
+			writer.newLine();
+
+			for (int i = 1; i <= lines; i++)
+			{
+				writer.write("P" + i);
+				writer.write(';');
+				writer.write("Product " + i);
+				writer.write(';');
+				if (i % 50 == 0)
+				{
+					writer.write("\"Description of product " + i);
+					writer.newLine();
+					writer.write("second line\"");
+				}
+				else
+				{
+					writer.write("Description of product " + i);
+				}
+				writer.write(';');
+				writer.write("PCE");
+				writer.write(';');
+				writer.write(i % 1000 == 0 ? "not a number" : (i % 10000) + ",50");
+				writer.write(';');
+				writer.write((i % 10000) + ",00");
+				writer.write(';');
+				writer.write("01.01.2021");
+				writer.newLine();
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.printing;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamingPdfConcatenatorTest
+{
+	private static byte[] createPdf(final int pages) throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Document document = new Document();
+		PdfWriter.getInstance(document, out);
+		document.open();
+		for (int page = 1; page <= pages; page++)
+		{
+			document.newPage();
+			document.add(new Paragraph("Page " + page));
+		}
+		document.close();
+		return out.toByteArray();
+	}
+
+	private static int countPages(final byte[] pdf) throws IOException
+	{
+		final PdfReader reader = new PdfReader(pdf);
+		try
+		{
+			return reader.getNumberOfPages();
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	@Test
+	public void concatenateStreamsAndByteArrays() throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final StreamingPdfConcatenator concatenator = new StreamingPdfConcatenator(out, 2);
+
+		assertThat(concatenator.addDocument(new ByteArrayInputStream(createPdf(3)))).isEqualTo(3);
+		assertThat(concatenator.addDocument(createPdf(2))).isEqualTo(2);
+		assertThat(concatenator.addDocument(new ByteArrayInputStream(createPdf(1)))).isEqualTo(1);
+		concatenator.close();
+
+		assertThat(countPages(out.toByteArray())).isEqualTo(6);
+
+		final StreamingPdfConcatenator.Stats stats = concatenator.getStats();
+		assertThat(stats.getDocumentsCount()).isEqualTo(3);
+		assertThat(stats.getPagesCount()).isEqualTo(6);
+		assertThat(stats.getMaxUsedMemoryBytes()).isPositive();
+	}
+
+	@Test
+	public void pageRange() throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final StreamingPdfConcatenator concatenator = new StreamingPdfConcatenator(out);
+
+		assertThat(concatenator.addDocument(new ByteArrayInputStream(createPdf(5)), 2, 3)).isEqualTo(2);
+		assertThat(concatenator.addDocument(createPdf(5), 4, 10)).isEqualTo(2);
+		concatenator.close();
+
+		assertThat(countPages(out.toByteArray())).isEqualTo(4);
+	}
+}
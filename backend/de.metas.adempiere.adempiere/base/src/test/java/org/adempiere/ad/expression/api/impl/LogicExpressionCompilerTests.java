@@ -242,6 +242,14 @@ public class LogicExpressionCompilerTests
 		Assert.assertEquals("Operator", ILogicExpression.LOGIC_OPERATOR_XOR, expr.getOperator());
 	}
 
+	@Test
+	public void test_compile_sameExpressionString_returnsSameInstance()
+	{
+		final ILogicExpression expr1 = compile("@A@=1 & @B@>'10'", true);
+		final ILogicExpression expr2 = compile("@A@=1 & @B@>'10'", true);
+		Assert.assertSame(expr1, expr2);
+	}
+
 	@Test
 	public void test_compile_from_database_class()
 	{
@@ -0,0 +1,159 @@
+package org.adempiere.ad.expression.api.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
+import org.adempiere.ad.expression.api.ILogicExpression;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures how long it takes to compile and evaluate AD_Field/AD_Column logic expressions.
+ * <p>
+ * Without arguments, it uses a set of logic expressions taken from our application dictionary.
+ * To run it on the logic expressions of a particular database, export them to a file (one expression per line) and pass the file name as first argument, e.g.
+ *
+ * <pre>
+ * psql -At -c "SELECT DisplayLogic FROM AD_Field WHERE DisplayLogic IS NOT NULL UNION ALL SELECT ReadOnlyLogic FROM AD_Column WHERE ReadOnlyLogic IS NOT NULL UNION ALL SELECT MandatoryLogic FROM AD_Column WHERE MandatoryLogic IS NOT NULL" > logics.txt
+ * </pre>
+ */
+public class LogicExpressionEvaluatorManualTest
+{
+	public static void main(final String[] args) throws IOException
+	{
+		final List<String> expressionStrings = args.length > 0
+				? Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8)
+						.stream()
+						.filter(line -> !line.trim().isEmpty())
+						.collect(Collectors.toList())
+				: DICTIONARY_LOGICS;
+
+		new LogicExpressionEvaluatorManualTest(expressionStrings).run();
+	}
+
+	private static final ImmutableList<String> DICTIONARY_LOGICS = ImmutableList.of(
+			"@Template_Tab_ID/-1@ > 0",
+			"@WorkflowType@=G | @WorkflowType@=P | @WorkflowType@=V",
+			"@IsSOTrx/Y@=N",
+			"@C_Order_ID/0@=0",
+			"@WorkflowType@=M | @WorkflowType@=Q | @WorkflowType@=R",
+			"@AD_Element_ID/0@>0",
+			"@IsSelectionColumn@=Y",
+			"@PriceBase@ = F",
+			"@C_Flatrate_Term_ID@ > 0",
+			"@PrincipalType@=U",
+			"@IsReadOnlyValues@=Y",
+			"@C_Order_ID/0@<=0",
+			"@C_BPartner_ID/0@>0",
+			"(@PriceBase/P@ = P & @PricingSystemSurchargeAmt/0@ ! 0) | @PriceBase/P@ = F",
+			"@M_HU_PI_Item_ID/-1@ > 0",
+			"@IsReconciled/N@=Y",
+			"@DiscountType/X@=B & @BreakValueType/X@=T",
+			"@Type@=JasperReportsSQL | @Type@=JasperReportsJSON",
+			"@Source_Currency_ID/0@>0",
+			"@ServiceFeeVatRate/-1@ > 0");
+
+	private static final int WARMUP_ITERATIONS = 20_000;
+	private static final int MEASURED_ITERATIONS = 200_000;
+
+	private final List<String> expressionStrings;
+	private final Evaluatee evaluatee;
+
+	private LogicExpressionEvaluatorManualTest(final List<String> expressionStrings)
+	{
+		AdempiereTestHelper.get().init();
+
+		this.expressionStrings = expressionStrings;
+
+		// give every variable some value, so that all tuples are really evaluated
+		final Map<String, Object> values = new HashMap<>();
+		for (final String expressionString : expressionStrings)
+		{
+			LogicExpressionCompiler.instance.compile(expressionString)
+					.getParameterNames()
+					.forEach(parameterName -> values.put(parameterName, values.size() % 2 == 0 ? "Y" : "10"));
+		}
+		evaluatee = Evaluatees.ofMap(values);
+	}
+
+	private void run()
+	{
+		System.out.println("Logic expressions: " + expressionStrings.size());
+
+		//
+		// Compile
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			for (int i = 0; i < MEASURED_ITERATIONS; i++)
+			{
+				LogicExpressionCompiler.instance.compile(expressionStrings.get(i % expressionStrings.size()));
+			}
+			printResult("compile", stopwatch);
+		}
+
+		//
+		// Evaluate
+		final List<ILogicExpression> expressions = expressionStrings.stream()
+				.map(LogicExpressionCompiler.instance::compile)
+				.collect(Collectors.toList());
+
+		int countTrue = 0;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+		{
+			countTrue += evaluate(expressions.get(i % expressions.size())) ? 1 : 0;
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		for (int i = 0; i < MEASURED_ITERATIONS; i++)
+		{
+			countTrue += evaluate(expressions.get(i % expressions.size())) ? 1 : 0;
+		}
+		printResult("evaluate", stopwatch);
+		System.out.println("(" + countTrue + " evaluations were true)");
+	}
+
+	private boolean evaluate(final ILogicExpression expression)
+	{
+		return expression.evaluateToResult(evaluatee, OnVariableNotFound.ReturnNoResult).booleanValue();
+	}
+
+	private static void printResult(final String name, final Stopwatch stopwatch)
+	{
+		final long nanos = stopwatch.stop().elapsed(TimeUnit.NANOSECONDS);
+		System.out.println(name + ": " + MEASURED_ITERATIONS + " iterations in " + stopwatch + " => " + nanos / MEASURED_ITERATIONS + "ns/op");
+	}
+}
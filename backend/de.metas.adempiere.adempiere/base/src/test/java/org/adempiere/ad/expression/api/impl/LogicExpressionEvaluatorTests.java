@@ -957,5 +957,14 @@ public class LogicExpressionEvaluatorTests
 			assertThat(LogicExpressionEvaluator.evaluateLogicTuple("+10.0001000000000000000000", "=", "+10.0001")).isTrue();
 			assertThat(LogicExpressionEvaluator.evaluateLogicTuple("-10.0001000000000000000000", "=", "-10.0001")).isTrue();
 		}
+
+		@Test
+		public void constantOperands_comparedToVariables()
+		{
+			assertExpression(false, "@Qty@>10", false, new Params().addParam("Qty", "9.5"));
+			assertExpression(true, "@Qty@<'10.5'", false, new Params().addParam("Qty", "9.5"));
+			assertExpression(true, "@Qty@='1.0'", false, new Params().addParam("Qty", "1"));
+			assertExpression(false, "@Name@=Test", false, new Params().addParam("Name", "test"));
+		}
 	}
 }
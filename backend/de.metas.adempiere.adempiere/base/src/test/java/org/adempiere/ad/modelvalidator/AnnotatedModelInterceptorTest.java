@@ -0,0 +1,141 @@
+package org.adempiere.ad.modelvalidator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_Test;
+import org.compiere.model.ModelValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AnnotatedModelInterceptorTest
+{
+	@Interceptor(I_Test.class)
+	public static class TestInterceptor
+	{
+		private final List<String> invocations = new ArrayList<>();
+
+		@ModelChange(timings = ModelValidator.TYPE_BEFORE_NEW)
+		public void beforeNew(final I_Test record)
+		{
+			invocations.add("beforeNew");
+		}
+
+		@ModelChange(timings = { ModelValidator.TYPE_BEFORE_NEW, ModelValidator.TYPE_BEFORE_CHANGE })
+		public void beforeSave(final I_Test record, final ModelChangeType changeType)
+		{
+			invocations.add("beforeSave-" + changeType);
+		}
+
+		@ModelChange(timings = ModelValidator.TYPE_AFTER_NEW)
+		public void afterNew(final I_Test record) throws Exception
+		{
+			throw new Exception("checked exception");
+		}
+
+		@ModelChange(timings = ModelValidator.TYPE_AFTER_CHANGE)
+		public void afterChange(final I_Test record)
+		{
+			throw new IllegalStateException("runtime exception");
+		}
+
+		@ModelChange(timings = ModelValidator.TYPE_BEFORE_DELETE)
+		public void beforeDelete(final I_Test record)
+		{
+			throw new StackOverflowError("error");
+		}
+	}
+
+	private TestInterceptor annotatedObject;
+	private AnnotatedModelInterceptor interceptor;
+	private I_Test record;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		annotatedObject = new TestInterceptor();
+		interceptor = new AnnotatedModelInterceptor(annotatedObject);
+		record = InterfaceWrapperHelper.newInstance(I_Test.class);
+	}
+
+	@Test
+	public void isModelChangeHandled()
+	{
+		assertThat(interceptor.isModelChangeHandled(I_Test.Table_Name, ModelChangeType.BEFORE_NEW)).isTrue();
+		assertThat(interceptor.isModelChangeHandled(I_Test.Table_Name, ModelChangeType.AFTER_DELETE)).isFalse();
+		assertThat(interceptor.isModelChangeHandled("C_Order", ModelChangeType.BEFORE_NEW)).isFalse();
+	}
+
+	@Test
+	public void onModelChange_invokesOnlyThePointcutsOfTheGivenTiming()
+	{
+		interceptor.onModelChange(record, ModelChangeType.BEFORE_NEW);
+		assertThat(annotatedObject.invocations).containsExactlyInAnyOrder("beforeNew", "beforeSave-BEFORE_NEW");
+
+		annotatedObject.invocations.clear();
+		interceptor.onModelChange(record, ModelChangeType.BEFORE_CHANGE);
+		assertThat(annotatedObject.invocations).containsExactly("beforeSave-BEFORE_CHANGE");
+
+		annotatedObject.invocations.clear();
+		interceptor.onModelChange(record, ModelChangeType.AFTER_DELETE);
+		assertThat(annotatedObject.invocations).isEmpty();
+	}
+
+	@Test
+	public void checkedException_isWrappedWithHowtoDisableMessage()
+	{
+		assertThatThrownBy(() -> interceptor.onModelChange(record, ModelChangeType.AFTER_NEW))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("checked exception")
+				.satisfies(e -> assertThat(((AdempiereException)e).hasParameter("HowtoDisableModelInterceptor")).isTrue());
+	}
+
+	@Test
+	public void runtimeException_isWrappedWithHowtoDisableMessage()
+	{
+		assertThatThrownBy(() -> interceptor.onModelChange(record, ModelChangeType.AFTER_CHANGE))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("runtime exception")
+				.satisfies(e -> assertThat(((AdempiereException)e).hasParameter("HowtoDisableModelInterceptor")).isTrue());
+	}
+
+	@Test
+	public void error_isPropagatedAsItIs()
+	{
+		assertThatThrownBy(() -> interceptor.onModelChange(record, ModelChangeType.BEFORE_DELETE))
+				.isExactlyInstanceOf(StackOverflowError.class)
+				.hasMessage("error");
+	}
+}
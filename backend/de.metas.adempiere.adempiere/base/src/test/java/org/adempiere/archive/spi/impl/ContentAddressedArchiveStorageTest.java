@@ -0,0 +1,246 @@
+package org.adempiere.archive.spi.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.io.ByteStreams;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.Mutable;
+import org.compiere.model.I_AD_Archive;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ContentAddressedArchiveStorageTest
+{
+	private Path rootDirectory;
+	private ContentAddressedArchiveStorage storage;
+
+	@BeforeEach
+	public void init() throws Exception
+	{
+		AdempiereTestHelper.get().init();
+
+		rootDirectory = Files.createTempDirectory(ContentAddressedArchiveStorageTest.class.getSimpleName());
+		Services.get(ISysConfigBL.class).setValue("org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage.RootDirectory", rootDirectory.toString(), ClientId.SYSTEM, OrgId.ANY);
+
+		storage = new ContentAddressedArchiveStorage();
+		storage.init(ClientId.SYSTEM);
+	}
+
+	private I_AD_Archive newArchive(final byte[] data)
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.newInstance(I_AD_Archive.class);
+		storage.setBinaryData(archive, data);
+		InterfaceWrapperHelper.saveRecord(archive);
+		return archive;
+	}
+
+	private I_AD_Archive newArchive(final byte[] data, final String trxName)
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.newInstance(I_AD_Archive.class, PlainContextAware.newWithTrxName(Env.getCtx(), trxName));
+		storage.setBinaryData(archive, data);
+		InterfaceWrapperHelper.saveRecord(archive);
+		return archive;
+	}
+
+	private long countStoredFiles() throws Exception
+	{
+		try (final Stream<Path> files = Files.walk(rootDirectory))
+		{
+			return files.filter(Files::isRegularFile).count();
+		}
+	}
+
+	@Test
+	public void setAndGetBinaryData() throws Exception
+	{
+		final byte[] data = "some PDF data".getBytes(StandardCharsets.UTF_8);
+		final I_AD_Archive archive = newArchive(data);
+
+		assertThat(ContentAddressedArchiveStorage.isContentAddressedReference(archive.getBinaryData())).isTrue();
+		assertThat(archive.isFileSystem()).isFalse();
+		assertThat(storage.getBinaryData(archive)).isEqualTo(data);
+		try (final InputStream in = storage.getBinaryDataAsStream(archive))
+		{
+			assertThat(ByteStreams.toByteArray(in)).isEqualTo(data);
+		}
+	}
+
+	@Test
+	public void identicalData_isStoredOnce() throws Exception
+	{
+		final I_AD_Archive archive1 = newArchive("same data".getBytes(StandardCharsets.UTF_8));
+		final I_AD_Archive archive2 = newArchive("same data".getBytes(StandardCharsets.UTF_8));
+		newArchive("other data".getBytes(StandardCharsets.UTF_8));
+
+		assertThat(archive1.getBinaryData()).isEqualTo(archive2.getBinaryData());
+		assertThat(countStoredFiles()).isEqualTo(2);
+	}
+
+	private void newArchiveAndRollback(final byte[] data)
+	{
+		assertThatThrownBy(() -> Services.get(ITrxManager.class).runInNewTrx(() -> {
+			newArchive(data);
+			throw new RuntimeException("rollback");
+		}));
+	}
+
+	@Test
+	public void garbageCollection_deletesNotReferencedDataOfRolledBackTrx() throws Exception
+	{
+		newArchiveAndRollback("rolled back data".getBytes(StandardCharsets.UTF_8));
+		assertThat(countStoredFiles()).isEqualTo(2); // the data and its pending marker
+
+		final int countDeleted = storage.collectGarbage(reference -> false, Duration.ZERO);
+
+		assertThat(countDeleted).isEqualTo(1);
+		assertThat(countStoredFiles()).isZero();
+	}
+
+	@Test
+	public void garbageCollection_keepsDataWhichIsReferencedByAnotherArchive() throws Exception
+	{
+		final I_AD_Archive archive = newArchive("shared data".getBytes(StandardCharsets.UTF_8));
+		newArchiveAndRollback("shared data".getBytes(StandardCharsets.UTF_8));
+		final String reference = new String(archive.getBinaryData(), StandardCharsets.UTF_8);
+
+		final int countDeleted = storage.collectGarbage(reference::equals, Duration.ZERO);
+
+		assertThat(countDeleted).isZero();
+		assertThat(countStoredFiles()).isEqualTo(1); // just the data; the pending marker was deleted
+		assertThat(storage.getBinaryData(archive)).isEqualTo("shared data".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void garbageCollection_keepsDataOfRecentlyPendingTrx() throws Exception
+	{
+		newArchiveAndRollback("recent data".getBytes(StandardCharsets.UTF_8));
+
+		final int countDeleted = storage.collectGarbage(reference -> false, Duration.ofHours(1));
+
+		assertThat(countDeleted).isZero();
+		assertThat(countStoredFiles()).isEqualTo(2);
+	}
+
+	@Test
+	public void garbageCollection_ignoresDataOfCommittedTrx() throws Exception
+	{
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			newArchive("committed data".getBytes(StandardCharsets.UTF_8));
+		});
+		assertThat(countStoredFiles()).isEqualTo(1);
+
+		final int countDeleted = storage.collectGarbage(reference -> false, Duration.ZERO);
+
+		assertThat(countDeleted).isZero();
+		assertThat(countStoredFiles()).isEqualTo(1);
+	}
+
+	/**
+	 * A concurrent archive finds the data file before the garbage collector moves it into quarantine, so it does not write it again.
+	 * The garbage collector's first reference check is right before the quarantine, so that's where the concurrent archive is stored.
+	 */
+	@Test
+	public void garbageCollection_keepsDataWhichIsStoredAgainBeforeQuarantine() throws Exception
+	{
+		final byte[] data = "concurrent data".getBytes(StandardCharsets.UTF_8);
+		newArchiveAndRollback(data);
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final String concurrentTrxName = trxManager.createTrxName("concurrent", true);
+		final Mutable<I_AD_Archive> concurrentArchive = new Mutable<>();
+
+		final int countDeleted = storage.collectGarbage(
+				reference -> {
+					if (concurrentArchive.getValue() == null)
+					{
+						concurrentArchive.setValue(newArchive(data, concurrentTrxName));
+					}
+					return false; // not committed yet
+				},
+				Duration.ZERO);
+		trxManager.get(concurrentTrxName, false).commit(true);
+
+		assertThat(countDeleted).isZero();
+		assertThat(storage.getBinaryData(concurrentArchive.getValue())).isEqualTo(data);
+		assertThat(countStoredFiles()).isEqualTo(1); // the data without pending markers and without a quarantined copy
+	}
+
+	/**
+	 * A concurrent archive doesn't find the data file while it's in quarantine, so it writes it again.
+	 * The garbage collector's second reference check is after the quarantine, so that's where the concurrent archive is stored.
+	 */
+	@Test
+	public void garbageCollection_keepsDataWhichIsStoredAgainDuringQuarantine() throws Exception
+	{
+		final byte[] data = "concurrent data".getBytes(StandardCharsets.UTF_8);
+		newArchiveAndRollback(data);
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final String concurrentTrxName = trxManager.createTrxName("concurrent", true);
+		final Mutable<Integer> referenceChecks = new Mutable<>(0);
+		final Mutable<I_AD_Archive> concurrentArchive = new Mutable<>();
+
+		final int countDeleted = storage.collectGarbage(
+				reference -> {
+					referenceChecks.setValue(referenceChecks.getValue() + 1);
+					if (referenceChecks.getValue() == 2)
+					{
+						concurrentArchive.setValue(newArchive(data, concurrentTrxName));
+					}
+					return false;
+				},
+				Duration.ZERO);
+		trxManager.get(concurrentTrxName, false).commit(true);
+
+		assertThat(referenceChecks.getValue()).isEqualTo(2);
+		assertThat(countDeleted).isZero();
+		assertThat(storage.getBinaryData(concurrentArchive.getValue())).isEqualTo(data);
+		assertThat(countStoredFiles()).isEqualTo(1);
+	}
+
+	@Test
+	public void isContentAddressedReference()
+	{
+		assertThat(ContentAddressedArchiveStorage.isContentAddressedReference(null)).isFalse();
+		assertThat(ContentAddressedArchiveStorage.isContentAddressedReference(new byte[] { 'P', 'K', 3, 4 })).isFalse();
+		assertThat(ContentAddressedArchiveStorage.isContentAddressedReference(ContentAddressedArchiveStorage.REFERENCE_PREFIX.getBytes(StandardCharsets.UTF_8))).isFalse();
+	}
+}
@@ -0,0 +1,53 @@
+package org.adempiere.test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Remembers the max used heap of the samples which were taken, e.g. while a manual test is running.
+ * <p>
+ * The samples are only as good as the moments in which they are taken, so call {@link #sample()} often enough.
+ */
+public final class MaxUsedHeapSampler
+{
+	private long maxUsedHeapBytes = 0;
+
+	/**
+	 * Runs the garbage collector and takes the first sample, so that the result is not distorted by the garbage of what ran before.
+	 */
+	public MaxUsedHeapSampler()
+	{
+		System.gc();
+		sample();
+	}
+
+	public void sample()
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		maxUsedHeapBytes = Math.max(maxUsedHeapBytes, runtime.totalMemory() - runtime.freeMemory());
+	}
+
+	public long getMaxUsedHeapBytes()
+	{
+		return maxUsedHeapBytes;
+	}
+}
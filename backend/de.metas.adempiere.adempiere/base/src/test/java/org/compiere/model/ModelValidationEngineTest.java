@@ -0,0 +1,174 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.modelvalidator.IModelInterceptor;
+import org.adempiere.ad.modelvalidator.IModelValidationEngine;
+import org.adempiere.ad.modelvalidator.ModelChangeType;
+import org.adempiere.ad.modelvalidator.ModelInterceptor2ModelValidatorWrapper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests the model change dispatch table of {@link ModelValidationEngine}.
+ */
+public class ModelValidationEngineTest
+{
+	/** Property name under which the engine registers global (i.e. AD_Client_ID=-1) listeners of {@link I_Test} */
+	private static final String PROPERTYNAME_Test = I_Test.Table_Name + "*";
+
+	private ModelValidationEngine engine;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		engine = ModelValidationEngine.newInstanceForUnitTesting();
+	}
+
+	private static class TestModelInterceptor implements IModelInterceptor
+	{
+		private final ModelChangeType handledChangeType;
+
+		private TestModelInterceptor(final ModelChangeType handledChangeType)
+		{
+			this.handledChangeType = handledChangeType;
+		}
+
+		@Override
+		public void initialize(final IModelValidationEngine engine, final I_AD_Client client)
+		{
+		}
+
+		@Override
+		public int getAD_Client_ID()
+		{
+			return -1;
+		}
+
+		@Override
+		public boolean isModelChangeHandled(final String tableName, final ModelChangeType changeType)
+		{
+			return handledChangeType == changeType;
+		}
+	}
+
+	private ImmutableList<ModelValidator> getModelChangeListeners(final ModelChangeType changeType)
+	{
+		return engine.getModelChangeListeners(PROPERTYNAME_Test, I_Test.Table_Name, changeType);
+	}
+
+	private static ModelValidator wrap(final IModelInterceptor interceptor)
+	{
+		return ModelInterceptor2ModelValidatorWrapper.wrapIfNeeded(interceptor);
+	}
+
+	@Test
+	public void listenersWhichDontHandleTheChangeType_areSkipped()
+	{
+		final TestModelInterceptor beforeNewInterceptor = new TestModelInterceptor(ModelChangeType.BEFORE_NEW);
+		final TestModelInterceptor afterNewInterceptor = new TestModelInterceptor(ModelChangeType.AFTER_NEW);
+		engine.addModelChange(I_Test.Table_Name, beforeNewInterceptor);
+		engine.addModelChange(I_Test.Table_Name, afterNewInterceptor);
+
+		assertThat(getModelChangeListeners(ModelChangeType.BEFORE_NEW)).containsExactly(wrap(beforeNewInterceptor));
+		assertThat(getModelChangeListeners(ModelChangeType.AFTER_NEW)).containsExactly(wrap(afterNewInterceptor));
+		assertThat(getModelChangeListeners(ModelChangeType.BEFORE_DELETE)).isEmpty();
+	}
+
+	@Test
+	public void addingAndRemovingListeners_resetsTheDispatchTable()
+	{
+		final TestModelInterceptor interceptor1 = new TestModelInterceptor(ModelChangeType.BEFORE_NEW);
+		engine.addModelChange(I_Test.Table_Name, interceptor1);
+		assertThat(getModelChangeListeners(ModelChangeType.BEFORE_NEW)).containsExactly(wrap(interceptor1));
+
+		final TestModelInterceptor interceptor2 = new TestModelInterceptor(ModelChangeType.BEFORE_NEW);
+		engine.addModelChange(I_Test.Table_Name, interceptor2);
+		assertThat(getModelChangeListeners(ModelChangeType.BEFORE_NEW)).containsExactly(wrap(interceptor1), wrap(interceptor2));
+
+		engine.removeModelChange(I_Test.Table_Name, interceptor1);
+		assertThat(getModelChangeListeners(ModelChangeType.BEFORE_NEW)).containsExactly(wrap(interceptor2));
+	}
+
+	/**
+	 * Verifies that a dispatch table entry which is computed while a listener is added does not hide the new listener afterwards.
+	 */
+	@Test
+	public void listenerAddedWhileTheDispatchTableIsComputed_isNotLost() throws Exception
+	{
+		final CountDownLatch computing = new CountDownLatch(1);
+		final CountDownLatch listenerAdded = new CountDownLatch(1);
+
+		final TestModelInterceptor slowInterceptor = new TestModelInterceptor(ModelChangeType.BEFORE_NEW)
+		{
+			@Override
+			public boolean isModelChangeHandled(final String tableName, final ModelChangeType changeType)
+			{
+				computing.countDown();
+				try
+				{
+					listenerAdded.await(10, TimeUnit.SECONDS);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				return super.isModelChangeHandled(tableName, changeType);
+			}
+		};
+		engine.addModelChange(I_Test.Table_Name, slowInterceptor);
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			final Future<ImmutableList<ModelValidator>> staleListeners = executor.submit(() -> getModelChangeListeners(ModelChangeType.BEFORE_NEW));
+			assertThat(computing.await(10, TimeUnit.SECONDS)).isTrue();
+
+			final TestModelInterceptor newInterceptor = new TestModelInterceptor(ModelChangeType.BEFORE_NEW);
+			engine.addModelChange(I_Test.Table_Name, newInterceptor);
+			listenerAdded.countDown();
+
+			// the concurrent computation was started before the new interceptor was added; it's fine that it does not see it...
+			assertThat(staleListeners.get(10, TimeUnit.SECONDS)).containsExactly(wrap(slowInterceptor));
+
+			// ...but it shall not be cached
+			assertThat(getModelChangeListeners(ModelChangeType.BEFORE_NEW)).containsExactly(wrap(slowInterceptor), wrap(newInterceptor));
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,9 @@
+-- 2021-03-05T10:12:41.201Z
+-- URL zum Konzept
+INSERT INTO AD_Process (AccessLevel,AD_Client_ID,AD_Org_ID,AD_Process_ID,AllowProcessReRun,Classname,CopyFromProcess,Created,CreatedBy,Description,EntityType,IsActive,IsApplySecuritySettings,IsBetaFunctionality,IsDirectPrint,IsOneInstanceOnly,IsReport,IsServerProcess,IsTranslateExcelHeaders,IsUseBPartnerLanguage,LockWaitTimeout,Name,RefreshAllAfterExecution,ShowHelp,Type,Updated,UpdatedBy,Value) VALUES ('6',0,0,584805,'Y','org.adempiere.archive.process.AD_Archive_MigrateToContentAddressedStorage','N',TO_TIMESTAMP('2021-03-05 11:12:41','YYYY-MM-DD HH24:MI:SS'),100,'Moves the data of database archives to the content addressed archive storage. Can be scheduled; already migrated archives are skipped.','D','Y','N','N','N','Y','N','N','Y','Y',0,'Migrate archives to content addressed storage','N','N','Java',TO_TIMESTAMP('2021-03-05 11:12:41','YYYY-MM-DD HH24:MI:SS'),100,'AD_Archive_MigrateToContentAddressedStorage')
+;
+
+-- 2021-03-05T10:12:41.232Z
+-- URL zum Konzept
+INSERT INTO AD_Process_Trl (AD_Language,AD_Process_ID, Description,Help,Name, IsTranslated,AD_Client_ID,AD_Org_ID,Created,Createdby,Updated,UpdatedBy) SELECT l.AD_Language, t.AD_Process_ID, t.Description,t.Help,t.Name, 'N',t.AD_Client_ID,t.AD_Org_ID,t.Created,t.Createdby,t.Updated,t.UpdatedBy FROM AD_Language l, AD_Process t WHERE l.IsActive='Y'AND (l.IsSystemLanguage='Y' AND l.IsBaseLanguage='N') AND t.AD_Process_ID=584805 AND NOT EXISTS (SELECT 1 FROM AD_Process_Trl tt WHERE tt.AD_Language=l.AD_Language AND tt.AD_Process_ID=t.AD_Process_ID)
+;
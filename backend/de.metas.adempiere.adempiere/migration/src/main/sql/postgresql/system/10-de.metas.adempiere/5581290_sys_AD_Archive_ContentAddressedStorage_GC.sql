@@ -0,0 +1,9 @@
+-- 2021-03-09T14:21:07.512Z
+-- URL zum Konzept
+INSERT INTO AD_Process (AccessLevel,AD_Client_ID,AD_Org_ID,AD_Process_ID,AllowProcessReRun,Classname,CopyFromProcess,Created,CreatedBy,Description,EntityType,IsActive,IsApplySecuritySettings,IsBetaFunctionality,IsDirectPrint,IsOneInstanceOnly,IsReport,IsServerProcess,IsTranslateExcelHeaders,IsUseBPartnerLanguage,LockWaitTimeout,Name,RefreshAllAfterExecution,ShowHelp,Type,Updated,UpdatedBy,Value) VALUES ('6',0,0,584807,'Y','org.adempiere.archive.process.AD_Archive_ContentAddressedStorage_GC','N',TO_TIMESTAMP('2021-03-09 15:21:07','YYYY-MM-DD HH24:MI:SS'),100,'Deletes the content addressed archive files which were written in rolled back transactions and are not referenced by any archive. Can be scheduled.','D','Y','N','N','N','Y','N','N','Y','Y',0,'Content addressed archive storage garbage collection','N','N','Java',TO_TIMESTAMP('2021-03-09 15:21:07','YYYY-MM-DD HH24:MI:SS'),100,'AD_Archive_ContentAddressedStorage_GC')
+;
+
+-- 2021-03-09T14:21:07.541Z
+-- URL zum Konzept
+INSERT INTO AD_Process_Trl (AD_Language,AD_Process_ID, Description,Help,Name, IsTranslated,AD_Client_ID,AD_Org_ID,Created,Createdby,Updated,UpdatedBy) SELECT l.AD_Language, t.AD_Process_ID, t.Description,t.Help,t.Name, 'N',t.AD_Client_ID,t.AD_Org_ID,t.Created,t.Createdby,t.Updated,t.UpdatedBy FROM AD_Language l, AD_Process t WHERE l.IsActive='Y'AND (l.IsSystemLanguage='Y' AND l.IsBaseLanguage='N') AND t.AD_Process_ID=584807 AND NOT EXISTS (SELECT 1 FROM AD_Process_Trl tt WHERE tt.AD_Language=l.AD_Language AND tt.AD_Process_ID=t.AD_Process_ID)
+;
@@ -2,11 +2,15 @@ package de.metas.impexp.async;
 
 import org.compiere.SpringContextHolder;
 
+import com.google.common.base.Stopwatch;
+
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.spi.WorkpackageProcessorAdapter;
 import de.metas.impexp.ImportRecordsRequest;
 import de.metas.impexp.DataImportService;
+import de.metas.impexp.ValidateAndActualImportRecordsResult;
 import de.metas.impexp.processing.IImportProcess;
+import de.metas.util.Loggables;
 
 /**
  * Workpackage processor used to import records enqueued by {@link AsyncImportRecordsAsyncExecutor}.
@@ -32,7 +36,11 @@ public class AsyncImportWorkpackageProcessor extends WorkpackageProcessorAdapter
 			final String localTrxName_NOTUSED)
 	{
 		final ImportRecordsRequest request = ImportRecordsRequest.ofParams(getParameters());
-		dataImportService.validateAndImportRecordsNow(request);
+
+		// NOTE: the import process logs into this workpackage's loggable; in parallel mode that includes the throughput of each import worker
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final ValidateAndActualImportRecordsResult result = dataImportService.validateAndImportRecordsNow(request);
+		Loggables.addLog("Imported {} in {}: {}", request.getImportTableName(), stopwatch.stop(), result.getActualImport());
 
 		return Result.SUCCESS;
 	}
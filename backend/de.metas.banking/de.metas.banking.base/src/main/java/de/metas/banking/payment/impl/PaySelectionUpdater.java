@@ -22,6 +22,7 @@ import org.adempiere.ad.service.IADReferenceDAO;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
 import org.compiere.model.I_C_BP_BankAccount;
 import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_PaySelection;
@@ -46,8 +47,10 @@ import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.cache.model.IModelCacheInvalidationService;
 import de.metas.cache.model.ModelCacheInvalidationTiming;
 import de.metas.document.engine.DocStatus;
+import de.metas.invoice.openitems.IInvoiceOpenItemsDAO;
 import de.metas.logging.LogManager;
 import de.metas.money.CurrencyId;
+import de.metas.organization.OrgId;
 import de.metas.payment.PaymentRule;
 import de.metas.util.Check;
 import de.metas.util.Services;
@@ -60,6 +63,7 @@ public class PaySelectionUpdater implements IPaySelectionUpdater
 	private final transient ITrxManager trxManager = Services.get(ITrxManager.class);
 	private final transient IPaySelectionDAO paySelectionsRepo = Services.get(IPaySelectionDAO.class);
 	private final transient IModelCacheInvalidationService modelCacheInvalidationService = Services.get(IModelCacheInvalidationService.class);
+	private final transient IInvoiceOpenItemsDAO invoiceOpenItemsDAO = Services.get(IInvoiceOpenItemsDAO.class);
 
 	private boolean _configurable = true;
 
@@ -242,10 +246,14 @@ public class PaySelectionUpdater implements IPaySelectionUpdater
 			payDate = paySelection.getPayDate();
 		}
 
+		// if enabled, the invoices' open amounts are read from the projection instead of being computed by invoiceOpen() for each invoice
+		final boolean useOpenItemsProjection = invoiceOpenItemsDAO.isProjectionEnabled(ClientId.ofRepoId(paySelection.getAD_Client_ID()), OrgId.ofRepoId(paySelection.getAD_Org_ID()));
+		final String sqlInvoiceOpenAmt = useOpenItemsProjection ? "oi.OpenAmt" : "invoiceOpen(i.C_Invoice_ID, 0)";
+
 		String sql = "SELECT "
-				+ " C_Invoice_ID,"
+				+ " i.C_Invoice_ID,"
 				// OpenAmt
-				+ " currencyConvert(invoiceOpen(i.C_Invoice_ID, 0)"
+				+ " currencyConvert(" + sqlInvoiceOpenAmt
 				+ ",i.C_Currency_ID, ?,?, i.C_ConversionType_ID,i.AD_Client_ID,i.AD_Org_ID) as OpenAmt," // ##1/2 Currency_To,PayDate
 				// DiscountAmt
 				+ " currencyConvert(paymentTermDiscount(i.GrandTotal,i.C_Currency_ID,i.C_PaymentTerm_ID,i.DateInvoiced, ?)" // ##3 PayDate
@@ -260,6 +268,7 @@ public class PaySelectionUpdater implements IPaySelectionUpdater
 				+ " THEN i.PaymentRule ELSE 'B' END)) as C_BP_BankAccount_ID "
 				//
 				+ " FROM C_Invoice i "
+				+ (useOpenItemsProjection ? " INNER JOIN " + IInvoiceOpenItemsDAO.TABLENAME_C_Invoice_Open_Projection + " oi ON oi.C_Invoice_ID = i.C_Invoice_ID " : "")
 				+ " LEFT JOIN C_Doctype dt on i.C_Doctype_ID = dt.C_Doctype_ID "
 				+ " WHERE true " //
 		;
@@ -330,7 +339,7 @@ public class PaySelectionUpdater implements IPaySelectionUpdater
 		// PaymentRule (optional)
 		if (getPaymentRule() != null)
 		{
-			sql += " AND PaymentRule=?"; // ##
+			sql += " AND i.PaymentRule=?"; // ##
 			sqlParams.add(getPaymentRule());
 		}
 
@@ -345,7 +354,7 @@ public class PaySelectionUpdater implements IPaySelectionUpdater
 			{
 				sql += " AND ";
 			}
-			sql += "paymentTermDiscount(invoiceOpen(C_Invoice_ID, 0), C_Currency_ID, C_PaymentTerm_ID, DateInvoiced, ?) > 0"; // ##
+			sql += "paymentTermDiscount(" + sqlInvoiceOpenAmt + ", i.C_Currency_ID, i.C_PaymentTerm_ID, i.DateInvoiced, ?) > 0"; // ##
 			sqlParams.add(payDate);
 		}
 		// OnlyDue
@@ -360,7 +369,7 @@ public class PaySelectionUpdater implements IPaySelectionUpdater
 				sql += " AND ";
 			}
 
-			sql += "paymentTermDueDays(C_PaymentTerm_ID, DateInvoiced, ?) >= 0"; // ##
+			sql += "paymentTermDueDays(i.C_PaymentTerm_ID, i.DateInvoiced, ?) >= 0"; // ##
 			sqlParams.add(payDate);
 
 			if (isOnlyDiscount())
@@ -372,7 +381,7 @@ public class PaySelectionUpdater implements IPaySelectionUpdater
 		// Business Partner
 		if (getC_BPartner_ID() > 0)
 		{
-			sql += " AND C_BPartner_ID=?"; // ##
+			sql += " AND i.C_BPartner_ID=?"; // ##
 			sqlParams.add(getC_BPartner_ID());
 		}
 		// Business Partner Group
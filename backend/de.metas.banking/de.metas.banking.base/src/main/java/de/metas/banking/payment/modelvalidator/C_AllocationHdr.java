@@ -50,6 +50,7 @@ import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.cache.model.IModelCacheInvalidationService;
 import de.metas.cache.model.ModelCacheInvalidationTiming;
 import de.metas.invoice.InvoiceId;
+import de.metas.invoice.openitems.IInvoiceOpenItemsDAO;
 import de.metas.logging.LogManager;
 import de.metas.payment.PaymentId;
 import de.metas.util.Services;
@@ -67,7 +68,8 @@ public class C_AllocationHdr
 
 	/**
 	 * After {@link I_C_AllocationHdr} was completed/reversed/voided/reactivated,
-	 * update all {@link I_C_PaySelectionLine}s which were not already processed and which are about the invoices from this allocation.
+	 * update the open items projection of the invoices from this allocation
+	 * and all {@link I_C_PaySelectionLine}s which were not already processed and which are about those invoices.
 	 *
 	 * @param allocationHdr
 	 * @task 08972
@@ -85,6 +87,7 @@ public class C_AllocationHdr
 		final List<I_C_AllocationLine> lines = allocationsRepo.retrieveAllLines(allocationHdr);
 
 		final Set<InvoiceId> invoiceIds = extractInvoiceIds(lines);
+		Services.get(IInvoiceOpenItemsDAO.class).updateForInvoiceIds(invoiceIds);
 		updateDraftedPaySelectionLinesForInvoiceIds(invoiceIds);
 
 		final Set<PaymentId> paymentIds = extractPaymentIds(lines);
@@ -1,6 +1,8 @@
 package de.metas.rest_api.bpartner.impl;
 
+import com.google.common.collect.Lists;
 import de.metas.Profiles;
+import de.metas.rest_api.bpartner.impl.bpartnercomposite.JsonRetrieverService;
 import de.metas.rest_api.bpartner.impl.bpartnercomposite.JsonServiceFactory;
 import de.metas.rest_api.bpartner.impl.bpartnercomposite.jsonpersister.JsonPersisterService;
 import de.metas.common.bpartner.request.JsonRequestBPartnerUpsert;
@@ -21,12 +23,15 @@ import de.metas.common.rest_api.SyncAdvise.IfExists;
 import de.metas.common.rest_api.SyncAdvise.IfNotExists;
 import de.metas.rest_api.utils.IdentifierString;
 import de.metas.rest_api.utils.JsonErrors;
+import de.metas.util.Services;
 import de.metas.util.web.MetasfreshRestAPIConstants;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.Env;
 import org.slf4j.MDC;
 import org.slf4j.MDC.MDCCloseable;
@@ -42,6 +47,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Optional;
 
 import static de.metas.common.rest_api.SwaggerDocConstants.BPARTNER_IDENTIFIER_DOC;
@@ -81,6 +87,16 @@ public class BpartnerRestController
 	public static final String ENDPOINT = MetasfreshRestAPIConstants.ENDPOINT_API + "/bpartner";
 	public static final String ORG_CODE_PARAMETER_DOC = "`AD_Org.Value` of the BPartner identified by the bpartnerIdentifier";
 
+	/**
+	 * Number of upsert request items whose existing bpartners are loaded in one go and which are saved in one transaction. Note that an error rolls back the whole batch.
+	 * Should not exceed the size of {@link JsonRetrieverService}'s lookup-key cache, which currently holds 100 entries.
+	 */
+	private static final String SYSCONFIG_UPSERT_BATCH_SIZE = "de.metas.rest_api.bpartner.impl.BpartnerRestController.UpsertBatchSize";
+	private static final int DEFAULT_UPSERT_BATCH_SIZE = 100;
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
 	private final BPartnerEndpointService bpartnerEndpointService;
 	private final JsonServiceFactory jsonServiceFactory;
 
@@ -280,20 +296,50 @@ public class BpartnerRestController
 
 		final JsonResponseBPartnerCompositeUpsertBuilder response = JsonResponseBPartnerCompositeUpsert.builder();
 
-		for (final JsonRequestBPartnerUpsertItem requestItem : bpartnerUpsertRequest.getRequestItems())
+		final int batchSize = getUpsertBatchSize();
+
+		for (final List<JsonRequestBPartnerUpsertItem> requestItemsBatch : Lists.partition(bpartnerUpsertRequest.getRequestItems(), batchSize))
+		{
+			if (requestItemsBatch.size() > 1)
+			{
+				persister.prefetchBPartnerComposites(orgCode, requestItemsBatch);
+			}
+
+			trxManager.runInThreadInheritedTrx(() -> persistBatch(orgCode, requestItemsBatch, defaultSyncAdvise, persister, response));
+		}
+		return new ResponseEntity<>(response.build(), HttpStatus.CREATED);
+	}
+
+	private void persistBatch(
+			@Nullable final String orgCode,
+			@NonNull final List<JsonRequestBPartnerUpsertItem> requestItemsBatch,
+			@NonNull final SyncAdvise defaultSyncAdvise,
+			@NonNull final JsonPersisterService persister,
+			@NonNull final JsonResponseBPartnerCompositeUpsertBuilder response)
+	{
+		for (final JsonRequestBPartnerUpsertItem requestItem : requestItemsBatch)
 		{
 			try (final MDCCloseable ignored = MDC.putCloseable("bpartnerIdentifier", requestItem.getBpartnerIdentifier()))
 			{
 				jsonRequestConsolidateService.consolidateWithIdentifier(requestItem);
-
-				final JsonResponseBPartnerCompositeUpsertItem persist = persister.persist(
-						orgCode,
-						requestItem,
-						defaultSyncAdvise);
-				response.responseItem(persist);
 			}
 		}
-		return new ResponseEntity<>(response.build(), HttpStatus.CREATED);
+
+		final List<JsonResponseBPartnerCompositeUpsertItem> responseItems = persister.persistAll(
+				orgCode,
+				requestItemsBatch,
+				defaultSyncAdvise);
+		responseItems.forEach(response::responseItem);
+	}
+
+	private int getUpsertBatchSize()
+	{
+		final int batchSize = sysConfigBL.getIntValue(
+				SYSCONFIG_UPSERT_BATCH_SIZE,
+				DEFAULT_UPSERT_BATCH_SIZE,
+				Env.getAD_Client_ID(),
+				Env.getOrgId().getRepoId());
+		return batchSize > 0 ? batchSize : DEFAULT_UPSERT_BATCH_SIZE;
 	}
 
 	@ApiOperation("The identified bpartner needs to be in the current user's organisation.")
@@ -72,6 +72,11 @@ final class BPartnerCompositeCacheByLookupKey
 		return cache.getAllOrLoad(keys, valuesLoader);
 	}
 
+	public void putAll(@NonNull final Map<OrgAndBPartnerCompositeLookupKey, BPartnerComposite> bpartnerCompositesByKey)
+	{
+		cache.putAll(bpartnerCompositesByKey);
+	}
+
 	/**
 	 * Get all the records, assuming that there is a cache entry for each single record. If not, throw an exception.
 	 */
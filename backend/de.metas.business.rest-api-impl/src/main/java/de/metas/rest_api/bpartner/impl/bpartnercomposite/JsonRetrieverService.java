@@ -2,7 +2,9 @@ package de.metas.rest_api.bpartner.impl.bpartnercomposite;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import de.metas.bpartner.BPGroup;
 import de.metas.bpartner.BPGroupId;
 import de.metas.bpartner.BPGroupRepository;
@@ -49,21 +51,28 @@ import de.metas.rest_api.utils.JsonConverters;
 import de.metas.rest_api.utils.OrgAndBPartnerCompositeLookupKey;
 import de.metas.rest_api.utils.OrgAndBPartnerCompositeLookupKeyList;
 import de.metas.user.UserId;
+import de.metas.util.Services;
 import de.metas.util.collections.CollectionUtils;
 import de.metas.util.lang.ExternalId;
 import de.metas.util.web.exception.InvalidEntityException;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
+import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.IQuery;
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.table.RecordChangeLog;
 import org.adempiere.ad.table.RecordChangeLogEntry;
 import org.adempiere.exceptions.AdempiereException;
+import org.compiere.model.I_C_BPartner_Location;
 import org.slf4j.MDC;
 import org.slf4j.MDC.MDCCloseable;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 import static de.metas.util.Check.isEmpty;
@@ -446,6 +455,136 @@ public class JsonRetrieverService
 		return extractResult(bpartnerComposites);
 	}
 
+	/**
+	 * Loads the bpartner composites of all the given identifiers with a few set-based queries and puts them into this instance's cache,
+	 * so that the subsequent {@link #getBPartnerComposite(OrgId, IdentifierString)} calls for those identifiers don't need to go to the DB one by one.
+	 * <p>
+	 * Identifiers which match no bpartner or more than one bpartner are not cached; for them, {@code getBPartnerComposite} still does its own lookup (and fails, if needed).
+	 * <p>
+	 * Note that the cache only holds a limited number of entries, so callers should invoke this method with reasonably small batches.
+	 */
+	public void warmUpBPartnerComposites(
+			@NonNull final OrgId orgId,
+			@NonNull final Collection<IdentifierString> bpartnerIdentifiers)
+	{
+		final ImmutableSet<BPartnerCompositeLookupKey> lookupKeys = bpartnerIdentifiers.stream()
+				.filter(JsonRetrieverService::isBPartnerLookupIdentifier)
+				.map(BPartnerCompositeLookupKey::ofIdentifierString)
+				.collect(ImmutableSet.toImmutableSet());
+		if (lookupKeys.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableSet<BPartnerId> bpartnerIds = retrieveBPartnerIdsMatchingAny(orgId, lookupKeys);
+		if (bpartnerIds.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableListMultimap.Builder<BPartnerCompositeLookupKey, BPartnerComposite> compositesByKeyBuilder = ImmutableListMultimap.builder();
+		for (final BPartnerComposite bpartnerComposite : bpartnerCompositeRepository.getByIds(bpartnerIds))
+		{
+			if (!orgId.equals(bpartnerComposite.getOrgId()))
+			{
+				continue;
+			}
+			for (final BPartnerCompositeLookupKey lookupKey : extractBPartnerLookupKeys(bpartnerComposite).getCompositeLookupKeys())
+			{
+				compositesByKeyBuilder.put(lookupKey, bpartnerComposite);
+			}
+		}
+		final ImmutableListMultimap<BPartnerCompositeLookupKey, BPartnerComposite> compositesByKey = compositesByKeyBuilder.build();
+
+		final ImmutableMap.Builder<OrgAndBPartnerCompositeLookupKey, BPartnerComposite> result = ImmutableMap.builder();
+		for (final BPartnerCompositeLookupKey lookupKey : lookupKeys)
+		{
+			final ImmutableList<BPartnerComposite> matchingComposites = compositesByKey.get(lookupKey);
+			if (matchingComposites.size() == 1)
+			{
+				result.put(OrgAndBPartnerCompositeLookupKey.of(lookupKey, orgId), matchingComposites.get(0));
+			}
+		}
+		cache.putAll(result.build());
+	}
+
+	private static boolean isBPartnerLookupIdentifier(@NonNull final IdentifierString identifier)
+	{
+		switch (identifier.getType())
+		{
+			case METASFRESH_ID:
+			case EXTERNAL_ID:
+			case VALUE:
+			case GLN:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Set-based counterpart of {@link BPartnerQueryService#createQuery(OrgAndBPartnerCompositeLookupKeyList)}:
+	 * retrieves the IDs of all the given org's bpartners which match at least one of the given lookup keys.
+	 */
+	private static ImmutableSet<BPartnerId> retrieveBPartnerIdsMatchingAny(
+			@NonNull final OrgId orgId,
+			@NonNull final Collection<BPartnerCompositeLookupKey> lookupKeys)
+	{
+		final Set<Integer> bpartnerRepoIds = new HashSet<>();
+		final Set<String> externalIds = new HashSet<>();
+		final Set<String> values = new HashSet<>();
+		final Set<String> glns = new HashSet<>();
+		for (final BPartnerCompositeLookupKey lookupKey : lookupKeys)
+		{
+			if (lookupKey.getMetasfreshId() != null)
+			{
+				bpartnerRepoIds.add(lookupKey.getMetasfreshId().getValue());
+			}
+			if (lookupKey.getJsonExternalId() != null)
+			{
+				externalIds.add(lookupKey.getJsonExternalId().getValue());
+			}
+			if (!isEmpty(lookupKey.getCode(), true))
+			{
+				values.add(lookupKey.getCode());
+			}
+			if (lookupKey.getGln() != null)
+			{
+				glns.add(lookupKey.getGln().getCode());
+			}
+		}
+
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+		final ICompositeQueryFilter<I_C_BPartner> matchingAnyKeyFilter = queryBL.createCompositeQueryFilter(I_C_BPartner.class)
+				.setJoinOr();
+		if (!bpartnerRepoIds.isEmpty())
+		{
+			matchingAnyKeyFilter.addInArrayFilter(I_C_BPartner.COLUMNNAME_C_BPartner_ID, bpartnerRepoIds);
+		}
+		if (!externalIds.isEmpty())
+		{
+			matchingAnyKeyFilter.addInArrayFilter(I_C_BPartner.COLUMNNAME_ExternalId, externalIds);
+		}
+		if (!values.isEmpty())
+		{
+			matchingAnyKeyFilter.addInArrayFilter(I_C_BPartner.COLUMNNAME_Value, values);
+		}
+		if (!glns.isEmpty())
+		{
+			final IQuery<I_C_BPartner_Location> locationsWithGLNQuery = queryBL.createQueryBuilder(I_C_BPartner_Location.class)
+					.addInArrayFilter(I_C_BPartner_Location.COLUMNNAME_GLN, glns)
+					.addEqualsFilter(I_C_BPartner_Location.COLUMNNAME_AD_Org_ID, orgId)
+					.create();
+			matchingAnyKeyFilter.addInSubQueryFilter(I_C_BPartner.COLUMNNAME_C_BPartner_ID, I_C_BPartner_Location.COLUMNNAME_C_BPartner_ID, locationsWithGLNQuery);
+		}
+
+		return queryBL.createQueryBuilder(I_C_BPartner.class)
+				.addEqualsFilter(I_C_BPartner.COLUMNNAME_AD_Org_ID, orgId)
+				.filter(matchingAnyKeyFilter)
+				.create()
+				.listIds(BPartnerId::ofRepoId);
+	}
+
 	/**
 	 * Visible to verify that caching actually works the way we expect it to (=> performance)
 	 */
@@ -2,6 +2,7 @@ package de.metas.rest_api.bpartner.impl.bpartnercomposite.jsonpersister;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import de.metas.bpartner.BPGroup;
 import de.metas.bpartner.BPGroupId;
 import de.metas.bpartner.BPGroupRepository;
@@ -73,10 +74,13 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
+import lombok.Value;
 import org.adempiere.exceptions.AdempiereException;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -147,6 +151,25 @@ public class JsonPersisterService
 		this.identifier = assumeNotEmpty(identifier, "Param Identifier may not be empty");
 	}
 
+	/**
+	 * Loads the already existing bpartners of the given request items in one go, so that the subsequent {@link #persistAll(String, List, SyncAdvise)} call
+	 * doesn't need to look them up one by one.
+	 *
+	 * @param orgCode @{@code AD_Org.Value} of the bpartners in question. If {@code null}, the system will fall back to the current context-OrgId.
+	 */
+	public void prefetchBPartnerComposites(
+			@Nullable final String orgCode,
+			@NonNull final Collection<JsonRequestBPartnerUpsertItem> requestItems)
+	{
+		final OrgId orgId = retrieveOrgIdOrDefault(orgCode);
+		final ImmutableSet<IdentifierString> bpartnerIdentifiers = requestItems.stream()
+				.map(JsonRequestBPartnerUpsertItem::getBpartnerIdentifier)
+				.map(IdentifierString::of)
+				.collect(ImmutableSet.toImmutableSet());
+
+		jsonRetrieverService.warmUpBPartnerComposites(orgId, bpartnerIdentifiers);
+	}
+
 	/**
 	 * @param orgCode @{@code AD_Org.Value} of the bpartner in question. If {@code null}, the system will fall back to the current context-OrgId.
 	 */
@@ -154,6 +177,58 @@ public class JsonPersisterService
 			@Nullable final String orgCode,
 			@NonNull final JsonRequestBPartnerUpsertItem requestItem,
 			@NonNull final SyncAdvise parentSyncAdvise)
+	{
+		return persistAll(orgCode, ImmutableList.of(requestItem), parentSyncAdvise).get(0);
+	}
+
+	/**
+	 * Syncs all the given request items to their bpartner composites first and then saves those composites together.
+	 * <p>
+	 * If an item refers to a bpartner which an earlier item of the same call already refers to, then the earlier items are saved before that item is synced,
+	 * so that it builds on their outcome.
+	 *
+	 * @param orgCode @{@code AD_Org.Value} of the bpartners in question. If {@code null}, the system will fall back to the current context-OrgId.
+	 * @return one response item per request item, in the same order
+	 */
+	public ImmutableList<JsonResponseBPartnerCompositeUpsertItem> persistAll(
+			@Nullable final String orgCode,
+			@NonNull final List<JsonRequestBPartnerUpsertItem> requestItems,
+			@NonNull final SyncAdvise parentSyncAdvise)
+	{
+		final ImmutableList.Builder<JsonResponseBPartnerCompositeUpsertItem> result = ImmutableList.builder();
+
+		final List<PreparedBPartnerCompositeUpsert> pendingUpserts = new ArrayList<>();
+		for (final JsonRequestBPartnerUpsertItem requestItem : requestItems)
+		{
+			if (pendingUpserts.stream().anyMatch(pendingUpsert -> pendingUpsert.hasBPartnerIdentifier(requestItem.getBpartnerIdentifier())))
+			{
+				result.addAll(saveAll(orgCode, pendingUpserts));
+				pendingUpserts.clear();
+			}
+
+			PreparedBPartnerCompositeUpsert upsert = prepareUpsert(orgCode, requestItem, parentSyncAdvise);
+
+			final BPartnerId bpartnerId = upsert.getBpartnerComposite().getBpartner().getId();
+			if (bpartnerId != null && pendingUpserts.stream().anyMatch(pendingUpsert -> bpartnerId.equals(pendingUpsert.getBpartnerComposite().getBpartner().getId())))
+			{
+				// the same bpartner under a different identifier; sync the item again after the pending ones were saved
+				result.addAll(saveAll(orgCode, pendingUpserts));
+				pendingUpserts.clear();
+
+				upsert = prepareUpsert(orgCode, requestItem, parentSyncAdvise);
+			}
+
+			pendingUpserts.add(upsert);
+		}
+		result.addAll(saveAll(orgCode, pendingUpserts));
+
+		return result.build();
+	}
+
+	private PreparedBPartnerCompositeUpsert prepareUpsert(
+			@Nullable final String orgCode,
+			@NonNull final JsonRequestBPartnerUpsertItem requestItem,
+			@NonNull final SyncAdvise parentSyncAdvise)
 	{
 		// TODO: add support to retrieve without changelog; we don't need changelog here;
 		// but! make sure we don't screw up caching
@@ -201,9 +276,48 @@ public class JsonPersisterService
 				bpartnerComposite,
 				effectiveSyncAdvise);
 
-		handleExternalReferenceRecords(requestItem, bpartnerComposite, orgCode);
+		return new PreparedBPartnerCompositeUpsert(requestItem, bpartnerComposite, resultBuilder);
+	}
+
+	private ImmutableList<JsonResponseBPartnerCompositeUpsertItem> saveAll(
+			@Nullable final String orgCode,
+			@NonNull final List<PreparedBPartnerCompositeUpsert> upserts)
+	{
+		if (upserts.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		bpartnerCompositeRepository.saveAll(upserts.stream()
+				.map(PreparedBPartnerCompositeUpsert::getBpartnerComposite)
+				.collect(ImmutableList.toImmutableList()));
+
+		final ImmutableList.Builder<JsonResponseBPartnerCompositeUpsertItem> result = ImmutableList.builder();
+		for (final PreparedBPartnerCompositeUpsert upsert : upserts)
+		{
+			supplementMetasfreshIds(upsert.getResultBuilder(), upsert.getRequestItem().getBpartnerComposite(), upsert.getBpartnerComposite());
+
+			handleExternalReferenceRecords(upsert.getRequestItem(), upsert.getBpartnerComposite(), orgCode);
+
+			result.add(upsert.getResultBuilder().build());
+		}
+		return result.build();
+	}
+
+	/**
+	 * A bpartner composite to which its request item was already synced, but which is not yet saved.
+	 */
+	@Value
+	private static class PreparedBPartnerCompositeUpsert
+	{
+		JsonRequestBPartnerUpsertItem requestItem;
+		BPartnerComposite bpartnerComposite;
+		JsonResponseBPartnerCompositeUpsertItemUnderConstrunction resultBuilder;
 
-		return resultBuilder.build();
+		boolean hasBPartnerIdentifier(@NonNull final String rawBpartnerIdentifier)
+		{
+			return rawBpartnerIdentifier.equals(requestItem.getBpartnerIdentifier());
+		}
 	}
 
 	@Data
@@ -513,11 +627,16 @@ public class JsonPersisterService
 		resultBuilder.setJsonResponseLocationUpsertItems(identifierToLocationResponse);
 
 		resultBuilder.setJsonResponseBankAccountUpsertItems(syncJsonToBankAccounts(jsonRequestComposite, bpartnerComposite, parentSyncAdvise));
+	}
 
-		bpartnerCompositeRepository.save(bpartnerComposite);
-
-		//
-		// supplement the metasfreshiId which we now have after the "save()"
+	/**
+	 * Supplements the metasfreshIds, which we have only after the composite was saved.
+	 */
+	private static void supplementMetasfreshIds(
+			@NonNull final JsonResponseBPartnerCompositeUpsertItemUnderConstrunction resultBuilder,
+			@NonNull final JsonRequestComposite jsonRequestComposite,
+			@NonNull final BPartnerComposite bpartnerComposite)
+	{
 		resultBuilder.getJsonResponseBPartnerUpsertItemBuilder().metasfreshId(JsonMetasfreshId.of(BPartnerId.toRepoId(bpartnerComposite.getBpartner().getId())));
 
 		final ImmutableMap<String, JsonResponseUpsertItemBuilder> jsonResponseContactUpsertItemBuilders = resultBuilder.getJsonResponseContactUpsertItems();
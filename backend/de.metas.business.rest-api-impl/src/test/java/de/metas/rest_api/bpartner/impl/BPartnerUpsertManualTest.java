@@ -0,0 +1,137 @@
+package de.metas.rest_api.bpartner.impl;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.common.bpartner.request.JsonRequestBPartner;
+import de.metas.common.bpartner.request.JsonRequestBPartnerUpsert;
+import de.metas.common.bpartner.request.JsonRequestBPartnerUpsert.JsonRequestBPartnerUpsertBuilder;
+import de.metas.common.bpartner.request.JsonRequestBPartnerUpsertItem;
+import de.metas.common.bpartner.request.JsonRequestComposite;
+import de.metas.common.bpartner.request.JsonRequestContactUpsert;
+import de.metas.common.bpartner.request.JsonRequestLocationUpsert;
+import de.metas.common.rest_api.JsonExternalId;
+import de.metas.common.rest_api.SyncAdvise;
+
+/**
+ * Measures how long it takes to upsert 10k bpartners (with one location and one contact each) via {@code PUT /api/bpartner/{orgCode}}.
+ * The first run creates the bpartners, the second one updates them.
+ * <p>
+ * Run it manually against a running metasfresh app, e.g.
+ * {@code -Dbenchmark.url=http://localhost:8181/api/bpartner/001 -Dbenchmark.authToken=<API token> -Dbenchmark.bpGroup=Standard}.
+ * Compare the results with different values of the sysconfig {@code de.metas.rest_api.bpartner.impl.BpartnerRestController.UpsertBatchSize};
+ * with a batch size of 1, each bpartner is saved in its own transaction.
+ */
+public class BPartnerUpsertManualTest
+{
+	private static final int BPARTNERS_COUNT = 10_000;
+
+	public static void main(final String[] args) throws IOException
+	{
+		final String url = System.getProperty("benchmark.url", "http://localhost:8181/api/bpartner/001");
+		final String authToken = System.getProperty("benchmark.authToken");
+		final String bpGroup = System.getProperty("benchmark.bpGroup", "Standard");
+		final String runId = Long.toString(System.currentTimeMillis());
+
+		final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.newJsonObjectMapper();
+		final byte[] requestBody = jsonObjectMapper.writeValueAsBytes(createRequest(runId, bpGroup));
+
+		benchmark("create", url, authToken, requestBody);
+		benchmark("update", url, authToken, requestBody);
+	}
+
+	private static JsonRequestBPartnerUpsert createRequest(final String runId, final String bpGroup)
+	{
+		final JsonRequestBPartnerUpsertBuilder request = JsonRequestBPartnerUpsert.builder()
+				.syncAdvise(SyncAdvise.CREATE_OR_MERGE);
+
+		for (int i = 0; i < BPARTNERS_COUNT; i++)
+		{
+			final String prefix = "benchmark_" + runId + "_" + i;
+
+			final JsonRequestBPartner bpartner = new JsonRequestBPartner();
+			bpartner.setExternalId(JsonExternalId.of(prefix));
+			bpartner.setCode(prefix);
+			bpartner.setName(prefix + "_name");
+			bpartner.setCompanyName(prefix + "_companyName");
+			bpartner.setGroup(bpGroup);
+			bpartner.setCustomer(true);
+
+			final JsonRequestComposite bpartnerComposite = JsonRequestComposite.builder()
+					.bpartner(bpartner)
+					.locations(JsonRequestLocationUpsert.builder()
+							.requestItem(MockedDataUtil.createMockLocation(prefix + "_l1", "DE"))
+							.build())
+					.contacts(JsonRequestContactUpsert.builder()
+							.requestItem(MockedDataUtil.createMockContact(prefix + "_c1"))
+							.build())
+					.build();
+
+			request.requestItem(JsonRequestBPartnerUpsertItem.builder()
+					.bpartnerIdentifier("ext-" + prefix)
+					.bpartnerComposite(bpartnerComposite)
+					.build());
+		}
+		return request.build();
+	}
+
+	private static void benchmark(
+			final String name,
+			final String url,
+			final String authToken,
+			final byte[] requestBody) throws IOException
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final HttpURLConnection connection = (HttpURLConnection)new URL(url).openConnection();
+		connection.setRequestMethod("PUT");
+		connection.setDoOutput(true);
+		connection.setRequestProperty("Content-Type", "application/json");
+		if (authToken != null)
+		{
+			connection.setRequestProperty("Authorization", authToken);
+		}
+		try (final OutputStream out = connection.getOutputStream())
+		{
+			out.write(requestBody);
+		}
+		final int responseCode = connection.getResponseCode();
+		connection.disconnect();
+
+		final long durationMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		System.out.println(name + ": " + BPARTNERS_COUNT + " bpartners"
+				+ ", HTTP " + responseCode
+				+ ", " + durationMillis + "ms"
+				+ ", " + (BPARTNERS_COUNT * 1000L / Math.max(durationMillis, 1)) + " bpartners/s");
+	}
+}
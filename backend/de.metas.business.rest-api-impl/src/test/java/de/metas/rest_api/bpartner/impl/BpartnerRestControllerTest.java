@@ -20,8 +20,10 @@ import static org.adempiere.model.InterfaceWrapperHelper.refresh;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
 
 import de.metas.common.rest_api.JsonMetasfreshId;
@@ -59,6 +61,7 @@ import de.metas.bpartner.BPartnerLocationId;
 import de.metas.bpartner.composite.BPartnerBankAccount;
 import de.metas.bpartner.composite.BPartnerComposite;
 import de.metas.bpartner.composite.BPartnerCompositeAndContactId;
+import de.metas.bpartner.composite.BPartnerContact;
 import de.metas.bpartner.composite.BPartnerLocation;
 import de.metas.bpartner.composite.repository.BPartnerCompositeRepository;
 import de.metas.bpartner.service.BPartnerContactQuery;
@@ -86,6 +89,7 @@ import de.metas.common.bpartner.response.JsonResponseContact;
 import de.metas.common.bpartner.response.JsonResponseLocation;
 import de.metas.common.bpartner.response.JsonResponseUpsert;
 import de.metas.common.bpartner.response.JsonResponseUpsertItem;
+import de.metas.common.bpartner.response.JsonResponseUpsertItem.SyncOutcome;
 import de.metas.common.bpartner.response.JsonResponseBPartnerCompositeUpsert;
 import de.metas.common.bpartner.response.JsonResponseBPartnerCompositeUpsertItem;
 import de.metas.common.rest_api.JsonExternalId;
@@ -296,6 +300,70 @@ class BpartnerRestControllerTest
 		assertThat(POJOLookupMap.get().getRecords(I_C_Location.class)).hasSize(initialLocationRecordCount + 2);
 	}
 
+	/**
+	 * Verifies that a request with several items is saved batch-wise, and that an item which refers to the same bpartner as an earlier item of its batch builds on that item's outcome.
+	 */
+	@Test
+	void createOrUpdateBPartner_batch_with_same_bpartner_twice()
+	{
+		createCountryRecord("CH");
+		createCountryRecord("DE");
+
+		final RecordCounts initialCounts = new RecordCounts();
+
+		final JsonRequestBPartnerUpsert bpartnerUpsertRequest = JsonRequestBPartnerUpsert.builder()
+				.syncAdvise(SyncAdvise.CREATE_OR_MERGE)
+				.requestItem(createMockUpsertItem("ext-batch_1", "batch_1.name"))
+				.requestItem(createMockUpsertItem("ext-batch_2", "batch_2.name"))
+				.requestItem(createMockUpsertItem("ext-batch_1", "batch_1.name_updated"))
+				.build();
+
+		Env.setLoggedUserId(Env.getCtx(), UserId.ofRepoId(BPartnerRecordsUtil.AD_USER_ID));
+
+		// invoke the method under test
+		final ResponseEntity<JsonResponseBPartnerCompositeUpsert> result = bpartnerRestController.createOrUpdateBPartner(bpartnerUpsertRequest);
+
+		assertThat(result.getStatusCode()).isEqualByComparingTo(HttpStatus.CREATED);
+		final List<JsonResponseBPartnerCompositeUpsertItem> responseItems = result.getBody().getResponseItems();
+		assertThat(responseItems)
+				.extracting(responseItem -> responseItem.getResponseBPartnerItem().getIdentifier(), responseItem -> responseItem.getResponseBPartnerItem().getSyncOutcome())
+				.containsExactly(
+						tuple("ext-batch_1", SyncOutcome.CREATED),
+						tuple("ext-batch_2", SyncOutcome.CREATED),
+						tuple("ext-batch_1", SyncOutcome.UPDATED));
+
+		final JsonMetasfreshId metasfreshId = responseItems.get(0).getResponseBPartnerItem().getMetasfreshId();
+		assertThat(responseItems.get(2).getResponseBPartnerItem().getMetasfreshId()).isEqualTo(metasfreshId);
+		assertThat(responseItems.get(1).getResponseBPartnerItem().getMetasfreshId()).isNotEqualTo(metasfreshId);
+
+		// the third item updated the first item's records, instead of creating new ones or deactivating them
+		initialCounts.assertBPartnerCountChangedBy(2);
+		initialCounts.assertUserCountChangedBy(4);
+		initialCounts.assertLocationCountChangedBy(4);
+
+		final BPartnerComposite persistedResult = bpartnerCompositeRepository.getById(BPartnerId.ofRepoId(metasfreshId.getValue()));
+		assertThat(persistedResult.getBpartner().getName()).isEqualTo("batch_1.name_updated");
+		assertThat(persistedResult.getLocations()).hasSize(2).allMatch(BPartnerLocation::isActive);
+		assertThat(persistedResult.getContacts()).hasSize(2).allMatch(BPartnerContact::isActive);
+	}
+
+	private static JsonRequestBPartnerUpsertItem createMockUpsertItem(
+			@NonNull final String bpartnerIdentifier,
+			@NonNull final String name)
+	{
+		final JsonRequestComposite bpartnerComposite = MockedDataUtil.createMockBPartner(bpartnerIdentifier);
+
+		final JsonRequestBPartner bpartner = bpartnerComposite.getBpartner();
+		bpartner.setCode(bpartnerIdentifier);
+		bpartner.setName(name);
+		bpartner.setGroup(BP_GROUP_RECORD_NAME);
+
+		return JsonRequestBPartnerUpsertItem.builder()
+				.bpartnerIdentifier(bpartnerIdentifier)
+				.bpartnerComposite(bpartnerComposite)
+				.build();
+	}
+
 	@Test
 	void createOrUpdateBPartner_update_builder()
 	{
@@ -2,6 +2,7 @@ package de.metas.rest_api.bpartner.impl.bpartnercomposite;
 
 import com.google.common.collect.ImmutableList;
 import de.metas.bpartner.BPGroupRepository;
+import de.metas.bpartner.GLN;
 import de.metas.bpartner.composite.BPartnerComposite;
 import de.metas.bpartner.composite.repository.BPartnerCompositeRepository;
 import de.metas.currency.CurrencyRepository;
@@ -11,6 +12,7 @@ import de.metas.organization.OrgId;
 import de.metas.rest_api.bpartner.impl.JsonRequestConsolidateService;
 import de.metas.common.rest_api.JsonExternalId;
 import de.metas.rest_api.utils.BPartnerCompositeLookupKey;
+import de.metas.rest_api.utils.IdentifierString;
 import de.metas.rest_api.utils.OrgAndBPartnerCompositeLookupKey;
 import de.metas.rest_api.utils.OrgAndBPartnerCompositeLookupKeyList;
 import de.metas.rest_api.utils.BPartnerQueryService;
@@ -29,6 +31,7 @@ import java.util.Optional;
 import static de.metas.rest_api.bpartner.impl.BPartnerRecordsUtil.AD_ORG_ID;
 import static de.metas.rest_api.bpartner.impl.BPartnerRecordsUtil.BP_GROUP_RECORD_NAME;
 import static de.metas.rest_api.bpartner.impl.BPartnerRecordsUtil.C_BPARTNER_EXTERNAL_ID;
+import static de.metas.rest_api.bpartner.impl.BPartnerRecordsUtil.C_BPARTNER_LOCATION_GLN;
 import static de.metas.rest_api.bpartner.impl.BPartnerRecordsUtil.C_BPARTNER_VALUE;
 import static de.metas.rest_api.bpartner.impl.BPartnerRecordsUtil.C_BP_GROUP_ID;
 import static de.metas.rest_api.bpartner.impl.BPartnerRecordsUtil.createBPartnerData;
@@ -141,4 +144,29 @@ class JsonRetrieverServiceTest
 		assertThat(result2).isEqualTo(result);
 	}
 
+	/**
+	 * verifies that bpartners which were loaded in one go via {@link JsonRetrieverService#warmUpBPartnerComposites(OrgId, java.util.Collection)} are then found in the cache
+	 */
+	@Test
+	void warmUpBPartnerComposites()
+	{
+		jsonRetrieverService.warmUpBPartnerComposites(
+				orgId,
+				ImmutableList.of(
+						IdentifierString.of("val-" + C_BPARTNER_VALUE),
+						IdentifierString.of("gln-" + C_BPARTNER_LOCATION_GLN),
+						IdentifierString.of("ext-" + "unknownExternalId")));
+
+		final Optional<BPartnerComposite> resultByValue = jsonRetrieverService.getBPartnerCompositeAssertCacheHit(ImmutableList.of(
+				OrgAndBPartnerCompositeLookupKey.of(BPartnerCompositeLookupKey.ofCode(C_BPARTNER_VALUE), orgId)));
+		final Optional<BPartnerComposite> resultByGLN = jsonRetrieverService.getBPartnerCompositeAssertCacheHit(ImmutableList.of(
+				OrgAndBPartnerCompositeLookupKey.of(BPartnerCompositeLookupKey.ofGln(GLN.ofString(C_BPARTNER_LOCATION_GLN)), orgId)));
+
+		assertThat(resultByValue).isNotEmpty();
+		assertThat(resultByGLN).isEqualTo(resultByValue);
+
+		final Optional<BPartnerComposite> resultByUnknownExternalId = jsonRetrieverService.getBPartnerComposite(orgId, IdentifierString.of("ext-" + "unknownExternalId"));
+		assertThat(resultByUnknownExternalId).isEmpty();
+	}
+
 }
@@ -259,4 +259,13 @@ public class BPartnerCompositeRepository
 		final BPartnerCompositeSaver saver = new BPartnerCompositeSaver();
 		saver.save(bpartnerComposite);
 	}
+
+	/**
+	 * Saves the given composites one after the other, but loads the records they already have in one go.
+	 */
+	public void saveAll(@NonNull final Collection<BPartnerComposite> bpartnerComposites)
+	{
+		final BPartnerCompositeSaver saver = new BPartnerCompositeSaver();
+		saver.saveAll(bpartnerComposites);
+	}
 }
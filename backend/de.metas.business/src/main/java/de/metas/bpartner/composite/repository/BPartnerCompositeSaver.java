@@ -1,7 +1,9 @@
 package de.metas.bpartner.composite.repository;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import de.metas.banking.api.IBPBankAccountDAO;
+import de.metas.bpartner.BPGroupId;
 import de.metas.bpartner.BPartnerBankAccountId;
 import de.metas.bpartner.BPartnerContactId;
 import de.metas.bpartner.BPartnerId;
@@ -28,6 +30,7 @@ import de.metas.security.permissions2.PermissionServiceFactories;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.lang.ExternalId;
+import de.metas.util.lang.RepoIdAware;
 import lombok.NonNull;
 import org.adempiere.ad.dao.ICompositeQueryUpdater;
 import org.adempiere.ad.dao.IQueryBL;
@@ -47,12 +50,16 @@ import org.slf4j.MDC.MDCCloseable;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static de.metas.util.Check.isEmpty;
 import static org.adempiere.model.InterfaceWrapperHelper.load;
-import static org.adempiere.model.InterfaceWrapperHelper.loadOrNew;
+import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwares;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 
@@ -83,7 +90,33 @@ final class BPartnerCompositeSaver
 
 	private final IBPartnerBL bPartnerBL = Services.get(IBPartnerBL.class);
 
+	/**
+	 * Existing records which were loaded in one go by {@link #saveAll(Collection)}. Each of them is taken out of its map when it's saved.
+	 */
+	private final HashMap<Integer, I_C_BPartner> bpartnerRecordsById = new HashMap<>();
+	private final HashMap<Integer, I_C_BPartner_Location> bpartnerLocationRecordsById = new HashMap<>();
+	private final HashMap<Integer, I_AD_User> bpartnerContactRecordsById = new HashMap<>();
+	private final HashMap<Integer, I_C_BP_BankAccount> bankAccountRecordsById = new HashMap<>();
+	private final HashMap<Integer, I_C_BP_Group> bpGroupRecordsById = new HashMap<>();
+
 	public void save(@NonNull final BPartnerComposite bpartnerComposite)
+	{
+		assertValid(bpartnerComposite);
+		saveValidated(bpartnerComposite);
+	}
+
+	/**
+	 * Validates all the given composites before saving any of them, and loads their existing records with one query per table instead of one per record.
+	 */
+	public void saveAll(@NonNull final Collection<BPartnerComposite> bpartnerComposites)
+	{
+		bpartnerComposites.forEach(this::assertValid);
+
+		preloadRecords(bpartnerComposites);
+		bpartnerComposites.forEach(this::saveValidated);
+	}
+
+	private void assertValid(@NonNull final BPartnerComposite bpartnerComposite)
 	{
 		final ImmutableList<ITranslatableString> validateResult = bpartnerComposite.validate();
 
@@ -99,7 +132,10 @@ final class BPartnerCompositeSaver
 					.setParameter("errors", errors)
 					.setParameter("bpartnerComposite", bpartnerComposite);
 		}
+	}
 
+	private void saveValidated(@NonNull final BPartnerComposite bpartnerComposite)
+	{
 		final BPartner bpartner = bpartnerComposite.getBpartner();
 		try (final MDCCloseable ignored = TableRecordMDC.putTableRecordReference(I_C_BPartner.Table_Name, bpartner.getId()))
 		{
@@ -115,9 +151,67 @@ final class BPartnerCompositeSaver
 		}
 	}
 
+	private void preloadRecords(@NonNull final Collection<BPartnerComposite> bpartnerComposites)
+	{
+		final ImmutableSet<BPartnerId> bpartnerIds = bpartnerComposites.stream()
+				.map(bpartnerComposite -> bpartnerComposite.getBpartner().getId())
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		loadByRepoIdAwares(bpartnerIds, I_C_BPartner.class)
+				.forEach(record -> bpartnerRecordsById.put(record.getC_BPartner_ID(), record));
+
+		final ImmutableSet<BPGroupId> bpGroupIds = bpartnerComposites.stream()
+				.map(bpartnerComposite -> bpartnerComposite.getBpartner().getGroupId())
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		loadByRepoIdAwares(bpGroupIds, I_C_BP_Group.class)
+				.forEach(record -> bpGroupRecordsById.put(record.getC_BP_Group_ID(), record));
+
+		final ImmutableSet<BPartnerLocationId> bpartnerLocationIds = bpartnerComposites.stream()
+				.flatMap(bpartnerComposite -> bpartnerComposite.getLocations().stream())
+				.map(BPartnerLocation::getId)
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		loadByRepoIdAwares(bpartnerLocationIds, I_C_BPartner_Location.class)
+				.forEach(record -> bpartnerLocationRecordsById.put(record.getC_BPartner_Location_ID(), record));
+
+		final ImmutableSet<BPartnerContactId> bpartnerContactIds = bpartnerComposites.stream()
+				.flatMap(bpartnerComposite -> bpartnerComposite.getContacts().stream())
+				.map(BPartnerContact::getId)
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		loadByRepoIdAwares(bpartnerContactIds, I_AD_User.class)
+				.forEach(record -> bpartnerContactRecordsById.put(record.getAD_User_ID(), record));
+
+		final ImmutableSet<BPartnerBankAccountId> bankAccountIds = bpartnerComposites.stream()
+				.flatMap(bpartnerComposite -> bpartnerComposite.getBankAccounts().stream())
+				.map(BPartnerBankAccount::getId)
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		loadByRepoIdAwares(bankAccountIds, I_C_BP_BankAccount.class)
+				.forEach(record -> bankAccountRecordsById.put(record.getC_BP_BankAccount_ID(), record));
+	}
+
+	/**
+	 * Like {@link org.adempiere.model.InterfaceWrapperHelper#loadOrNew(RepoIdAware, Class)}, but takes the record from the given preloaded ones, if it's there.
+	 */
+	private static <T> T loadOrNew(
+			@Nullable final RepoIdAware id,
+			@NonNull final Class<T> modelClass,
+			@NonNull final Map<Integer, T> preloadedRecordsById)
+	{
+		if (id == null)
+		{
+			return newInstance(modelClass);
+		}
+
+		final T preloadedRecord = preloadedRecordsById.remove(id.getRepoId());
+		return preloadedRecord != null ? preloadedRecord : load(id.getRepoId(), modelClass);
+	}
+
 	private void saveBPartner(@NonNull final BPartner bpartner, @Nullable final OrgId orgId)
 	{
-		final I_C_BPartner bpartnerRecord = loadOrNew(bpartner.getId(), I_C_BPartner.class);
+		final I_C_BPartner bpartnerRecord = loadOrNew(bpartner.getId(), I_C_BPartner.class, bpartnerRecordsById);
 		bpartnerRecord.setIsActive(bpartner.isActive());
 
 		if (orgId != null)
@@ -139,7 +233,7 @@ final class BPartnerCompositeSaver
 		bpartnerRecord.setExternalId(ExternalId.toValue(bpartner.getExternalId()));
 
 		// load within trx and set to the record. otherwise MBPartner.beforeSave() might fail
-		final I_C_BP_Group bpGroupRecord = load(bpartner.getGroupId().getRepoId(), I_C_BP_Group.class); // since we validated, we know it's set
+		final I_C_BP_Group bpGroupRecord = bpGroupRecordsById.computeIfAbsent(bpartner.getGroupId().getRepoId(), bpGroupRepoId -> load(bpGroupRepoId, I_C_BP_Group.class)); // since we validated, we know it's set
 		bpartnerRecord.setC_BP_Group(bpGroupRecord);
 		// bpartner.getId() used only for lookup
 
@@ -210,7 +304,7 @@ final class BPartnerCompositeSaver
 	{
 		try (final MDCCloseable ignored = TableRecordMDC.putTableRecordReference(I_C_BPartner_Location.Table_Name, bpartnerLocation.getId()))
 		{
-			final I_C_BPartner_Location bpartnerLocationRecord = loadOrNew(bpartnerLocation.getId(), I_C_BPartner_Location.class);
+			final I_C_BPartner_Location bpartnerLocationRecord = loadOrNew(bpartnerLocation.getId(), I_C_BPartner_Location.class, bpartnerLocationRecordsById);
 			if (orgId != null)
 			{
 				bpartnerLocationRecord.setAD_Org_ID(orgId.getRepoId());
@@ -379,7 +473,7 @@ final class BPartnerCompositeSaver
 	{
 		try (final MDCCloseable ignored = TableRecordMDC.putTableRecordReference(I_AD_User.Table_Name, bpartnerContact.getId()))
 		{
-			final I_AD_User bpartnerContactRecord = loadOrNew(bpartnerContact.getId(), I_AD_User.class);
+			final I_AD_User bpartnerContactRecord = loadOrNew(bpartnerContact.getId(), I_AD_User.class, bpartnerContactRecordsById);
 
 			if (orgId != null)
 			{
@@ -450,7 +544,7 @@ final class BPartnerCompositeSaver
 		try (final MDCCloseable ignored = TableRecordMDC.putTableRecordReference(I_C_BP_BankAccount.Table_Name, bankAccount.getId()))
 		{
 
-			final I_C_BP_BankAccount record = loadOrNew(bankAccount.getId(), I_C_BP_BankAccount.class);
+			final I_C_BP_BankAccount record = loadOrNew(bankAccount.getId(), I_C_BP_BankAccount.class, bankAccountRecordsById);
 
 			if (orgId != null)
 			{
@@ -26,6 +26,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.getTableId;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Objects;
 import java.util.Properties;
 
 import javax.annotation.Nullable;
@@ -303,6 +304,22 @@ public class BPartnerImportProcess extends SimpleImportProcessTemplate<I_I_BPart
 				+ ", " + I_I_BPartner.COLUMNNAME_I_BPartner_ID;
 	}
 
+	@Override
+	protected boolean isParallelImportSupported()
+	{
+		return true;
+	}
+
+	/**
+	 * Lines with the same BPValue and GlobalId are imported into the same BPartner, using the context of the previous line, so they can't be split between workers.
+	 */
+	@Override
+	protected boolean isSameWorkerRange(@NonNull final I_I_BPartner previousImportRecord, @NonNull final I_I_BPartner importRecord)
+	{
+		return Objects.equals(previousImportRecord.getBPValue(), importRecord.getBPValue())
+				&& Objects.equals(previousImportRecord.getGlobalId(), importRecord.getGlobalId());
+	}
+
 	@Override
 	protected String getTargetTableName()
 	{
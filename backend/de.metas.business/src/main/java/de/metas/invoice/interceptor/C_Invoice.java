@@ -1,5 +1,6 @@
 package de.metas.invoice.interceptor;
 
+import com.google.common.collect.ImmutableSet;
 import de.metas.adempiere.model.I_C_Invoice;
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.allocation.api.IAllocationBL;
@@ -12,6 +13,7 @@ import de.metas.document.IDocumentLocationBL;
 import de.metas.document.engine.DocStatus;
 import de.metas.invoice.InvoiceId;
 import de.metas.invoice.export.async.C_Invoice_CreateExportData;
+import de.metas.invoice.openitems.IInvoiceOpenItemsDAO;
 import de.metas.invoice.service.IInvoiceBL;
 import de.metas.invoice.service.IInvoiceDAO;
 import de.metas.money.CurrencyId;
@@ -64,6 +66,7 @@ public class C_Invoice // 03771
 	private final IInvoiceDAO invoiceDAO = Services.get(IInvoiceDAO.class);
 	private final IBPartnerDAO bpartnerDAO = Services.get(IBPartnerDAO.class);
 	private final IAllocationDAO allocationDAO = Services.get(IAllocationDAO.class);
+	private final IInvoiceOpenItemsDAO invoiceOpenItemsDAO = Services.get(IInvoiceOpenItemsDAO.class);
 
 	public C_Invoice(@NonNull final PaymentReservationService paymentReservationService)
 	{
@@ -90,6 +93,8 @@ public class C_Invoice // 03771
 		ensureUOMsAreNotNull(invoice);
 
 		C_Invoice_CreateExportData.scheduleOnTrxCommit(invoice);
+
+		updateOpenItemsProjection(invoice);
 	}
 
 	private void autoAllocateAvailablePayments(final I_C_Invoice invoice)
@@ -110,6 +115,29 @@ public class C_Invoice // 03771
 		invoiceBL.handleReversalForInvoice(invoice);
 	}
 
+	/**
+	 * Note: on complete, this is called at the end of {@link #onAfterComplete(I_C_Invoice)}, so that the allocations which were created there are already considered.
+	 */
+	@DocValidate(timings = {
+			ModelValidator.TIMING_AFTER_REVERSECORRECT,
+			ModelValidator.TIMING_AFTER_REVERSEACCRUAL,
+			ModelValidator.TIMING_AFTER_VOID,
+			ModelValidator.TIMING_AFTER_REACTIVATE,
+			ModelValidator.TIMING_AFTER_CLOSE })
+	public void updateOpenItemsProjection(final I_C_Invoice invoice)
+	{
+		final ImmutableSet.Builder<InvoiceId> invoiceIds = ImmutableSet.builder();
+		invoiceIds.add(InvoiceId.ofRepoId(invoice.getC_Invoice_ID()));
+
+		final InvoiceId reversalInvoiceId = InvoiceId.ofRepoIdOrNull(invoice.getReversal_ID());
+		if (reversalInvoiceId != null)
+		{
+			invoiceIds.add(reversalInvoiceId);
+		}
+
+		invoiceOpenItemsDAO.updateForInvoiceIds(invoiceIds.build());
+	}
+
 	@ModelChange(timings = { ModelValidator.TYPE_BEFORE_NEW, ModelValidator.TYPE_BEFORE_CHANGE }, ifColumnsChanged = { I_C_Invoice.COLUMNNAME_C_BPartner_ID, I_C_Invoice.COLUMNNAME_C_BPartner_Location_ID, I_C_Invoice.COLUMNNAME_AD_User_ID })
 	public void updateBPartnerAddress(final I_C_Invoice doc)
 	{
@@ -0,0 +1,69 @@
+package de.metas.invoice.openitems;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.List;
+
+import org.adempiere.service.ClientId;
+
+import de.metas.invoice.InvoiceId;
+import de.metas.organization.OrgId;
+import de.metas.util.ISingletonService;
+
+/**
+ * Maintains the {@value #TABLENAME_C_Invoice_Open_Projection} table, which holds the open amount of each completed/closed and not paid invoice.
+ * <p>
+ * The rows are recomputed whenever an invoice or an allocation which is about it is completed, reversed, voided, reactivated or closed.
+ * This happens for all tenants and organizations, so the projection is up to date whenever the AD_SysConfig {@value #SYSCONFIG_UseInvoiceOpenItemsProjection} is switched on.
+ * If it is on, the pay selection joins this table instead of calling {@code invoiceOpen(C_Invoice_ID, 0)} for each invoice.
+ * <p>
+ * Not covered:
+ * <ul>
+ * <li>Payments; the pay selection only needs the invoices' open amounts.</li>
+ * <li>Dunning; {@code C_Dunning_Candidate_Invoice_v1} needs the open amount of each invoice pay schedule, while the projection only has one per invoice.</li>
+ * <li>The payment allocation view; it reads the open invoices and payments of a few business partners at a time, converted to the allocation's currency.</li>
+ * </ul>
+ */
+public interface IInvoiceOpenItemsDAO extends ISingletonService
+{
+	String TABLENAME_C_Invoice_Open_Projection = "C_Invoice_Open_Projection";
+
+	String SYSCONFIG_UseInvoiceOpenItemsProjection = "de.metas.banking.payment.PaySelectionUpdater.UseInvoiceOpenItemsProjection";
+
+	/**
+	 * @return true if the pay selection shall read the open amounts from the projection
+	 */
+	boolean isProjectionEnabled(ClientId clientId, OrgId orgId);
+
+	/**
+	 * Recomputes the projection rows of the given invoices in the current transaction.
+	 * Invoices which are not open anymore are removed from the projection.
+	 */
+	void updateForInvoiceIds(Collection<InvoiceId> invoiceIds);
+
+	/**
+	 * @return all invoices whose projection row is missing, obsolete or has a different open amount than {@code invoiceOpen(C_Invoice_ID, 0)}.
+	 */
+	List<InvoiceOpenItemMismatch> retrieveMismatches(ClientId clientId);
+}
@@ -0,0 +1,173 @@
+package de.metas.invoice.openitems.impl;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import de.metas.document.engine.DocStatus;
+import de.metas.invoice.InvoiceId;
+import de.metas.invoice.openitems.IInvoiceOpenItemsDAO;
+import de.metas.invoice.openitems.InvoiceOpenItemMismatch;
+import de.metas.logging.LogManager;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+public class InvoiceOpenItemsDAO implements IInvoiceOpenItemsDAO
+{
+	private static final Logger logger = LogManager.getLogger(InvoiceOpenItemsDAO.class);
+
+	private static final int UPDATE_BATCH_SIZE = 500;
+
+	@Override
+	public boolean isProjectionEnabled(@NonNull final ClientId clientId, @NonNull final OrgId orgId)
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_UseInvoiceOpenItemsProjection, false, clientId.getRepoId(), orgId.getRepoId());
+	}
+
+	@Override
+	public void updateForInvoiceIds(@NonNull final Collection<InvoiceId> invoiceIds)
+	{
+		if (invoiceIds.isEmpty())
+		{
+			return;
+		}
+
+		// NOTE: update the rows in a stable order, to avoid deadlocks between concurrent transactions
+		final ImmutableList<InvoiceId> invoiceIdsSorted = invoiceIds.stream()
+				.distinct()
+				.sorted(Comparator.comparing(InvoiceId::getRepoId))
+				.collect(ImmutableList.toImmutableList());
+
+		for (final List<InvoiceId> invoiceIdsBatch : Lists.partition(invoiceIdsSorted, UPDATE_BATCH_SIZE))
+		{
+			updateForInvoiceIdsBatch(invoiceIdsBatch);
+		}
+	}
+
+	private void updateForInvoiceIdsBatch(@NonNull final List<InvoiceId> invoiceIds)
+	{
+		final List<Object> sqlUpsertParams = new ArrayList<>();
+		final String sqlUpsert = buildUpsertSql(invoiceIds, sqlUpsertParams);
+		final int countUpserted = DB.executeUpdateEx(sqlUpsert, sqlUpsertParams.toArray(), ITrx.TRXNAME_ThreadInherited);
+
+		final List<Object> sqlDeleteParams = new ArrayList<>();
+		final String sqlDelete = buildDeleteSql(invoiceIds, sqlDeleteParams);
+		final int countDeleted = DB.executeUpdateEx(sqlDelete, sqlDeleteParams.toArray(), ITrx.TRXNAME_ThreadInherited);
+
+		logger.debug("Updated open items projection for {} invoices: {} upserted, {} deleted", invoiceIds.size(), countUpserted, countDeleted);
+	}
+
+	/**
+	 * Inserts or updates the projection rows of those given invoices which are open.
+	 */
+	@VisibleForTesting
+	static String buildUpsertSql(
+			@NonNull final Collection<InvoiceId> invoiceIds,
+			@NonNull final List<Object> sqlParams)
+	{
+		return "INSERT INTO " + TABLENAME_C_Invoice_Open_Projection
+				+ " (C_Invoice_ID, AD_Client_ID, AD_Org_ID, C_BPartner_ID, C_Currency_ID, IsSOTrx, OpenAmt, Updated)"
+				+ " SELECT s.C_Invoice_ID, s.AD_Client_ID, s.AD_Org_ID, s.C_BPartner_ID, s.C_Currency_ID, s.IsSOTrx, s.OpenAmt, now()"
+				+ " FROM (" + buildSelectOpenInvoicesSql(invoiceIds, sqlParams) + ") s"
+				+ " WHERE s.OpenAmt IS NOT NULL"
+				+ " ON CONFLICT (C_Invoice_ID) DO UPDATE SET"
+				+ " AD_Org_ID=EXCLUDED.AD_Org_ID, C_BPartner_ID=EXCLUDED.C_BPartner_ID, C_Currency_ID=EXCLUDED.C_Currency_ID,"
+				+ " IsSOTrx=EXCLUDED.IsSOTrx, OpenAmt=EXCLUDED.OpenAmt, Updated=EXCLUDED.Updated";
+	}
+
+	/**
+	 * Deletes the projection rows of those given invoices which are not open anymore.
+	 */
+	@VisibleForTesting
+	static String buildDeleteSql(
+			@NonNull final Collection<InvoiceId> invoiceIds,
+			@NonNull final List<Object> sqlParams)
+	{
+		final String sql = "DELETE FROM " + TABLENAME_C_Invoice_Open_Projection + " p"
+				+ " WHERE " + DB.buildSqlList("p.C_Invoice_ID", invoiceIds, sqlParams)
+				+ " AND NOT EXISTS (SELECT 1 FROM C_Invoice i"
+				+ " WHERE i.C_Invoice_ID=p.C_Invoice_ID AND i.IsPaid='N' AND i.DocStatus IN (?,?))";
+		sqlParams.add(DocStatus.Completed);
+		sqlParams.add(DocStatus.Closed);
+		return sql;
+	}
+
+	private static String buildSelectOpenInvoicesSql(
+			@NonNull final Collection<InvoiceId> invoiceIds,
+			@NonNull final List<Object> sqlParams)
+	{
+		sqlParams.add(DocStatus.Completed);
+		sqlParams.add(DocStatus.Closed);
+		return "SELECT i.C_Invoice_ID, i.AD_Client_ID, i.AD_Org_ID, i.C_BPartner_ID, i.C_Currency_ID, i.IsSOTrx,"
+				+ " invoiceOpen(i.C_Invoice_ID, 0) AS OpenAmt"
+				+ " FROM C_Invoice i"
+				+ " WHERE i.IsPaid='N' AND i.DocStatus IN (?,?)"
+				+ " AND " + DB.buildSqlList("i.C_Invoice_ID", invoiceIds, sqlParams);
+	}
+
+	@Override
+	public List<InvoiceOpenItemMismatch> retrieveMismatches(@NonNull final ClientId clientId)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = buildRetrieveMismatchesSql(clientId, sqlParams);
+
+		return DB.retrieveRows(sql, sqlParams, rs -> InvoiceOpenItemMismatch.builder()
+				.invoiceId(InvoiceId.ofRepoId(rs.getInt("C_Invoice_ID")))
+				.projectedOpenAmt(rs.getBigDecimal("ProjectedOpenAmt"))
+				.actualOpenAmt(rs.getBigDecimal("ActualOpenAmt"))
+				.build());
+	}
+
+	@VisibleForTesting
+	static String buildRetrieveMismatchesSql(
+			@NonNull final ClientId clientId,
+			@NonNull final List<Object> sqlParams)
+	{
+		sqlParams.addAll(ImmutableList.of(DocStatus.Completed, DocStatus.Closed, clientId, clientId));
+		return "SELECT x.C_Invoice_ID, x.ProjectedOpenAmt, x.ActualOpenAmt"
+				+ " FROM ("
+				+ "   SELECT COALESCE(i.C_Invoice_ID, p.C_Invoice_ID) AS C_Invoice_ID,"
+				+ "   p.OpenAmt AS ProjectedOpenAmt,"
+				+ "   (CASE WHEN i.C_Invoice_ID IS NOT NULL THEN invoiceOpen(i.C_Invoice_ID, 0) END) AS ActualOpenAmt"
+				+ "   FROM (SELECT C_Invoice_ID FROM C_Invoice WHERE IsPaid='N' AND DocStatus IN (?,?) AND AD_Client_ID=?) i"
+				+ "   FULL OUTER JOIN (SELECT C_Invoice_ID, OpenAmt FROM " + TABLENAME_C_Invoice_Open_Projection + " WHERE AD_Client_ID=?) p"
+				+ "   ON p.C_Invoice_ID=i.C_Invoice_ID"
+				+ " ) x"
+				+ " WHERE x.ProjectedOpenAmt IS DISTINCT FROM x.ActualOpenAmt"
+				+ " ORDER BY x.C_Invoice_ID";
+	}
+}
@@ -0,0 +1,172 @@
+package de.metas.invoice.openitems.impl;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.service.ClientId;
+import org.compiere.model.I_C_Invoice;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.allocation.api.IAllocationDAO;
+import de.metas.document.engine.DocStatus;
+import de.metas.invoice.InvoiceId;
+import de.metas.invoice.openitems.InvoiceOpenItemMismatch;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Keeps the projection in memory and computes the open amounts with {@link IAllocationDAO#retrieveOpenAmt(I_C_Invoice, boolean)}.
+ */
+public class PlainInvoiceOpenItemsDAO extends InvoiceOpenItemsDAO
+{
+	private final HashMap<InvoiceId, ProjectionRow> projection = new HashMap<>();
+
+	@Value
+	private static class ProjectionRow
+	{
+		@NonNull
+		ClientId clientId;
+		@NonNull
+		BigDecimal openAmt;
+	}
+
+	@Override
+	public void updateForInvoiceIds(@NonNull final Collection<InvoiceId> invoiceIds)
+	{
+		final Map<InvoiceId, ProjectionRow> actualRows = retrieveActualRows(invoiceIds);
+		for (final InvoiceId invoiceId : invoiceIds)
+		{
+			final ProjectionRow actualRow = actualRows.get(invoiceId);
+			if (actualRow != null)
+			{
+				projection.put(invoiceId, actualRow);
+			}
+			else
+			{
+				projection.remove(invoiceId);
+			}
+		}
+	}
+
+	@Override
+	public List<InvoiceOpenItemMismatch> retrieveMismatches(@NonNull final ClientId clientId)
+	{
+		final Map<InvoiceId, ProjectionRow> actualRows = retrieveActualRows(clientId);
+
+		final TreeSet<Integer> invoiceRepoIds = new TreeSet<>();
+		actualRows.keySet().forEach(invoiceId -> invoiceRepoIds.add(invoiceId.getRepoId()));
+		projection.forEach((invoiceId, row) -> {
+			if (row.getClientId().equals(clientId))
+			{
+				invoiceRepoIds.add(invoiceId.getRepoId());
+			}
+		});
+
+		final ImmutableList.Builder<InvoiceOpenItemMismatch> mismatches = ImmutableList.builder();
+		for (final int invoiceRepoId : invoiceRepoIds)
+		{
+			final InvoiceId invoiceId = InvoiceId.ofRepoId(invoiceRepoId);
+			final BigDecimal projectedOpenAmt = getProjectedOpenAmt(invoiceId);
+			final ProjectionRow actualRow = actualRows.get(invoiceId);
+			final BigDecimal actualOpenAmt = actualRow != null ? actualRow.getOpenAmt() : null;
+			if (projectedOpenAmt == null || actualOpenAmt == null || projectedOpenAmt.compareTo(actualOpenAmt) != 0)
+			{
+				mismatches.add(InvoiceOpenItemMismatch.builder()
+						.invoiceId(invoiceId)
+						.projectedOpenAmt(projectedOpenAmt)
+						.actualOpenAmt(actualOpenAmt)
+						.build());
+			}
+		}
+		return mismatches.build();
+	}
+
+	@Nullable
+	public BigDecimal getProjectedOpenAmt(@NonNull final InvoiceId invoiceId)
+	{
+		final ProjectionRow row = projection.get(invoiceId);
+		return row != null ? row.getOpenAmt() : null;
+	}
+
+	/**
+	 * Allows tests to simulate a projection which is out of date.
+	 */
+	@VisibleForTesting
+	public void setProjectedOpenAmt(@NonNull final InvoiceId invoiceId, @NonNull final ClientId clientId, @NonNull final BigDecimal openAmt)
+	{
+		projection.put(invoiceId, new ProjectionRow(clientId, openAmt));
+	}
+
+	private static Map<InvoiceId, ProjectionRow> retrieveActualRows(@NonNull final Collection<InvoiceId> invoiceIds)
+	{
+		if (invoiceIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		return toProjectionRows(Services.get(IQueryBL.class).createQueryBuilder(I_C_Invoice.class)
+				.addInArrayFilter(I_C_Invoice.COLUMNNAME_C_Invoice_ID, invoiceIds)
+				.addEqualsFilter(I_C_Invoice.COLUMNNAME_IsPaid, false)
+				.addInArrayFilter(I_C_Invoice.COLUMNNAME_DocStatus, DocStatus.Completed, DocStatus.Closed)
+				.create()
+				.list());
+	}
+
+	private static Map<InvoiceId, ProjectionRow> retrieveActualRows(@NonNull final ClientId clientId)
+	{
+		return toProjectionRows(Services.get(IQueryBL.class).createQueryBuilder(I_C_Invoice.class)
+				.addEqualsFilter(I_C_Invoice.COLUMNNAME_AD_Client_ID, clientId)
+				.addEqualsFilter(I_C_Invoice.COLUMNNAME_IsPaid, false)
+				.addInArrayFilter(I_C_Invoice.COLUMNNAME_DocStatus, DocStatus.Completed, DocStatus.Closed)
+				.create()
+				.list());
+	}
+
+	private static Map<InvoiceId, ProjectionRow> toProjectionRows(@NonNull final List<I_C_Invoice> invoices)
+	{
+		final IAllocationDAO allocationDAO = Services.get(IAllocationDAO.class);
+
+		final HashMap<InvoiceId, ProjectionRow> rows = new HashMap<>();
+		for (final I_C_Invoice invoice : invoices)
+		{
+			rows.put(
+					InvoiceId.ofRepoId(invoice.getC_Invoice_ID()),
+					new ProjectionRow(ClientId.ofRepoId(invoice.getAD_Client_ID()), allocationDAO.retrieveOpenAmt(invoice, false)));
+		}
+		return rows;
+	}
+}
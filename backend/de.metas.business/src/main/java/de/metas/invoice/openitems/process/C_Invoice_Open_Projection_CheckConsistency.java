@@ -0,0 +1,74 @@
+package de.metas.invoice.openitems.process;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+import java.util.List;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.invoice.InvoiceId;
+import de.metas.invoice.openitems.IInvoiceOpenItemsDAO;
+import de.metas.invoice.openitems.InvoiceOpenItemMismatch;
+import de.metas.process.JavaProcess;
+import de.metas.util.Services;
+
+/**
+ * Compares the open items projection with {@code invoiceOpen(C_Invoice_ID, 0)} and recomputes the projection rows of all deviating invoices.
+ * <p>
+ * A deviation means that some code path changed an invoice's open amount without notifying {@link IInvoiceOpenItemsDAO}, so the first deviations are logged.
+ */
+public class C_Invoice_Open_Projection_CheckConsistency extends JavaProcess
+{
+	private final IInvoiceOpenItemsDAO invoiceOpenItemsDAO = Services.get(IInvoiceOpenItemsDAO.class);
+
+	private static final int MAX_MISMATCHES_TO_LOG = 100;
+
+	@Override
+	protected String doIt()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final List<InvoiceOpenItemMismatch> mismatches = invoiceOpenItemsDAO.retrieveMismatches(getClientId());
+		stopwatch.stop();
+		addLog("Checked the open items projection in {}: {} mismatches", stopwatch, mismatches.size());
+
+		if (mismatches.isEmpty())
+		{
+			return MSG_OK;
+		}
+
+		mismatches.stream()
+				.limit(MAX_MISMATCHES_TO_LOG)
+				.forEach(mismatch -> addLog("C_Invoice_ID={}: projected OpenAmt={}, actual OpenAmt={}",
+						mismatch.getInvoiceId().getRepoId(), mismatch.getProjectedOpenAmt(), mismatch.getActualOpenAmt()));
+
+		final ImmutableSet<InvoiceId> invoiceIds = mismatches.stream()
+				.map(InvoiceOpenItemMismatch::getInvoiceId)
+				.collect(ImmutableSet.toImmutableSet());
+		invoiceOpenItemsDAO.updateForInvoiceIds(invoiceIds);
+		addLog("Repaired the open items projection of {} invoices", invoiceIds.size());
+
+		return MSG_OK;
+	}
+}
@@ -33,6 +33,7 @@ import java.util.Optional;
 import java.util.Properties;
 
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IMutable;
@@ -114,6 +115,22 @@ public class ProductImportProcess extends SimpleImportProcessTemplate<I_I_Produc
 		return I_I_Product.COLUMNNAME_ProductCategory_Value;
 	}
 
+	@Override
+	protected boolean isParallelImportSupported()
+	{
+		return true;
+	}
+
+	/**
+	 * #3404 Create the default product plannings once, after all records are imported.
+	 * Creating them per record would let the parallel import workers create the same plannings concurrently.
+	 */
+	@Override
+	protected void afterImport()
+	{
+		Services.get(ITrxManager.class).runInNewTrx(() -> Services.get(IProductPlanningSchemaBL.class).createDefaultProductPlanningsForAllProducts());
+	}
+
 	@Override
 	protected I_I_Product retrieveImportRecord(final Properties ctx, final ResultSet rs) throws SQLException
 	{
@@ -196,8 +213,6 @@ public class ProductImportProcess extends SimpleImportProcessTemplate<I_I_Produc
 		final I_M_Product productRecord = load(importRecord.getM_Product_ID(), I_M_Product.class);
 		ModelValidationEngine.get().fireImportValidate(this, importRecord, productRecord, IImportInterceptor.TIMING_AFTER_IMPORT);
 
-		// #3404 Create default product planning
-		Services.get(IProductPlanningSchemaBL.class).createDefaultProductPlanningsForAllProducts();
 		return newProduct ? ImportRecordResult.Inserted : ImportRecordResult.Updated;
 	}
 
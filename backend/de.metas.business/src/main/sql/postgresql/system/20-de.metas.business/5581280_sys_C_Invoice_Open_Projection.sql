@@ -0,0 +1,49 @@
+-- Open items projection: one row per completed/closed, not yet paid invoice, with its open amount as computed by invoiceOpen(C_Invoice_ID, 0).
+-- Maintained incrementally by de.metas.invoice.openitems.IInvoiceOpenItemsDAO when invoices and allocations are completed, reversed, voided, reactivated or closed.
+-- If AD_SysConfig de.metas.banking.payment.PaySelectionUpdater.UseInvoiceOpenItemsProjection is enabled, the pay selection reads OpenAmt from here instead of calling invoiceOpen() for each invoice.
+
+CREATE TABLE IF NOT EXISTS C_Invoice_Open_Projection
+(
+    C_Invoice_ID  numeric(10)              NOT NULL,
+    AD_Client_ID  numeric(10)              NOT NULL,
+    AD_Org_ID     numeric(10)              NOT NULL,
+    C_BPartner_ID numeric(10)              NOT NULL,
+    C_Currency_ID numeric(10)              NOT NULL,
+    IsSOTrx       char(1)                  NOT NULL,
+    OpenAmt       numeric                  NOT NULL,
+    Updated       timestamp with time zone NOT NULL DEFAULT now(),
+    CONSTRAINT C_Invoice_Open_Projection_Key PRIMARY KEY (C_Invoice_ID)
+)
+;
+
+COMMENT ON TABLE C_Invoice_Open_Projection IS 'Open amount of each completed/closed and not paid invoice, as computed by invoiceOpen(C_Invoice_ID, 0). Maintained by IInvoiceOpenItemsDAO; checked and repaired by the process C_Invoice_Open_Projection_CheckConsistency.'
+;
+
+CREATE INDEX IF NOT EXISTS C_Invoice_Open_Projection_Client_Currency ON C_Invoice_Open_Projection (AD_Client_ID, C_Currency_ID)
+;
+
+CREATE INDEX IF NOT EXISTS C_Invoice_Open_Projection_BPartner ON C_Invoice_Open_Projection (C_BPartner_ID)
+;
+
+-- initial fill
+INSERT INTO C_Invoice_Open_Projection (C_Invoice_ID, AD_Client_ID, AD_Org_ID, C_BPartner_ID, C_Currency_ID, IsSOTrx, OpenAmt, Updated)
+SELECT s.C_Invoice_ID, s.AD_Client_ID, s.AD_Org_ID, s.C_BPartner_ID, s.C_Currency_ID, s.IsSOTrx, s.OpenAmt, now()
+FROM (SELECT i.C_Invoice_ID, i.AD_Client_ID, i.AD_Org_ID, i.C_BPartner_ID, i.C_Currency_ID, i.IsSOTrx, invoiceOpen(i.C_Invoice_ID, 0) AS OpenAmt
+      FROM C_Invoice i
+      WHERE i.IsPaid = 'N'
+        AND i.DocStatus IN ('CO', 'CL')) s
+WHERE s.OpenAmt IS NOT NULL
+ON CONFLICT (C_Invoice_ID) DO NOTHING
+;
+
+
+
+-- 2021-03-08T09:41:17.502Z
+-- URL zum Konzept
+INSERT INTO AD_Process (AccessLevel,AD_Client_ID,AD_Org_ID,AD_Process_ID,AllowProcessReRun,Classname,CopyFromProcess,Created,CreatedBy,Description,EntityType,IsActive,IsApplySecuritySettings,IsBetaFunctionality,IsDirectPrint,IsOneInstanceOnly,IsReport,IsServerProcess,IsTranslateExcelHeaders,IsUseBPartnerLanguage,LockWaitTimeout,Name,RefreshAllAfterExecution,ShowHelp,Type,Updated,UpdatedBy,Value) VALUES ('3',0,0,584806,'Y','de.metas.invoice.openitems.process.C_Invoice_Open_Projection_CheckConsistency','N',TO_TIMESTAMP('2021-03-08 10:41:17','YYYY-MM-DD HH24:MI:SS'),100,'Compares the invoice open items projection with invoiceOpen() and repairs the deviating invoices. Can be scheduled.','D','Y','N','N','N','Y','N','N','Y','Y',0,'Check invoice open items projection','N','N','Java',TO_TIMESTAMP('2021-03-08 10:41:17','YYYY-MM-DD HH24:MI:SS'),100,'C_Invoice_Open_Projection_CheckConsistency')
+;
+
+-- 2021-03-08T09:41:17.533Z
+-- URL zum Konzept
+INSERT INTO AD_Process_Trl (AD_Language,AD_Process_ID, Description,Help,Name, IsTranslated,AD_Client_ID,AD_Org_ID,Created,Createdby,Updated,UpdatedBy) SELECT l.AD_Language, t.AD_Process_ID, t.Description,t.Help,t.Name, 'N',t.AD_Client_ID,t.AD_Org_ID,t.Created,t.Createdby,t.Updated,t.UpdatedBy FROM AD_Language l, AD_Process t WHERE l.IsActive='Y'AND (l.IsSystemLanguage='Y' AND l.IsBaseLanguage='N') AND t.AD_Process_ID=584806 AND NOT EXISTS (SELECT 1 FROM AD_Process_Trl tt WHERE tt.AD_Language=l.AD_Language AND tt.AD_Process_ID=t.AD_Process_ID)
+;
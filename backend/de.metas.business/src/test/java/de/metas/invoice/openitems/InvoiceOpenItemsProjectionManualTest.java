@@ -0,0 +1,103 @@
+package de.metas.invoice.openitems;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+import com.google.common.base.Stopwatch;
+
+/**
+ * Measures the latency of selecting all open invoices with their open amounts, once with {@code invoiceOpen()} per invoice and once from the open items projection.
+ * <p>
+ * Run it manually against a database which contains a realistic number of open invoices, e.g.
+ * {@code -Djdbc.url=jdbc:postgresql://localhost:5432/metasfresh -Djdbc.user=metasfresh -Djdbc.password=metasfresh}.
+ */
+public class InvoiceOpenItemsProjectionManualTest
+{
+	private static final int RUNS = 5;
+
+	private static final String SQL_InvoiceOpen = "SELECT i.C_Invoice_ID, invoiceOpen(i.C_Invoice_ID, 0) AS OpenAmt"
+			+ " FROM C_Invoice i"
+			+ " WHERE i.IsPaid='N' AND i.DocStatus IN ('CO','CL')";
+
+	private static final String SQL_Projection = "SELECT i.C_Invoice_ID, oi.OpenAmt"
+			+ " FROM C_Invoice i"
+			+ " INNER JOIN " + IInvoiceOpenItemsDAO.TABLENAME_C_Invoice_Open_Projection + " oi ON oi.C_Invoice_ID=i.C_Invoice_ID"
+			+ " WHERE i.IsPaid='N' AND i.DocStatus IN ('CO','CL')";
+
+	public static void main(final String[] args) throws SQLException
+	{
+		try (final Connection connection = DriverManager.getConnection(
+				System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/metasfresh"),
+				System.getProperty("jdbc.user", "metasfresh"),
+				System.getProperty("jdbc.password", "metasfresh")))
+		{
+			// warm up
+			run(connection, SQL_Projection);
+
+			benchmark(connection, "invoiceOpen()", SQL_InvoiceOpen);
+			benchmark(connection, "projection", SQL_Projection);
+		}
+	}
+
+	private static void benchmark(final Connection connection, final String name, final String sql) throws SQLException
+	{
+		final long[] durationsMillis = new long[RUNS];
+		int rows = 0;
+		for (int i = 0; i < RUNS; i++)
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			rows = run(connection, sql);
+			durationsMillis[i] = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		}
+
+		Arrays.sort(durationsMillis);
+		System.out.println(name + ": " + rows + " open invoices"
+				+ ", min " + durationsMillis[0] + "ms"
+				+ ", median " + durationsMillis[RUNS / 2] + "ms"
+				+ ", max " + durationsMillis[RUNS - 1] + "ms");
+	}
+
+	private static int run(final Connection connection, final String sql) throws SQLException
+	{
+		int rows = 0;
+		try (final Statement stmt = connection.createStatement();
+				final ResultSet rs = stmt.executeQuery(sql))
+		{
+			while (rs.next())
+			{
+				rs.getBigDecimal("OpenAmt");
+				rows++;
+			}
+		}
+		return rows;
+	}
+}
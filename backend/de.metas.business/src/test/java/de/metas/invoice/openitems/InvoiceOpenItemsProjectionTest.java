@@ -0,0 +1,195 @@
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoice.openitems;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import de.metas.adempiere.model.I_C_Invoice;
+import de.metas.document.engine.DocStatus;
+import de.metas.invoice.InvoiceId;
+import de.metas.invoice.interceptor.C_Invoice;
+import de.metas.invoice.openitems.impl.PlainInvoiceOpenItemsDAO;
+import de.metas.organization.OrgId;
+import de.metas.payment.processor.PaymentProcessorService;
+import de.metas.payment.reservation.PaymentReservationCaptureRepository;
+import de.metas.payment.reservation.PaymentReservationRepository;
+import de.metas.payment.reservation.PaymentReservationService;
+import de.metas.util.Services;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_AllocationLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceOpenItemsProjectionTest
+{
+	private PlainInvoiceOpenItemsDAO invoiceOpenItemsDAO;
+	private C_Invoice invoiceInterceptor;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		invoiceOpenItemsDAO = (PlainInvoiceOpenItemsDAO)Services.get(IInvoiceOpenItemsDAO.class);
+		invoiceInterceptor = new C_Invoice(new PaymentReservationService(
+				new PaymentReservationRepository(),
+				new PaymentReservationCaptureRepository(),
+				new PaymentProcessorService(Optional.empty())));
+	}
+
+	private static void enableProjection(final boolean enabled)
+	{
+		Services.get(ISysConfigBL.class).setValue(IInvoiceOpenItemsDAO.SYSCONFIG_UseInvoiceOpenItemsProjection, enabled, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	private static I_C_Invoice createCompletedInvoice(final String grandTotal)
+	{
+		final I_C_Invoice invoice = newInstance(I_C_Invoice.class);
+		invoice.setDocStatus(DocStatus.Completed.getCode());
+		invoice.setIsPaid(false);
+		invoice.setGrandTotal(new BigDecimal(grandTotal));
+		saveRecord(invoice);
+		return invoice;
+	}
+
+	private static void allocate(final I_C_Invoice invoice, final String amount)
+	{
+		final I_C_AllocationLine allocationLine = newInstance(I_C_AllocationLine.class);
+		allocationLine.setC_Invoice_ID(invoice.getC_Invoice_ID());
+		allocationLine.setAmount(new BigDecimal(amount));
+		saveRecord(allocationLine);
+	}
+
+	private static InvoiceId invoiceId(final I_C_Invoice invoice)
+	{
+		return InvoiceId.ofRepoId(invoice.getC_Invoice_ID());
+	}
+
+	@Test
+	void updateOpenItemsProjection_upsertsOpenInvoices_andDeletesPaidInvoices()
+	{
+		final I_C_Invoice invoice = createCompletedInvoice("100");
+
+		invoiceInterceptor.updateOpenItemsProjection(invoice);
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(invoice))).isEqualByComparingTo("100");
+
+		allocate(invoice, "30");
+		invoiceInterceptor.updateOpenItemsProjection(invoice);
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(invoice))).isEqualByComparingTo("70");
+
+		invoice.setIsPaid(true);
+		saveRecord(invoice);
+		invoiceInterceptor.updateOpenItemsProjection(invoice);
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(invoice))).isNull();
+	}
+
+	@Test
+	void updateOpenItemsProjection_alsoUpdatesTheReversalInvoice()
+	{
+		final I_C_Invoice invoice = createCompletedInvoice("100");
+		invoiceInterceptor.updateOpenItemsProjection(invoice);
+
+		final I_C_Invoice reversalInvoice = createCompletedInvoice("-100");
+		invoice.setDocStatus(DocStatus.Reversed.getCode());
+		invoice.setReversal_ID(reversalInvoice.getC_Invoice_ID());
+		saveRecord(invoice);
+		invoiceInterceptor.updateOpenItemsProjection(invoice);
+
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(invoice))).isNull();
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(reversalInvoice))).isEqualByComparingTo("-100");
+	}
+
+	/**
+	 * The sysconfig only decides if the pay selection reads the projection, so the projection needs to be up to date when it's switched on.
+	 */
+	@Test
+	void updateOpenItemsProjection_isAlsoDoneIfTheProjectionIsNotEnabled()
+	{
+		enableProjection(false);
+		final I_C_Invoice invoice = createCompletedInvoice("100");
+
+		invoiceInterceptor.updateOpenItemsProjection(invoice);
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(invoice))).isEqualByComparingTo("100");
+
+		allocate(invoice, "40");
+		invoiceInterceptor.updateOpenItemsProjection(invoice);
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(invoice))).isEqualByComparingTo("60");
+
+		enableProjection(true);
+		assertThat(invoiceOpenItemsDAO.isProjectionEnabled(ClientId.ofRepoId(invoice.getAD_Client_ID()), OrgId.ofRepoId(invoice.getAD_Org_ID()))).isTrue();
+		assertThat(invoiceOpenItemsDAO.retrieveMismatches(ClientId.ofRepoId(invoice.getAD_Client_ID()))).isEmpty();
+	}
+
+	@Test
+	void retrieveMismatches_findsMissingObsoleteAndDeviatingRows_whichAreRepairedByUpdating()
+	{
+		final I_C_Invoice upToDateInvoice = createCompletedInvoice("10");
+		final ClientId clientId = ClientId.ofRepoId(upToDateInvoice.getAD_Client_ID());
+		invoiceOpenItemsDAO.updateForInvoiceIds(ImmutableList.of(invoiceId(upToDateInvoice)));
+
+		final I_C_Invoice deviatingInvoice = createCompletedInvoice("20");
+		invoiceOpenItemsDAO.setProjectedOpenAmt(invoiceId(deviatingInvoice), clientId, new BigDecimal("25"));
+
+		final I_C_Invoice missingInvoice = createCompletedInvoice("30");
+
+		final I_C_Invoice paidInvoice = createCompletedInvoice("40");
+		invoiceOpenItemsDAO.setProjectedOpenAmt(invoiceId(paidInvoice), clientId, new BigDecimal("40"));
+		paidInvoice.setIsPaid(true);
+		saveRecord(paidInvoice);
+
+		final List<InvoiceOpenItemMismatch> mismatches = invoiceOpenItemsDAO.retrieveMismatches(clientId);
+		final ImmutableMap<InvoiceId, InvoiceOpenItemMismatch> mismatchesByInvoiceId = Maps.uniqueIndex(mismatches, InvoiceOpenItemMismatch::getInvoiceId);
+		assertThat(mismatchesByInvoiceId).containsOnlyKeys(invoiceId(deviatingInvoice), invoiceId(missingInvoice), invoiceId(paidInvoice));
+
+		assertThat(mismatchesByInvoiceId.get(invoiceId(deviatingInvoice)).getProjectedOpenAmt()).isEqualByComparingTo("25");
+		assertThat(mismatchesByInvoiceId.get(invoiceId(deviatingInvoice)).getActualOpenAmt()).isEqualByComparingTo("20");
+
+		assertThat(mismatchesByInvoiceId.get(invoiceId(missingInvoice)).getProjectedOpenAmt()).isNull();
+		assertThat(mismatchesByInvoiceId.get(invoiceId(missingInvoice)).getActualOpenAmt()).isEqualByComparingTo("30");
+
+		assertThat(mismatchesByInvoiceId.get(invoiceId(paidInvoice)).getProjectedOpenAmt()).isEqualByComparingTo("40");
+		assertThat(mismatchesByInvoiceId.get(invoiceId(paidInvoice)).getActualOpenAmt()).isNull();
+
+		// this is what C_Invoice_Open_Projection_CheckConsistency does to repair the projection
+		invoiceOpenItemsDAO.updateForInvoiceIds(mismatches.stream()
+				.map(InvoiceOpenItemMismatch::getInvoiceId)
+				.collect(ImmutableSet.toImmutableSet()));
+
+		assertThat(invoiceOpenItemsDAO.retrieveMismatches(clientId)).isEmpty();
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(deviatingInvoice))).isEqualByComparingTo("20");
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(missingInvoice))).isEqualByComparingTo("30");
+		assertThat(invoiceOpenItemsDAO.getProjectedOpenAmt(invoiceId(paidInvoice))).isNull();
+	}
+}
@@ -0,0 +1,231 @@
+package de.metas.invoice.openitems.impl;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.service.ClientId;
+import org.compiere.util.DB;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.document.engine.DocStatus;
+import de.metas.invoice.InvoiceId;
+import de.metas.invoice.openitems.IInvoiceOpenItemsDAO;
+
+/**
+ * Runs the SQL of {@link InvoiceOpenItemsDAO} against a real database, because the in-memory database of the unit tests can't execute it.
+ * <p>
+ * It picks a few open invoices, puts their projection rows out of date, checks that the mismatches are found and repaired,
+ * and that joining the projection, as the pay selection does, returns the same open amounts as {@code invoiceOpen()}.
+ * Everything happens in one transaction which is rolled back at the end.
+ * <p>
+ * Run it manually against a database which contains open invoices, e.g.
+ * {@code -Djdbc.url=jdbc:postgresql://localhost:5432/metasfresh -Djdbc.user=metasfresh -Djdbc.password=metasfresh}.
+ */
+public class InvoiceOpenItemsDAOManualTest
+{
+	private static final int INVOICES = 30;
+
+	public static void main(final String[] args) throws SQLException
+	{
+		try (final Connection connection = DriverManager.getConnection(
+				System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/metasfresh"),
+				System.getProperty("jdbc.user", "metasfresh"),
+				System.getProperty("jdbc.password", "metasfresh")))
+		{
+			connection.setAutoCommit(false);
+			try
+			{
+				run(connection);
+				System.out.println("OK");
+			}
+			finally
+			{
+				connection.rollback();
+			}
+		}
+	}
+
+	private static void run(final Connection connection) throws SQLException
+	{
+		final ClientId clientId = retrieveClientWithOpenInvoices(connection);
+		final List<InvoiceId> invoiceIds = retrieveOpenInvoiceIds(connection, clientId);
+		assertThat(invoiceIds).as("open invoices of %s", clientId).hasSizeGreaterThanOrEqualTo(3);
+
+		update(connection, invoiceIds);
+		assertThat(retrieveMismatches(connection, clientId, invoiceIds)).as("mismatches after the update").isEmpty();
+
+		final InvoiceId missingInvoiceId = invoiceIds.get(0);
+		final InvoiceId deviatingInvoiceId = invoiceIds.get(1);
+		final InvoiceId paidInvoiceId = invoiceIds.get(2);
+		final BigDecimal deviatingInvoiceOpenAmt = retrieveProjectedOpenAmts(connection, invoiceIds).get(deviatingInvoiceId);
+		executeUpdate(connection, "DELETE FROM " + IInvoiceOpenItemsDAO.TABLENAME_C_Invoice_Open_Projection + " WHERE C_Invoice_ID=?", missingInvoiceId);
+		executeUpdate(connection, "UPDATE " + IInvoiceOpenItemsDAO.TABLENAME_C_Invoice_Open_Projection + " SET OpenAmt=OpenAmt+1 WHERE C_Invoice_ID=?", deviatingInvoiceId);
+		executeUpdate(connection, "UPDATE C_Invoice SET IsPaid='Y' WHERE C_Invoice_ID=?", paidInvoiceId);
+
+		final Map<InvoiceId, BigDecimal[]> mismatches = retrieveMismatches(connection, clientId, invoiceIds);
+		assertThat(mismatches).containsOnlyKeys(missingInvoiceId, deviatingInvoiceId, paidInvoiceId);
+		assertThat(mismatches.get(missingInvoiceId)[0]).as("projected OpenAmt of the missing row").isNull();
+		assertThat(mismatches.get(deviatingInvoiceId)[0]).isEqualByComparingTo(deviatingInvoiceOpenAmt.add(BigDecimal.ONE));
+		assertThat(mismatches.get(deviatingInvoiceId)[1]).isEqualByComparingTo(deviatingInvoiceOpenAmt);
+		assertThat(mismatches.get(paidInvoiceId)[1]).as("actual OpenAmt of the paid invoice").isNull();
+
+		update(connection, ImmutableList.of(missingInvoiceId, deviatingInvoiceId, paidInvoiceId));
+		assertThat(retrieveMismatches(connection, clientId, invoiceIds)).as("mismatches after the repair").isEmpty();
+		assertThat(retrieveProjectedOpenAmts(connection, invoiceIds)).doesNotContainKey(paidInvoiceId);
+
+		// same join and filters as PaySelectionUpdater
+		final Map<InvoiceId, BigDecimal> openAmtsFromProjection = retrieveOpenAmts(connection, invoiceIds, "i.C_Invoice_ID",
+				"SELECT i.C_Invoice_ID, oi.OpenAmt FROM C_Invoice i"
+						+ " INNER JOIN " + IInvoiceOpenItemsDAO.TABLENAME_C_Invoice_Open_Projection + " oi ON oi.C_Invoice_ID = i.C_Invoice_ID"
+						+ " WHERE i.IsPaid='N' AND i.DocStatus IN ('CO','CL')");
+		final Map<InvoiceId, BigDecimal> openAmtsFromInvoiceOpen = retrieveOpenAmts(connection, invoiceIds, "i.C_Invoice_ID",
+				"SELECT i.C_Invoice_ID, invoiceOpen(i.C_Invoice_ID, 0) AS OpenAmt FROM C_Invoice i"
+						+ " WHERE i.IsPaid='N' AND i.DocStatus IN ('CO','CL') AND invoiceOpen(i.C_Invoice_ID, 0) IS NOT NULL");
+		assertThat(openAmtsFromProjection).isEqualTo(openAmtsFromInvoiceOpen);
+	}
+
+	private static void update(final Connection connection, final List<InvoiceId> invoiceIds) throws SQLException
+	{
+		final List<Object> sqlUpsertParams = new ArrayList<>();
+		executeUpdate(connection, InvoiceOpenItemsDAO.buildUpsertSql(invoiceIds, sqlUpsertParams), sqlUpsertParams.toArray());
+
+		final List<Object> sqlDeleteParams = new ArrayList<>();
+		executeUpdate(connection, InvoiceOpenItemsDAO.buildDeleteSql(invoiceIds, sqlDeleteParams), sqlDeleteParams.toArray());
+	}
+
+	/**
+	 * @return projected and actual open amount, for those mismatches which are about the given invoices
+	 */
+	private static Map<InvoiceId, BigDecimal[]> retrieveMismatches(final Connection connection, final ClientId clientId, final List<InvoiceId> invoiceIds) throws SQLException
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = InvoiceOpenItemsDAO.buildRetrieveMismatchesSql(clientId, sqlParams);
+
+		final Map<InvoiceId, BigDecimal[]> mismatches = new HashMap<>();
+		try (final PreparedStatement pstmt = connection.prepareStatement(sql))
+		{
+			DB.setParameters(pstmt, sqlParams);
+			try (final ResultSet rs = pstmt.executeQuery())
+			{
+				while (rs.next())
+				{
+					final InvoiceId invoiceId = InvoiceId.ofRepoId(rs.getInt("C_Invoice_ID"));
+					if (invoiceIds.contains(invoiceId))
+					{
+						mismatches.put(invoiceId, new BigDecimal[] { rs.getBigDecimal("ProjectedOpenAmt"), rs.getBigDecimal("ActualOpenAmt") });
+					}
+				}
+			}
+		}
+		return mismatches;
+	}
+
+	private static Map<InvoiceId, BigDecimal> retrieveProjectedOpenAmts(final Connection connection, final List<InvoiceId> invoiceIds) throws SQLException
+	{
+		return retrieveOpenAmts(connection, invoiceIds, "p.C_Invoice_ID", "SELECT p.C_Invoice_ID, p.OpenAmt FROM " + IInvoiceOpenItemsDAO.TABLENAME_C_Invoice_Open_Projection + " p WHERE true");
+	}
+
+	/**
+	 * @param sql select with the columns C_Invoice_ID and OpenAmt and a WHERE clause, which is restricted to the given invoices by <code>invoiceIdColumnName</code>
+	 */
+	private static Map<InvoiceId, BigDecimal> retrieveOpenAmts(
+			final Connection connection,
+			final List<InvoiceId> invoiceIds,
+			final String invoiceIdColumnName,
+			final String sql) throws SQLException
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sqlRestricted = sql + " AND " + DB.buildSqlList(invoiceIdColumnName, invoiceIds, sqlParams);
+
+		final Map<InvoiceId, BigDecimal> openAmts = new HashMap<>();
+		try (final PreparedStatement pstmt = connection.prepareStatement(sqlRestricted))
+		{
+			DB.setParameters(pstmt, sqlParams);
+			try (final ResultSet rs = pstmt.executeQuery())
+			{
+				while (rs.next())
+				{
+					// strip the trailing zeros, so that the amounts can be compared regardless of their scale
+					openAmts.put(InvoiceId.ofRepoId(rs.getInt("C_Invoice_ID")), rs.getBigDecimal("OpenAmt").stripTrailingZeros());
+				}
+			}
+		}
+		return openAmts;
+	}
+
+	private static ClientId retrieveClientWithOpenInvoices(final Connection connection) throws SQLException
+	{
+		try (final PreparedStatement pstmt = connection.prepareStatement("SELECT min(AD_Client_ID) FROM C_Invoice WHERE AD_Client_ID > 0 AND IsPaid='N' AND DocStatus IN (?,?)"))
+		{
+			DB.setParameters(pstmt, DocStatus.Completed, DocStatus.Closed);
+			try (final ResultSet rs = pstmt.executeQuery())
+			{
+				rs.next();
+				return ClientId.ofRepoId(rs.getInt(1));
+			}
+		}
+	}
+
+	private static List<InvoiceId> retrieveOpenInvoiceIds(final Connection connection, final ClientId clientId) throws SQLException
+	{
+		final String sql = "SELECT C_Invoice_ID FROM C_Invoice"
+				+ " WHERE AD_Client_ID=? AND IsPaid='N' AND DocStatus IN (?,?) AND invoiceOpen(C_Invoice_ID, 0) IS NOT NULL"
+				+ " ORDER BY C_Invoice_ID DESC"
+				+ " LIMIT " + INVOICES;
+		final ImmutableList.Builder<InvoiceId> invoiceIds = ImmutableList.builder();
+		try (final PreparedStatement pstmt = connection.prepareStatement(sql))
+		{
+			DB.setParameters(pstmt, clientId, DocStatus.Completed, DocStatus.Closed);
+			try (final ResultSet rs = pstmt.executeQuery())
+			{
+				while (rs.next())
+				{
+					invoiceIds.add(InvoiceId.ofRepoId(rs.getInt("C_Invoice_ID")));
+				}
+			}
+		}
+		return invoiceIds.build();
+	}
+
+	private static void executeUpdate(final Connection connection, final String sql, final Object... sqlParams) throws SQLException
+	{
+		try (final PreparedStatement pstmt = connection.prepareStatement(sql))
+		{
+			DB.setParameters(pstmt, sqlParams);
+			pstmt.executeUpdate();
+		}
+	}
+}
@@ -9,6 +9,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.TimeUtil;
 
@@ -45,13 +47,20 @@ import lombok.NonNull;
 public class DATEVCsvExporter extends AbstractExporter
 {
 	private final DATEVExportFormat exportFormat;
+	private final DATEVExportLinesBatchInserter exportLinesInserter;
 
+	/**
+	 * @param exportLinesInserter if set, each row of the data source has the export format's columns followed by the audit columns, which are passed to this inserter.
+	 *            See {@link DATEVExportLinesRepository#createDirectExportDataSource(de.metas.datev.model.I_DATEV_Export, DATEVExportFormat, boolean)}.
+	 */
 	@Builder
 	private DATEVCsvExporter(
 			@NonNull final DATEVExportFormat exportFormat,
-			@NonNull final IExportDataSource dataSource)
+			@NonNull final IExportDataSource dataSource,
+			@Nullable final DATEVExportLinesBatchInserter exportLinesInserter)
 	{
 		this.exportFormat = exportFormat;
+		this.exportLinesInserter = exportLinesInserter;
 		setDataSource(dataSource);
 	}
 
@@ -64,7 +73,7 @@ public class DATEVCsvExporter extends AbstractExporter
 		config.setProperty(CSVWriter.CONFIG_FieldQuote, exportFormat.getCsvFieldQuote());
 
 		final CSVWriter csvWriter = new CSVWriter(out, config);
-		csvWriter.setHeader(getDataSource().getFieldNames());
+		csvWriter.setHeader(getDataSource().getFieldNames().subList(0, getCsvColumnsCount()));
 		return csvWriter;
 	}
 
@@ -72,8 +81,19 @@ public class DATEVCsvExporter extends AbstractExporter
 	protected void appendRow(final IExportDataDestination dataDestination, final List<Object> row) throws IOException
 	{
 		final CSVWriter csvWriter = CSVWriter.cast(dataDestination);
-		final List<Object> rowFormatted = formatRow(row);
+		final int csvColumnsCount = getCsvColumnsCount();
+		final List<Object> rowFormatted = formatRow(row.subList(0, csvColumnsCount));
 		csvWriter.appendLine(rowFormatted);
+
+		if (exportLinesInserter != null)
+		{
+			exportLinesInserter.add(row.subList(csvColumnsCount, row.size()));
+		}
+	}
+
+	private int getCsvColumnsCount()
+	{
+		return exportFormat.getColumns().size();
 	}
 
 	private List<Object> formatRow(final List<Object> row)
@@ -0,0 +1,102 @@
+package de.metas.datev;
+
+import java.io.OutputStream;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import de.metas.data.export.api.IExportDataSource;
+import de.metas.datev.model.I_DATEV_Export;
+import de.metas.datev.model.I_DATEV_ExportLine;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-datev
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Streams the rows of a direct export data source into the CSV and, if <code>createAuditLines</code> is set,
+ * (re)creates the export's {@link I_DATEV_ExportLine}s from the same rows, in the same pass.
+ * <p>
+ * Without audit lines, already exported invoices can't be recognized later, so {@link I_DATEV_Export#isExcludeAlreadyExported()} is not supported in that case.
+ */
+public class DATEVDirectExportCommand
+{
+	private final DATEVExportLinesRepository exportLinesRepo;
+	private final I_DATEV_Export datevExport;
+	private final DATEVExportFormat exportFormat;
+	private final IExportDataSource dataSource;
+	private final boolean createAuditLines;
+
+	@Builder
+	private DATEVDirectExportCommand(
+			@NonNull final DATEVExportLinesRepository exportLinesRepo,
+			@NonNull final I_DATEV_Export datevExport,
+			@NonNull final DATEVExportFormat exportFormat,
+			@NonNull final IExportDataSource dataSource,
+			final boolean createAuditLines)
+	{
+		this.exportLinesRepo = exportLinesRepo;
+		this.datevExport = datevExport;
+		this.exportFormat = exportFormat;
+		this.dataSource = dataSource;
+		this.createAuditLines = createAuditLines;
+	}
+
+	/**
+	 * @return number of exported rows
+	 */
+	public int execute(@NonNull final OutputStream out)
+	{
+		if (!createAuditLines && datevExport.isExcludeAlreadyExported())
+		{
+			dataSource.close();
+			throw new AdempiereException("Excluding already exported invoices requires the export lines, but their creation is disabled for direct exports")
+					.appendParametersToMessage()
+					.setParameter("DATEV_Export_ID", datevExport.getDATEV_Export_ID());
+		}
+
+		final DATEVExportLinesBatchInserter exportLinesInserter;
+		if (createAuditLines)
+		{
+			exportLinesRepo.deleteAllByExportId(datevExport.getDATEV_Export_ID());
+			exportLinesInserter = exportLinesRepo.newBatchInserter(datevExport.getDATEV_Export_ID());
+		}
+		else
+		{
+			exportLinesInserter = null;
+		}
+
+		final DATEVCsvExporter exporter = DATEVCsvExporter.builder()
+				.exportFormat(exportFormat)
+				.dataSource(dataSource)
+				.exportLinesInserter(exportLinesInserter)
+				.build();
+		exporter.export(out);
+
+		if (exportLinesInserter != null)
+		{
+			exportLinesInserter.flush();
+		}
+
+		return exporter.getExportedRowCount();
+	}
+}
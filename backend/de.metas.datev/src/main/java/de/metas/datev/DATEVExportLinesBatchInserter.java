@@ -0,0 +1,165 @@
+package de.metas.datev;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.common.util.time.SystemTime;
+import de.metas.datev.model.I_DATEV_ExportLine;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-datev
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Inserts the {@link I_DATEV_ExportLine}s of one export while its rows are exported, in JDBC batches, in the thread inherited transaction.
+ * <p>
+ * The values of each line are given in the order of {@link DATEVExportLinesRepository#AUDIT_COLUMNNAMES}.
+ */
+public class DATEVExportLinesBatchInserter
+{
+	private static final int BATCH_SIZE = 1000;
+
+	private final int datevExportId;
+	private final ImmutableList<String> columnNames;
+	private final List<List<Object>> pendingLines = new ArrayList<>();
+	private int countInserted = 0;
+
+	DATEVExportLinesBatchInserter(final int datevExportId, @NonNull final ImmutableList<String> columnNames)
+	{
+		Check.assume(datevExportId > 0, "datevExportId > 0");
+		this.datevExportId = datevExportId;
+		this.columnNames = columnNames;
+	}
+
+	public void add(@NonNull final List<Object> values)
+	{
+		Check.assume(values.size() == columnNames.size(), "Expected {} values but got {}", columnNames.size(), values);
+
+		pendingLines.add(new ArrayList<>(values));
+		if (pendingLines.size() >= BATCH_SIZE)
+		{
+			flush();
+		}
+	}
+
+	public void flush()
+	{
+		if (pendingLines.isEmpty())
+		{
+			return;
+		}
+
+		if (Adempiere.isUnitTestMode())
+		{
+			insertUsingModels();
+		}
+		else
+		{
+			insertUsingBatch();
+		}
+
+		countInserted += pendingLines.size();
+		pendingLines.clear();
+	}
+
+	public int getCountInserted()
+	{
+		return countInserted;
+	}
+
+	private void insertUsingModels()
+	{
+		for (final List<Object> values : pendingLines)
+		{
+			final I_DATEV_ExportLine exportLine = InterfaceWrapperHelper.newInstance(I_DATEV_ExportLine.class);
+			exportLine.setDATEV_Export_ID(datevExportId);
+			for (int i = 0; i < columnNames.size(); i++)
+			{
+				InterfaceWrapperHelper.setValue(exportLine, columnNames.get(i), values.get(i));
+			}
+			InterfaceWrapperHelper.save(exportLine);
+		}
+	}
+
+	private void insertUsingBatch()
+	{
+		final StringBuilder sqlColumns = new StringBuilder(I_DATEV_ExportLine.COLUMNNAME_DATEV_ExportLine_ID)
+				.append(", ").append(I_DATEV_ExportLine.COLUMNNAME_DATEV_Export_ID)
+				.append(", ").append(I_DATEV_ExportLine.COLUMNNAME_IsActive)
+				.append(", ").append(I_DATEV_ExportLine.COLUMNNAME_Created)
+				.append(", ").append(I_DATEV_ExportLine.COLUMNNAME_CreatedBy)
+				.append(", ").append(I_DATEV_ExportLine.COLUMNNAME_Updated)
+				.append(", ").append(I_DATEV_ExportLine.COLUMNNAME_UpdatedBy);
+		final StringBuilder sqlValues = new StringBuilder(DB.TO_TABLESEQUENCE_NEXTVAL(I_DATEV_ExportLine.Table_Name))
+				.append(", ?, 'Y', ?, ?, ?, ?");
+		for (final String columnName : columnNames)
+		{
+			sqlColumns.append(", ").append(columnName);
+			sqlValues.append(", ?");
+		}
+		final String sql = "INSERT INTO " + I_DATEV_ExportLine.Table_Name + " (" + sqlColumns + ") VALUES (" + sqlValues + ")";
+
+		final Timestamp now = SystemTime.asTimestamp();
+		final int userId = Env.getAD_User_ID();
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			for (final List<Object> values : pendingLines)
+			{
+				final List<Object> sqlParams = new ArrayList<>(5 + values.size());
+				sqlParams.add(datevExportId);
+				sqlParams.add(now);
+				sqlParams.add(userId);
+				sqlParams.add(now);
+				sqlParams.add(userId);
+				sqlParams.addAll(values);
+
+				DB.setParameters(pstmt, sqlParams);
+				pstmt.addBatch();
+			}
+			pstmt.executeBatch();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+}
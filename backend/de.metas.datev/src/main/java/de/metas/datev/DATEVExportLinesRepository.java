@@ -9,15 +9,22 @@ import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryInsertExecutor.QueryInsertExecutorResult;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.exceptions.AdempiereException;
 import org.compiere.model.IQuery;
+import org.compiere.model.POInfo;
 import org.compiere.util.Env;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.data.export.api.IExportDataSource;
+import de.metas.data.export.api.impl.JdbcExporterBuilder;
 import de.metas.datev.model.I_DATEV_Export;
 import de.metas.datev.model.I_DATEV_ExportLine;
 import de.metas.datev.model.I_RV_DATEV_Export_Fact_Acct_Invoice;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -44,6 +51,30 @@ import de.metas.util.Services;
 @Component
 public class DATEVExportLinesRepository
 {
+	/**
+	 * The columns which are copied from {@link I_RV_DATEV_Export_Fact_Acct_Invoice} into {@link I_DATEV_ExportLine}, same as {@link #createLinesFromConfig(int)} maps them.
+	 */
+	public static final ImmutableList<String> AUDIT_COLUMNNAMES = ImmutableList.of(
+			I_DATEV_ExportLine.COLUMNNAME_AD_Client_ID,
+			I_DATEV_ExportLine.COLUMNNAME_AD_Org_ID,
+			I_DATEV_ExportLine.COLUMNNAME_Fact_Acct_ID,
+			I_DATEV_ExportLine.COLUMNNAME_C_Invoice_ID,
+			I_DATEV_ExportLine.COLUMNNAME_DocumentNo,
+			I_DATEV_ExportLine.COLUMNNAME_DocBaseType,
+			I_DATEV_ExportLine.COLUMNNAME_DateAcct,
+			I_DATEV_ExportLine.COLUMNNAME_DueDate,
+			I_DATEV_ExportLine.COLUMNNAME_DR_Account,
+			I_DATEV_ExportLine.COLUMNNAME_CR_Account,
+			I_DATEV_ExportLine.COLUMNNAME_Amt,
+			I_DATEV_ExportLine.COLUMNNAME_C_BPartner_ID,
+			I_DATEV_ExportLine.COLUMNNAME_BPValue,
+			I_DATEV_ExportLine.COLUMNNAME_BPName,
+			I_DATEV_ExportLine.COLUMNNAME_C_Activity_ID,
+			I_DATEV_ExportLine.COLUMNNAME_ActivityName,
+			I_DATEV_ExportLine.COLUMNNAME_Description);
+
+	private static final String AUDIT_FIELDNAME_PREFIX = "DATEV_ExportLine.";
+
 	public int deleteAllByExportId(final int datevExportId)
 	{
 		return Services.get(IQueryBL.class)
@@ -75,6 +106,66 @@ public class DATEVExportLinesRepository
 		return result.getRowsInserted();
 	}
 
+	/**
+	 * Creates a data source which reads the rows to export straight from {@link I_RV_DATEV_Export_Fact_Acct_Invoice}, using a server-side cursor.
+	 * So, unlike with {@link #createLinesFromConfig(int)}, no {@link I_DATEV_ExportLine}s are needed.
+	 * <p>
+	 * Each row starts with the export format's columns. If <code>withAuditColumns</code> is set, they are followed by the {@link #AUDIT_COLUMNNAMES},
+	 * so that a {@link DATEVExportLinesBatchInserter} can create the export's lines from the same rows which are written to the CSV.
+	 * <p>
+	 * Note: the data source uses its own DB connection, so it does not see the uncommitted changes of the current transaction.
+	 * That's why the given export's own lines are not considered when excluding already exported invoices.
+	 */
+	public IExportDataSource createDirectExportDataSource(
+			@NonNull final I_DATEV_Export datevExport,
+			@NonNull final DATEVExportFormat exportFormat,
+			final boolean withAuditColumns)
+	{
+		final String sourceTableName = I_RV_DATEV_Export_Fact_Acct_Invoice.Table_Name;
+		final JdbcExporterBuilder builder = new JdbcExporterBuilder(sourceTableName)
+				.addBetweenWhereClause(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_DateAcct, datevExport.getDateAcctFrom(), datevExport.getDateAcctTo());
+		if (datevExport.isExcludeAlreadyExported())
+		{
+			builder.addWhereClause(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_C_Invoice_ID + " NOT IN ("
+					+ "SELECT " + I_DATEV_ExportLine.COLUMNNAME_C_Invoice_ID
+					+ " FROM " + I_DATEV_ExportLine.Table_Name
+					+ " WHERE " + I_DATEV_ExportLine.COLUMNNAME_DATEV_Export_ID + "<>?)",
+					datevExport.getDATEV_Export_ID());
+		}
+		builder.addOrderBy(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_Fact_Acct_ID);
+
+		final POInfo sourcePOInfo = POInfo.getPOInfo(sourceTableName);
+		for (final DATEVExportFormatColumn formatColumn : exportFormat.getColumns())
+		{
+			if (!sourcePOInfo.hasColumnName(formatColumn.getColumnName()))
+			{
+				throw new AdempiereException("Export format " + exportFormat.getName() + " has column " + formatColumn.getColumnName()
+						+ " which is not available in " + sourceTableName + ", so it can't be exported directly");
+			}
+			builder.addField(formatColumn.getCsvHeaderName(), formatColumn.getColumnName());
+		}
+
+		if (withAuditColumns)
+		{
+			AUDIT_COLUMNNAMES.forEach(columnName -> builder.addField(AUDIT_FIELDNAME_PREFIX + columnName, columnName));
+		}
+		else
+		{
+			// the rows are selected DISTINCT, so the ORDER BY column needs to be selected too
+			builder.addInternalField(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_Fact_Acct_ID);
+		}
+
+		return builder.createDataSource();
+	}
+
+	/**
+	 * @return an inserter which creates the given export's lines; the caller needs to delete the export's previous lines first, see {@link #deleteAllByExportId(int)}
+	 */
+	public DATEVExportLinesBatchInserter newBatchInserter(final int datevExportId)
+	{
+		return new DATEVExportLinesBatchInserter(datevExportId, AUDIT_COLUMNNAMES);
+	}
+
 	private IQuery<I_RV_DATEV_Export_Fact_Acct_Invoice> createSourceQuery(final I_DATEV_Export datevExport)
 	{
 		final IQueryBL queryBL = Services.get(IQueryBL.class);
@@ -1,9 +1,15 @@
 package de.metas.datev.process;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Timestamp;
 import java.time.format.DateTimeFormatter;
 
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
 import org.compiere.util.TimeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +19,10 @@ import com.google.common.base.Joiner;
 import de.metas.data.export.api.IExportDataSource;
 import de.metas.data.export.api.impl.JdbcExporterBuilder;
 import de.metas.datev.DATEVCsvExporter;
+import de.metas.datev.DATEVDirectExportCommand;
 import de.metas.datev.DATEVExportFormat;
 import de.metas.datev.DATEVExportFormatRepository;
+import de.metas.datev.DATEVExportLinesRepository;
 import de.metas.datev.model.I_DATEV_Export;
 import de.metas.datev.model.I_DATEV_ExportFormat;
 import de.metas.datev.model.I_DATEV_ExportLine;
@@ -24,6 +32,7 @@ import de.metas.process.JavaProcess;
 import de.metas.process.Param;
 import de.metas.process.ProcessPreconditionsResolution;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -52,6 +61,21 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 {
 	@Autowired
 	private DATEVExportFormatRepository exportFormatRepo;
+	@Autowired
+	private DATEVExportLinesRepository datevExportLinesRepo;
+
+	/**
+	 * If set, the postings are streamed from the accounting view straight into the CSV, without reading them from the previously created {@link I_DATEV_ExportLine}s.
+	 */
+	private static final String SYSCONFIG_ExportDirectly = "de.metas.datev.DATEV_ExportFile.ExportDirectly";
+
+	/**
+	 * Only applies when exporting directly. If set, the export's {@link I_DATEV_ExportLine}s are recreated from the rows while they are written to the CSV,
+	 * so they can be audited and considered by {@link I_DATEV_Export#isExcludeAlreadyExported()}.
+	 */
+	private static final String SYSCONFIG_ExportDirectly_CreateAuditLines = "de.metas.datev.DATEV_ExportFile.ExportDirectly.CreateAuditLines";
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 
 	@Param(parameterName = I_DATEV_ExportFormat.COLUMNNAME_DATEV_ExportFormat_ID, mandatory = true)
 	private int datevExportFormatId;
@@ -82,23 +106,59 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 		final DATEVExportFormat exportFormat = exportFormatRepo.getById(datevExportFormatId);
 		final I_DATEV_Export datevExport = getRecord(I_DATEV_Export.class);
 
-		final IExportDataSource dataSource = createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
+		final boolean exportDirectly = sysConfigBL.getBooleanValue(SYSCONFIG_ExportDirectly, false);
 
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
-		DATEVCsvExporter.builder()
-				.exportFormat(exportFormat)
-				.dataSource(dataSource)
-				.build()
-				.export(out);
-
-		getResult().setReportData(
-				out.toByteArray(), // data
-				buildFilename(datevExport), // filename
-				"text/csv"); // content type
+		// write the CSV to a file instead of keeping all of it in memory while it's created
+		final Path tempDir = Files.createTempDirectory("datev");
+		final File file = tempDir.resolve(buildFilename(datevExport)).toFile();
+		try
+		{
+			try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(file)))
+			{
+				if (exportDirectly)
+				{
+					exportDirectly(datevExport, exportFormat, out);
+				}
+				else
+				{
+					final DATEVCsvExporter exporter = DATEVCsvExporter.builder()
+							.exportFormat(exportFormat)
+							.dataSource(createDataSource(exportFormat, datevExport.getDATEV_Export_ID()))
+							.build();
+					exporter.export(out);
+					addLog("Exported {} rows", exporter.getExportedRowCount());
+				}
+			}
+
+			getResult().setReportData(file);
+		}
+		finally
+		{
+			Files.deleteIfExists(file.toPath());
+			Files.deleteIfExists(tempDir);
+		}
 
 		return MSG_OK;
 	}
 
+	private void exportDirectly(
+			@NonNull final I_DATEV_Export datevExport,
+			@NonNull final DATEVExportFormat exportFormat,
+			@NonNull final OutputStream out)
+	{
+		final boolean createAuditLines = sysConfigBL.getBooleanValue(SYSCONFIG_ExportDirectly_CreateAuditLines, true);
+
+		final int exportedRowCount = DATEVDirectExportCommand.builder()
+				.exportLinesRepo(datevExportLinesRepo)
+				.datevExport(datevExport)
+				.exportFormat(exportFormat)
+				.dataSource(datevExportLinesRepo.createDirectExportDataSource(datevExport, exportFormat, createAuditLines))
+				.createAuditLines(createAuditLines)
+				.build()
+				.execute(out);
+		addLog("Exported {} rows directly (createAuditLines={})", exportedRowCount, createAuditLines);
+	}
+
 	private IExportDataSource createDataSource(@NonNull final DATEVExportFormat exportFormat, final int datevExportId)
 	{
 		Check.assume(datevExportId > 0, "datevExportId > 0");
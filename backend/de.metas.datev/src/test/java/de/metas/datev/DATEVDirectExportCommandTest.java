@@ -0,0 +1,270 @@
+package de.metas.datev;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.data.export.api.IExportDataSource;
+import de.metas.datev.model.I_DATEV_Export;
+import de.metas.datev.model.I_DATEV_ExportLine;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-datev
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DATEVDirectExportCommandTest
+{
+	private DATEVExportLinesRepository exportLinesRepo;
+	private DATEVExportFormat exportFormat;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		exportLinesRepo = new DATEVExportLinesRepository();
+		exportFormat = DATEVExportFormat.builder()
+				.name("test")
+				.csvFieldDelimiter(";")
+				.column(DATEVExportFormatColumn.builder().columnName(I_DATEV_ExportLine.COLUMNNAME_DocumentNo).csvHeaderName("Belegnr").build())
+				.column(DATEVExportFormatColumn.builder().columnName(I_DATEV_ExportLine.COLUMNNAME_Amt).csvHeaderName("Umsatz").build())
+				.build();
+	}
+
+	@Test
+	public void withAuditLines()
+	{
+		final I_DATEV_Export datevExport = createDATEVExport(false);
+		createExportLine(datevExport, 999, "previous run");
+		final I_DATEV_Export otherDatevExport = createDATEVExport(false);
+		createExportLine(otherDatevExport, 888, "other export");
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final int exportedRowCount = DATEVDirectExportCommand.builder()
+				.exportLinesRepo(exportLinesRepo)
+				.datevExport(datevExport)
+				.exportFormat(exportFormat)
+				.dataSource(new TestDataSource(ImmutableList.of(
+						row("INV-1", new BigDecimal("10.50"), 101, 1001),
+						row("INV-2", new BigDecimal("20"), 102, 1002)), true))
+				.createAuditLines(true)
+				.build()
+				.execute(out);
+
+		assertThat(exportedRowCount).isEqualTo(2);
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("Belegnr;Umsatz\nINV-1;10.50\nINV-2;20\n");
+
+		// the previous lines of this export were replaced by the exported rows
+		assertThat(retrieveExportLines(datevExport))
+				.extracting(I_DATEV_ExportLine::getC_Invoice_ID, I_DATEV_ExportLine::getFact_Acct_ID, I_DATEV_ExportLine::getDocumentNo, I_DATEV_ExportLine::getAmt)
+				.containsExactly(
+						tuple(101, 1001, "INV-1", new BigDecimal("10.50")),
+						tuple(102, 1002, "INV-2", new BigDecimal("20")));
+
+		// other exports' lines were not touched
+		assertThat(retrieveExportLines(otherDatevExport))
+				.extracting(I_DATEV_ExportLine::getC_Invoice_ID)
+				.containsExactly(888);
+	}
+
+	@Test
+	public void withoutAuditLines()
+	{
+		final I_DATEV_Export datevExport = createDATEVExport(false);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final int exportedRowCount = DATEVDirectExportCommand.builder()
+				.exportLinesRepo(exportLinesRepo)
+				.datevExport(datevExport)
+				.exportFormat(exportFormat)
+				.dataSource(new TestDataSource(ImmutableList.of(row("INV-1", BigDecimal.ONE, 101, 1001)), false))
+				.createAuditLines(false)
+				.build()
+				.execute(out);
+
+		assertThat(exportedRowCount).isEqualTo(1);
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("Belegnr;Umsatz\nINV-1;1\n");
+		assertThat(retrieveExportLines(datevExport)).isEmpty();
+	}
+
+	@Test
+	public void withoutAuditLines_excludeAlreadyExported_isNotSupported()
+	{
+		final I_DATEV_Export datevExport = createDATEVExport(true);
+
+		final DATEVDirectExportCommand command = DATEVDirectExportCommand.builder()
+				.exportLinesRepo(exportLinesRepo)
+				.datevExport(datevExport)
+				.exportFormat(exportFormat)
+				.dataSource(new TestDataSource(ImmutableList.of(row("INV-1", BigDecimal.ONE, 101, 1001)), false))
+				.createAuditLines(false)
+				.build();
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertThatThrownBy(() -> command.execute(out))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("Excluding already exported invoices");
+		assertThat(out.size()).isZero();
+	}
+
+	private static I_DATEV_Export createDATEVExport(final boolean excludeAlreadyExported)
+	{
+		final I_DATEV_Export datevExport = newInstance(I_DATEV_Export.class);
+		datevExport.setIsExcludeAlreadyExported(excludeAlreadyExported);
+		saveRecord(datevExport);
+		return datevExport;
+	}
+
+	private static void createExportLine(final I_DATEV_Export datevExport, final int invoiceId, final String documentNo)
+	{
+		final I_DATEV_ExportLine exportLine = newInstance(I_DATEV_ExportLine.class);
+		exportLine.setDATEV_Export_ID(datevExport.getDATEV_Export_ID());
+		exportLine.setC_Invoice_ID(invoiceId);
+		exportLine.setDocumentNo(documentNo);
+		saveRecord(exportLine);
+	}
+
+	private static List<I_DATEV_ExportLine> retrieveExportLines(final I_DATEV_Export datevExport)
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_DATEV_ExportLine.class)
+				.addEqualsFilter(I_DATEV_ExportLine.COLUMN_DATEV_Export_ID, datevExport.getDATEV_Export_ID())
+				.orderBy(I_DATEV_ExportLine.COLUMNNAME_DATEV_ExportLine_ID)
+				.create()
+				.list();
+	}
+
+	/**
+	 * @return the export format's values followed by the values of {@link DATEVExportLinesRepository#AUDIT_COLUMNNAMES}; the test data source drops the latter if it has no audit columns
+	 */
+	private static List<Object> row(final String documentNo, final BigDecimal amt, final int invoiceId, final int factAcctId)
+	{
+		final List<Object> row = new ArrayList<>();
+		row.add(documentNo);
+		row.add(amt);
+		for (final String columnName : DATEVExportLinesRepository.AUDIT_COLUMNNAMES)
+		{
+			switch (columnName)
+			{
+				case I_DATEV_ExportLine.COLUMNNAME_C_Invoice_ID:
+					row.add(invoiceId);
+					break;
+				case I_DATEV_ExportLine.COLUMNNAME_Fact_Acct_ID:
+					row.add(factAcctId);
+					break;
+				case I_DATEV_ExportLine.COLUMNNAME_DocumentNo:
+					row.add(documentNo);
+					break;
+				case I_DATEV_ExportLine.COLUMNNAME_Amt:
+					row.add(amt);
+					break;
+				default:
+					row.add(null);
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * In-memory stand-in for the data source of {@link DATEVExportLinesRepository#createDirectExportDataSource(I_DATEV_Export, DATEVExportFormat, boolean)}.
+	 */
+	private static class TestDataSource implements IExportDataSource
+	{
+		private static final int FORMAT_COLUMNS_COUNT = 2;
+
+		private final ImmutableList<String> fieldNames;
+		private final Iterator<List<Object>> rows;
+		private final int size;
+
+		private TestDataSource(@NonNull final ImmutableList<List<Object>> rows, final boolean withAuditColumns)
+		{
+			final ImmutableList.Builder<String> fieldNames = ImmutableList.<String> builder().add("Belegnr", "Umsatz");
+			if (withAuditColumns)
+			{
+				DATEVExportLinesRepository.AUDIT_COLUMNNAMES.forEach(columnName -> fieldNames.add("DATEV_ExportLine." + columnName));
+			}
+			this.fieldNames = fieldNames.build();
+			this.rows = rows.stream()
+					.map(row -> withAuditColumns ? row : row.subList(0, FORMAT_COLUMNS_COUNT))
+					.iterator();
+			this.size = rows.size();
+		}
+
+		@Override
+		public List<String> getFieldNames()
+		{
+			return fieldNames;
+		}
+
+		@Override
+		public void prepare()
+		{
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return rows.hasNext();
+		}
+
+		@Override
+		public List<Object> next()
+		{
+			return rows.next();
+		}
+
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close()
+		{
+		}
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
+	}
+}
@@ -103,6 +103,33 @@ public interface IIterateResult
 	 */
 	ITableRecordReference nextFromQueue();
 
+	/**
+	 * Like {@link #nextFromQueue()}, but does not load the returned record.
+	 * Instead, the caller loads it (e.g. together with other records of the same table) and passes it to {@link #onQueueRecordLoaded(ITableRecordReference, IDLMAware)}.
+	 * <p>
+	 * The default implementation just calls {@link #nextFromQueue()}.
+	 */
+	default ITableRecordReference nextFromQueueNotLoaded()
+	{
+		return nextFromQueue();
+	}
+
+	/**
+	 * Called with the records that were returned by {@link #nextFromQueueNotLoaded()}, after they were loaded by the caller.
+	 * Records that don't exist (anymore) are not passed to this method.
+	 */
+	default void onQueueRecordLoaded(final ITableRecordReference tableRecordReference, final IDLMAware record)
+	{
+		// nothing to do by default
+	}
+
+	/**
+	 * Puts the given records back to the beginning of the queue (in the given order).
+	 * The crawler calls this method when it stops after it took the given records from the queue, but before it could follow all their references,
+	 * so that the records are processed later and the partition is not left incomplete.
+	 */
+	void returnToQueue(List<ITableRecordReference> tableRecordReferences);
+
 	/**
 	 * Register a handler.
 	 * <p>
@@ -1,6 +1,7 @@
 package de.metas.dlm.partitioner.impl;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -18,6 +19,7 @@ import com.google.common.collect.ImmutableMap;
 import de.metas.dlm.Partition;
 import de.metas.dlm.Partition.WorkQueue;
 import de.metas.dlm.model.IDLMAware;
+import de.metas.dlm.model.I_DLM_Partition_Workqueue;
 import de.metas.dlm.partitioner.IIterateResultHandler;
 import de.metas.dlm.partitioner.IIterateResultHandler.AddResult;
 import de.metas.dlm.partitioner.IterateResultHandlerSupport;
@@ -58,10 +60,22 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 	private final ArrayList<WorkQueue> queueItemsToDelete;
 
 	/**
-	 * Using a map because when querying "backward" references from a partitular table, we want to exclude IDs we already have.
+	 * Records from the initial queue which were already returned by {@link #nextFromQueueNotLoaded()}, but which were not yet loaded and therefore not yet added to this result.
+	 */
+	private final Set<ITableRecordReference> initialQueueItemsNotLoaded = new HashSet<>();
+
+	/**
+	 * The records which were added since the partition was last stored; they are stored with the partition's next store and then cleared.
 	 */
 	private final Map<String, Set<ITableRecordReference>> tableName2Record = new HashMap<>();
 
+	/**
+	 * The IDs of all records which were ever added to this result, one bitmap per table. We use this to avoid circles and to not load and add records we already have.
+	 * <p>
+	 * Unlike {@link #tableName2Record}, this is not cleared when the partition was stored. The records which were stored already belong to the partition, so there is no point in adding them again.
+	 */
+	private final Map<String, BitSet> tableName2VisitedRecordIds = new HashMap<>();
+
 	/**
 	 * Using this map, because after the iterate method, we need to know which different DLM_Partition_IDs we have.
 	 * With 100.000 ITableRecordReferences, we then don't want to load all their IDLMAwares once again, just to get the DLM_Partition_ID.
@@ -116,13 +130,15 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 				.add(tableRecordReference);
 
 		final String tableName = mkKey(tableRecordReference);
-		final boolean added = tableName2Record
-				.computeIfAbsent(tableName, k -> new HashSet<>())
-				.add(tableRecordReference);
+		final boolean added = markVisited(tableName, tableRecordReference.getRecord_ID());
 
 		final AddResult preliminaryResult;
 		if (added)
 		{
+			tableName2Record
+					.computeIfAbsent(tableName, k -> new HashSet<>())
+					.add(tableRecordReference);
+
 			preliminaryResult = AddResult.ADDED_CONTINUE;
 			size++;
 			if (!neverAddToqueue && dlmPartitionId <= 0)
@@ -150,15 +166,29 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 		this.partition = partition;
 	}
 
+	/**
+	 * @return <code>true</code> if the given record was not yet visited
+	 */
+	private boolean markVisited(final String tableName, final int recordId)
+	{
+		final BitSet visitedRecordIds = tableName2VisitedRecordIds.computeIfAbsent(tableName, k -> new BitSet());
+		if (visitedRecordIds.get(recordId))
+		{
+			return false;
+		}
+		visitedRecordIds.set(recordId);
+		return true;
+	}
+
 	@Override
 	public boolean contains(final ITableRecordReference tableRecordReference)
 	{
-		final Set<ITableRecordReference> records = tableName2Record.get(mkKey(tableRecordReference));
-		if (records == null)
+		final BitSet visitedRecordIds = tableName2VisitedRecordIds.get(mkKey(tableRecordReference));
+		if (visitedRecordIds == null)
 		{
 			return false;
 		}
-		return records.contains(tableRecordReference);
+		return visitedRecordIds.get(tableRecordReference.getRecord_ID());
 	}
 
 	private String mkKey(final ITableRecordReference tableRecordReference)
@@ -198,6 +228,21 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 
 	@Override
 	public ITableRecordReference nextFromQueue()
+	{
+		final ITableRecordReference tableRecordReference = nextFromQueueNotLoaded();
+		if (initialQueueItemsNotLoaded.contains(tableRecordReference))
+		{
+			final IDLMAware model = tableRecordReference.getModel(ctxAware, IDLMAware.class);
+			if (model != null)
+			{
+				onQueueRecordLoaded(tableRecordReference, model);
+			}
+		}
+		return tableRecordReference;
+	}
+
+	@Override
+	public ITableRecordReference nextFromQueueNotLoaded()
 	{
 		final WorkQueue result = nextFromQueue0();
 		if (result.getDLM_Partition_Workqueue_ID() > 0)
@@ -212,11 +257,10 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 	{
 		if (iterator.hasNext())
 		{
-			// once we get the record from the queue, we also add it to our result
+			// once we got the record from the queue, we also add it to our result, but we need its DLM_Partition_ID for that.
+			// so we wait until the record was loaded, see onQueueRecordLoaded()
 			final WorkQueue next = iterator.next();
-			final ITableRecordReference tableRecordReference = next.getTableRecordReference();
-			final IDLMAware model = tableRecordReference.getModel(ctxAware, IDLMAware.class);
-			add0(tableRecordReference, model.getDLM_Partition_ID(), true);
+			initialQueueItemsNotLoaded.add(next.getTableRecordReference());
 
 			return next;
 		}
@@ -224,6 +268,28 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 		return queueItemsToProcess.removeFirst();
 	}
 
+	@Override
+	public void onQueueRecordLoaded(final ITableRecordReference tableRecordReference, final IDLMAware record)
+	{
+		if (initialQueueItemsNotLoaded.remove(tableRecordReference))
+		{
+			add0(tableRecordReference, record.getDLM_Partition_ID(), true);
+		}
+	}
+
+	/**
+	 * Adds the given records as new work queue items. If any of them were already stored in {@link I_DLM_Partition_Workqueue}, then their old records are still deleted,
+	 * because the new ones will be stored instead.
+	 */
+	@Override
+	public void returnToQueue(final List<ITableRecordReference> tableRecordReferences)
+	{
+		for (int i = tableRecordReferences.size() - 1; i >= 0; i--)
+		{
+			queueItemsToProcess.addFirst(WorkQueue.of(tableRecordReferences.get(i)));
+		}
+	}
+
 	@Override
 	public List<WorkQueue> getQueueRecordsToStore()
 	{
@@ -270,6 +336,7 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 				+ ", queueItemsToDelete.size()=" + queueItemsToDelete.size()
 				+ ", size=" + size
 				+ ", tableName2Record.size()=" + tableName2Record.size()
+				+ ", tableName2VisitedRecordIds.size()=" + tableName2VisitedRecordIds.size()
 				+ ", dlmPartitionId2Record.size()=" + dlmPartitionId2Record.size()
 				+ ", iterator=" + iterator
 				+ ", ctxAware=" + ctxAware
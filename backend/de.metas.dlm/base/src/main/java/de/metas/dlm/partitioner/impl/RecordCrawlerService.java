@@ -24,9 +24,19 @@ package de.metas.dlm.partitioner.impl;
 
 import ch.qos.logback.classic.Level;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
 import de.metas.adempiere.service.IColumnBL;
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
+import de.metas.dlm.Partition.WorkQueue;
 import de.metas.dlm.migrator.IMigratorService;
 import de.metas.dlm.model.IDLMAware;
 import de.metas.dlm.model.I_DLM_Partition;
@@ -49,247 +59,420 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.model.PlainContextAware;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ITableRecordReference;
-import org.adempiere.util.lang.Mutable;
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.compiere.util.TrxRunnable;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class RecordCrawlerService implements IRecordCrawlerService
 {
 	private final transient Logger logger = LogManager.getLogger(getClass());
 
+	/**
+	 * The max number of records we take from the queue to process them together. Note that each reference-edge of such a "frontier" is processed with one query that has up to this many IDs in its <code>IN</code> list.
+	 */
+	private static final int FRONTIER_MAX_SIZE = 500;
+
+	private static final int WORKQUEUE_CHUNK_SIZE = 1000;
+
 	@Override
 	public IIterateResult crawl(
 			final PartitionConfig config,
 			final IContextAware ctxAware,
 			final IIterateResult result)
 	{
-
-		final IColumnBL columnBL = Services.get(IColumnBL.class);
-		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		int recordsCrawled = 0;
 
 		// store what we are setting out to do here. E.g. if we are called from a DLMException, we want the situation such as
 		// "partition is not complete because testMigrate failed, and there are e.g. 20 orderlines to backtrack from" to be stored here.
 		// otherwise, the partiton we are in truth working on just now would be flagged as "completed" in the DB until further notice
 		storeIterateResult(config, result, ctxAware);
 
-		mainLoop:
 		while (!result.isQueueEmpty())
 		{
-			final ITableRecordReference currentReference = result.nextFromQueue();
-			final IDLMAware currentRecord = currentReference.getModel(ctxAware, IDLMAware.class);
-			if (currentRecord == null)
-			{
-				continue;
-			}
+			// take a whole "frontier" of records from the queue and process it table by table,
+			// so that we can load the records and their references with one query per table and reference, instead of one query per record and reference
+			final ImmutableListMultimap<String, ITableRecordReference> tableName2Frontier = nextFrontierFromQueue(result);
 
 			if (shallStoreResult(result))
 			{
 				storeIterateResult(config, result, ctxAware);
 			}
 
-			final String currentTableName = currentReference.getTableName();
-			final int currentRecordId = InterfaceWrapperHelper.getId(currentRecord);
+			// load all records of the frontier upfront and let the result know about them, so it doesn't need to load them again
+			final Map<String, List<IDLMAware>> tableName2Records = new LinkedHashMap<>();
+			for (final String tableName : tableName2Frontier.keySet())
+			{
+				final List<IDLMAware> records = retrieveRecords(tableName, tableName2Frontier.get(tableName), ctxAware);
+				records.forEach(record -> result.onQueueRecordLoaded(TableRecordReference.of(record), record));
 
-			// there might or migth not be a line for the current reference's table name. That would mean that we can only search "backward"
-			final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+				tableName2Records.put(tableName, records);
+				recordsCrawled += records.size();
+			}
 
-			if (currentLineOrNull.isPresent())
+			final List<String> tableNames = ImmutableList.copyOf(tableName2Frontier.keySet());
+			for (int i = 0; i < tableNames.size(); i++)
 			{
-				final List<PartitionerConfigReference> forwardRefs = currentLineOrNull.get().getReferences();
+				final String currentTableName = tableNames.get(i);
 
-				// look FORWARD
-				//
-				// look at all the records that are referenced by 'currentRecord' and add them to 'hull',
-				// but only add them if they were not yet identified as parts of this partition (i.e. not yet added to 'records').
-				for (final PartitionerConfigReference forwardRef : forwardRefs)
+				final AddResult addResult = crawl(config, currentTableName, tableName2Records.get(currentTableName), ctxAware, result);
+				if (AddResult.STOP.equals(addResult))
 				{
-					if (forwardRef.isPartitionBoundary())
-					{
-						continue; // don't follow it
-					}
+					// we did not follow all references of the current table's records, and none of the subsequent tables' records.
+					// put them back, so they are stored as work queue records and the partition is not considered to be complete
+					final List<ITableRecordReference> notCrawledReferences = tableNames.subList(i, tableNames.size())
+							.stream()
+							.flatMap(tableName -> tableName2Frontier.get(tableName).stream())
+							.collect(ImmutableList.toImmutableList());
+					result.returnToQueue(notCrawledReferences);
+
+					final long elapsedMillis = stopwatch.stop().elapsed(TimeUnit.MILLISECONDS);
+					logger.info("Crawler was signaled to stop; found {} records via config.name={}; crawled {} records in {}ms; returned {} not crawled records to the queue",
+							result.size(), config.getName(), recordsCrawled, elapsedMillis, notCrawledReferences.size());
+
+					storeIterateResult(config, result, ctxAware);
+					return result;
+				}
+			}
+		}
 
-					// the table name for the foreign record which has 'foreignKey' as its ID
-					final String forwardTableName = forwardRef.getReferencedTableName();
-					final String forwardColumnName = forwardRef.getReferencingColumnName();
+		final long elapsedMillis = stopwatch.stop().elapsed(TimeUnit.MILLISECONDS);
+		final long recordsPerSec = elapsedMillis > 0 ? recordsCrawled * 1000L / elapsedMillis : recordsCrawled;
+		logger.info("Found {} records via config.name={}; crawled {} records in {}ms ({} records/sec)",
+				result.size(), config.getName(), recordsCrawled, elapsedMillis, recordsPerSec);
 
-					// first check if this is all about a Record_ID/AD_Table_ID reference.
-					// if that is the case, then we need to verify that the AD_Table_ID of 'record' actually points to the table named 'forwardTableName'
-					if (columnBL.isRecordIdColumnName(forwardColumnName))
-					{
-						final String tableColumnName = columnBL.getTableIdColumnName(currentTableName, forwardColumnName)
-								.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", currentTableName, forwardColumnName));
+		storeIterateResult(config, result, ctxAware);
+		return result;
+	}
 
-						final Integer tableId = InterfaceWrapperHelper.getValueOrNull(currentRecord, tableColumnName);
-						if (tableId == null || tableId <= 0)
-						{
-							logger.trace("{}[{}] forward: the column={} does not reference any table; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableColumnName);
-							continue;
-						}
+	/**
+	 * Follows the forward and backward references of the given <code>currentRecords</code>, which all belong to the given <code>currentTableName</code>.
+	 */
+	private AddResult crawl(
+			final PartitionConfig config,
+			final String currentTableName,
+			final List<IDLMAware> currentRecords,
+			final IContextAware ctxAware,
+			final IIterateResult result)
+	{
+		// there might or migth not be a line for the current reference's table name. That would mean that we can only search "backward"
+		final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+		if (currentLineOrNull.isPresent())
+		{
+			// look FORWARD
+			//
+			// look at all the records that are referenced by 'currentRecords' and add them to 'hull',
+			// but only add them if they were not yet identified as parts of this partition (i.e. not yet added to 'records').
+			for (final PartitionerConfigReference forwardRef : currentLineOrNull.get().getReferences())
+			{
+				if (forwardRef.isPartitionBoundary())
+				{
+					continue; // don't follow it
+				}
 
-						final String tableName = adTableDAO.retrieveTableName(tableId);
-						if (!tableName.equals(forwardTableName))
-						{
-							logger.trace("{}[{}] forward: the column={} does not reference a {}-record, but a {}-record; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableName);
-							continue;
-						}
-					}
+				final AddResult addResult = crawlForward(currentTableName, currentRecords, forwardRef, ctxAware, result);
+				if (AddResult.STOP.equals(addResult))
+				{
+					return AddResult.STOP;
+				}
+			}
+		}
 
-					// get the foreign key ID of
-					// table DLM_PartitionLine_Config.AD_Table_ID,
-					// column DLM_PartitionReference_Config.DLM_Referencing_Column_ID
-					final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(currentRecord, forwardColumnName);
-					if (forwardKey == null || forwardKey <= 0)
-					{
-						logger.trace("{}[{}] forward: the column={} does not reference anything; skipping", currentTableName, currentRecordId, forwardColumnName);
-						continue;
-					}
+		// Look BACKWARD, i.e. get all config-references that point to 'currentTableName'.
+		// Then, for each of them, load the records that reference 'currentRecords' via the respective config-reference.
+		//
+		for (final PartitionerConfigReference backwardRef : config.getReferences(currentTableName))
+		{
+			if (backwardRef.isPartitionBoundary())
+			{
+				continue;
+			}
 
-					final TableRecordReference forwardReference = TableRecordReference.of(forwardTableName, forwardKey);
+			final AddResult addResult = crawlBackward(currentTableName, currentRecords, backwardRef, ctxAware, result);
+			if (AddResult.STOP.equals(addResult))
+			{
+				return AddResult.STOP;
+			}
+		}
+		return AddResult.ADDED_CONTINUE;
+	}
 
-					final boolean recordWasAlreadyAddedBefore = result.contains(forwardReference);
-					if (recordWasAlreadyAddedBefore)
-					{
-						logger.trace("{}[{}] forward: ITableRecordReference={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, forwardReference); // avoid circles and also avoid loading the whole PO again
-					}
-					else
-					{
-						// the foreign record was not yet added before. Load it now.
-						final IDLMAware forwardRecord = forwardReference.getModel(ctxAware, IDLMAware.class);
-						if (forwardRecord == null)
-						{
-							// this happens with our "minidump" where we left out the HUs
-							Loggables.withLogger(logger, Level.WARN).addLog(
-									"{}[{}] forward: the record from table={} which we attempted to load via {}.{}={} is NULL",
-									currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey);
-							continue;
-						}
+	private static ImmutableListMultimap<String, ITableRecordReference> nextFrontierFromQueue(final IIterateResult result)
+	{
+		final List<ITableRecordReference> frontier = new ArrayList<>();
+		while (!result.isQueueEmpty() && frontier.size() < FRONTIER_MAX_SIZE)
+		{
+			frontier.add(result.nextFromQueueNotLoaded());
+		}
+		return Multimaps.index(frontier, ITableRecordReference::getTableName);
+	}
 
-						logger.debug("{}[{}] forward: loaded from table={} via {}.{}={}: referenced IDLMAware={}",
-								currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey, forwardRecord);
+	/**
+	 * Loads the records of the given <code>references</code> (which all belong to the given <code>tableName</code>) with one query.
+	 * Records that don't exist (anymore) are not included in the result.
+	 */
+	private List<IDLMAware> retrieveRecords(
+			final String tableName,
+			final Collection<ITableRecordReference> references,
+			final IContextAware ctxAware)
+	{
+		final Set<Integer> recordIds = references.stream()
+				.map(ITableRecordReference::getRecord_ID)
+				.collect(ImmutableSet.toImmutableSet());
 
-						final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardRecord.getDLM_Partition_ID());
-						if (forwardRecord.getDLM_Partition_ID() > 0)
-						{
-							// log why we do not search further using the new found foreign record
-							logger.debug("{}[{}] forward: referenced IDLMAware={} already has DLM_Partition_ID={}",
-									currentTableName, currentRecordId, forwardRecord, forwardRecord.getDLM_Partition_ID());
-						}
-						if (AddResult.STOP.equals(addResult))
-						{
-							Loggables.withLogger(logger, Level.WARN)
-									.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
-							break mainLoop;
-						}
-					}
-				}
-			}
+		return retrieveRecordsById(tableName, recordIds, ctxAware);
+	}
 
-			// Look BACKWARD, i.e. get all config-references that point to 'currentTableName'.
-			// Then, for each of them, load the records that reference 'currentRecord' via the respective config-reference.
-			//
-			final List<PartitionerConfigReference> backwardRefs = config.getReferences(currentTableName);
-			for (final PartitionerConfigReference backwardRef : backwardRefs)
+	private List<IDLMAware> retrieveRecordsById(
+			final String tableName,
+			final Set<Integer> recordIds,
+			final IContextAware ctxAware)
+	{
+		if (recordIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(IDLMAware.class, tableName, ctxAware)
+				.addInArrayFilter(InterfaceWrapperHelper.getKeyColumnName(tableName), recordIds)
+				.orderBy(InterfaceWrapperHelper.getKeyColumnName(tableName))
+				.create()
+				.list();
+	}
+
+	/**
+	 * Adds the records that are referenced by the given <code>currentRecords</code> via the given <code>forwardRef</code>.
+	 * All referenced records that were not yet added before are loaded with one query.
+	 */
+	private AddResult crawlForward(
+			final String currentTableName,
+			final List<IDLMAware> currentRecords,
+			final PartitionerConfigReference forwardRef,
+			final IContextAware ctxAware,
+			final IIterateResult result)
+	{
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
+
+		// the table name for the foreign record which has 'foreignKey' as its ID
+		final String forwardTableName = forwardRef.getReferencedTableName();
+		final String forwardColumnName = forwardRef.getReferencingColumnName();
+
+		// first check if this is all about a Record_ID/AD_Table_ID reference.
+		// if that is the case, then we need to verify that the AD_Table_ID of 'record' actually points to the table named 'forwardTableName'
+		final String tableColumnName;
+		if (columnBL.isRecordIdColumnName(forwardColumnName))
+		{
+			tableColumnName = columnBL.getTableIdColumnName(currentTableName, forwardColumnName)
+					.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", currentTableName, forwardColumnName));
+		}
+		else
+		{
+			tableColumnName = null;
+		}
+
+		// collect the references to follow; keep the order of 'currentRecords'
+		final LinkedHashMap<ITableRecordReference, TableRecordReference> current2ForwardReference = new LinkedHashMap<>();
+		for (final IDLMAware currentRecord : currentRecords)
+		{
+			final int currentRecordId = InterfaceWrapperHelper.getId(currentRecord);
+			if (tableColumnName != null)
 			{
-				if (backwardRef.isPartitionBoundary())
+				final Integer tableId = InterfaceWrapperHelper.getValueOrNull(currentRecord, tableColumnName);
+				if (tableId == null || tableId <= 0)
 				{
+					logger.trace("{}[{}] forward: the column={} does not reference any table; skipping", currentTableName, currentRecordId, forwardColumnName);
 					continue;
 				}
 
-				final PartitionerConfigLine backwardLine = backwardRef.getParent();
-				final String backwardTableName = backwardLine.getTableName();
-				final String backwardColumnName = backwardRef.getReferencingColumnName();
+				final String tableName = adTableDAO.retrieveTableName(tableId);
+				if (!tableName.equals(forwardTableName))
+				{
+					logger.trace("{}[{}] forward: the column={} does not reference a {}-record, but a {}-record; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableName);
+					continue;
+				}
+			}
 
-				// load all records which reference foreignRecord
-				// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building
-				final IQueryBuilder<IDLMAware> queryBuilder = Services.get(IQueryBL.class)
-						.createQueryBuilder(IDLMAware.class, backwardTableName, ctxAware)
-						.addEqualsFilter(backwardRef.getReferencingColumnName(), currentRecordId);
+			// get the foreign key ID of
+			// table DLM_PartitionLine_Config.AD_Table_ID,
+			// column DLM_PartitionReference_Config.DLM_Referencing_Column_ID
+			final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(currentRecord, forwardColumnName);
+			if (forwardKey == null || forwardKey <= 0)
+			{
+				logger.trace("{}[{}] forward: the column={} does not reference anything; skipping", currentTableName, currentRecordId, forwardColumnName);
+				continue;
+			}
 
-				// if we have a case of AD_Table_ID/Record_ID,
-				// then we need to make sure to only load records whose AD_Table_ID references currentRecord
-				if (columnBL.isRecordIdColumnName(backwardColumnName))
-				{
-					// note that referencedTableColumnName = AD_Table_ID, in most cases
-					final String referencedTableColumnName = columnBL.getTableIdColumnName(backwardTableName, backwardRef.getReferencingColumnName())
-							.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", backwardTableName, backwardColumnName));
+			final TableRecordReference forwardReference = TableRecordReference.of(forwardTableName, forwardKey);
+			if (result.contains(forwardReference))
+			{
+				logger.trace("{}[{}] forward: ITableRecordReference={} was already added in a previous iteration. Skipping", currentTableName, currentRecordId, forwardReference); // avoid circles and also avoid loading the whole PO again
+				continue;
+			}
 
-					final int referencedTableID = adTableDAO.retrieveTableId(currentTableName);
+			current2ForwardReference.put(TableRecordReference.of(currentTableName, currentRecordId), forwardReference);
+		}
+		if (current2ForwardReference.isEmpty())
+		{
+			return AddResult.NOT_ADDED_CONTINUE;
+		}
 
-					queryBuilder.addEqualsFilter(referencedTableColumnName, referencedTableID);
-				}
+		// the foreign records were not yet added before. Load them now.
+		final Set<Integer> forwardKeys = current2ForwardReference.values().stream()
+				.map(TableRecordReference::getRecord_ID)
+				.collect(ImmutableSet.toImmutableSet());
+		final Map<Integer, IDLMAware> forwardKey2Record = Maps.uniqueIndex(
+				retrieveRecordsById(forwardTableName, forwardKeys, ctxAware),
+				InterfaceWrapperHelper::getId);
 
-				// avoid loading the records we already added before.
-				// This doesn't work well. NOT IN is probably not very performant, see
-				// http://stackoverflow.com/questions/7125291/postgresql-not-in-versus-except-performance-difference-edited-2
-				// maybe it would become better when we do something along the lines of
-				// https://www.datadoghq.com/blog/100x-faster-postgres-performance-by-changing-1-line/
-				// at any rate it looks the postgresql jdbc driver "only" supports prepared statements with 65536 parameters,
-				// Solutions:
-				// 1. don't try to exclude anything and live with records beeing returned that we already saw earlier
-				// 2. store the partition more regularly and add some sort of negative left-join to the query
-				// {
-				// final String columnName = columnBL.getSingleKeyColumn(backwardTableName);
-				// final Collection<Integer> alreadyAddedBackwardIds = result.getIds(backwardTableName);
-				//
-				// queryBuilder.addNotInArrayFilter(columnName, alreadyAddedBackwardIds);
-				// }
-
-				// de.metas.dlm.partitioner.PartitionerTools.dumpHistogram(result)
-				final List<IDLMAware> backwardRecords = queryBuilder
-						.create()
-						.list();
+		for (final Map.Entry<ITableRecordReference, TableRecordReference> entry : current2ForwardReference.entrySet())
+		{
+			final ITableRecordReference currentReference = entry.getKey();
+			final TableRecordReference forwardReference = entry.getValue();
+			final int currentRecordId = currentReference.getRecord_ID();
 
-				for (final IDLMAware backwardRecord : backwardRecords)
-				{
-					InterfaceWrapperHelper.setTrxName(backwardRecord, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
+			final IDLMAware forwardRecord = forwardKey2Record.get(forwardReference.getRecord_ID());
+			if (forwardRecord == null)
+			{
+				// this happens with our "minidump" where we left out the HUs
+				Loggables.withLogger(logger, Level.WARN).addLog(
+						"{}[{}] forward: the record from table={} which we attempted to load via {}.{}={} is NULL",
+						currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardReference.getRecord_ID());
+				continue;
+			}
+			if (result.contains(forwardReference))
+			{
+				continue; // another record of this frontier references it too
+			}
+
+			logger.debug("{}[{}] forward: loaded from table={} via {}.{}={}: referenced IDLMAware={}",
+					currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardReference.getRecord_ID(), forwardRecord);
+
+			final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardRecord.getDLM_Partition_ID());
+			if (forwardRecord.getDLM_Partition_ID() > 0)
+			{
+				// log why we do not search further using the new found foreign record
+				logger.debug("{}[{}] forward: referenced IDLMAware={} already has DLM_Partition_ID={}",
+						currentTableName, currentRecordId, forwardRecord, forwardRecord.getDLM_Partition_ID());
+			}
+			if (AddResult.STOP.equals(addResult))
+			{
+				Loggables.withLogger(logger, Level.WARN)
+						.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
+				return AddResult.STOP;
+			}
+		}
+		return AddResult.ADDED_CONTINUE;
+	}
+
+	/**
+	 * Adds the records which reference any of the given <code>currentRecords</code> via the given <code>backwardRef</code>.
+	 * Those records are loaded with one query.
+	 */
+	private AddResult crawlBackward(
+			final String currentTableName,
+			final List<IDLMAware> currentRecords,
+			final PartitionerConfigReference backwardRef,
+			final IContextAware ctxAware,
+			final IIterateResult result)
+	{
+		if (currentRecords.isEmpty())
+		{
+			return AddResult.NOT_ADDED_CONTINUE;
+		}
+
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
+
+		final PartitionerConfigLine backwardLine = backwardRef.getParent();
+		final String backwardTableName = backwardLine.getTableName();
+		final String backwardColumnName = backwardRef.getReferencingColumnName();
+
+		final Set<Integer> currentRecordIds = currentRecords.stream()
+				.map(InterfaceWrapperHelper::getId)
+				.collect(ImmutableSet.toImmutableSet());
+
+		// load all records which reference the current records
+		// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building
+		final IQueryBuilder<IDLMAware> queryBuilder = Services.get(IQueryBL.class)
+				.createQueryBuilder(IDLMAware.class, backwardTableName, ctxAware)
+				.addInArrayFilter(backwardColumnName, currentRecordIds);
+
+		// if we have a case of AD_Table_ID/Record_ID,
+		// then we need to make sure to only load records whose AD_Table_ID references currentRecord
+		if (columnBL.isRecordIdColumnName(backwardColumnName))
+		{
+			// note that referencedTableColumnName = AD_Table_ID, in most cases
+			final String referencedTableColumnName = columnBL.getTableIdColumnName(backwardTableName, backwardColumnName)
+					.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", backwardTableName, backwardColumnName));
+
+			final int referencedTableID = adTableDAO.retrieveTableId(currentTableName);
+
+			queryBuilder.addEqualsFilter(referencedTableColumnName, referencedTableID);
+		}
+
+		// Note: we don't try to exclude the records we already added before.
+		// NOT IN is probably not very performant, see
+		// http://stackoverflow.com/questions/7125291/postgresql-not-in-versus-except-performance-difference-edited-2
+		// and the postgresql jdbc driver "only" supports prepared statements with 65536 parameters,
+		// so we live with records beeing returned that we already saw earlier.
 
-					final ITableRecordReference backwardTableRecordReference = TableRecordReference.ofOrNull(backwardRecord);
+		// de.metas.dlm.partitioner.PartitionerTools.dumpHistogram(result)
+		final List<IDLMAware> backwardRecords = queryBuilder
+				.orderBy(InterfaceWrapperHelper.getKeyColumnName(backwardTableName))
+				.create()
+				.list();
 
-					final AddResult addRecordResult = result.addReferencingRecord(backwardTableRecordReference, currentReference, backwardRecord.getDLM_Partition_ID());
+		for (final IDLMAware backwardRecord : backwardRecords)
+		{
+			InterfaceWrapperHelper.setTrxName(backwardRecord, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
 
-					// should not happen because we excluded alreadyAddedBackwardIds from the loading query
-					// Check.errorUnless(recordWasNotYetAddedBefore, "{}[{}] backward: WAS ALREADY ADDED! - loaded referencing IDLMAware={} from table={} via {}.{}={}",
-					// currentTableName, currentRecordId, backwardRecord, backwardTableName, backwardTableName, backwardColumnName, currentRecordId);
+			final int currentRecordId = InterfaceWrapperHelper.getValueOrNull(backwardRecord, backwardColumnName);
+			final ITableRecordReference currentReference = TableRecordReference.of(currentTableName, currentRecordId);
+			final ITableRecordReference backwardTableRecordReference = TableRecordReference.ofOrNull(backwardRecord);
 
-					switch (addRecordResult)
+			final AddResult addRecordResult = result.addReferencingRecord(backwardTableRecordReference, currentReference, backwardRecord.getDLM_Partition_ID());
+			switch (addRecordResult)
+			{
+				case ADDED_CONTINUE:
+					// log that the foreign record was not yet added before. We added it now
+					logger.debug("{}[{}] backward: loaded from table={} via {}.{}={}: referencing IDLMAware={}",
+							currentTableName, currentRecordId, backwardTableName, backwardTableName, backwardColumnName, currentRecordId, backwardRecord);
+
+					if (backwardRecord.getDLM_Partition_ID() > 0)
 					{
-						case ADDED_CONTINUE:
-							// log that the foreign record was not yet added before. We added it now
-							logger.debug("{}[{}] backward: loaded from table={} via {}.{}={}: referencing IDLMAware={}",
-									currentTableName, currentRecordId, backwardTableName, backwardTableName, backwardColumnName, currentRecordId, backwardRecord);
-
-							if (backwardRecord.getDLM_Partition_ID() > 0)
-							{
-								// log why we did not search further using the new found foreign record
-								logger.debug("{}[{}] backward: referenced IDLMAware={} already has DLM_Partition_ID={}",
-										currentTableName, currentRecordId, backwardRecord, backwardRecord.getDLM_Partition_ID());
-							}
-							break;
-						case NOT_ADDED_CONTINUE:
-							logger.trace("{}[{}] backward: ReferencingRecord={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, backwardTableRecordReference);
-							break;
-						case STOP:
-							Loggables.addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardTableRecordReference);
-							break mainLoop;
-						default:
-							Check.errorIf(true, "Unexpected result={}", addRecordResult);
-							break;
+						// log why we did not search further using the new found foreign record
+						logger.debug("{}[{}] backward: referenced IDLMAware={} already has DLM_Partition_ID={}",
+								currentTableName, currentRecordId, backwardRecord, backwardRecord.getDLM_Partition_ID());
 					}
-				}
+					break;
+				case NOT_ADDED_CONTINUE:
+					logger.trace("{}[{}] backward: ReferencingRecord={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, backwardTableRecordReference);
+					break;
+				case STOP:
+					Loggables.addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardTableRecordReference);
+					return AddResult.STOP;
+				default:
+					Check.errorIf(true, "Unexpected result={}", addRecordResult);
+					break;
 			}
 		}
-
-		logger.info("Found {} records via config.name={}", result.size(), config.getName());
-		storeIterateResult(config, result, ctxAware);
-		return result;
+		return AddResult.ADDED_CONTINUE;
 	}
 
 	private boolean shallStoreResult(final IIterateResult result)
@@ -429,42 +612,124 @@ public class RecordCrawlerService implements IRecordCrawlerService
 		// store and delete DLM_Partition_Workqueue records according to the records we processed and the records we newly added since the last time this method was called.
 		{
 			// delete DLM_Partition_Workqueue records we already processed
-			final Mutable<Integer> deletedSum = new Mutable<>(0);
-			result.getQueueRecordsToDelete()
-					.forEach(r -> {
-
-						// It's not a must to delete them 1-by-1, but we can't just create one chuck with unknow size!
-						// If we want to delete more than one at a time, we need to create chuncks of a fixed size that is less than 2^32.
-						final int delete = queryBL.createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
-								.addEqualsFilter(I_DLM_Partition_Workqueue.COLUMN_DLM_Partition_Workqueue_ID, r.getDLM_Partition_Workqueue_ID())
-								.create()
-								.deleteDirectly();
-						deletedSum.setValue(deletedSum.getValue() + delete);
-					});
-			logger.debug("storeIterateResult: Deleted {} DLM_Partition_Workqueue records", deletedSum.getValue());
+			// We can't just create one chunk with unknown size, so we delete them in chunks of a fixed size.
+			int deletedSum = 0;
+			final List<Integer> queueRecordIdsToDelete = result.getQueueRecordsToDelete()
+					.stream()
+					.map(WorkQueue::getDLM_Partition_Workqueue_ID)
+					.collect(ImmutableList.toImmutableList());
+			for (final List<Integer> chunk : Lists.partition(queueRecordIdsToDelete, WORKQUEUE_CHUNK_SIZE))
+			{
+				deletedSum += queryBL.createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
+						.addInArrayFilter(I_DLM_Partition_Workqueue.COLUMN_DLM_Partition_Workqueue_ID, chunk)
+						.create()
+						.deleteDirectly();
+			}
+			logger.debug("storeIterateResult: Deleted {} DLM_Partition_Workqueue records", deletedSum);
 
 			// persist DLM_Partition_Workqueue record we still need to process.
-			final Mutable<Integer> storedSum = new Mutable<>(0);
-			result.getQueueRecordsToStore()
-					.forEach(queueRecordsToStore -> {
+			// Records which already have a DLM_Partition_Workqueue_ID were stored with an earlier partition store and are still in the DB.
+			final List<WorkQueue> queueRecordsToStore = result.getQueueRecordsToStore()
+					.stream()
+					.filter(queueRecord -> queueRecord.getDLM_Partition_Workqueue_ID() <= 0)
+					.collect(ImmutableList.toImmutableList());
+			int storedSum = 0;
+			for (final List<WorkQueue> chunk : Lists.partition(queueRecordsToStore, WORKQUEUE_CHUNK_SIZE))
+			{
+				storedSum += insertWorkQueueRecords(ctxAware, storedPartition.getDLM_Partition_ID(), chunk);
+			}
+			logger.debug("storeIterateResult: Stored {} DLM_Partition_Workqueue records", storedSum);
+		}
 
-						final ITableRecordReference tableRecordReference = queueRecordsToStore.getTableRecordReference();
+		result.clearAfterPartitionStored(storedPartition);
+	}
 
-						final I_DLM_Partition_Workqueue newQueueRecord = InterfaceWrapperHelper.newInstance(I_DLM_Partition_Workqueue.class);
-						newQueueRecord.setDLM_Partition_ID(storedPartition.getDLM_Partition_ID());
-						newQueueRecord.setAD_Table_ID(tableRecordReference.getAD_Table_ID());
-						newQueueRecord.setRecord_ID(tableRecordReference.getRecord_ID());
+	/**
+	 * Inserts the given queue records with one {@code INSERT} statement and sets the new {@code DLM_Partition_Workqueue_ID}s to them.
+	 *
+	 * @return the number of inserted records
+	 */
+	private int insertWorkQueueRecords(
+			final IContextAware ctxAware,
+			final int dlmPartitionId,
+			final List<WorkQueue> queueRecordsToStore)
+	{
+		if (queueRecordsToStore.isEmpty())
+		{
+			return 0;
+		}
 
-						InterfaceWrapperHelper.save(newQueueRecord);
+		if (Adempiere.isUnitTestMode())
+		{
+			for (final WorkQueue queueRecordToStore : queueRecordsToStore)
+			{
+				final ITableRecordReference tableRecordReference = queueRecordToStore.getTableRecordReference();
 
-						queueRecordsToStore.setDLM_Partition_Workqueue_ID(newQueueRecord.getDLM_Partition_Workqueue_ID());
+				final I_DLM_Partition_Workqueue newQueueRecord = InterfaceWrapperHelper.newInstance(I_DLM_Partition_Workqueue.class, ctxAware);
+				newQueueRecord.setDLM_Partition_ID(dlmPartitionId);
+				newQueueRecord.setAD_Table_ID(tableRecordReference.getAD_Table_ID());
+				newQueueRecord.setRecord_ID(tableRecordReference.getRecord_ID());
+				InterfaceWrapperHelper.save(newQueueRecord);
 
-						storedSum.setValue(storedSum.getValue() + 1);
-					});
-			logger.debug("storeIterateResult: Stored {} DLM_Partition_Workqueue records", storedSum.getValue());
+				queueRecordToStore.setDLM_Partition_Workqueue_ID(newQueueRecord.getDLM_Partition_Workqueue_ID());
+			}
+			return queueRecordsToStore.size();
 		}
 
-		result.clearAfterPartitionStored(storedPartition);
+		final int adClientId = Env.getAD_Client_ID(ctxAware.getCtx());
+		final int adOrgId = Env.getAD_Org_ID(ctxAware.getCtx());
+		final int adUserId = Env.getAD_User_ID(ctxAware.getCtx());
+
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + I_DLM_Partition_Workqueue.Table_Name + " ("
+				+ I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_Workqueue_ID
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Client_ID
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Org_ID
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_IsActive
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_Created
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_CreatedBy
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_Updated
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_UpdatedBy
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_ID
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Table_ID
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_Record_ID
+				+ ") VALUES ");
+		final List<Object> sqlParams = new ArrayList<>(queueRecordsToStore.size() * 6);
+
+		// the same record might be queued more than once; each returned row is assigned to one of them
+		final ListMultimap<ITableRecordReference, WorkQueue> reference2QueueRecords = ArrayListMultimap.create();
+		for (final WorkQueue queueRecordToStore : queueRecordsToStore)
+		{
+			final ITableRecordReference tableRecordReference = queueRecordToStore.getTableRecordReference();
+			if (!sqlParams.isEmpty())
+			{
+				sql.append(", ");
+			}
+			sql.append("(" + DB.TO_TABLESEQUENCE_NEXTVAL(I_DLM_Partition_Workqueue.Table_Name) + ", ?, ?, 'Y', now(), ?, now(), ?, ?, ?, ?)");
+			sqlParams.add(adClientId);
+			sqlParams.add(adOrgId);
+			sqlParams.add(adUserId);
+			sqlParams.add(adUserId);
+			sqlParams.add(dlmPartitionId);
+			sqlParams.add(tableRecordReference.getAD_Table_ID());
+			sqlParams.add(tableRecordReference.getRecord_ID());
+
+			reference2QueueRecords.put(TableRecordReference.of(tableRecordReference.getAD_Table_ID(), tableRecordReference.getRecord_ID()), queueRecordToStore);
+		}
+		sql.append(" RETURNING " + I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_Workqueue_ID
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Table_ID
+				+ ", " + I_DLM_Partition_Workqueue.COLUMNNAME_Record_ID);
+
+		return DB.executeUpdateEx(sql.toString(),
+				sqlParams.toArray(),
+				ctxAware.getTrxName(),
+				0, // no timeout
+				rs -> {
+					final TableRecordReference reference = TableRecordReference.of(
+							rs.getInt(I_DLM_Partition_Workqueue.COLUMNNAME_AD_Table_ID),
+							rs.getInt(I_DLM_Partition_Workqueue.COLUMNNAME_Record_ID));
+					final WorkQueue queueRecord = reference2QueueRecords.get(reference).remove(0);
+					queueRecord.setDLM_Partition_Workqueue_ID(rs.getInt(I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_Workqueue_ID));
+				});
 	}
 
 	private int getPartitionSize(final IContextAware ctxAware, Integer dlmPartitionId)
@@ -19,6 +19,7 @@ import org.junit.Test;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.dlm.Partition.WorkQueue;
+import de.metas.dlm.model.IDLMAware;
 import de.metas.dlm.partitioner.IIterateResult;
 
 /*
@@ -119,4 +120,50 @@ public class IterateResultTests
 		assertThat(iterateResult.isQueueEmpty(), is(true));
 		assertThat(iterateResult.size(), is(2));
 	}
+
+	/**
+	 * Verifies that a record from the initial queue is only added to the result when it was loaded by the caller.
+	 */
+	@Test
+	public void testNextFromQueueNotLoaded()
+	{
+		final I_AD_Color color = InterfaceWrapperHelper.newInstance(I_AD_Color.class);
+		InterfaceWrapperHelper.save(color);
+		final ITableRecordReference tableRecordReference = TableRecordReference.ofOrNull(color);
+
+		final Iterator<WorkQueue> initialQueue = ImmutableList.of(WorkQueue.of(tableRecordReference)).iterator();
+		final CreatePartitionIterateResult iterateResult = new CreatePartitionIterateResult(initialQueue, PlainContextAware.newWithThreadInheritedTrx());
+
+		assertThat(iterateResult.nextFromQueueNotLoaded(), is(tableRecordReference));
+		assertThat(iterateResult.contains(tableRecordReference), is(false));
+		assertThat(iterateResult.size(), is(0));
+
+		iterateResult.onQueueRecordLoaded(tableRecordReference, InterfaceWrapperHelper.create(color, IDLMAware.class));
+		assertThat(iterateResult.contains(tableRecordReference), is(true));
+		assertThat(iterateResult.size(), is(1));
+		assertThat(iterateResult.isQueueEmpty(), is(true));
+	}
+
+	/**
+	 * Verifies that records which are returned to the queue are returned by {@link CreatePartitionIterateResult#nextFromQueue()} again, in their original order,
+	 * and that they are stored as new work queue records.
+	 */
+	@Test
+	public void testReturnToQueue()
+	{
+		final ITableRecordReference tableRecordReference1 = TableRecordReference.of(I_AD_Color.Table_Name, 1);
+		final ITableRecordReference tableRecordReference2 = TableRecordReference.of(I_AD_Color.Table_Name, 2);
+		final ITableRecordReference tableRecordReference3 = TableRecordReference.of(I_AD_Color.Table_Name, 3);
+
+		final CreatePartitionIterateResult iterateResult = new CreatePartitionIterateResult(ImmutableList.<WorkQueue> of().iterator(), PlainContextAware.newWithThreadInheritedTrx());
+		iterateResult.addReferencedRecord(null, tableRecordReference3, 0);
+
+		iterateResult.returnToQueue(ImmutableList.of(tableRecordReference1, tableRecordReference2));
+		assertThat(iterateResult.getQueueRecordsToStore().size(), is(3));
+
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference1));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference2));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference3));
+		assertThat(iterateResult.isQueueEmpty(), is(true));
+	}
 }
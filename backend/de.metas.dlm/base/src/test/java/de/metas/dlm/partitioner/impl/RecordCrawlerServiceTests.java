@@ -0,0 +1,143 @@
+/*
+ * #%L
+ * metasfresh-dlm-base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.dlm.partitioner.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IContextAware;
+import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.I_C_OrderLine;
+import org.compiere.model.I_C_Payment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.dlm.partitioner.IIterateResultHandler.AddResult;
+import de.metas.dlm.partitioner.config.PartitionConfig;
+import de.metas.dlm.partitioner.graph.FindPathIterateResult;
+
+public class RecordCrawlerServiceTests
+{
+	private final RecordCrawlerService recordCrawlerService = new RecordCrawlerService();
+
+	private IContextAware ctxAware;
+
+	private PartitionConfig config;
+
+	@BeforeEach
+	public void before()
+	{
+		AdempiereTestHelper.get().init();
+		ctxAware = PlainContextAware.newWithThreadInheritedTrx();
+
+		config = PartitionConfig.builder()
+				.line(I_C_OrderLine.Table_Name)
+				.ref().setReferencedTableName(I_C_Order.Table_Name).setReferencingColumnName(I_C_OrderLine.COLUMNNAME_C_Order_ID).endRef()
+				.line(I_C_Invoice.Table_Name)
+				.ref().setReferencedTableName(I_C_Order.Table_Name).setReferencingColumnName(I_C_Invoice.COLUMNNAME_C_Order_ID).endRef()
+				.endLine()
+				.build();
+	}
+
+	/**
+	 * @return a result which never finds its goal, so the crawler crawls all records it can reach from the given <code>start</code>.
+	 */
+	private static FindPathIterateResult newResultWithoutGoal(final ITableRecordReference start)
+	{
+		return new FindPathIterateResult(start, TableRecordReference.of(I_C_Payment.Table_Name, 999999));
+	}
+
+	/**
+	 * Verifies that the crawler finds all records if there are more of them than fit into one frontier.
+	 */
+	@Test
+	public void testCrawlMoreRecordsThanFrontierMaxSize()
+	{
+		final I_C_Order order = InterfaceWrapperHelper.newInstance(I_C_Order.class);
+		InterfaceWrapperHelper.save(order);
+
+		final List<ITableRecordReference> orderLineReferences = new ArrayList<>();
+		for (int i = 0; i < 600; i++)
+		{
+			final I_C_OrderLine orderLine = InterfaceWrapperHelper.newInstance(I_C_OrderLine.class);
+			orderLine.setC_Order_ID(order.getC_Order_ID());
+			InterfaceWrapperHelper.save(orderLine);
+			orderLineReferences.add(TableRecordReference.of(orderLine));
+		}
+
+		final I_C_Invoice invoice = InterfaceWrapperHelper.newInstance(I_C_Invoice.class);
+		invoice.setC_Order_ID(order.getC_Order_ID());
+		InterfaceWrapperHelper.save(invoice);
+
+		final FindPathIterateResult result = newResultWithoutGoal(TableRecordReference.of(order));
+
+		// invoke the method under test
+		recordCrawlerService.crawl(config, ctxAware, result);
+
+		assertThat(result.isQueueEmpty(), is(true));
+		assertThat(result.size(), is(602)); // order, 600 order lines and the invoice
+		assertThat(result.contains(TableRecordReference.of(invoice)), is(true));
+		orderLineReferences.forEach(orderLineReference -> assertThat(result.contains(orderLineReference), is(true)));
+	}
+
+	/**
+	 * Verifies that if the crawler is signaled to stop, then the records it did not yet completely crawl are put back to the queue.
+	 */
+	@Test
+	public void testStopReturnsNotCrawledRecordsToQueue()
+	{
+		final I_C_Order order = InterfaceWrapperHelper.newInstance(I_C_Order.class);
+		InterfaceWrapperHelper.save(order);
+
+		for (int i = 0; i < 3; i++)
+		{
+			final I_C_OrderLine orderLine = InterfaceWrapperHelper.newInstance(I_C_OrderLine.class);
+			orderLine.setC_Order_ID(order.getC_Order_ID());
+			InterfaceWrapperHelper.save(orderLine);
+		}
+
+		final I_C_Invoice invoice = InterfaceWrapperHelper.newInstance(I_C_Invoice.class);
+		invoice.setC_Order_ID(order.getC_Order_ID());
+		InterfaceWrapperHelper.save(invoice);
+
+		final ITableRecordReference orderReference = TableRecordReference.of(order);
+		final FindPathIterateResult result = newResultWithoutGoal(orderReference);
+		result.registerHandler((tableRecordReference, preliminaryResult) -> AddResult.ADDED_CONTINUE.equals(preliminaryResult) ? AddResult.STOP : preliminaryResult);
+
+		// invoke the method under test
+		recordCrawlerService.crawl(config, ctxAware, result);
+
+		// the order's references were not completely crawled, so the order shall be the next record to crawl
+		assertThat(result.isQueueEmpty(), is(false));
+		assertThat(result.nextFromQueue(), is(orderReference));
+	}
+}
@@ -23,11 +23,9 @@
 package de.metas.document.archive.process;
 
 import com.google.common.collect.ImmutableSet;
-import com.lowagie.text.Document;
-import com.lowagie.text.pdf.BadPdfFormatException;
-import com.lowagie.text.pdf.PdfCopy;
-import com.lowagie.text.pdf.PdfReader;
+import com.google.common.collect.Iterables;
 import de.metas.document.archive.model.I_C_Doc_Outbound_Log;
+import de.metas.printing.StreamingPdfConcatenator;
 import de.metas.process.IProcessPrecondition;
 import de.metas.process.IProcessPreconditionsContext;
 import de.metas.process.JavaProcess;
@@ -35,23 +33,34 @@ import de.metas.process.ProcessPreconditionsResolution;
 import de.metas.util.Services;
 import org.adempiere.ad.dao.ConstantQueryFilter;
 import org.adempiere.ad.dao.IQueryFilter;
-import org.adempiere.archive.AdArchive;
 import org.adempiere.archive.ArchiveId;
+import org.adempiere.archive.api.IArchiveBL;
 import org.adempiere.archive.api.IArchiveDAO;
-import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.I_AD_Archive;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.IOException;
-import java.util.Collection;
-import java.util.HashSet;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Function;
 import java.util.stream.Stream;
 
+/**
+ * Concatenates the last archive PDFs of the selected {@link I_C_Doc_Outbound_Log}s into one PDF.
+ * <p>
+ * The archives are streamed one by one into a temporary file, so the number of selected documents is not limited by the available memory.
+ */
 public class MassConcatenateOutboundPdfs extends JavaProcess implements IProcessPrecondition
 {
+	private static final String SYSCONFIG_FlushEveryDocuments = "de.metas.document.archive.process.MassConcatenateOutboundPdfs.FlushEveryDocuments";
+	private static final String SYSCONFIG_UpdatePrintedBatchSize = "de.metas.document.archive.process.MassConcatenateOutboundPdfs.UpdatePrintedBatchSize";
+
 	final IArchiveDAO archiveDAO = Services.get(IArchiveDAO.class);
+	final IArchiveBL archiveBL = Services.get(IArchiveBL.class);
+	final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 
 	@Override
 	public ProcessPreconditionsResolution checkPreconditionsApplicable(final IProcessPreconditionsContext context)
@@ -68,52 +77,59 @@ public class MassConcatenateOutboundPdfs extends JavaProcess implements IProcess
 	{
 		final IQueryFilter<I_C_Doc_Outbound_Log> queryFilter = getProcessInfo()
 				.getQueryFilterOrElse(ConstantQueryFilter.of(false));
-		final Stream<AdArchive> pdfStreams = archiveDAO.streamArchivesForFilter(queryFilter, I_C_Doc_Outbound_Log.class);
 		final File reportFile = File.createTempFile("MassConcatenateOutboundPdfs_" + getPinstanceId().getRepoId(), ".pdf");
 		reportFile.deleteOnExit();
-		final Document document = new Document();
 		final AtomicInteger errorCount = new AtomicInteger();
-		final Collection<ArchiveId> printedIds = new HashSet<>();
+		final List<ArchiveId> printedIds = new ArrayList<>();
+
+		final StreamingPdfConcatenator.Stats stats;
+		try (final FileOutputStream fileOutputStream = new FileOutputStream(reportFile, false);
+				final BufferedOutputStream out = new BufferedOutputStream(fileOutputStream);
+				final Stream<I_AD_Archive> archives = archiveDAO.streamArchiveRecordsForFilter(queryFilter, I_C_Doc_Outbound_Log.class))
+		{
+			final StreamingPdfConcatenator concatenator = new StreamingPdfConcatenator(out, sysConfigBL.getIntValue(SYSCONFIG_FlushEveryDocuments, 100));
+			archives.forEach(archive -> appendCurrentPdf(concatenator, archive, printedIds, errorCount));
+			concatenator.close();
+			stats = concatenator.getStats();
+		}
+		addLog("Concatenated {}", stats);
 
-		try (final FileOutputStream fileOutputStream = new FileOutputStream(reportFile, false))
+		final int updatePrintedBatchSize = sysConfigBL.getIntValue(SYSCONFIG_UpdatePrintedBatchSize, 500);
+		for (final List<ArchiveId> printedIdsBatch : Iterables.partition(printedIds, updatePrintedBatchSize))
 		{
-			final PdfCopy copy = new PdfCopy(document, fileOutputStream);
-			document.open();
-			pdfStreams.forEach(adArchive -> appendCurrentPdf(copy, adArchive, printedIds, errorCount));
-			document.close();
+			archiveDAO.updatePrintedRecords(ImmutableSet.copyOf(printedIdsBatch), getUserId());
 		}
-		archiveDAO.updatePrintedRecords(ImmutableSet.copyOf(printedIds), getUserId());
 
 		getResult().setReportData(reportFile);
 		return "OK/Error # " + printedIds.size() + "/" + errorCount.get();
 	}
 
-	private void appendCurrentPdf(final PdfCopy targetPdf, final AdArchive currentLog, final Collection<ArchiveId> printedIds, final AtomicInteger errorCount)
+	private void appendCurrentPdf(
+			final StreamingPdfConcatenator concatenator,
+			final I_AD_Archive archive,
+			final List<ArchiveId> printedIds,
+			final AtomicInteger errorCount)
 	{
-		PdfReader pdfReaderToAdd = null;
-		try
+		try (final InputStream pdfIn = archiveBL.getBinaryDataAsStream(archive))
 		{
-			pdfReaderToAdd = new PdfReader(currentLog.getArchiveStream());
-
-			for (int page = 0; page < pdfReaderToAdd.getNumberOfPages(); )
+			if (pdfIn == null)
 			{
-				targetPdf.addPage(targetPdf.getImportedPage(pdfReaderToAdd, ++page));
+				errorCount.incrementAndGet();
+				addLog("AD_Archive_ID={} has no data", archive.getAD_Archive_ID());
+			}
+			else
+			{
+				concatenator.addDocument(pdfIn);
 			}
-
-			targetPdf.freeReader(pdfReaderToAdd);
 		}
-		catch (final BadPdfFormatException |
-				IOException e)
+		catch (final Exception e)
 		{
 			errorCount.incrementAndGet();
+			log.warn("Failed appending AD_Archive_ID={}. Skipped.", archive.getAD_Archive_ID(), e);
 		}
 		finally
 		{
-			if (pdfReaderToAdd != null)
-			{
-				pdfReaderToAdd.close();
-			}
-			printedIds.add(currentLog.getId());
+			printedIds.add(ArchiveId.ofRepoId(archive.getAD_Archive_ID()));
 		}
 	}
 }
@@ -22,6 +22,7 @@ package de.metas.dunning.api;
  * #L%
  */
 
+import java.util.List;
 
 import de.metas.dunning.model.I_C_Dunning_Candidate;
 
@@ -73,4 +74,26 @@ public interface IDunningCandidateProducer
 	 * @return
 	 */
 	I_C_Dunning_Candidate createDunningCandidate(IDunningContext context, IDunnableDoc sourceDoc);
+
+	/**
+	 * Creates or updates the dunning candidates of all given <code>sourceDocs</code>, with the same rules as {@link #createDunningCandidate(IDunningContext, IDunnableDoc)}.
+	 * 
+	 * The default implementation calls {@link #createDunningCandidate(IDunningContext, IDunnableDoc)} for each doc. Implementations may evaluate the whole batch at once instead.
+	 * 
+	 * @param context
+	 * @param sourceDocs
+	 * @return number of candidates which were created or updated
+	 */
+	default int createDunningCandidates(final IDunningContext context, final List<IDunnableDoc> sourceDocs)
+	{
+		int countCreated = 0;
+		for (final IDunnableDoc sourceDoc : sourceDocs)
+		{
+			if (createDunningCandidate(context, sourceDoc) != null)
+			{
+				countCreated++;
+			}
+		}
+		return countCreated;
+	}
 }
@@ -24,6 +24,7 @@ package de.metas.dunning.api;
 
 
 import java.util.List;
+import java.util.Set;
 
 import de.metas.dunning.interfaces.I_C_DunningLevel;
 
@@ -33,6 +34,13 @@ public interface IDunningCandidateQuery
 
 	int getRecord_ID();
 
+	/**
+	 * If not empty, the candidates of all these records (of {@link #getAD_Table_ID()}) are matched and {@link #getRecord_ID()} is ignored.
+	 * 
+	 * @return
+	 */
+	Set<Integer> getRecord_IDs();
+
 	List<I_C_DunningLevel> getC_DunningLevels();
 
 	boolean isActive();
@@ -25,6 +25,7 @@ package de.metas.dunning.api;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import de.metas.bpartner.BPartnerId;
 import de.metas.dunning.interfaces.I_C_Dunning;
@@ -112,6 +113,33 @@ public interface IDunningDAO extends ISingletonService
 	 */
 	List<I_C_Dunning_Candidate> retrieveDunningCandidates(IDunningContext context, int tableId, int recordId, List<I_C_DunningLevel> dunningLevels);
 
+	/**
+	 * Retrieve the {@link I_C_Dunning_Candidate}s of the given records and dunning levels, using one query.
+	 *
+	 * Same filtering as {@link #retrieveDunningCandidates(IDunningContext, int, int, List)}, i.e. the role's read access applies.
+	 *
+	 * @param context used only for getting session specific parameters (i.e. ctx and trxName)
+	 * @param tableId
+	 * @param recordIds
+	 * @param dunningLevels if empty no C_DunningLevel_ID filter will be applied, returning candidates for all levels
+	 * @return matched {@link I_C_Dunning_Candidate}s, ordered by <code>C_Dunning_Candidate_ID</code>
+	 */
+	List<I_C_Dunning_Candidate> retrieveDunningCandidatesForRecords(IDunningContext context, int tableId, Set<Integer> recordIds, List<I_C_DunningLevel> dunningLevels);
+
+	/**
+	 * Retrieve the {@link I_C_Dunning_Candidate}s of the given records and dunning level, using one query.
+	 *
+	 * Same filtering as {@link #retrieveDunningCandidate(IDunningContext, int, int, I_C_DunningLevel)}, i.e. only the context's AD_Client_ID applies and not the role's access,
+	 * because a candidate which exists but is not visible to the role shall not be created again.
+	 *
+	 * @param context used only for getting session specific parameters (i.e. ctx and trxName)
+	 * @param tableId
+	 * @param recordIds
+	 * @param dunningLevel
+	 * @return matched {@link I_C_Dunning_Candidate}s, ordered by <code>C_Dunning_Candidate_ID</code>
+	 */
+	List<I_C_Dunning_Candidate> retrieveDunningCandidatesForRecordsAndLevel(IDunningContext context, int tableId, Set<Integer> recordIds, I_C_DunningLevel dunningLevel);
+
 	/**
 	 * Retrieved those dunning candidates to which the given user/role has read access and that have
 	 * <ul>
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.model.InterfaceWrapperHelper;
@@ -33,6 +34,8 @@ import org.adempiere.util.lang.impl.TableRecordReference;
 import org.adempiere.util.proxy.Cached;
 import org.compiere.model.I_C_BPartner;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.cache.CCache;
@@ -134,6 +137,51 @@ public abstract class AbstractDunningDAO implements IDunningDAO
 		return retrieveDunningCandidates(context, query);
 	}
 
+	@Override
+	public final List<I_C_Dunning_Candidate> retrieveDunningCandidatesForRecords(
+			final IDunningContext context,
+			final int tableId,
+			@NonNull final Set<Integer> recordIds,
+			final List<I_C_DunningLevel> dunningLevels)
+	{
+		if (recordIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final DunningCandidateQuery query = new DunningCandidateQuery();
+		query.setAD_Table_ID(tableId);
+		query.setRecord_IDs(recordIds);
+		query.setC_DunningLevels(dunningLevels);
+		query.setApplyClientSecurity(false); // we need to return all candidates for given table/records
+
+		return retrieveDunningCandidates(context, query);
+	}
+
+	@Override
+	public final List<I_C_Dunning_Candidate> retrieveDunningCandidatesForRecordsAndLevel(
+			final IDunningContext context,
+			final int tableId,
+			@NonNull final Set<Integer> recordIds,
+			@NonNull final I_C_DunningLevel dunningLevel)
+	{
+		if (recordIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final DunningCandidateQuery query = new DunningCandidateQuery();
+		query.setAD_Table_ID(tableId);
+		query.setRecord_IDs(recordIds);
+		query.setC_DunningLevels(Collections.singletonList(dunningLevel));
+
+		// same as retrieveDunningCandidate(context, tableId, recordId, dunningLevel)
+		query.setApplyClientSecurity(true);
+		query.setApplyAccessFilter(ApplyAccessFilter.ACCESS_FILTER_NONE);
+
+		return retrieveDunningCandidates(context, query);
+	}
+
 	@Override
 	public final Iterator<I_C_Dunning_Candidate> retrieveNotProcessedCandidatesIterator(final IDunningContext dunningContext)
 	{
@@ -23,15 +23,26 @@ package de.metas.dunning.api.impl;
  */
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.TrxRunnable;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.dunning.api.IDunnableDoc;
 import de.metas.dunning.api.IDunningBL;
 import de.metas.dunning.api.IDunningCandidateProducer;
@@ -90,18 +101,149 @@ public class DefaultDunningCandidateProducer implements IDunningCandidateProduce
 		return candidate[0];
 	}
 
-	private I_C_Dunning_Candidate createDunningCandidate0(final IDunningContext context, final IDunnableDoc sourceDoc)
+	/**
+	 * Evaluates the given docs together, in one transaction:
+	 * <ul>
+	 * <li>the previous dunning levels are loaded once; the docs' candidates of the previous levels and of the current level are loaded with one query per table each
+	 * <li>the candidates are computed in memory and then saved together
+	 * </ul>
+	 * The result is the same as calling {@link #createDunningCandidate(IDunningContext, IDunnableDoc)} for each doc.
+	 */
+	@Override
+	public int createDunningCandidates(final IDunningContext context, final List<IDunnableDoc> sourceDocs)
+	{
+		if (sourceDocs.isEmpty())
+		{
+			return 0;
+		}
+
+		final int[] countCreated = new int[] { 0 };
+		Services.get(ITrxManager.class).run(context.getTrxName(), context.getTrxRunnerConfig(), (TrxRunnable)localTrxName -> {
+			final IDunningContext localContext = Services.get(IDunningBL.class).createDunningContext(context, localTrxName);
+			countCreated[0] = createDunningCandidates0(localContext, sourceDocs);
+		});
+
+		return countCreated[0];
+	}
+
+	private int createDunningCandidates0(final IDunningContext context, final List<IDunnableDoc> sourceDocs)
 	{
 		final IDunningDAO dunningDAO = Services.get(IDunningDAO.class);
 		final I_C_DunningLevel dunningLevel = context.getC_DunningLevel();
+		final List<I_C_DunningLevel> previousLevels = retrievePreviousLevelsIfSequential(dunningLevel);
 
-		final int tableId = sourceDoc.getTableId();
+		// same filtering as isEligible(context, sourceDoc), which checks the previous levels with the role's access
+		final Map<ArrayKey, List<I_C_Dunning_Candidate>> previousCandidatesByRecord = previousLevels == null || previousLevels.isEmpty()
+				? new HashMap<>()
+				: retrieveCandidatesByRecord(sourceDocs, (tableId, recordIds) -> dunningDAO.retrieveDunningCandidatesForRecords(context, tableId, recordIds, previousLevels));
+
+		// same filtering as retrieveDunningCandidate(context, tableId, recordId, dunningLevel), so candidates not visible to the role are still found
+		final Map<ArrayKey, List<I_C_Dunning_Candidate>> existingCandidatesByRecord = retrieveCandidatesByRecord(sourceDocs,
+				(tableId, recordIds) -> dunningDAO.retrieveDunningCandidatesForRecordsAndLevel(context, tableId, recordIds, dunningLevel));
+
+		final List<I_C_Dunning_Candidate> candidatesToSave = new ArrayList<>();
+		for (final IDunnableDoc sourceDoc : sourceDocs)
+		{
+			final ArrayKey recordKey = mkRecordKey(sourceDoc.getTableId(), sourceDoc.getRecordId());
+
+			final boolean eligible = isEligible(context, sourceDoc, previousLevels, () -> previousCandidatesByRecord.getOrDefault(recordKey, ImmutableList.of()));
+			if (!eligible)
+			{
+				continue;
+			}
+
+			final List<I_C_Dunning_Candidate> existingCandidates = existingCandidatesByRecord.computeIfAbsent(recordKey, k -> new ArrayList<>());
+			final I_C_Dunning_Candidate existingCandidate = existingCandidates.isEmpty() ? null : existingCandidates.get(0);
+
+			final I_C_Dunning_Candidate candidate = createOrUpdateCandidate(context, sourceDoc, existingCandidate);
+			if (candidate == null)
+			{
+				continue;
+			}
+
+			if (existingCandidate == null)
+			{
+				// in case the same doc comes twice
+				existingCandidates.add(candidate);
+			}
+			if (!candidatesToSave.contains(candidate))
+			{
+				candidatesToSave.add(candidate);
+			}
+		}
 
-		I_C_Dunning_Candidate candidate = dunningDAO.retrieveDunningCandidate(
+		candidatesToSave.forEach(dunningDAO::save);
+
+		return candidatesToSave.size();
+	}
+
+	/**
+	 * @param candidatesRetriever retrieves the candidates of the given table ID and record IDs
+	 * @return the candidates of the given docs, by {@link #mkRecordKey(int, int)}
+	 */
+	private Map<ArrayKey, List<I_C_Dunning_Candidate>> retrieveCandidatesByRecord(
+			final List<IDunnableDoc> sourceDocs,
+			final BiFunction<Integer, Set<Integer>, List<I_C_Dunning_Candidate>> candidatesRetriever)
+	{
+		final Map<Integer, Set<Integer>> recordIdsByTableId = new HashMap<>();
+		for (final IDunnableDoc sourceDoc : sourceDocs)
+		{
+			recordIdsByTableId.computeIfAbsent(sourceDoc.getTableId(), k -> new HashSet<>()).add(sourceDoc.getRecordId());
+		}
+
+		final Map<ArrayKey, List<I_C_Dunning_Candidate>> candidatesByRecord = new HashMap<>();
+		for (final Map.Entry<Integer, Set<Integer>> tableIdAndRecordIds : recordIdsByTableId.entrySet())
+		{
+			final int tableId = tableIdAndRecordIds.getKey();
+			for (final I_C_Dunning_Candidate candidate : candidatesRetriever.apply(tableId, tableIdAndRecordIds.getValue()))
+			{
+				candidatesByRecord.computeIfAbsent(mkRecordKey(tableId, candidate.getRecord_ID()), k -> new ArrayList<>()).add(candidate);
+			}
+		}
+		return candidatesByRecord;
+	}
+
+	private static ArrayKey mkRecordKey(final int tableId, final int recordId)
+	{
+		return Util.mkKey(tableId, recordId);
+	}
+
+	private I_C_Dunning_Candidate createDunningCandidate0(final IDunningContext context, final IDunnableDoc sourceDoc)
+	{
+		final IDunningDAO dunningDAO = Services.get(IDunningDAO.class);
+
+		final I_C_Dunning_Candidate existingCandidate = dunningDAO.retrieveDunningCandidate(
 				context,
-				tableId,
+				sourceDoc.getTableId(),
 				sourceDoc.getRecordId(),
-				dunningLevel);
+				context.getC_DunningLevel());
+
+		final I_C_Dunning_Candidate candidate = createOrUpdateCandidate(context, sourceDoc, existingCandidate);
+		if (candidate == null)
+		{
+			return null;
+		}
+
+		dunningDAO.save(candidate);
+		return candidate;
+	}
+
+	/**
+	 * Creates a new candidate or updates the given <code>existingCandidate</code>, without saving it.
+	 *
+	 * @return the candidate or <code>null</code> if the existing candidate shall be left as it is
+	 */
+	private I_C_Dunning_Candidate createOrUpdateCandidate(
+			final IDunningContext context,
+			final IDunnableDoc sourceDoc,
+			final I_C_Dunning_Candidate existingCandidate)
+	{
+		final IDunningDAO dunningDAO = Services.get(IDunningDAO.class);
+		final I_C_DunningLevel dunningLevel = context.getC_DunningLevel();
+
+		final int tableId = sourceDoc.getTableId();
+
+		I_C_Dunning_Candidate candidate = existingCandidate;
 		if (candidate == null)
 		{
 			// Create a new one
@@ -194,7 +336,6 @@ public class DefaultDunningCandidateProducer implements IDunningCandidateProduce
 
 		Services.get(IDunningEventDispatcher.class).fireDunningCandidateEvent(IDunningBL.EVENT_NewDunningCandidate, candidate);
 
-		dunningDAO.save(candidate);
 		return candidate;
 	}
 
@@ -211,8 +352,33 @@ public class DefaultDunningCandidateProducer implements IDunningCandidateProduce
 
 		final int tableId = sourceDoc.getTableId();
 		final int recordId = sourceDoc.getRecordId();
-		final I_C_DunningLevel dunningLevel = context.getC_DunningLevel();
+		final List<I_C_DunningLevel> previousLevels = retrievePreviousLevelsIfSequential(context.getC_DunningLevel());
+
+		return isEligible(context, sourceDoc, previousLevels, () -> dunningDAO.retrieveDunningCandidates(context, tableId, recordId, previousLevels));
+	}
 
+	/**
+	 * @return the previous levels of given level if its dunning creates the levels sequentially, else <code>null</code>
+	 */
+	private List<I_C_DunningLevel> retrievePreviousLevelsIfSequential(final I_C_DunningLevel dunningLevel)
+	{
+		if (!dunningLevel.getC_Dunning().isCreateLevelsSequentially())
+		{
+			return null;
+		}
+		return Services.get(IDunningBL.class).getPreviousLevels(dunningLevel);
+	}
+
+	/**
+	 * @param previousLevels see {@link #retrievePreviousLevelsIfSequential(I_C_DunningLevel)}
+	 * @param previousCandidatesSupplier provides the given doc's candidates of the <code>previousLevels</code>, ordered by <code>C_Dunning_Candidate_ID</code>
+	 */
+	private boolean isEligible(
+			final IDunningContext context,
+			final IDunnableDoc sourceDoc,
+			final List<I_C_DunningLevel> previousLevels,
+			final Supplier<List<I_C_Dunning_Candidate>> previousCandidatesSupplier)
+	{
 		List<I_C_Dunning_Candidate> previousCandidates = null;
 
 		//
@@ -226,16 +392,15 @@ public class DefaultDunningCandidateProducer implements IDunningCandidateProduce
 		//
 		// If sequentially we must check for other levels with smaller days for
 		// which this invoice is not yet included!
-		if (dunningLevel.getC_Dunning().isCreateLevelsSequentially())
+		if (previousLevels != null)
 		{
-			final List<I_C_DunningLevel> previousLevels = Services.get(IDunningBL.class).getPreviousLevels(dunningLevel);
 			if (previousLevels.isEmpty())
 			{
 				// This is the first Level on which we dunn => consider it eligible
 				return true;
 			}
 
-			previousCandidates = dunningDAO.retrieveDunningCandidates(context, tableId, recordId, previousLevels);
+			previousCandidates = previousCandidatesSupplier.get();
 			for (final I_C_DunningLevel previousLevel : previousLevels)
 			{
 				// Search if we already have a candidate for previousLevel
@@ -26,21 +26,38 @@ import java.math.BigDecimal;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.ITrxRunConfig;
 import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableFail;
 import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableSuccess;
 import org.adempiere.ad.trx.api.ITrxRunConfig.TrxPropagation;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+
 import de.metas.dunning.api.IDunnableDoc;
 import de.metas.dunning.api.IDunnableSourceFactory;
 import de.metas.dunning.api.IDunningBL;
@@ -71,6 +88,18 @@ public class DunningBL implements IDunningBL
 {
 	private final Logger logger = LogManager.getLogger(getClass());
 
+	/**
+	 * How many dunnable docs are evaluated together by {@link #createDunningCandidates(IDunningContext)}.
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_CreateCandidates_BatchSize = "de.metas.dunning.api.impl.DunningBL.CreateCandidates.BatchSize";
+
+	/**
+	 * If greater than 1, {@link #createDunningCandidates(IDunningContext)} evaluates the docs of different bpartners concurrently, by that many threads.
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_CreateCandidates_Threads = "de.metas.dunning.api.impl.DunningBL.CreateCandidates.Threads";
+
 	private ReentrantLock configLock = new ReentrantLock();
 
 	/**
@@ -175,8 +204,12 @@ public class DunningBL implements IDunningBL
 	{
 		final IDunningConfig config = context.getDunningConfig();
 		final IDunnableSourceFactory sourceFactory = config.getDunnableSourceFactory();
-		final IDunningCandidateProducerFactory candidateProducerFactory = config.getDunningCandidateProducerFactory();
 
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int batchSize = Math.max(sysConfigBL.getIntValue(SYSCONFIG_CreateCandidates_BatchSize, 500), 1);
+		final int threads = Math.max(sysConfigBL.getIntValue(SYSCONFIG_CreateCandidates_Threads, 1), 1);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		int countAll = 0;
 		int countCreated = 0;
 
@@ -186,35 +219,148 @@ public class DunningBL implements IDunningBL
 			throw new DunningException("No " + IDunnableSource.class + "s were configured in " + config);
 		}
 
-		for (final IDunnableSource source : sources)
+		final ExecutorService executor = threads > 1
+				? Executors.newFixedThreadPool(threads, CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(getClass().getSimpleName() + "-createDunningCandidates")
+						.setDaemon(true)
+						.build())
+				: null;
+		try
 		{
-			final Iterator<IDunnableDoc> dunnableDocs = source.iterator(context);
-			try
+			for (final IDunnableSource source : sources)
 			{
-				while (dunnableDocs.hasNext())
+				final Iterator<IDunnableDoc> dunnableDocs = source.iterator(context);
+				try
 				{
-					countAll++;
-
-					final IDunnableDoc sourceDoc = dunnableDocs.next();
-					final IDunningCandidateProducer candidateProducer = candidateProducerFactory.getDunningCandidateProducer(sourceDoc);
-					final I_C_Dunning_Candidate candidate = candidateProducer.createDunningCandidate(context, sourceDoc);
-					if (candidate != null)
+					final List<IDunnableDoc> batch = new ArrayList<>(batchSize);
+					while (dunnableDocs.hasNext())
 					{
-						countCreated++;
+						countAll++;
+						batch.add(dunnableDocs.next());
+
+						if (batch.size() >= batchSize || !dunnableDocs.hasNext())
+						{
+							countCreated += executor != null
+									? createDunningCandidatesInParallel(context, batch, executor, threads)
+									: createDunningCandidates(context, batch);
+							batch.clear();
+						}
 					}
 				}
+				finally
+				{
+					IteratorUtils.close(dunnableDocs);
+				}
 			}
-			finally
+		}
+		finally
+		{
+			if (executor != null)
 			{
-				IteratorUtils.close(dunnableDocs);
+				executor.shutdownNow();
 			}
 		}
 
-		logger.info("Created {} from {} records evaluated", new Object[] { countCreated, countAll });
+		final double docsPerMinute = countAll * 60_000.0 / Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		logger.info("Created {} from {} records evaluated in {} ({} records/min, batchSize={}, threads={})",
+				countCreated, countAll, stopwatch, String.format("%.1f", docsPerMinute), batchSize, threads);
 
 		return countCreated;
 	}
 
+	/**
+	 * Hands the given docs to their {@link IDunningCandidateProducer}s, one call per producer.
+	 */
+	private int createDunningCandidates(final IDunningContext context, final List<IDunnableDoc> sourceDocs)
+	{
+		final IDunningCandidateProducerFactory candidateProducerFactory = context.getDunningConfig().getDunningCandidateProducerFactory();
+
+		final Map<IDunningCandidateProducer, List<IDunnableDoc>> sourceDocsByProducer = new LinkedHashMap<>();
+		for (final IDunnableDoc sourceDoc : sourceDocs)
+		{
+			final IDunningCandidateProducer candidateProducer = candidateProducerFactory.getDunningCandidateProducer(sourceDoc);
+			sourceDocsByProducer.computeIfAbsent(candidateProducer, k -> new ArrayList<>()).add(sourceDoc);
+		}
+
+		int countCreated = 0;
+		for (final Map.Entry<IDunningCandidateProducer, List<IDunnableDoc>> producerAndSourceDocs : sourceDocsByProducer.entrySet())
+		{
+			countCreated += producerAndSourceDocs.getKey().createDunningCandidates(context, producerAndSourceDocs.getValue());
+		}
+		return countCreated;
+	}
+
+	/**
+	 * Splits the given docs into one partition per thread, such that all docs of one bpartner are in the same partition, and evaluates the partitions concurrently.
+	 * <p>
+	 * The workers don't use the caller's transaction; like in the sequential mode, the producers save their candidates in the transactions which they get from the context's trxRunnerConfig.
+	 */
+	private int createDunningCandidatesInParallel(
+			final IDunningContext context,
+			final List<IDunnableDoc> sourceDocs,
+			final ExecutorService executor,
+			final int threads)
+	{
+		final Map<Integer, List<IDunnableDoc>> sourceDocsByBPartnerId = new LinkedHashMap<>();
+		for (final IDunnableDoc sourceDoc : sourceDocs)
+		{
+			sourceDocsByBPartnerId.computeIfAbsent(sourceDoc.getC_BPartner_ID(), k -> new ArrayList<>()).add(sourceDoc);
+		}
+
+		final List<List<IDunnableDoc>> partitions = new ArrayList<>();
+		for (final List<IDunnableDoc> sourceDocsOfBPartner : sourceDocsByBPartnerId.values())
+		{
+			if (partitions.size() < threads)
+			{
+				partitions.add(new ArrayList<>(sourceDocsOfBPartner));
+			}
+			else
+			{
+				// add to the currently smallest partition
+				partitions.stream()
+						.min(Comparator.comparingInt(List::size))
+						.get()
+						.addAll(sourceDocsOfBPartner);
+			}
+		}
+
+		final IDunningContext workerContext = createDunningContext(context, ITrx.TRXNAME_None);
+		final List<Future<Integer>> futures = new ArrayList<>();
+		try
+		{
+			for (final List<IDunnableDoc> partition : partitions)
+			{
+				final Properties ctx = Env.copyCtx(Env.getCtx());
+				futures.add(executor.submit(() -> {
+					try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+					{
+						return createDunningCandidates(workerContext, partition);
+					}
+				}));
+			}
+
+			int countCreated = 0;
+			for (final Future<Integer> future : futures)
+			{
+				countCreated += future.get();
+			}
+			return countCreated;
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
+		finally
+		{
+			futures.forEach(future -> future.cancel(true));
+		}
+	}
+
 	@Override
 	public void processCandidates(final IDunningContext context)
 	{
@@ -24,6 +24,7 @@ package de.metas.dunning.api.impl;
 
 
 import java.util.List;
+import java.util.Set;
 
 import org.adempiere.util.lang.EqualsBuilder;
 import org.adempiere.util.lang.HashcodeBuilder;
@@ -35,6 +36,7 @@ public class DunningCandidateQuery implements IDunningCandidateQuery
 {
 	private int AD_Table_ID = -1;
 	private int Record_ID = -1;
+	private Set<Integer> Record_IDs = null;
 	private List<I_C_DunningLevel> C_DunningLevels = null;
 	private boolean active = true;
 	private boolean applyClientSecurity = true;
@@ -50,6 +52,7 @@ public class DunningCandidateQuery implements IDunningCandidateQuery
 	{
 		return "DunningCandidateQuery ["
 				+ "AD_Table_ID=" + AD_Table_ID + ", Record_ID=" + Record_ID
+				+ ", Record_IDs=" + Record_IDs
 				+ ", C_DunningLevels=" + C_DunningLevels
 				+ ", active=" + active
 				+ ", applyClientSecurity=" + applyClientSecurity
@@ -65,6 +68,7 @@ public class DunningCandidateQuery implements IDunningCandidateQuery
 		return new HashcodeBuilder()
 				.append(AD_Table_ID)
 				.append(Record_ID)
+				.append(Record_IDs)
 				.append(C_DunningLevels)
 				.append(active)
 				.append(applyClientSecurity)
@@ -90,6 +94,7 @@ public class DunningCandidateQuery implements IDunningCandidateQuery
 		return new EqualsBuilder()
 				.append(AD_Table_ID, other.AD_Table_ID)
 				.append(Record_ID, other.Record_ID)
+				.append(Record_IDs, other.Record_IDs)
 				.append(C_DunningLevels, other.C_DunningLevels)
 				.append(active, other.active)
 				.append(applyClientSecurity, other.applyClientSecurity)
@@ -120,6 +125,17 @@ public class DunningCandidateQuery implements IDunningCandidateQuery
 		Record_ID = record_ID;
 	}
 
+	@Override
+	public Set<Integer> getRecord_IDs()
+	{
+		return Record_IDs;
+	}
+
+	public void setRecord_IDs(Set<Integer> record_IDs)
+	{
+		Record_IDs = record_IDs;
+	}
+
 	@Override
 	public List<I_C_DunningLevel> getC_DunningLevels()
 	{
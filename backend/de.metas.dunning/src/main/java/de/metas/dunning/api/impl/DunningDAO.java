@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -104,7 +105,18 @@ public class DunningDAO extends AbstractDunningDAO
 		final StringBuilder wc = new StringBuilder();
 		final List<Object> params = new ArrayList<>();
 
-		if (query.getAD_Table_ID() > 0 && query.getRecord_ID() >= 0)
+		final Set<Integer> recordIds = query.getRecord_IDs();
+		if (query.getAD_Table_ID() > 0 && recordIds != null && !recordIds.isEmpty())
+		{
+			if (wc.length() > 0)
+			{
+				wc.append(" AND ");
+			}
+			wc.append(I_C_Dunning_Candidate.COLUMNNAME_AD_Table_ID).append("=?");
+			params.add(query.getAD_Table_ID());
+			wc.append(" AND ").append(DB.buildSqlList(I_C_Dunning_Candidate.COLUMNNAME_Record_ID, recordIds, params));
+		}
+		else if (query.getAD_Table_ID() > 0 && query.getRecord_ID() >= 0)
 		{
 			if (wc.length() > 0)
 			{
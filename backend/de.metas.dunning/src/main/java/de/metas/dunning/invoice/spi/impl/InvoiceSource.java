@@ -23,13 +23,26 @@ package de.metas.dunning.invoice.spi.impl;
  */
 
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrx;
-import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_InvoicePaySchedule;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
+
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.adempiere.model.I_C_Invoice;
 import de.metas.dunning.api.IDunnableDoc;
@@ -40,21 +53,120 @@ import de.metas.dunning.model.I_C_Dunning_Candidate_Invoice_v1;
 import de.metas.dunning.spi.impl.AbstractDunnableSource;
 import de.metas.payment.paymentterm.PaymentTermId;
 import de.metas.util.Services;
-import de.metas.util.collections.IteratorUtils;
+import de.metas.util.collections.IteratorWrapper;
 import lombok.NonNull;
 
 public class InvoiceSource extends AbstractDunnableSource
 {
+	/**
+	 * How many invoices are converted to {@link IDunnableDoc}s together; same as the view iterator's buffer size.
+	 */
+	private static final int BATCH_SIZE = 1000;
+
 	@Override
 	protected Iterator<IDunnableDoc> createRawSourceIterator(final IDunningContext context)
 	{
 		final Iterator<I_C_Dunning_Candidate_Invoice_v1> it = Services.get(IInvoiceSourceDAO.class).retrieveDunningCandidateInvoices(context);
-		return IteratorUtils.map(it, candidate -> createDunnableDoc(context, candidate));
+		return new DunnableDocsIterator(context, it);
+	}
+
+	/**
+	 * Converts the view records batch-wise, so that the invoices' DocumentNos are loaded with one query per batch.
+	 * The payment term due days only depend on the payment term and DateInvoiced (the dunning date is the same for all), so they are computed once per combination.
+	 */
+	private final class DunnableDocsIterator implements Iterator<IDunnableDoc>, IteratorWrapper<I_C_Dunning_Candidate_Invoice_v1>
+	{
+		private final IDunningContext context;
+		private final Iterator<I_C_Dunning_Candidate_Invoice_v1> candidates;
+
+		private final Deque<IDunnableDoc> dunnableDocs = new ArrayDeque<>();
+		private final Map<ArrayKey, Integer> dueDaysByPaymentTermAndDateInvoiced = new HashMap<>();
+
+		private DunnableDocsIterator(
+				@NonNull final IDunningContext context,
+				@NonNull final Iterator<I_C_Dunning_Candidate_Invoice_v1> candidates)
+		{
+			this.context = context;
+			this.candidates = candidates;
+		}
+
+		@Override
+		public Iterator<I_C_Dunning_Candidate_Invoice_v1> getParentIterator()
+		{
+			return candidates;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			if (dunnableDocs.isEmpty())
+			{
+				loadNextBatch();
+			}
+			return !dunnableDocs.isEmpty();
+		}
+
+		@Override
+		public IDunnableDoc next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			return dunnableDocs.poll();
+		}
+
+		private void loadNextBatch()
+		{
+			final List<I_C_Dunning_Candidate_Invoice_v1> batch = new ArrayList<>();
+			while (batch.size() < BATCH_SIZE && candidates.hasNext())
+			{
+				batch.add(candidates.next());
+			}
+			if (batch.isEmpty())
+			{
+				return;
+			}
+
+			final Map<Integer, String> documentNosByInvoiceId = retrieveDocumentNos(context, batch);
+			for (final I_C_Dunning_Candidate_Invoice_v1 candidate : batch)
+			{
+				dunnableDocs.add(createDunnableDoc(context, candidate, documentNosByInvoiceId, dueDaysByPaymentTermAndDateInvoiced));
+			}
+		}
+	}
+
+	/**
+	 * @return the DocumentNos of those invoices which are dunned as a whole (i.e. without pay schedule)
+	 */
+	private static Map<Integer, String> retrieveDocumentNos(
+			@NonNull final IDunningContext context,
+			@NonNull final List<I_C_Dunning_Candidate_Invoice_v1> candidates)
+	{
+		final Set<Integer> invoiceIds = candidates.stream()
+				.filter(candidate -> candidate.getC_InvoicePaySchedule_ID() <= 0)
+				.map(I_C_Dunning_Candidate_Invoice_v1::getC_Invoice_ID)
+				.collect(Collectors.toSet());
+		if (invoiceIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Invoice.class, context.getCtx(), ITrx.TRXNAME_ThreadInherited)
+				.addInArrayFilter(I_C_Invoice.COLUMNNAME_C_Invoice_ID, invoiceIds)
+				.create()
+				.list()
+				.stream()
+				.filter(invoice -> invoice.getDocumentNo() != null)
+				.collect(ImmutableMap.toImmutableMap(I_C_Invoice::getC_Invoice_ID, I_C_Invoice::getDocumentNo));
 	}
 
 	private IDunnableDoc createDunnableDoc(
 			@NonNull final IDunningContext context,
-			@NonNull final I_C_Dunning_Candidate_Invoice_v1 candidate)
+			@NonNull final I_C_Dunning_Candidate_Invoice_v1 candidate,
+			@NonNull final Map<Integer, String> documentNosByInvoiceId,
+			@NonNull final Map<ArrayKey, Integer> dueDaysByPaymentTermAndDateInvoiced)
 	{
 		final int invoiceId = candidate.getC_Invoice_ID();
 		final int invoicePayScheduleId = candidate.getC_InvoicePaySchedule_ID();
@@ -90,23 +202,8 @@ public class InvoiceSource extends AbstractDunnableSource
 			tableName = I_C_Invoice.Table_Name;
 			recordId = invoiceId;
 
-			final I_C_Invoice invoice = InterfaceWrapperHelper.create(
-					context.getCtx(),
-					invoiceId,
-					I_C_Invoice.class,
-					ITrx.TRXNAME_ThreadInherited);
-
-			if (invoice == null)
-			{
-				// shall not happen
-				// in case of no referenced record the documentNo is null.
-
-				documentNo = null;
-			}
-			else
-			{
-				documentNo = invoice.getDocumentNo();
-			}
+			// in case of no referenced record the documentNo is null.
+			documentNo = documentNosByInvoiceId.get(invoiceId);
 		}
 
 		final int daysDue;
@@ -118,10 +215,12 @@ public class InvoiceSource extends AbstractDunnableSource
 		{
 			final IInvoiceSourceDAO invoiceSourceDAO = Services.get(IInvoiceSourceDAO.class);
 
-			daysDue = invoiceSourceDAO.retrieveDueDays(
-					PaymentTermId.ofRepoId(paymentTermId),
-					dateInvoiced,
-					context.getDunningDate());
+			daysDue = dueDaysByPaymentTermAndDateInvoiced.computeIfAbsent(
+					Util.mkKey(paymentTermId, dateInvoiced),
+					k -> invoiceSourceDAO.retrieveDueDays(
+							PaymentTermId.ofRepoId(paymentTermId),
+							dateInvoiced,
+							context.getDunningDate()));
 		}
 
 		final IDunnableDoc dunnableDoc = new DunnableDoc(tableName,
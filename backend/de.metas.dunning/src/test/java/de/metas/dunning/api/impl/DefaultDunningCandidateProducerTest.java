@@ -28,6 +28,7 @@ import static org.junit.Assert.assertThat;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -40,6 +41,8 @@ import org.compiere.util.TimeUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.adempiere.model.I_C_Invoice;
 import de.metas.dunning.DunningTestBase;
 import de.metas.dunning.api.IDunnableDoc;
@@ -645,6 +648,80 @@ public class DefaultDunningCandidateProducerTest extends DunningTestBase
 		Assert.assertTrue("Shall be true because everything is respected", respected);
 	}
 
+	/**
+	 * Case: a batch with three docs for level 2:
+	 * <ul>
+	 * <li>doc 1 has a DunningDocProcessed candidate for level 1 => eligible
+	 * <li>doc 2 has a not yet DunningDocProcessed candidate for level 1 => not eligible
+	 * <li>doc 3 has no candidate for level 1 => not eligible
+	 * </ul>
+	 * Then the batch is evaluated again: the candidate of doc 1 is updated, not created a second time.
+	 */
+	@Test
+	public void test_createDunningCandidates_Batch()
+	{
+		final IDunnableDoc sourceDoc1 = mkDunnableDocBuilder().setRecord_ID(1).setDaysDue(25).create();
+		final IDunnableDoc sourceDoc2 = mkDunnableDocBuilder().setRecord_ID(2).setDaysDue(25).create();
+		final IDunnableDoc sourceDoc3 = mkDunnableDocBuilder().setRecord_ID(3).setDaysDue(25).create();
+
+		final PlainDunningContext context1 = createPlainDunningContext("2012-02-01", dunningLevel1_10);
+		final I_C_Dunning_Candidate candidate1 = producer.createDunningCandidate(context1, sourceDoc1);
+		candidate1.setIsDunningDocProcessed(true);
+		InterfaceWrapperHelper.save(candidate1);
+		Assert.assertNotNull("Candidate for level 1 shall be generated", producer.createDunningCandidate(context1, sourceDoc2));
+
+		final PlainDunningContext context2 = createPlainDunningContext("2012-02-20", dunningLevel2_20);
+		final List<IDunnableDoc> sourceDocs = Arrays.asList(sourceDoc1, sourceDoc2, sourceDoc3);
+		Assert.assertEquals("Created candidates", 1, producer.createDunningCandidates(context2, sourceDocs));
+		Assert.assertEquals("Updated candidates", 1, producer.createDunningCandidates(context2, sourceDocs));
+
+		final I_C_Dunning_Candidate candidate2 = dao.retrieveDunningCandidate(context2, sourceDoc1.getTableId(), sourceDoc1.getRecordId(), dunningLevel2_20);
+		assertDunningCandidateValid(candidate2, context2, sourceDoc1);
+		Assert.assertEquals("Level 2 candidates", 1, dao.retrieveDunningCandidatesForRecordsAndLevel(context2, sourceDoc1.getTableId(), ImmutableSet.of(1, 2, 3), dunningLevel2_20).size());
+	}
+
+	/**
+	 * Case: the existing level 2 candidate of a doc is not visible to the role. The batch shall update it, not create a second one, like {@link DefaultDunningCandidateProducer#createDunningCandidate(IDunningContext, IDunnableDoc)} does.
+	 */
+	@Test
+	public void test_createDunningCandidates_Batch_ExistingCandidateNotVisibleToRole()
+	{
+		final IDunnableDoc sourceDoc = mkDunnableDocBuilder().setRecord_ID(1).setDaysDue(25).create();
+
+		final PlainDunningContext context1 = createPlainDunningContext("2012-02-01", dunningLevel1_10);
+		final I_C_Dunning_Candidate candidate1 = producer.createDunningCandidate(context1, sourceDoc);
+		candidate1.setIsDunningDocProcessed(true);
+		InterfaceWrapperHelper.save(candidate1);
+
+		final PlainDunningContext context2 = createPlainDunningContext("2012-02-20", dunningLevel2_20);
+		final I_C_Dunning_Candidate candidate2 = producer.createDunningCandidate(context2, sourceDoc);
+		Assert.assertNotNull("Candidate for level 2 shall be generated", candidate2);
+		dao.setNoRoleAccess(candidate2);
+
+		Assert.assertEquals("Updated candidates", 1, producer.createDunningCandidates(context2, Arrays.asList(sourceDoc)));
+		Assert.assertEquals("Level 2 candidates", 1, dao.retrieveDunningCandidatesForRecordsAndLevel(context2, sourceDoc.getTableId(), ImmutableSet.of(1), dunningLevel2_20).size());
+	}
+
+	/**
+	 * Case: the processed level 1 candidate of a doc is not visible to the role. Like with {@link DefaultDunningCandidateProducer#createDunningCandidate(IDunningContext, IDunnableDoc)},
+	 * the previous level is considered missing and no level 2 candidate is created.
+	 */
+	@Test
+	public void test_createDunningCandidates_Batch_PreviousLevelCandidateNotVisibleToRole()
+	{
+		final IDunnableDoc sourceDoc = mkDunnableDocBuilder().setRecord_ID(1).setDaysDue(25).create();
+
+		final PlainDunningContext context1 = createPlainDunningContext("2012-02-01", dunningLevel1_10);
+		final I_C_Dunning_Candidate candidate1 = producer.createDunningCandidate(context1, sourceDoc);
+		candidate1.setIsDunningDocProcessed(true);
+		InterfaceWrapperHelper.save(candidate1);
+		dao.setNoRoleAccess(candidate1);
+
+		final PlainDunningContext context2 = createPlainDunningContext("2012-02-20", dunningLevel2_20);
+		Assert.assertNull("Candidate for level 2 shall not be generated", producer.createDunningCandidate(context2, sourceDoc));
+		Assert.assertEquals("Created candidates", 0, producer.createDunningCandidates(context2, Arrays.asList(sourceDoc)));
+	}
+
 	private DunnableDocBuilder mkDunnableDocBuilder()
 	{
 		return new DunnableDocBuilder()
@@ -22,20 +22,38 @@ package de.metas.dunning.api.impl;
  * #L%
  */
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import de.metas.common.util.time.SystemTime;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableFail;
+import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableSuccess;
+import org.adempiere.ad.trx.api.ITrxRunConfig.TrxPropagation;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.TimeUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
+import de.metas.adempiere.model.I_C_Invoice;
 import de.metas.dunning.DunningTestBase;
+import de.metas.dunning.api.IDunnableDoc;
+import de.metas.dunning.api.IDunningCandidateProducer;
 import de.metas.dunning.api.IDunningConfig;
+import de.metas.dunning.api.IDunningContext;
 import de.metas.dunning.exception.DunningException;
+import de.metas.dunning.invoice.api.impl.DunnableDocBuilder;
 import de.metas.dunning.model.I_C_Dunning_Candidate;
 import de.metas.dunning.spi.impl.PlainDunningConfigurator;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
 
 public class DunningBLTest extends DunningTestBase
 {
@@ -197,6 +215,112 @@ public class DunningBLTest extends DunningTestBase
 		dunningBL.isExpired(null, TimeUtil.getDay(2013, 3, 10));
 	}
 
+	/**
+	 * Docs of 5 bpartners, evaluated in one batch by 3 threads: each thread gets the docs of whole bpartners.
+	 */
+	@Test
+	public void test_createDunningCandidates_Parallel()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(DunningBL.SYSCONFIG_CreateCandidates_BatchSize, 100, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(DunningBL.SYSCONFIG_CreateCandidates_Threads, 3, ClientId.SYSTEM, OrgId.ANY);
+
+		final PlainDunningContext context = new PlainDunningContext(getCtx(),
+				Services.get(ITrxManager.class).createTrxRunConfig(TrxPropagation.REQUIRES_NEW, OnRunnableSuccess.COMMIT, OnRunnableFail.ASK_RUNNABLE));
+		context.getDunningConfig().setDunnableSourceFactory(new MockedDunnableSourceFactory());
+		context.getDunningConfig().getDunningCandidateProducerFactory().registerDunningCandidateProducer(RecordingDunningCandidateProducer.class);
+		context.setDunningDate(TimeUtil.getDay(2013, 2, 1));
+		context.setDunningLevel(createDunningLevel(createDunning("Dunning"), 0, 10, 0));
+
+		// the docs of the bpartners are mixed up
+		final List<IDunnableDoc> dunnableDocs = getLiveDunnableDocList(context);
+		for (int recordId = 1; recordId <= 20; recordId++)
+		{
+			new DunnableDocBuilder()
+					.setTableName(I_C_Invoice.Table_Name)
+					.setRecord_ID(recordId)
+					.setC_BPartner_ID(recordId % 5 + 1)
+					.setC_Currency_ID(currencyEUR.getRepoId())
+					.setTotalAmt(BigDecimal.valueOf(100))
+					.setOpenAmt(BigDecimal.valueOf(100))
+					.setDueDate(TimeUtil.getDay(2013, 1, 1))
+					.setDaysDue(15)
+					.createAndAppend(dunnableDocs);
+		}
+
+		RecordingDunningCandidateProducer.calls.clear();
+		Assert.assertEquals("Created candidates", 20, dunningBL.createDunningCandidates(context));
+
+		final List<RecordingDunningCandidateProducer.Call> calls = RecordingDunningCandidateProducer.calls;
+		Assert.assertEquals("One call per thread: " + calls, 3, calls.size());
+
+		final List<Integer> recordIds = new ArrayList<>();
+		for (final RecordingDunningCandidateProducer.Call call : calls)
+		{
+			Assert.assertTrue("Invalid thread: " + call, call.threadName.startsWith(DunningBL.class.getSimpleName() + "-createDunningCandidates"));
+			Assert.assertEquals("Invalid trxName: " + call, ITrx.TRXNAME_None, call.trxName);
+			call.sourceDocs.forEach(sourceDoc -> recordIds.add(sourceDoc.getRecordId()));
+		}
+		Assert.assertEquals("Each doc shall be evaluated once", 20, recordIds.size());
+		Assert.assertEquals("Each doc shall be evaluated once", 20, recordIds.stream().distinct().count());
+
+		for (int bpartnerId = 1; bpartnerId <= 5; bpartnerId++)
+		{
+			final int bpartnerIdToCheck = bpartnerId;
+			final long callsWithBPartner = calls.stream()
+					.filter(call -> call.sourceDocs.stream().anyMatch(sourceDoc -> sourceDoc.getC_BPartner_ID() == bpartnerIdToCheck))
+					.count();
+			Assert.assertEquals("The docs of C_BPartner_ID=" + bpartnerId + " shall be evaluated together", 1, callsWithBPartner);
+		}
+	}
+
+	/**
+	 * Records the batches it gets, instead of creating candidates; the docs' candidates are not saved, because the unit test database is not thread safe.
+	 */
+	public static class RecordingDunningCandidateProducer implements IDunningCandidateProducer
+	{
+		static final class Call
+		{
+			private final String threadName;
+			private final String trxName;
+			private final List<IDunnableDoc> sourceDocs;
+
+			private Call(final String threadName, final String trxName, final List<IDunnableDoc> sourceDocs)
+			{
+				this.threadName = threadName;
+				this.trxName = trxName;
+				this.sourceDocs = sourceDocs;
+			}
+
+			@Override
+			public String toString()
+			{
+				return "Call [threadName=" + threadName + ", trxName=" + trxName + ", sourceDocs=" + sourceDocs + "]";
+			}
+		}
+
+		private static final List<Call> calls = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public boolean isHandled(final IDunnableDoc sourceDoc)
+		{
+			return true;
+		}
+
+		@Override
+		public I_C_Dunning_Candidate createDunningCandidate(final IDunningContext context, final IDunnableDoc sourceDoc)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int createDunningCandidates(final IDunningContext context, final List<IDunnableDoc> sourceDocs)
+		{
+			calls.add(new Call(Thread.currentThread().getName(), context.getTrxName(), new ArrayList<>(sourceDocs)));
+			return sourceDocs.size();
+		}
+	}
+
 	private void assertExpired(final boolean expectedExpired, final Timestamp dunningGraceDate, final Timestamp dunningDate, final boolean processed)
 	{
 		final I_C_Dunning_Candidate candidate = db.newInstance(I_C_Dunning_Candidate.class);
@@ -24,6 +24,7 @@ package de.metas.dunning.api.impl;
 
 
 import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import de.metas.logging.LogManager;
 
@@ -51,7 +52,19 @@ public class DunningCandidateQueryPOJOFilter implements IPOJOFilter<I_C_Dunning_
 	@Override
 	public boolean accept(final I_C_Dunning_Candidate candidate)
 	{
-		if (query.getAD_Table_ID() > 0 && query.getRecord_ID() >= 0)
+		final Set<Integer> recordIds = query.getRecord_IDs();
+		if (query.getAD_Table_ID() > 0 && recordIds != null && !recordIds.isEmpty())
+		{
+			if (candidate.getAD_Table_ID() != query.getAD_Table_ID())
+			{
+				return false;
+			}
+			if (!recordIds.contains(candidate.getRecord_ID()))
+			{
+				return false;
+			}
+		}
+		else if (query.getAD_Table_ID() > 0 && query.getRecord_ID() >= 0)
 		{
 			if (candidate.getAD_Table_ID() != query.getAD_Table_ID())
 			{
@@ -22,9 +22,11 @@ package de.metas.dunning.api.impl;
  * #L%
  */
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.wrapper.POJOLookupMap;
@@ -32,6 +34,7 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 
 import de.metas.dunning.api.IDunningCandidateQuery;
+import de.metas.dunning.api.IDunningCandidateQuery.ApplyAccessFilter;
 import de.metas.dunning.api.IDunningContext;
 import de.metas.dunning.interfaces.I_C_Dunning;
 import de.metas.dunning.interfaces.I_C_DunningLevel;
@@ -43,6 +46,7 @@ import de.metas.util.collections.IteratorUtils;
 public class PlainDunningDAO extends AbstractDunningDAO
 {
 	private final POJOLookupMap lookupMap = POJOLookupMap.get();
+	private final Set<Integer> candidateIdsWithoutRoleAccess = new HashSet<>();
 
 	public POJOLookupMap getDB()
 	{
@@ -112,16 +116,38 @@ public class PlainDunningDAO extends AbstractDunningDAO
 		// POJOWrapper.getWrapper(candidate).getValuesMap().put(FLAG_CandidateStaled, staled);
 	}
 
+	/**
+	 * This method is <b>not</b> defined in the service interface. It is intended to be used by testing code only.
+	 * <p>
+	 * Makes the given candidate invisible to the queries which apply the role's access filter.
+	 *
+	 * @param candidate
+	 */
+	public void setNoRoleAccess(final I_C_Dunning_Candidate candidate)
+	{
+		candidateIdsWithoutRoleAccess.add(candidate.getC_Dunning_Candidate_ID());
+	}
+
+	private IQueryFilter<I_C_Dunning_Candidate> createFilter(final IDunningContext context, final IDunningCandidateQuery query)
+	{
+		final DunningCandidateQueryPOJOFilter filter = new DunningCandidateQueryPOJOFilter(context, query);
+		if (ApplyAccessFilter.ACCESS_FILTER_NONE.equals(query.getApplyAccessFilter()))
+		{
+			return filter;
+		}
+		return candidate -> filter.accept(candidate) && !candidateIdsWithoutRoleAccess.contains(candidate.getC_Dunning_Candidate_ID());
+	}
+
 	@Override
 	protected List<I_C_Dunning_Candidate> retrieveDunningCandidates(final IDunningContext context, final IDunningCandidateQuery query)
 	{
-		return lookupMap.getRecords(I_C_Dunning_Candidate.class, new DunningCandidateQueryPOJOFilter(context, query));
+		return lookupMap.getRecords(I_C_Dunning_Candidate.class, createFilter(context, query));
 	}
 
 	@Override
 	protected I_C_Dunning_Candidate retrieveDunningCandidate(IDunningContext context, IDunningCandidateQuery query)
 	{
-		return lookupMap.getFirstOnly(I_C_Dunning_Candidate.class, new DunningCandidateQueryPOJOFilter(context, query));
+		return lookupMap.getFirstOnly(I_C_Dunning_Candidate.class, createFilter(context, query));
 	}
 
 	@Override
@@ -0,0 +1,133 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import java.util.List;
+
+import org.elasticsearch.ElasticsearchException;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.elasticsearch.indexer.IESIndexerResult;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.elasticsearch
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Result of a couple of bulk requests which were sent for one indexing operation.
+ */
+/* package */final class CompositeESIndexerResult implements IESIndexerResult
+{
+	public static IESIndexerResult of(@NonNull final List<IESIndexerResult> results)
+	{
+		if (results.isEmpty())
+		{
+			return IESIndexerResult.NULL;
+		}
+		else if (results.size() == 1)
+		{
+			return results.get(0);
+		}
+		else
+		{
+			return new CompositeESIndexerResult(results);
+		}
+	}
+
+	private final ImmutableList<IESIndexerResult> results;
+
+	private CompositeESIndexerResult(final List<IESIndexerResult> results)
+	{
+		this.results = ImmutableList.copyOf(results);
+	}
+
+	@Override
+	public String getSummary()
+	{
+		return MoreObjects.toStringHelper(this)
+				.omitNullValues()
+				.add("TotalCount", getTotalCount())
+				.add("FailuresCount", getFailuresCount())
+				.add("ErrorMsg", hasFailures() ? getFailureMessage() : null)
+				.add("Duration", getDurationInMillis() + "ms")
+				.add("BulkRequests", results.size())
+				.toString();
+	}
+
+	@Override
+	public long getDurationInMillis()
+	{
+		return results.stream().mapToLong(IESIndexerResult::getDurationInMillis).sum();
+	}
+
+	@Override
+	public int getTotalCount()
+	{
+		return results.stream().mapToInt(IESIndexerResult::getTotalCount).sum();
+	}
+
+	@Override
+	public int getOKCount()
+	{
+		return results.stream().mapToInt(IESIndexerResult::getOKCount).sum();
+	}
+
+	@Override
+	public int getFailuresCount()
+	{
+		return results.stream().mapToInt(IESIndexerResult::getFailuresCount).sum();
+	}
+
+	@Override
+	public boolean hasFailures()
+	{
+		return results.stream().anyMatch(IESIndexerResult::hasFailures);
+	}
+
+	@Override
+	public String getFailureMessage()
+	{
+		final StringBuilder failureMessage = new StringBuilder();
+		for (final IESIndexerResult result : results)
+		{
+			if (!result.hasFailures())
+			{
+				continue;
+			}
+			if (failureMessage.length() > 0)
+			{
+				failureMessage.append("\n");
+			}
+			failureMessage.append(result.getFailureMessage());
+		}
+		return failureMessage.toString();
+	}
+
+	@Override
+	public void throwExceptionIfAnyFailure()
+	{
+		if (hasFailures())
+		{
+			throw new ElasticsearchException(getFailureMessage());
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+
+import com.google.common.collect.Iterators;
+
+import de.metas.elasticsearch.indexer.IESIndexerResult;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.elasticsearch
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sends a (possibly huge) stream of requests to elasticsearch, using bulk requests of a limited size.
+ * <p>
+ * The bulk requests are sent one after the other, so a slow cluster slows down the producer of the requests (e.g. a database cursor) instead of piling up requests in memory.
+ * If the cluster rejects requests because it's overloaded, then the rejected requests are retried after an exponentially increasing delay.
+ */
+/* package */final class ESBulkRequestsExecutor
+{
+	private static final Logger logger = LogManager.getLogger(ESBulkRequestsExecutor.class);
+
+	private final Client elasticsearchClient;
+	private final int bulkSize;
+	private final int maxRetries;
+	private final long initialBackoffMillis;
+
+	@Builder
+	private ESBulkRequestsExecutor(
+			@NonNull final Client elasticsearchClient,
+			final int bulkSize,
+			final int maxRetries,
+			final long initialBackoffMillis)
+	{
+		Check.assumeGreaterThanZero(bulkSize, "bulkSize");
+
+		this.elasticsearchClient = elasticsearchClient;
+		this.bulkSize = bulkSize;
+		this.maxRetries = maxRetries > 0 ? maxRetries : 0;
+		this.initialBackoffMillis = initialBackoffMillis > 0 ? initialBackoffMillis : 100;
+	}
+
+	/**
+	 * @param adder adds one request to the given bulk request
+	 */
+	public <T> IESIndexerResult execute(
+			@NonNull final Iterator<T> requests,
+			@NonNull final BiConsumer<BulkRequestBuilder, T> adder)
+	{
+		final List<IESIndexerResult> results = new ArrayList<>();
+
+		final Iterator<List<T>> bulks = Iterators.partition(requests, bulkSize);
+		while (bulks.hasNext())
+		{
+			results.add(executeBulk(bulks.next(), adder));
+		}
+
+		return CompositeESIndexerResult.of(results);
+	}
+
+	private <T> IESIndexerResult executeBulk(
+			@NonNull final List<T> requests,
+			@NonNull final BiConsumer<BulkRequestBuilder, T> adder)
+	{
+		final List<IESIndexerResult> results = new ArrayList<>();
+
+		List<T> requestsToSend = requests;
+		long backoffMillis = initialBackoffMillis;
+		for (int attempt = 0; !requestsToSend.isEmpty(); attempt++)
+		{
+			final boolean lastAttempt = attempt >= maxRetries;
+
+			final BulkRequestBuilder bulkRequest = elasticsearchClient.prepareBulk();
+			for (final T request : requestsToSend)
+			{
+				adder.accept(bulkRequest, request);
+			}
+
+			final BulkResponse bulkResponse;
+			try
+			{
+				bulkResponse = bulkRequest.execute().actionGet();
+			}
+			catch (final EsRejectedExecutionException ex)
+			{
+				if (lastAttempt)
+				{
+					throw ex;
+				}
+
+				logger.debug("The whole bulk of {} requests was rejected. Retrying in {}ms", requestsToSend.size(), backoffMillis, ex);
+				sleep(backoffMillis);
+				backoffMillis *= 2;
+				continue;
+			}
+
+			//
+			// Collect the requests which were rejected because the cluster is overloaded.
+			final List<T> rejectedRequests = new ArrayList<>();
+			final List<BulkItemResponse> itemResponses = new ArrayList<>();
+			for (final BulkItemResponse itemResponse : bulkResponse.getItems())
+			{
+				if (!lastAttempt && isRejected(itemResponse))
+				{
+					rejectedRequests.add(requestsToSend.get(itemResponse.getItemId()));
+				}
+				else
+				{
+					itemResponses.add(itemResponse);
+				}
+			}
+
+			if (rejectedRequests.isEmpty())
+			{
+				results.add(ESIndexerResult.of(bulkResponse));
+			}
+			else
+			{
+				results.add(ESIndexerResult.of(new BulkResponse(itemResponses.toArray(new BulkItemResponse[0]), bulkResponse.getTookInMillis())));
+
+				logger.debug("{} of {} requests were rejected. Retrying them in {}ms", rejectedRequests.size(), requestsToSend.size(), backoffMillis);
+				sleep(backoffMillis);
+				backoffMillis *= 2;
+			}
+
+			requestsToSend = rejectedRequests;
+		}
+
+		return CompositeESIndexerResult.of(results);
+	}
+
+	private static boolean isRejected(final BulkItemResponse itemResponse)
+	{
+		return itemResponse.isFailed()
+				&& itemResponse.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS;
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+}
@@ -2,6 +2,8 @@ package de.metas.elasticsearch.indexer.impl;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,10 +15,10 @@ import javax.annotation.concurrent.Immutable;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
-import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.index.IndexRequestBuilder;
 import org.elasticsearch.client.Client;
@@ -78,6 +80,12 @@ public final class ESModelIndexer implements IESModelIndexer
 	private static final transient Logger logger = LogManager.getLogger(ESModelIndexer.class);
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final Client elasticsearchClient;
+
+	private static final String SYSCONFIG_BulkSize = "de.metas.elasticsearch.indexer.BulkSize";
+	private static final int DEFAULT_BulkSize = 500;
+	private static final String SYSCONFIG_BulkMaxRetries = "de.metas.elasticsearch.indexer.BulkMaxRetries";
+	private static final int DEFAULT_BulkMaxRetries = 5;
+	private static final long DEFAULT_BulkInitialBackoffMillis = 200;
 	private final ObjectMapper jsonObjectMapper;
 
 	@Getter
@@ -428,24 +436,22 @@ public final class ESModelIndexer implements IESModelIndexer
 		return modelDenormalizer.denormalize(includedModel);
 	}
 
+	/**
+	 * Streams the models from the given data source and sends them to elasticsearch in bulk requests of limited size (see {@link ESBulkRequestsExecutor}).
+	 * The models are deduplicated, i.e. each model is indexed just once.
+	 */
 	@Override
 	public IESIndexerResult addToIndex(@NonNull final ESModelIndexerDataSource dataSource)
 	{
-		final BulkRequestBuilder bulkRequest = elasticsearchClient.prepareBulk();
+		final Set<Integer> seenModelIds = new HashSet<>();
+		final Iterator<IndexRequestBuilder> indexRequests = IteratorUtils.stream(dataSource.getModelsToIndex())
+				.filter(model -> seenModelIds.add(InterfaceWrapperHelper.getId(model)))
+				.flatMap(this::createIndexRequestsAndStream)
+				.iterator();
 
 		try
 		{
-			IteratorUtils.stream(dataSource.getModelsToIndex())
-					.flatMap(this::createIndexRequestsAndStream)
-					.forEach(bulkRequest::add);
-
-			if (bulkRequest.numberOfActions() <= 0)
-			{
-				return IESIndexerResult.NULL;
-			}
-
-			final BulkResponse bulkResponse = bulkRequest.execute().actionGet();
-			final IESIndexerResult esResponse = ESIndexerResult.of(bulkResponse);
+			final IESIndexerResult esResponse = newBulkRequestsExecutor().execute(indexRequests, BulkRequestBuilder::add);
 
 			logger.debug("Added {}", esResponse);
 			return esResponse;
@@ -456,8 +462,7 @@ public final class ESModelIndexer implements IESModelIndexer
 		}
 		catch (final Exception ex)
 		{
-			final int count = bulkRequest.numberOfActions();
-			final String errmsg = "Failed indexing " + count + " models because: " + ex.getLocalizedMessage()
+			final String errmsg = "Failed indexing " + seenModelIds.size() + " models because: " + ex.getLocalizedMessage()
 					+ "\n Indexer: " + this;
 			throw new AdempiereException(errmsg, ex);
 		}
@@ -466,15 +471,9 @@ public final class ESModelIndexer implements IESModelIndexer
 	@Override
 	public IESIndexerResult removeFromIndexByIds(final Collection<String> ids)
 	{
-		final BulkRequestBuilder bulkRequest = elasticsearchClient.prepareBulk();
-
 		try
 		{
-			createDeleteRequests(ids)
-					.forEach(bulkRequest::add);
-
-			final BulkResponse bulkResponse = bulkRequest.execute().actionGet();
-			final IESIndexerResult esResponse = ESIndexerResult.of(bulkResponse);
+			final IESIndexerResult esResponse = newBulkRequestsExecutor().execute(createDeleteRequests(ImmutableSet.copyOf(ids)).iterator(), BulkRequestBuilder::add);
 
 			logger.debug("Deleted {}", esResponse);
 			return esResponse;
@@ -485,13 +484,23 @@ public final class ESModelIndexer implements IESModelIndexer
 		}
 		catch (final Exception ex)
 		{
-			final int count = bulkRequest.numberOfActions();
-			final String errmsg = "Failed removing " + count + " models because: " + ex.getLocalizedMessage()
+			final String errmsg = "Failed removing " + ids.size() + " models because: " + ex.getLocalizedMessage()
 					+ "\n Indexer: " + this;
 			throw new AdempiereException(errmsg, ex);
 		}
 	}
 
+	private ESBulkRequestsExecutor newBulkRequestsExecutor()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		return ESBulkRequestsExecutor.builder()
+				.elasticsearchClient(elasticsearchClient)
+				.bulkSize(sysConfigBL.getIntValue(SYSCONFIG_BulkSize, DEFAULT_BulkSize))
+				.maxRetries(sysConfigBL.getIntValue(SYSCONFIG_BulkMaxRetries, DEFAULT_BulkMaxRetries))
+				.initialBackoffMillis(DEFAULT_BulkInitialBackoffMillis)
+				.build();
+	}
+
 	private Stream<DeleteRequestBuilder> createDeleteRequests(final Collection<String> ids)
 	{
 		return ids.stream()
@@ -61,7 +61,9 @@ public class AsyncAddToIndexProcessor extends WorkpackageProcessorAdapter
 		final List<Object> allModels = retrieveItems(Object.class);
 		if (allModels.isEmpty())
 		{
-			throw new AdempiereException("No source models found");
+			// the elements are also scheduled in another workpackage which was not yet processed, so that workpackage will index them
+			Loggables.addLog("No source models found which are not already scheduled in another workpackage");
+			return Result.SUCCESS;
 		}
 
 		final List<Object> modelsToAdd = new ArrayList<>();
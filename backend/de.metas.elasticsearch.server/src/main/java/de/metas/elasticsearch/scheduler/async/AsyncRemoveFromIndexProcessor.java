@@ -62,7 +62,9 @@ public class AsyncRemoveFromIndexProcessor extends WorkpackageProcessorAdapter
 				.collect(GuavaCollectors.toImmutableSet());
 		if (idsToRemove.isEmpty())
 		{
-			throw new AdempiereException("No source models found");
+			// the elements are also scheduled in another workpackage which was not yet processed, so that workpackage will index them
+			Loggables.addLog("No source models found which are not already scheduled in another workpackage");
+			return Result.SUCCESS;
 		}
 
 		try
@@ -0,0 +1,206 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.elasticsearch.indexer.IESIndexerResult;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ESBulkRequestsExecutorTest
+{
+	private Client elasticsearchClient;
+
+	/** The requests of each bulk request that was sent, in the order they were sent */
+	private List<List<String>> sentBulks;
+
+	/** Creates the response for the next bulk request that is sent */
+	private Function<List<String>, BulkResponse> responder;
+
+	@BeforeEach
+	public void init()
+	{
+		sentBulks = new ArrayList<>();
+
+		elasticsearchClient = mock(Client.class);
+		when(elasticsearchClient.prepareBulk()).thenAnswer(invocation -> newBulkRequestBuilder());
+	}
+
+	@SuppressWarnings("unchecked")
+	private BulkRequestBuilder newBulkRequestBuilder()
+	{
+		final List<String> bulk = new ArrayList<>();
+		sentBulks.add(bulk);
+
+		final ListenableActionFuture<BulkResponse> future = mock(ListenableActionFuture.class);
+		when(future.actionGet()).thenAnswer(invocation -> responder.apply(ImmutableList.copyOf(bulk)));
+
+		final BulkRequestBuilder bulkRequestBuilder = mock(BulkRequestBuilder.class);
+		when(bulkRequestBuilder.execute()).thenReturn(future);
+		return bulkRequestBuilder;
+	}
+
+	private ESBulkRequestsExecutor newExecutor(final int bulkSize, final int maxRetries)
+	{
+		return ESBulkRequestsExecutor.builder()
+				.elasticsearchClient(elasticsearchClient)
+				.bulkSize(bulkSize)
+				.maxRetries(maxRetries)
+				.initialBackoffMillis(1)
+				.build();
+	}
+
+	private IESIndexerResult execute(final ESBulkRequestsExecutor executor, final String... requests)
+	{
+		// the "adder" records the request in the bulk which was created last
+		return executor.execute(Arrays.asList(requests).iterator(), (bulkRequest, request) -> sentBulks.get(sentBulks.size() - 1).add(request));
+	}
+
+	/**
+	 * @return a response in which the given <code>rejectedRequests</code> failed with {@link RestStatus#TOO_MANY_REQUESTS} and all other requests succeeded.
+	 */
+	private static BulkResponse response(final List<String> bulk, final Set<String> rejectedRequests)
+	{
+		final BulkItemResponse[] items = new BulkItemResponse[bulk.size()];
+		for (int itemId = 0; itemId < bulk.size(); itemId++)
+		{
+			final boolean rejected = rejectedRequests.contains(bulk.get(itemId));
+
+			final BulkItemResponse item = mock(BulkItemResponse.class);
+			when(item.getItemId()).thenReturn(itemId);
+			when(item.isFailed()).thenReturn(rejected);
+			if (rejected)
+			{
+				final BulkItemResponse.Failure failure = mock(BulkItemResponse.Failure.class);
+				when(failure.getStatus()).thenReturn(RestStatus.TOO_MANY_REQUESTS);
+				when(item.getFailure()).thenReturn(failure);
+			}
+			items[itemId] = item;
+		}
+		return new BulkResponse(items, 1);
+	}
+
+	@Test
+	public void splitsRequestsIntoBulksOfBulkSize()
+	{
+		responder = bulk -> response(bulk, ImmutableSet.of());
+
+		final IESIndexerResult result = execute(newExecutor(2, 3), "a", "b", "c", "d", "e");
+
+		assertEquals(ImmutableList.of(
+				ImmutableList.of("a", "b"),
+				ImmutableList.of("c", "d"),
+				ImmutableList.of("e")),
+				sentBulks);
+		assertEquals(5, result.getTotalCount());
+		assertEquals(0, result.getFailuresCount());
+	}
+
+	@Test
+	public void retriesOnlyTheRejectedRequests()
+	{
+		// the first bulk request is partially rejected, the retry succeeds
+		responder = bulk -> response(bulk, sentBulks.size() == 1 ? ImmutableSet.of("b") : ImmutableSet.of());
+
+		final IESIndexerResult result = execute(newExecutor(10, 3), "a", "b", "c");
+
+		assertEquals(ImmutableList.of(
+				ImmutableList.of("a", "b", "c"),
+				ImmutableList.of("b")),
+				sentBulks);
+		assertEquals(3, result.getTotalCount());
+		assertEquals(3, result.getOKCount());
+		assertEquals(0, result.getFailuresCount());
+	}
+
+	@Test
+	public void givesUpAfterMaxRetries()
+	{
+		// "b" is rejected every time
+		responder = bulk -> response(bulk, ImmutableSet.of("b"));
+
+		final IESIndexerResult result = execute(newExecutor(10, 2), "a", "b");
+
+		assertEquals(ImmutableList.of(
+				ImmutableList.of("a", "b"),
+				ImmutableList.of("b"),
+				ImmutableList.of("b")),
+				sentBulks);
+		assertEquals(2, result.getTotalCount());
+		assertEquals(1, result.getOKCount());
+		assertEquals(1, result.getFailuresCount());
+	}
+
+	@Test
+	public void retriesTheWholeBulkIfItWasRejected()
+	{
+		responder = bulk -> {
+			if (sentBulks.size() == 1)
+			{
+				throw new EsRejectedExecutionException("rejected");
+			}
+			return response(bulk, ImmutableSet.of());
+		};
+
+		final IESIndexerResult result = execute(newExecutor(10, 3), "a", "b");
+
+		assertEquals(ImmutableList.of(
+				ImmutableList.of("a", "b"),
+				ImmutableList.of("a", "b")),
+				sentBulks);
+		assertEquals(2, result.getOKCount());
+	}
+
+	@Test
+	public void rethrowsIfTheWholeBulkWasRejectedOnTheLastAttempt()
+	{
+		responder = bulk -> {
+			throw new EsRejectedExecutionException("rejected");
+		};
+
+		final ESBulkRequestsExecutor executor = newExecutor(10, 1);
+		assertThrows(EsRejectedExecutionException.class, () -> execute(executor, "a"));
+		assertEquals(2, sentBulks.size());
+	}
+}
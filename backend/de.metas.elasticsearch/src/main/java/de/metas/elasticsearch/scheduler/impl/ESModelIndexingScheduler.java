@@ -1,19 +1,33 @@
 package de.metas.elasticsearch.scheduler.impl;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
-import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.util.Env;
+import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 import de.metas.async.processor.IWorkPackageQueueFactory;
 import de.metas.elasticsearch.config.ESModelIndexerId;
 import de.metas.elasticsearch.scheduler.IESModelIndexingScheduler;
+import de.metas.logging.LogManager;
 import de.metas.util.Services;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -37,8 +51,21 @@ import lombok.NonNull;
  * #L%
  */
 
+/**
+ * Schedules the (re)indexing of models.
+ * <p>
+ * Instead of enqueuing one workpackage per model change, the changed models are coalesced:
+ * <ul>
+ * <li>the models of a transaction are collected and, right before the transaction is committed, one workpackage is enqueued per indexer and processor, with at most {@link #WORKPACKAGE_MAX_SIZE} models.
+ * Because the workpackages are enqueued within the transaction that changed the models, the scheduled changes are persisted together with the changes themselves and are not lost if the server stops.</li>
+ * <li>models which were changed in many transactions are indexed only once, because the workpackage processors skip the elements that are already scheduled in another workpackage that was not yet processed.</li>
+ * </ul>
+ * The workpackage processors send their models to elasticsearch in bulk requests.
+ */
 public class ESModelIndexingScheduler implements IESModelIndexingScheduler
 {
+	private static final Logger logger = LogManager.getLogger(ESModelIndexingScheduler.class);
+
 	@VisibleForTesting
 	static final String CLASSNAME_AddToIndexWorkpackageProcessor = "de.metas.elasticsearch.scheduler.async.AsyncAddToIndexProcessor";
 	@VisibleForTesting
@@ -46,34 +73,118 @@ public class ESModelIndexingScheduler implements IESModelIndexingScheduler
 
 	public static final String PARAMETERNAME_ModelIndexerId = "ModelIndexerId";
 
+	private static final String TRX_PROPERTY_ScheduledModels = ESModelIndexingScheduler.class.getName() + ".ScheduledModels";
+
+	@VisibleForTesting
+	static final int WORKPACKAGE_MAX_SIZE = 1000;
+
 	@Override
 	public final void addToIndex(final ESModelIndexerId modelIndexerId, final String modelTableName, final List<Integer> modelIds)
 	{
-		final List<TableRecordReference> models = TableRecordReference.ofRecordIds(modelTableName, modelIds);
-		schedule(CLASSNAME_AddToIndexWorkpackageProcessor, modelIndexerId, models);
+		schedule(CLASSNAME_AddToIndexWorkpackageProcessor, modelIndexerId, modelTableName, modelIds);
 	}
 
 	@Override
 	public final void removeToIndex(final ESModelIndexerId modelIndexerId, final String modelTableName, final List<Integer> modelIds)
 	{
-		final List<TableRecordReference> models = TableRecordReference.ofRecordIds(modelTableName, modelIds);
-		schedule(CLASSNAME_RemoveFromIndexWorkpackageProcessor, modelIndexerId, models);
+		schedule(CLASSNAME_RemoveFromIndexWorkpackageProcessor, modelIndexerId, modelTableName, modelIds);
 	}
 
-	private final void schedule(
+	private void schedule(
 			@NonNull final String workpackageProcessorClassname,
 			@NonNull final ESModelIndexerId modelIndexerId,
-			final List<? extends ITableRecordReference> models)
+			@NonNull final String modelTableName,
+			@NonNull final List<Integer> modelIds)
+	{
+		if (modelIds.isEmpty())
+		{
+			return;
+		}
+
+		final WorkpackageKey key = new WorkpackageKey(workpackageProcessorClassname, modelIndexerId);
+		final List<TableRecordReference> models = TableRecordReference.ofRecordIds(modelTableName, modelIds);
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isNull(trx))
+		{
+			enqueueWorkpackages(Env.getCtx(), key, models, ITrx.TRXNAME_None);
+			return;
+		}
+
+		final ScheduledModels scheduledModels = trx.getProperty(TRX_PROPERTY_ScheduledModels, () -> {
+			// NOTE: we take the context now, because the before-commit listener might be invoked in some other context
+			final ScheduledModels newScheduledModels = new ScheduledModels(Env.copyCtx(Env.getCtx()));
+
+			// Before committing the transaction, enqueue the collected models within that same transaction
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.BEFORE_COMMIT)
+					.registerHandlingMethod(innerTrx -> {
+						final ScheduledModels innerScheduledModels = innerTrx.setProperty(TRX_PROPERTY_ScheduledModels, null);
+						if (innerScheduledModels == null)
+						{
+							return;
+						}
+						innerScheduledModels.forEach((innerKey, innerModels) -> enqueueWorkpackages(innerScheduledModels.getCtx(), innerKey, innerModels, innerTrx.getTrxName()));
+					});
+
+			return newScheduledModels;
+		});
+		scheduledModels.add(key, models);
+	}
+
+	private void enqueueWorkpackages(
+			@NonNull final Properties ctx,
+			@NonNull final WorkpackageKey key,
+			@NonNull final Iterable<TableRecordReference> models,
+			@NonNull final String trxName)
+	{
+		for (final List<TableRecordReference> modelsChunk : Iterables.partition(models, WORKPACKAGE_MAX_SIZE))
+		{
+			Services.get(IWorkPackageQueueFactory.class)
+					.getQueueForEnqueuing(ctx, key.getWorkpackageProcessorClassname())
+					.newBlock()
+					.newWorkpackage()
+					.bindToTrxName(trxName)
+					.addElements(modelsChunk)
+					.parameter(PARAMETERNAME_ModelIndexerId, key.getModelIndexerId().toJson())
+					.build();
+
+			logger.debug("Enqueued {} models for {}", modelsChunk.size(), key);
+		}
+	}
+
+	@Value
+	private static class WorkpackageKey
 	{
-		final Properties ctx = Env.getCtx();
-
-		Services.get(IWorkPackageQueueFactory.class)
-				.getQueueForEnqueuing(ctx, workpackageProcessorClassname)
-				.newBlock()
-				.newWorkpackage()
-				.bindToThreadInheritedTrx()
-				.addElements(models)
-				.parameter(PARAMETERNAME_ModelIndexerId, modelIndexerId.toJson())
-				.build();
+		@NonNull
+		String workpackageProcessorClassname;
+		@NonNull
+		ESModelIndexerId modelIndexerId;
+	}
+
+	/**
+	 * The models which were scheduled within one transaction, deduplicated and grouped by {@link WorkpackageKey}.
+	 */
+	private static final class ScheduledModels
+	{
+		@Getter
+		private final Properties ctx;
+		private final Map<WorkpackageKey, Set<TableRecordReference>> modelsByKey = new LinkedHashMap<>();
+
+		private ScheduledModels(@NonNull final Properties ctx)
+		{
+			this.ctx = ctx;
+		}
+
+		public synchronized void add(@NonNull final WorkpackageKey key, @NonNull final List<TableRecordReference> models)
+		{
+			modelsByKey.computeIfAbsent(key, k -> new LinkedHashSet<>()).addAll(models);
+		}
+
+		public synchronized void forEach(@NonNull final BiConsumer<WorkpackageKey, List<TableRecordReference>> consumer)
+		{
+			modelsByKey.forEach((key, models) -> consumer.accept(key, ImmutableList.copyOf(models)));
+		}
 	}
 }
@@ -0,0 +1,276 @@
+package de.metas.migration.applier.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.migration.IScript;
+import lombok.NonNull;
+
+/**
+ * Decides if a script may be applied in parallel with scripts of other projects, and which tables it touches.
+ * <p>
+ * A script is parallelizable only if it is plain DML, i.e.
+ * <ul>
+ * <li>every statement is an {@code INSERT}, {@code UPDATE} or {@code DELETE}</li>
+ * <li>it is not touching the DDL helpers (e.g. {@code db_alter_table})</li>
+ * <li>it calls no functions except for a few well known side effect free ones (e.g. {@code TO_TIMESTAMP}), because any other function might touch any table.</li>
+ * </ul>
+ * Everything else (DDL, function definitions, {@code SELECT some_function()}, psql meta-commands etc) is a barrier and will be applied alone.
+ * <p>
+ * For a parallelizable script, all the tables that it writes or reads (including the ones in sub-selects) are returned,
+ * so that the caller can make sure to apply in parallel only scripts that are touching disjoint tables.
+ * Note that DB triggers and cascading deletes are not considered; a script that fails because of them is applied again after the scripts before it.
+ */
+final class ScriptParallelizationChecker
+{
+	private static final transient Logger logger = LoggerFactory.getLogger(ScriptParallelizationChecker.class);
+
+	private static final ImmutableSet<String> DML_KEYWORDS = ImmutableSet.of("insert", "update", "delete");
+
+	private static final Pattern PATTERN_DDL = Pattern.compile(
+			"\\b(create|alter|drop|truncate|grant|revoke|comment|vacuum|reindex|cluster|lock|db_alter_table|t_alter_column)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	/** Matches identifiers (optionally schema qualified) and every other non-whitespace character on its own */
+	private static final Pattern PATTERN_TOKEN = Pattern.compile("[a-z_][a-z0-9_]*(\\.[a-z_][a-z0-9_]*)*|\\S", Pattern.CASE_INSENSITIVE);
+
+	/** Keywords after which a table name follows */
+	private static final ImmutableSet<String> TABLE_KEYWORDS = ImmutableSet.of("from", "join", "into", "update");
+
+	/** Keywords which may be followed by an opening parenthesis without being a function call */
+	private static final ImmutableSet<String> KEYWORDS_BEFORE_PARENTHESIS = ImmutableSet.of(
+			"values", "in", "exists", "and", "or", "not", "where", "on", "select", "set", "from", "join", "as", "when", "then", "else", "case", "any", "all", "using", "returning", "by", "is", "like", "ilike");
+
+	/** Functions which are known not to touch any table */
+	private static final ImmutableSet<String> SIDE_EFFECT_FREE_FUNCTIONS = ImmutableSet.of(
+			"to_timestamp", "to_date", "now", "coalesce", "nullif", "lower", "upper", "trim", "replace", "substr", "substring", "length", "concat", "round", "abs", "greatest", "least", "count", "max", "min", "sum");
+
+	public Optional<ImmutableSet<String>> getTableNamesIfParallelizable(@NonNull final IScript script)
+	{
+		final String sql;
+		try
+		{
+			sql = new String(Files.readAllBytes(script.getLocalFile().toPath()), StandardCharsets.UTF_8);
+		}
+		catch (final IOException e)
+		{
+			logger.debug("Failed reading {}. Considering it not parallelizable", script, e);
+			return Optional.empty();
+		}
+
+		return getTableNamesIfParallelizable(sql);
+	}
+
+	@VisibleForTesting
+	static boolean isParallelizable(@NonNull final String sql)
+	{
+		return getTableNamesIfParallelizable(sql).isPresent();
+	}
+
+	/**
+	 * @return the lowercase names (without schema) of all tables which are touched by the given script, or empty if the script is not parallelizable.
+	 */
+	@VisibleForTesting
+	static Optional<ImmutableSet<String>> getTableNamesIfParallelizable(@NonNull final String sql)
+	{
+		final String code = stripCommentsAndLiterals(sql);
+		if (code == null)
+		{
+			return Optional.empty();
+		}
+
+		if (PATTERN_DDL.matcher(code).find())
+		{
+			return Optional.empty();
+		}
+
+		final ImmutableSet.Builder<String> tableNames = ImmutableSet.builder();
+		boolean hasStatements = false;
+		for (final String statement : code.split(";"))
+		{
+			final List<String> tokens = tokenize(statement);
+			if (tokens.isEmpty())
+			{
+				continue;
+			}
+
+			if (!DML_KEYWORDS.contains(tokens.get(0)))
+			{
+				return Optional.empty();
+			}
+			if (!collectTableNames(tokens, tableNames))
+			{
+				return Optional.empty();
+			}
+			hasStatements = true;
+		}
+
+		return hasStatements ? Optional.of(tableNames.build()) : Optional.empty();
+	}
+
+	private static List<String> tokenize(final String statement)
+	{
+		final List<String> tokens = new ArrayList<>();
+		final Matcher matcher = PATTERN_TOKEN.matcher(statement);
+		while (matcher.find())
+		{
+			tokens.add(matcher.group().toLowerCase(Locale.ROOT));
+		}
+		return tokens;
+	}
+
+	/**
+	 * Adds the tables which follow {@code FROM}, {@code JOIN}, {@code INTO} and {@code UPDATE} (including comma separated {@code FROM} lists) to the given builder.
+	 *
+	 * @return false if the statement calls a function which might have side effects
+	 */
+	private static boolean collectTableNames(final List<String> tokens, final ImmutableSet.Builder<String> tableNames)
+	{
+		for (int i = 0; i < tokens.size(); i++)
+		{
+			final String token = tokens.get(i);
+			final String nextToken = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+
+			if (TABLE_KEYWORDS.contains(token))
+			{
+				// e.g. FROM AD_Language l, AD_Element t
+				int j = i + 1;
+				while (j < tokens.size() && isIdentifier(tokens.get(j)))
+				{
+					tableNames.add(stripSchema(tokens.get(j)));
+					j++;
+
+					// skip the alias
+					if (j < tokens.size() && "as".equals(tokens.get(j)))
+					{
+						j++;
+					}
+					if (j < tokens.size() && isIdentifier(tokens.get(j)) && !isKeyword(tokens.get(j)))
+					{
+						j++;
+					}
+
+					if (!"from".equals(token) || j >= tokens.size() || !",".equals(tokens.get(j)))
+					{
+						break;
+					}
+					j++; // skip the comma
+				}
+			}
+			else if ("(".equals(nextToken)
+					&& isIdentifier(token)
+					&& !KEYWORDS_BEFORE_PARENTHESIS.contains(token)
+					&& !SIDE_EFFECT_FREE_FUNCTIONS.contains(token)
+					&& !(i > 0 && "into".equals(tokens.get(i - 1)))) // INSERT INTO table (columns)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isIdentifier(final String token)
+	{
+		final char firstChar = token.charAt(0);
+		return Character.isLetter(firstChar) || firstChar == '_';
+	}
+
+	private static boolean isKeyword(final String token)
+	{
+		return KEYWORDS_BEFORE_PARENTHESIS.contains(token) || TABLE_KEYWORDS.contains(token) || "values".equals(token) || "select".equals(token);
+	}
+
+	private static String stripSchema(final String tableName)
+	{
+		final int idx = tableName.lastIndexOf('.');
+		return idx < 0 ? tableName : tableName.substring(idx + 1);
+	}
+
+	/**
+	 * @return the SQL code without comments and with all string literals replaced by {@code ''},
+	 * or {@code null} if the script contains things we don't want to deal with (dollar quoting, psql meta-commands, unterminated literals or comments).
+	 */
+	private static String stripCommentsAndLiterals(final String sql)
+	{
+		final StringBuilder code = new StringBuilder(sql.length());
+		final int length = sql.length();
+		int i = 0;
+		while (i < length)
+		{
+			final char ch = sql.charAt(i);
+			final char next = i + 1 < length ? sql.charAt(i + 1) : 0;
+
+			if (ch == '-' && next == '-')
+			{
+				final int endOfLine = sql.indexOf('\n', i);
+				i = endOfLine < 0 ? length : endOfLine;
+			}
+			else if (ch == '/' && next == '*')
+			{
+				final int endOfComment = sql.indexOf("*/", i + 2);
+				if (endOfComment < 0)
+				{
+					return null;
+				}
+				code.append(' ');
+				i = endOfComment + 2;
+			}
+			else if (ch == '\'')
+			{
+				// skip the literal; a quote inside it is escaped by doubling it, which is handled as two adjacent literals
+				final int endOfLiteral = sql.indexOf('\'', i + 1);
+				if (endOfLiteral < 0)
+				{
+					return null;
+				}
+				code.append("''");
+				i = endOfLiteral + 1;
+			}
+			else if (ch == '$' || ch == '\\')
+			{
+				return null;
+			}
+			else
+			{
+				code.append(ch);
+				i++;
+			}
+		}
+		return code.toString();
+	}
+}
@@ -22,6 +22,8 @@ package de.metas.migration.applier.impl;
  * #L%
  */
 
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
 import de.metas.migration.IDatabase;
 import de.metas.migration.IScript;
 import de.metas.migration.IScriptsRegistry;
@@ -34,12 +36,23 @@ import de.metas.migration.exception.ScriptExecutionException;
 import de.metas.migration.executor.IScriptExecutor;
 import de.metas.migration.executor.IScriptExecutorFactory;
 import de.metas.migration.executor.impl.DefaultScriptExecutorFactory;
+import de.metas.migration.impl.SQLDatabase;
 import lombok.NonNull;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ScriptsApplier implements IScriptsApplier
 {
@@ -49,6 +62,16 @@ public class ScriptsApplier implements IScriptsApplier
 	@Setter
 	private boolean skipExecutingAfterScripts = false;
 
+	/**
+	 * How many scripts may be applied at the same time. If greater than one, consecutive plain DML scripts of different projects which are touching disjoint tables are applied in parallel.
+	 * The scripts are still recorded as applied in their original order.
+	 *
+	 * @see ScriptParallelizationChecker
+	 */
+	@Setter
+	private int parallelism = 1;
+	private final ScriptParallelizationChecker parallelizationChecker = new ScriptParallelizationChecker();
+
 	private IScriptsApplierListener listener = NullScriptsApplierListener.instance;
 	private IScriptExecutorFactory scriptExecutorFactory = new DefaultScriptExecutorFactory();
 
@@ -104,55 +127,93 @@ public class ScriptsApplier implements IScriptsApplier
 			throw new IllegalArgumentException("scriptsProvider shall not be null");
 		}
 
-		logger.info("Migrating {} using {}", targetDatabase, scriptsProvider);
+		logger.info("Migrating {} using {} (parallelism={})", targetDatabase, scriptsProvider, parallelism);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 
 		final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
+		final ExecutorService parallelExecutor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+		final List<IScript> parallelBatch = new ArrayList<>();
+		final Set<String> parallelBatchProjectNames = new HashSet<>();
+		final Set<String> parallelBatchTableNames = new HashSet<>();
 
-		final Iterator<IScript> scripts = scriptsProvider.getScripts();
-		int countSkippedFromLastAction = 0;
-		while (scripts.hasNext())
+		try
 		{
-			countAll++;
+			final Iterator<IScript> scripts = scriptsProvider.getScripts();
+			int countSkippedFromLastAction = 0;
+			while (scripts.hasNext())
+			{
+				countAll++;
 
-			final IScript script = scripts.next();
+				final IScript script = scripts.next();
 
-			if (scriptsRegistry.isApplied(script))
-			{
-				logger.debug("Script already applied: {}", script);
+				if (scriptsRegistry.isApplied(script))
+				{
+					logger.debug("Script already applied: {}", script);
+
+					countSkippedFromLastAction++;
+					continue;
+				}
+
+				if (countSkippedFromLastAction > 0)
+				{
+					logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
+				}
+				countSkippedFromLastAction = 0;
+
+				if (parallelExecutor == null)
+				{
+					recordResult(script, apply(script));
+					continue;
+				}
 
-				countSkippedFromLastAction++;
-				continue;
+				final Optional<ImmutableSet<String>> tableNames = parallelizationChecker.getTableNamesIfParallelizable(script);
+				if (!tableNames.isPresent())
+				{
+					applyInParallel(parallelBatch, parallelExecutor);
+					parallelBatchProjectNames.clear();
+					parallelBatchTableNames.clear();
+					recordResult(script, apply(script));
+					continue;
+				}
+
+				// scripts of the same project might depend on each other and scripts touching the same tables might conflict with each other
+				// => such a script starts a new batch
+				if (parallelBatchProjectNames.contains(script.getProjectName())
+						|| !Collections.disjoint(parallelBatchTableNames, tableNames.get())
+						|| parallelBatch.size() >= parallelism)
+				{
+					applyInParallel(parallelBatch, parallelExecutor);
+					parallelBatchProjectNames.clear();
+					parallelBatchTableNames.clear();
+				}
+				parallelBatchProjectNames.add(script.getProjectName());
+				parallelBatchTableNames.addAll(tableNames.get());
+				parallelBatch.add(script);
 			}
 
+			applyInParallel(parallelBatch, parallelExecutor);
+
+			//
 			if (countSkippedFromLastAction > 0)
 			{
 				logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
 			}
 			countSkippedFromLastAction = 0;
-
-			final ScriptApplyResult result = apply(script);
-			if (result == ScriptApplyResult.Applied)
-			{
-				countApplied++;
-				scriptsRegistry.markApplied(script);
-			}
-			else if (result == ScriptApplyResult.Ignored)
+		}
+		finally
+		{
+			if (parallelExecutor != null)
 			{
-				countIgnored++;
-				scriptsRegistry.markIgnored(script);
+				parallelExecutor.shutdownNow();
 			}
-			else
+			if (targetDatabase instanceof SQLDatabase)
 			{
-				throw new ScriptExecutionException("Invalid ScriptApplyResult: " + result);
+				SQLDatabase.cast(targetDatabase).closeIdleConnections();
 			}
 		}
 
-		//
-		if (countSkippedFromLastAction > 0)
-		{
-			logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
-		}
-		countSkippedFromLastAction = 0;
+		stopwatch.stop();
+		logger.info("Applied {} and ignored {} of {} scripts in {}", countApplied, countIgnored, countAll, stopwatch);
 
 		//
 		// Execute after migration scripts
@@ -167,6 +228,97 @@ public class ScriptsApplier implements IScriptsApplier
 		}
 	}
 
+	private void recordResult(@NonNull final IScript script, @NonNull final ScriptApplyResult result)
+	{
+		final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
+		if (result == ScriptApplyResult.Applied)
+		{
+			countApplied++;
+			scriptsRegistry.markApplied(script);
+		}
+		else if (result == ScriptApplyResult.Ignored)
+		{
+			countIgnored++;
+			scriptsRegistry.markIgnored(script);
+		}
+		else
+		{
+			throw new ScriptExecutionException("Invalid ScriptApplyResult: " + result);
+		}
+	}
+
+	/**
+	 * Executes the given scripts in parallel, then records them in their original order.
+	 * A script which failed is applied again, sequentially, after the scripts before it were recorded (it might have depended on one of them).
+	 * Only if that sequential run fails too, the listener is asked what to do.
+	 * <p>
+	 * The given list is cleared.
+	 */
+	private void applyInParallel(@NonNull final List<IScript> scripts, @NonNull final ExecutorService parallelExecutor)
+	{
+		if (scripts.isEmpty())
+		{
+			return;
+		}
+		if (scripts.size() == 1)
+		{
+			final IScript script = scripts.get(0);
+			recordResult(script, apply(script));
+			scripts.clear();
+			return;
+		}
+
+		final List<Future<Long>> futures = new ArrayList<>(scripts.size());
+		for (final IScript script : scripts)
+		{
+			final IScriptExecutor executor = getExecutor(script);
+			logger.info("Applying {} (in parallel)", script);
+
+			futures.add(parallelExecutor.submit(() -> {
+				final long startTS = System.currentTimeMillis();
+				executor.execute(script);
+				return System.currentTimeMillis() - startTS;
+			}));
+		}
+
+		for (int i = 0; i < scripts.size(); i++)
+		{
+			final IScript script = scripts.get(i);
+
+			Long durationMillis;
+			try
+			{
+				durationMillis = futures.get(i).get();
+			}
+			catch (final ExecutionException e)
+			{
+				logger.info("... Failed while applied in parallel; applying it again alone: {}", script, e.getCause());
+				durationMillis = null;
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new ScriptExecutionException("Interrupted while applying scripts in parallel", e)
+						.setScript(script)
+						.setDatabase(targetDatabase);
+			}
+
+			if (durationMillis != null)
+			{
+				logger.info("... Applied {} in {}ms", script, durationMillis);
+				script.setLastDurationMillis(durationMillis);
+				getListener().onScriptApplied(script);
+				recordResult(script, ScriptApplyResult.Applied);
+			}
+			else
+			{
+				recordResult(script, apply(script));
+			}
+		}
+
+		scripts.clear();
+	}
+
 	private ScriptApplyResult apply(@NonNull final IScript script)
 	{
 		final IScriptsApplierListener listener = getListener();
@@ -0,0 +1,229 @@
+package de.metas.migration.executor.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.executor.IScriptExecutor;
+import de.metas.migration.impl.AnonymousScript;
+import de.metas.migration.impl.SQLDatabase;
+import de.metas.migration.impl.SQLHelper;
+import lombok.NonNull;
+
+/**
+ * Executes SQL scripts over a pooled JDBC connection (see {@link SQLDatabase#borrowConnection()}), instead of starting one {@code psql} process per script.
+ * <p>
+ * Like {@link PostgresqlNativeExecutor}, each script is executed in one single transaction and the execution stops on the first error.
+ * Scripts which contain psql meta-commands (e.g. {@code \set}) can't be sent over JDBC, so they are delegated to {@link PostgresqlNativeExecutor}.
+ * <p>
+ * Instances are thread-safe, so the same script can be applied in parallel with others.
+ */
+public class PostgresqlJdbcExecutor implements IScriptExecutor
+{
+	private static final transient Logger logger = LoggerFactory.getLogger(PostgresqlJdbcExecutor.class);
+
+	private static final String AFTER_MIGRATION_FUNC_PATTERN = "after_migration%";
+
+	private static final Pattern PATTERN_PsqlMetaCommand = Pattern.compile("^\\s*\\\\", Pattern.MULTILINE);
+
+	private final SQLDatabase database;
+	private final SQLHelper sqlHelper;
+
+	// NOTE: let the constructor signature as is now
+	// because de.metas.migration.executor.impl.DefaultScriptExecutorFactory.createScriptExecutor(IDatabase, IScript) relies on this
+	public PostgresqlJdbcExecutor(@NonNull final IDatabase database)
+	{
+		this.database = SQLDatabase.cast(database);
+		this.sqlHelper = new SQLHelper(this.database);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [database=" + database + "]";
+	}
+
+	@Override
+	public void execute(@NonNull final IScript script)
+	{
+		final String sql = readScript(script);
+		if (PATTERN_PsqlMetaCommand.matcher(sql).find())
+		{
+			logger.debug("Script {} contains psql meta-commands; executing it with psql", script);
+			new PostgresqlNativeExecutor(database).execute(script);
+			return;
+		}
+
+		executeInTransaction(script, sql);
+	}
+
+	private String readScript(final IScript script)
+	{
+		try
+		{
+			return new String(Files.readAllBytes(script.getLocalFile().toPath()), StandardCharsets.UTF_8);
+		}
+		catch (final IOException e)
+		{
+			throw new ScriptExecutionException("Error while reading script", e)
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this);
+		}
+	}
+
+	private void executeInTransaction(final IScript script, final String sql)
+	{
+		final Connection conn = database.borrowConnection();
+		boolean connectionUsable = true;
+		Statement stmt = null;
+		try
+		{
+			conn.setAutoCommit(false);
+
+			stmt = conn.createStatement();
+			stmt.execute(sql);
+			final ImmutableList<String> warnings = extractWarnings(stmt.getWarnings());
+
+			conn.commit();
+
+			if (!warnings.isEmpty())
+			{
+				logger.info("Script {} reported:\n{}", script, String.join("\n", warnings));
+			}
+		}
+		catch (final SQLException e)
+		{
+			connectionUsable = rollback(conn);
+
+			throw new ScriptExecutionException("Script execution failed", e)
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this)
+					.addParameter("SQLState", e.getSQLState())
+					.setLog(ImmutableList.of(e.getLocalizedMessage()));
+		}
+		finally
+		{
+			sqlHelper.close(stmt);
+			connectionUsable = connectionUsable && restoreAutoCommit(conn);
+
+			if (connectionUsable)
+			{
+				database.releaseConnection(conn);
+			}
+			else
+			{
+				sqlHelper.close(conn);
+			}
+		}
+	}
+
+	private static boolean rollback(final Connection conn)
+	{
+		try
+		{
+			conn.rollback();
+			return true;
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed rolling back the connection. Discarding it.", e);
+			return false;
+		}
+	}
+
+	private static boolean restoreAutoCommit(final Connection conn)
+	{
+		try
+		{
+			conn.setAutoCommit(true);
+			return true;
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed restoring the connection's autocommit. Discarding it.", e);
+			return false;
+		}
+	}
+
+	private static ImmutableList<String> extractWarnings(final SQLWarning firstWarning)
+	{
+		final List<String> warnings = new ArrayList<>();
+		for (SQLWarning warning = firstWarning; warning != null; warning = warning.getNextWarning())
+		{
+			warnings.add(warning.getLocalizedMessage());
+		}
+		return ImmutableList.copyOf(warnings);
+	}
+
+	@Override
+	public void executeAfterScripts()
+	{
+		final Set<String> functionNames = sqlHelper.getDBFunctionsMatchingPattern(AFTER_MIGRATION_FUNC_PATTERN)
+				.stream()
+				.sorted()
+				.collect(ImmutableSet.toImmutableSet());
+
+		if (functionNames.isEmpty())
+		{
+			logger.warn("Skip executing after migration scripts because no function matching pattern '{}' was found in {}", AFTER_MIGRATION_FUNC_PATTERN, database);
+			return;
+		}
+
+		final String sql = functionNames.stream()
+				.map(functionName -> "select " + functionName + "();\n")
+				.collect(Collectors.joining());
+		final AnonymousScript script = AnonymousScript.builder()
+				.fileName("after_migration.sql")
+				.scriptContent(sql)
+				.build();
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		executeInTransaction(script, sql);
+		stopwatch.stop();
+
+		logger.info("Executed {} in {}", functionNames, stopwatch);
+	}
+}
@@ -26,6 +26,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 import de.metas.migration.IDatabase;
 import de.metas.migration.IScriptsRegistry;
@@ -50,6 +52,9 @@ public class SQLDatabase implements IDatabase
 
 	private Connection conn;
 
+	/** Connections used by executors which are running scripts; kept separately from {@link #conn}, which is used by the scripts registry */
+	private final Deque<Connection> idleConnections = new ConcurrentLinkedDeque<>();
+
 	public SQLDatabase(final String dbType, final String dbHostname, final String dbPort, final String dbName, final String dbUser, final String dbPassword)
 	{
 		this.dbType = dbType;
@@ -181,4 +186,73 @@ public class SQLDatabase implements IDatabase
 
 		return conn;
 	}
+
+	/**
+	 * Gets a pooled connection which is used by only one thread at a time, i.e. not the one returned by {@link #getConnection()}.
+	 * The caller is responsible for giving it back using {@link #releaseConnection(Connection)}.
+	 */
+	public Connection borrowConnection()
+	{
+		Connection pooledConn;
+		while ((pooledConn = idleConnections.pollFirst()) != null)
+		{
+			try
+			{
+				if (!pooledConn.isClosed())
+				{
+					return pooledConn;
+				}
+			}
+			catch (final SQLException e)
+			{
+				// connection is broken => try the next one
+			}
+		}
+
+		try
+		{
+			final ISQLDatabaseDriver dbDriver = SQLDatabaseDriverFactory.get().getSQLDatabaseDriver(dbType);
+			if (dbDriver == null)
+			{
+				throw new IllegalStateException("No driver found for database type: " + dbType);
+			}
+
+			final Connection newConn = dbDriver.getConnection(dbHostname, dbPort, dbName, dbUser, dbPassword);
+			newConn.setAutoCommit(true);
+			return newConn;
+		}
+		catch (final SQLException e)
+		{
+			throw new RuntimeException("Failed to get a JDBC connection. Please check your config for : " + this, e);
+		}
+	}
+
+	public void releaseConnection(final Connection pooledConn)
+	{
+		if (pooledConn == null)
+		{
+			return;
+		}
+
+		idleConnections.addFirst(pooledConn);
+	}
+
+	/**
+	 * Closes the pooled connections, see {@link #borrowConnection()}.
+	 */
+	public void closeIdleConnections()
+	{
+		Connection pooledConn;
+		while ((pooledConn = idleConnections.pollFirst()) != null)
+		{
+			try
+			{
+				pooledConn.close();
+			}
+			catch (final SQLException e)
+			{
+				// nothing to do
+			}
+		}
+	}
 }
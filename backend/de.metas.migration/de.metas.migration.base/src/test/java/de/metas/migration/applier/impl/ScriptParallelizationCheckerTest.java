@@ -0,0 +1,96 @@
+package de.metas.migration.applier.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ScriptParallelizationCheckerTest
+{
+	@Test
+	public void plainDML()
+	{
+		final String sql = "-- 2021-03-01T10:00:00.000Z\n"
+				+ "-- URL zum Konzept\n"
+				+ "INSERT INTO AD_Element (AD_Client_ID,AD_Element_ID,Name) VALUES (0,578000,'Create; drop it')\n"
+				+ ";\n"
+				+ "/* comment; with DDL words: ALTER TABLE */\n"
+				+ "UPDATE AD_Element SET Name='It''s done' WHERE AD_Element_ID=578000\n"
+				+ ";\n"
+				+ "delete from AD_Element_Trl where AD_Element_ID=578000;\n";
+
+		assertThat(ScriptParallelizationChecker.isParallelizable(sql), is(true));
+	}
+
+	@Test
+	public void ddl()
+	{
+		assertThat(ScriptParallelizationChecker.isParallelizable("ALTER TABLE C_Order ADD COLUMN Foo numeric(10);"), is(false));
+		assertThat(ScriptParallelizationChecker.isParallelizable("/* DDL */ SELECT public.db_alter_table('C_Order','ALTER TABLE public.C_Order ADD COLUMN Foo NUMERIC(10)');"), is(false));
+		assertThat(ScriptParallelizationChecker.isParallelizable("INSERT INTO t_alter_column values('c_order','Foo','NUMERIC(10)',null,null);"), is(false));
+	}
+
+	@Test
+	public void functionsAndSelects()
+	{
+		assertThat(ScriptParallelizationChecker.isParallelizable("SELECT update_trl_tables_on_ad_element_change(578000, 'de_DE');"), is(false));
+		assertThat(ScriptParallelizationChecker.isParallelizable("CREATE OR REPLACE FUNCTION f() RETURNS void AS $$ BEGIN END; $$ LANGUAGE plpgsql;"), is(false));
+	}
+
+	@Test
+	public void psqlMetaCommands()
+	{
+		assertThat(ScriptParallelizationChecker.isParallelizable("\\set ON_ERROR_STOP 1\nUPDATE AD_Element SET Name='x';"), is(false));
+	}
+
+	@Test
+	public void emptyScript()
+	{
+		assertThat(ScriptParallelizationChecker.isParallelizable("-- nothing to do\n"), is(false));
+	}
+
+	@Test
+	public void nonTrivialFunctionCalls()
+	{
+		assertThat(ScriptParallelizationChecker.isParallelizable("UPDATE C_Order SET DocumentNo=nextDocumentNo(C_DocType_ID);"), is(false));
+		assertThat(ScriptParallelizationChecker.isParallelizable("INSERT INTO C_Order (C_Order_ID) SELECT C_Order_ID FROM some_table_function();"), is(false));
+		assertThat(ScriptParallelizationChecker.isParallelizable("UPDATE C_Order SET Updated=TO_TIMESTAMP('2021-03-01 10:00:00','YYYY-MM-DD HH24:MI:SS') WHERE C_Order_ID IN (1,2);"), is(true));
+	}
+
+	@Test
+	public void tableNames()
+	{
+		final String sql = "INSERT INTO AD_Element_Trl (AD_Language,AD_Element_ID,Name) SELECT l.AD_Language, t.AD_Element_ID, t.Name FROM AD_Language l, public.AD_Element t"
+				+ " WHERE NOT EXISTS (SELECT 1 FROM AD_Element_Trl tt WHERE tt.AD_Element_ID=t.AD_Element_ID)\n"
+				+ ";\n"
+				+ "UPDATE AD_Column SET Name='x' WHERE AD_Element_ID=(SELECT AD_Element_ID FROM AD_Element e JOIN AD_Table tbl ON tbl.AD_Table_ID=e.AD_Table_ID);\n"
+				+ "DELETE FROM AD_Field WHERE AD_Field_ID=1;\n";
+
+		assertThat(ScriptParallelizationChecker.getTableNamesIfParallelizable(sql).get(),
+				is(ImmutableSet.of("ad_element_trl", "ad_language", "ad_element", "ad_column", "ad_table", "ad_field")));
+	}
+}
@@ -0,0 +1,319 @@
+package de.metas.migration.applier.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.IScriptsRegistry;
+import de.metas.migration.ScriptType;
+import de.metas.migration.applier.IScriptsApplierListener;
+import de.metas.migration.applier.IScriptsProvider;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.executor.IScriptExecutor;
+import de.metas.migration.executor.IScriptExecutorFactory;
+import de.metas.migration.impl.LocalScript;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests {@link ScriptsApplier} in parallel mode, with a fake executor which just records what is executed.
+ */
+public class ScriptsApplierTest
+{
+	private final List<String> appliedScriptNames = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicInteger runningCount = new AtomicInteger();
+	private final AtomicInteger maxRunningCount = new AtomicInteger();
+	private final Set<String> scriptNamesToFailOnce = Collections.synchronizedSet(new HashSet<>());
+
+	/** If set, every executing script waits for the others at this barrier, so the test fails if they are not executed at the same time. */
+	private CyclicBarrier barrier;
+
+	private ScriptsApplier scriptsApplier;
+
+	@Before
+	public void init()
+	{
+		final IScriptsRegistry scriptsRegistry = new IScriptsRegistry()
+		{
+			@Override
+			public boolean isApplied(final IScript script)
+			{
+				return false;
+			}
+
+			@Override
+			public void markApplied(final IScript script)
+			{
+				appliedScriptNames.add(script.getFileName());
+			}
+
+			@Override
+			public void markIgnored(final IScript script)
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		scriptsApplier = new ScriptsApplier(new TestDatabase(scriptsRegistry));
+		scriptsApplier.setSkipExecutingAfterScripts(true);
+		scriptsApplier.setParallelism(4);
+		scriptsApplier.setScriptExecutorFactory(new TestScriptExecutorFactory());
+		scriptsApplier.setListener(new IScriptsApplierListener()
+		{
+			@Override
+			public void onScriptApplied(final IScript script)
+			{
+			}
+
+			@Override
+			public ScriptFailedResolution onScriptFailed(final IScript script, final ScriptExecutionException e)
+			{
+				return ScriptFailedResolution.Fail;
+			}
+		});
+	}
+
+	private static IScript script(final String projectName, final String fileName, final String sql)
+	{
+		return new LocalScript(projectName, fileName, new ByteArrayInputStream(sql.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private void apply(final IScript... scripts)
+	{
+		final List<IScript> scriptsList = ImmutableList.copyOf(scripts);
+		final IScriptsProvider scriptsProvider = scriptsList::iterator;
+		scriptsApplier.apply(scriptsProvider);
+	}
+
+	@Test
+	public void disjointScriptsOfDifferentProjects_areAppliedInParallel_andRecordedInOrder()
+	{
+		barrier = new CyclicBarrier(3);
+
+		apply(
+				script("10-de.metas.adempiere", "5581001_sys_a.sql", "UPDATE AD_Element SET Name='a' WHERE AD_Element_ID=1;"),
+				script("20-de.metas.business", "5581002_sys_b.sql", "UPDATE C_Order SET Description='b' WHERE C_Order_ID=1;"),
+				script("30-de.metas.handlingunits", "5581003_sys_c.sql", "DELETE FROM M_HU WHERE M_HU_ID=1;"));
+
+		assertThat(maxRunningCount.get(), is(3));
+		assertThat(appliedScriptNames, is(ImmutableList.of("5581001_sys_a.sql", "5581002_sys_b.sql", "5581003_sys_c.sql")));
+	}
+
+	@Test
+	public void scriptsTouchingTheSameTable_areNotAppliedInParallel()
+	{
+		apply(
+				script("10-de.metas.adempiere", "5581001_sys_a.sql", "INSERT INTO AD_Element (AD_Element_ID,Name) VALUES (1,'a');"),
+				script("20-de.metas.business", "5581002_sys_b.sql", "INSERT INTO AD_Element_Trl (AD_Element_ID,Name) SELECT AD_Element_ID,Name FROM AD_Element WHERE AD_Element_ID=1;"));
+
+		assertThat(maxRunningCount.get(), is(1));
+		assertThat(appliedScriptNames, is(ImmutableList.of("5581001_sys_a.sql", "5581002_sys_b.sql")));
+	}
+
+	@Test
+	public void scriptsOfTheSameProject_areNotAppliedInParallel()
+	{
+		apply(
+				script("10-de.metas.adempiere", "5581001_sys_a.sql", "UPDATE AD_Element SET Name='a' WHERE AD_Element_ID=1;"),
+				script("10-de.metas.adempiere", "5581002_sys_b.sql", "UPDATE AD_Column SET Name='b' WHERE AD_Column_ID=1;"));
+
+		assertThat(maxRunningCount.get(), is(1));
+		assertThat(appliedScriptNames, is(ImmutableList.of("5581001_sys_a.sql", "5581002_sys_b.sql")));
+	}
+
+	@Test
+	public void ddlScript_isABarrier()
+	{
+		apply(
+				script("10-de.metas.adempiere", "5581001_sys_a.sql", "UPDATE AD_Element SET Name='a' WHERE AD_Element_ID=1;"),
+				script("20-de.metas.business", "5581002_sys_b.sql", "ALTER TABLE C_Order ADD COLUMN Foo numeric(10);"),
+				script("30-de.metas.handlingunits", "5581003_sys_c.sql", "DELETE FROM M_HU WHERE M_HU_ID=1;"));
+
+		assertThat(maxRunningCount.get(), is(1));
+		assertThat(appliedScriptNames, is(ImmutableList.of("5581001_sys_a.sql", "5581002_sys_b.sql", "5581003_sys_c.sql")));
+	}
+
+	@Test
+	public void scriptWhichFailedInParallel_isAppliedAgainAlone()
+	{
+		scriptNamesToFailOnce.add("5581002_sys_b.sql");
+
+		apply(
+				script("10-de.metas.adempiere", "5581001_sys_a.sql", "UPDATE AD_Element SET Name='a' WHERE AD_Element_ID=1;"),
+				script("20-de.metas.business", "5581002_sys_b.sql", "UPDATE C_Order SET Description='b' WHERE C_Order_ID=1;"));
+
+		assertThat(scriptNamesToFailOnce.isEmpty(), is(true));
+		assertThat(appliedScriptNames, is(ImmutableList.of("5581001_sys_a.sql", "5581002_sys_b.sql")));
+	}
+
+	private void execute(final IScript script)
+	{
+		final int running = runningCount.incrementAndGet();
+		maxRunningCount.accumulateAndGet(running, Math::max);
+		try
+		{
+			if (barrier != null)
+			{
+				barrier.await(10, TimeUnit.SECONDS);
+			}
+			else
+			{
+				Thread.sleep(50); // give other scripts the chance to run at the same time, if they (wrongly) could
+			}
+		}
+		catch (final Exception e)
+		{
+			throw new ScriptExecutionException("Scripts were not executed in parallel", e);
+		}
+		finally
+		{
+			runningCount.decrementAndGet();
+		}
+
+		if (scriptNamesToFailOnce.remove(script.getFileName()))
+		{
+			throw new ScriptExecutionException("Failing once: " + script);
+		}
+	}
+
+	private final class TestScriptExecutorFactory implements IScriptExecutorFactory
+	{
+		@Override
+		public void registerScriptExecutorClass(final String dbType, final ScriptType scriptType, final Class<? extends IScriptExecutor> executorClass)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void removeAllScriptExecutorClasses()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Set<ScriptType> getSupportedScriptTypes()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IScriptExecutor createScriptExecutor(final IDatabase targetDatabase, final IScript script)
+		{
+			return ScriptsApplierTest.this::execute;
+		}
+
+		@Override
+		public IScriptExecutor createScriptExecutor(final IDatabase targetDatabase)
+		{
+			return ScriptsApplierTest.this::execute;
+		}
+
+		@Override
+		public void setDryRunMode(final boolean dryRunMode)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isDryRunMode()
+		{
+			return false;
+		}
+	}
+
+	private static final class TestDatabase implements IDatabase
+	{
+		private final IScriptsRegistry scriptsRegistry;
+
+		private TestDatabase(final IScriptsRegistry scriptsRegistry)
+		{
+			this.scriptsRegistry = scriptsRegistry;
+		}
+
+		@Override
+		public String getDbType()
+		{
+			return "postgresql";
+		}
+
+		@Override
+		public String getDbHostname()
+		{
+			return "localhost";
+		}
+
+		@Override
+		public String getDbPort()
+		{
+			return "5432";
+		}
+
+		@Override
+		public String getDbName()
+		{
+			return "test";
+		}
+
+		@Override
+		public String getDbUser()
+		{
+			return "test";
+		}
+
+		@Override
+		public String getDbPassword()
+		{
+			return PASSWORD_NA;
+		}
+
+		@Override
+		public Connection getConnection()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IScriptsRegistry getScriptsRegistry()
+		{
+			return scriptsRegistry;
+		}
+	}
+}
@@ -63,6 +63,8 @@ class CommandlineParams
 	public static final String OPTION_DoNotFailIfRolloutIsGreaterThanDB = "i";
 
 	public static final String OPTION_LONG_AddSqlDir = "add-sql-dir";
+	public static final String OPTION_LONG_UseJdbcExecutor = "jdbc";
+	public static final String OPTION_LONG_Parallelism = "parallel";
 
 	private final Options options;
 
@@ -167,6 +169,25 @@ class CommandlineParams
 			options.addOption(option);
 		}
 
+		{
+			final Option option = new Option(/* opt */null, "Execute the SQL scripts over JDBC instead of starting one psql process per script."
+					+ " Scripts containing psql meta-commands are still executed with psql.");
+			option.setLongOpt(OPTION_LONG_UseJdbcExecutor);
+			option.setArgs(0);
+			option.setRequired(false);
+			options.addOption(option);
+		}
+
+		{
+			final Option option = new Option(/* opt */null, "Apply up to the given number of plain DML scripts (INSERT/UPDATE/DELETE only) of different projects which touch disjoint tables in parallel."
+					+ " Scripts are still recorded in their original order. Default is 1, i.e. strictly sequential.");
+			option.setLongOpt(OPTION_LONG_Parallelism);
+			option.setArgs(1);
+			option.setArgName("Parallelism");
+			option.setRequired(false);
+			options.addOption(option);
+		}
+
 		return options;
 	}
 
@@ -238,6 +259,24 @@ class CommandlineParams
 
 		configBuilder.additionalSqlDirs(extractAdditionalSqlDirs(cmd));
 
+		if (cmd.hasOption(OPTION_LONG_UseJdbcExecutor))
+		{
+			logger.info("Will execute the scripts over JDBC");
+			configBuilder.useJdbcExecutor(true);
+		}
+		if (cmd.hasOption(OPTION_LONG_Parallelism))
+		{
+			final String parallelismStr = cmd.getOptionValue(OPTION_LONG_Parallelism);
+			try
+			{
+				configBuilder.parallelism(Math.max(1, Integer.parseInt(parallelismStr.trim())));
+			}
+			catch (final NumberFormatException ex)
+			{
+				throw new IllegalArgumentException("Invalid " + OPTION_LONG_Parallelism + " argument : " + parallelismStr, ex);
+			}
+		}
+
 		final RolloutMigrationConfig config = configBuilder.canRun(true).build();
 		logger.info("config={}", config);
 
@@ -99,4 +99,16 @@ class RolloutMigrationConfig
 	@Default
 	@NonNull
 	ImmutableSet<IFileRef> additionalSqlDirs = ImmutableSet.of();
+
+	/**
+	 * If true, the SQL scripts are executed over JDBC instead of starting one psql process per script.
+	 */
+	@Default
+	boolean useJdbcExecutor = false;
+
+	/**
+	 * How many plain DML scripts of different projects may be applied at the same time. {@code 1} means strictly sequential.
+	 */
+	@Default
+	int parallelism = 1;
 }
@@ -0,0 +1,139 @@
+package de.metas.monitoring.adapter.metrics;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Counts durations into fixed buckets.
+ * <p>
+ * Recording a duration doesn't allocate and doesn't lock; concurrent recorders only contend on the {@link LongAdder} cells.
+ */
+public final class DurationHistogram
+{
+	/**
+	 * Upper bounds (inclusive) of the buckets, in nanoseconds. There is one more bucket for everything above the last bound.
+	 */
+	static final long[] BUCKET_UPPER_BOUNDS_NANOS = {
+			TimeUnit.MICROSECONDS.toNanos(100),
+			TimeUnit.MICROSECONDS.toNanos(250),
+			TimeUnit.MICROSECONDS.toNanos(500),
+			TimeUnit.MILLISECONDS.toNanos(1),
+			TimeUnit.MILLISECONDS.toNanos(2) + TimeUnit.MICROSECONDS.toNanos(500),
+			TimeUnit.MILLISECONDS.toNanos(5),
+			TimeUnit.MILLISECONDS.toNanos(10),
+			TimeUnit.MILLISECONDS.toNanos(25),
+			TimeUnit.MILLISECONDS.toNanos(50),
+			TimeUnit.MILLISECONDS.toNanos(100),
+			TimeUnit.MILLISECONDS.toNanos(250),
+			TimeUnit.MILLISECONDS.toNanos(500),
+			TimeUnit.SECONDS.toNanos(1),
+			TimeUnit.MILLISECONDS.toNanos(2500),
+			TimeUnit.SECONDS.toNanos(5),
+			TimeUnit.SECONDS.toNanos(10),
+			TimeUnit.SECONDS.toNanos(30),
+			TimeUnit.SECONDS.toNanos(60)
+	};
+
+	@Getter
+	private final String type;
+	@Getter
+	@Nullable
+	private final String subType;
+	@Getter
+	private final String name;
+
+	private final LongAdder[] bucketCounts;
+	private final LongAdder errorsCount = new LongAdder();
+	private final LongAdder sumNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+	DurationHistogram(
+			@NonNull final String type,
+			@Nullable final String subType,
+			@NonNull final String name)
+	{
+		this.type = type;
+		this.subType = subType;
+		this.name = name;
+
+		bucketCounts = new LongAdder[BUCKET_UPPER_BOUNDS_NANOS.length + 1];
+		for (int i = 0; i < bucketCounts.length; i++)
+		{
+			bucketCounts[i] = new LongAdder();
+		}
+	}
+
+	public void record(final long durationNanos, final boolean error)
+	{
+		final long durationNanosNorm = Math.max(durationNanos, 0);
+
+		bucketCounts[getBucketIndex(durationNanosNorm)].increment();
+		sumNanos.add(durationNanosNorm);
+		maxNanos.accumulate(durationNanosNorm);
+		if (error)
+		{
+			errorsCount.increment();
+		}
+	}
+
+	static int getBucketIndex(final long durationNanos)
+	{
+		final int idx = Arrays.binarySearch(BUCKET_UPPER_BOUNDS_NANOS, durationNanos);
+		return idx >= 0 ? idx : -idx - 1;
+	}
+
+	/**
+	 * The values are read one after the other, so a snapshot which is taken while durations are recorded might be slightly inconsistent.
+	 * Only the count is always consistent with the buckets, because it's the sum of the bucket counts which were read.
+	 */
+	public DurationHistogramSnapshot snapshot()
+	{
+		final long[] bucketCountsSnapshot = new long[bucketCounts.length];
+		long count = 0;
+		for (int i = 0; i < bucketCounts.length; i++)
+		{
+			bucketCountsSnapshot[i] = bucketCounts[i].sum();
+			count += bucketCountsSnapshot[i];
+		}
+
+		return DurationHistogramSnapshot.builder()
+				.type(type)
+				.subType(subType)
+				.name(name)
+				.count(count)
+				.errorsCount(errorsCount.sum())
+				.sumNanos(sumNanos.sum())
+				.maxNanos(maxNanos.get())
+				.bucketCounts(bucketCountsSnapshot)
+				.build();
+	}
+}
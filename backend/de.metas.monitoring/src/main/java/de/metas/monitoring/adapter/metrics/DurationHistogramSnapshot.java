@@ -0,0 +1,100 @@
+package de.metas.monitoring.adapter.metrics;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import javax.annotation.Nullable;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+@Value
+@Builder
+public class DurationHistogramSnapshot
+{
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	@NonNull
+	String type;
+	@Nullable
+	String subType;
+	@NonNull
+	String name;
+
+	long count;
+	long errorsCount;
+	long sumNanos;
+	long maxNanos;
+
+	/**
+	 * Count per bucket (not cumulative), see {@link DurationHistogram#BUCKET_UPPER_BOUNDS_NANOS}
+	 */
+	@NonNull
+	long[] bucketCounts;
+
+	public double getAvgMillis()
+	{
+		return count > 0 ? sumNanos / NANOS_PER_MILLI / count : 0;
+	}
+
+	public double getMaxMillis()
+	{
+		return maxNanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @param percentile e.g. 0.95
+	 * @return upper bound of the bucket which contains the given percentile; for the last bucket, the max duration.
+	 */
+	public double getPercentileMillis(final double percentile)
+	{
+		if (count <= 0)
+		{
+			return 0;
+		}
+
+		final long rank = (long)Math.ceil(percentile * count);
+		long cumulativeCount = 0;
+		for (int i = 0; i < bucketCounts.length; i++)
+		{
+			cumulativeCount += bucketCounts[i];
+			if (cumulativeCount >= rank)
+			{
+				if (i >= DurationHistogram.BUCKET_UPPER_BOUNDS_NANOS.length)
+				{
+					break;
+				}
+				return Math.min(DurationHistogram.BUCKET_UPPER_BOUNDS_NANOS[i], maxNanos) / NANOS_PER_MILLI;
+			}
+		}
+
+		return getMaxMillis();
+	}
+
+	public String toSummaryString()
+	{
+		return String.format("%s/%s %s: count=%d, errors=%d, avg=%.3fms, p50<=%.3fms, p95<=%.3fms, p99<=%.3fms, max=%.3fms",
+				type, subType, name, count, errorsCount,
+				getAvgMillis(), getPercentileMillis(0.50), getPercentileMillis(0.95), getPercentileMillis(0.99), getMaxMillis());
+	}
+}
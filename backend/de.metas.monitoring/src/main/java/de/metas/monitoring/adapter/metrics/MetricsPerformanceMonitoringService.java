@@ -0,0 +1,116 @@
+package de.metas.monitoring.adapter.metrics;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import de.metas.monitoring.adapter.PerformanceMonitoringService;
+import de.metas.monitoring.adapter.apm.APMPerformanceMonitoringService;
+import lombok.NonNull;
+
+/**
+ * Records the duration of each span and transaction into the {@link PerformanceMetricsRegistry}, and then delegates to the APM service.
+ * This way we have metrics also when no APM agent is attached.
+ * <p>
+ * Can be switched off by setting the property {@code metasfresh.monitoring.metrics.enabled=false}.
+ */
+@Service
+@Primary
+public class MetricsPerformanceMonitoringService implements PerformanceMonitoringService
+{
+	private final PerformanceMonitoringService delegate;
+	private final PerformanceMetricsRegistry registry;
+	private final boolean enabled;
+
+	@Autowired
+	public MetricsPerformanceMonitoringService(
+			@NonNull final APMPerformanceMonitoringService apmService,
+			@NonNull final PerformanceMetricsRegistry registry,
+			@Value("${metasfresh.monitoring.metrics.enabled:true}") final boolean enabled)
+	{
+		this((PerformanceMonitoringService)apmService, registry, enabled);
+	}
+
+	MetricsPerformanceMonitoringService(
+			@NonNull final PerformanceMonitoringService delegate,
+			@NonNull final PerformanceMetricsRegistry registry,
+			final boolean enabled)
+	{
+		this.delegate = delegate;
+		this.registry = registry;
+		this.enabled = enabled;
+	}
+
+	@Override
+	public <V> V monitorSpan(
+			@NonNull final Callable<V> callable,
+			@NonNull final SpanMetadata metadata)
+	{
+		if (!enabled)
+		{
+			return delegate.monitorSpan(callable, metadata);
+		}
+
+		final long startNanos = System.nanoTime();
+		boolean error = true;
+		try
+		{
+			final V result = delegate.monitorSpan(callable, metadata);
+			error = false;
+			return result;
+		}
+		finally
+		{
+			registry.record(metadata.getType(), metadata.getSubType(), metadata.getName(), System.nanoTime() - startNanos, error);
+		}
+	}
+
+	@Override
+	public <V> V monitorTransaction(
+			@NonNull final Callable<V> callable,
+			@NonNull final TransactionMetadata metadata)
+	{
+		if (!enabled)
+		{
+			return delegate.monitorTransaction(callable, metadata);
+		}
+
+		final long startNanos = System.nanoTime();
+		boolean error = true;
+		try
+		{
+			final V result = delegate.monitorTransaction(callable, metadata);
+			error = false;
+			return result;
+		}
+		finally
+		{
+			registry.record(metadata.getType().getCode(), null, metadata.getName(), System.nanoTime() - startNanos, error);
+		}
+	}
+}
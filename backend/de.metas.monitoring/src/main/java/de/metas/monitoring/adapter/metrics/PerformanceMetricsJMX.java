@@ -0,0 +1,50 @@
+package de.metas.monitoring.adapter.metrics;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import lombok.NonNull;
+
+public class PerformanceMetricsJMX implements PerformanceMetricsJMXMBean
+{
+	private final PerformanceMetricsRegistry registry;
+
+	PerformanceMetricsJMX(@NonNull final PerformanceMetricsRegistry registry)
+	{
+		this.registry = registry;
+	}
+
+	@Override
+	public String[] getSummaries()
+	{
+		return registry.getSnapshots()
+				.stream()
+				.map(DurationHistogramSnapshot::toSummaryString)
+				.toArray(String[]::new);
+	}
+
+	@Override
+	public String getPrometheusText()
+	{
+		return registry.toPrometheusString();
+	}
+}
@@ -0,0 +1,225 @@
+package de.metas.monitoring.adapter.metrics;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+
+/**
+ * Keeps one {@link DurationHistogram} per span type, sub type and name.
+ * <p>
+ * The histograms can be scraped in Prometheus' text format (see {@link #writePrometheus(Appendable)}) and are also available via JMX.
+ * They are never reset, because Prometheus expects the counters to be monotonic; use {@code rate()} or {@code increase()} to look at a time window.
+ */
+@Service
+public class PerformanceMetricsRegistry
+{
+	private static final Logger logger = LoggerFactory.getLogger(PerformanceMetricsRegistry.class);
+
+	/**
+	 * Guards against names which contain IDs or other unbounded values; all names of a type and sub type beyond this limit are recorded as {@value #NAME_Other}.
+	 */
+	private static final int MAX_NAMES_PER_SUBTYPE = 2000;
+	static final String NAME_Other = "<other>";
+
+	/**
+	 * Map key for spans without sub type, because {@link ConcurrentHashMap} does not allow {@code null} keys.
+	 */
+	private static final String SUBTYPE_KEY_None = "";
+
+	private static final String JMX_NAME = "de.metas.monitoring:type=PerformanceMetrics";
+	private static final String METRIC_DURATION = "metasfresh_span_duration_seconds";
+	private static final String METRIC_DURATION_MAX = "metasfresh_span_duration_max_seconds";
+	private static final String METRIC_ERRORS = "metasfresh_span_errors_total";
+
+	/**
+	 * Type -> sub type -> name -> histogram. Nested maps with the plain strings as keys, so that looking up the histogram of a span doesn't allocate a key object.
+	 */
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, DurationHistogram>>> histograms = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void registerJMX()
+	{
+		try
+		{
+			final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+			final ObjectName name = new ObjectName(JMX_NAME);
+			synchronized (mbs)
+			{
+				if (!mbs.isRegistered(name))
+				{
+					mbs.registerMBean(new PerformanceMetricsJMX(this), name);
+				}
+			}
+		}
+		catch (final Exception e)
+		{
+			logger.warn("Failed registering {}. Ignored.", JMX_NAME, e);
+		}
+	}
+
+	public void record(
+			@NonNull final String type,
+			@Nullable final String subType,
+			@NonNull final String name,
+			final long durationNanos,
+			final boolean error)
+	{
+		getOrCreateHistogram(type, subType, name).record(durationNanos, error);
+	}
+
+	private DurationHistogram getOrCreateHistogram(final String type, @Nullable final String subType, final String name)
+	{
+		// NOTE: try get() first, because on java 8 computeIfAbsent() locks even if the key is present
+		ConcurrentHashMap<String, ConcurrentHashMap<String, DurationHistogram>> histogramsBySubType = histograms.get(type);
+		if (histogramsBySubType == null)
+		{
+			histogramsBySubType = histograms.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+		}
+
+		final String subTypeKey = subType != null ? subType : SUBTYPE_KEY_None;
+		ConcurrentHashMap<String, DurationHistogram> histogramsByName = histogramsBySubType.get(subTypeKey);
+		if (histogramsByName == null)
+		{
+			histogramsByName = histogramsBySubType.computeIfAbsent(subTypeKey, k -> new ConcurrentHashMap<>());
+		}
+
+		final DurationHistogram histogram = histogramsByName.get(name);
+		if (histogram != null)
+		{
+			return histogram;
+		}
+
+		final String nameEffective = histogramsByName.size() < MAX_NAMES_PER_SUBTYPE ? name : NAME_Other;
+		return histogramsByName.computeIfAbsent(nameEffective, k -> new DurationHistogram(type, subType, k));
+	}
+
+	public ImmutableList<DurationHistogramSnapshot> getSnapshots()
+	{
+		return histograms.values()
+				.stream()
+				.flatMap(histogramsBySubType -> histogramsBySubType.values().stream())
+				.flatMap(histogramsByName -> histogramsByName.values().stream())
+				.map(DurationHistogram::snapshot)
+				.sorted(Comparator.comparing(DurationHistogramSnapshot::getType)
+						.thenComparing(DurationHistogramSnapshot::getSubType, Comparator.nullsFirst(Comparator.naturalOrder()))
+						.thenComparing(DurationHistogramSnapshot::getName))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public String toPrometheusString()
+	{
+		final StringBuilder sb = new StringBuilder();
+		writePrometheus(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Writes all histograms in Prometheus' text exposition format (version 0.0.4).
+	 */
+	public void writePrometheus(@NonNull final Appendable out)
+	{
+		final ImmutableList<DurationHistogramSnapshot> snapshots = getSnapshots();
+		try
+		{
+			out.append("# HELP ").append(METRIC_DURATION).append(" Duration of monitored spans and transactions\n");
+			out.append("# TYPE ").append(METRIC_DURATION).append(" histogram\n");
+			for (final DurationHistogramSnapshot snapshot : snapshots)
+			{
+				final String labels = toPrometheusLabels(snapshot);
+
+				// +Inf and _count are both the cumulative count over all buckets of this snapshot, so they can't differ from the buckets
+				long cumulativeCount = 0;
+				final long[] bucketCounts = snapshot.getBucketCounts();
+				for (int i = 0; i < DurationHistogram.BUCKET_UPPER_BOUNDS_NANOS.length; i++)
+				{
+					cumulativeCount += bucketCounts[i];
+					out.append(METRIC_DURATION).append("_bucket{").append(labels)
+							.append(",le=\"").append(toSecondsString(DurationHistogram.BUCKET_UPPER_BOUNDS_NANOS[i])).append("\"} ")
+							.append(String.valueOf(cumulativeCount)).append('\n');
+				}
+				cumulativeCount += bucketCounts[DurationHistogram.BUCKET_UPPER_BOUNDS_NANOS.length];
+
+				out.append(METRIC_DURATION).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(String.valueOf(cumulativeCount)).append('\n');
+				out.append(METRIC_DURATION).append("_sum{").append(labels).append("} ").append(toSecondsString(snapshot.getSumNanos())).append('\n');
+				out.append(METRIC_DURATION).append("_count{").append(labels).append("} ").append(String.valueOf(cumulativeCount)).append('\n');
+			}
+
+			out.append("# HELP ").append(METRIC_DURATION_MAX).append(" Max duration of monitored spans and transactions since startup\n");
+			out.append("# TYPE ").append(METRIC_DURATION_MAX).append(" gauge\n");
+			for (final DurationHistogramSnapshot snapshot : snapshots)
+			{
+				out.append(METRIC_DURATION_MAX).append('{').append(toPrometheusLabels(snapshot)).append("} ").append(toSecondsString(snapshot.getMaxNanos())).append('\n');
+			}
+
+			out.append("# HELP ").append(METRIC_ERRORS).append(" Monitored spans and transactions which failed with an exception\n");
+			out.append("# TYPE ").append(METRIC_ERRORS).append(" counter\n");
+			for (final DurationHistogramSnapshot snapshot : snapshots)
+			{
+				out.append(METRIC_ERRORS).append('{').append(toPrometheusLabels(snapshot)).append("} ").append(String.valueOf(snapshot.getErrorsCount())).append('\n');
+			}
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String toPrometheusLabels(final DurationHistogramSnapshot snapshot)
+	{
+		return "type=\"" + escapeLabelValue(snapshot.getType()) + "\""
+				+ ",subType=\"" + escapeLabelValue(snapshot.getSubType()) + "\""
+				+ ",name=\"" + escapeLabelValue(snapshot.getName()) + "\"";
+	}
+
+	private static String escapeLabelValue(@Nullable final String value)
+	{
+		if (value == null)
+		{
+			return "";
+		}
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static String toSecondsString(final long nanos)
+	{
+		return String.format(Locale.ROOT, "%.6f", nanos / 1_000_000_000.0);
+	}
+}
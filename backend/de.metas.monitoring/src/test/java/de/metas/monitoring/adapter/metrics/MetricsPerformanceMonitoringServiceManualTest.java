@@ -0,0 +1,92 @@
+package de.metas.monitoring.adapter.metrics;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import de.metas.monitoring.adapter.NoopPerformanceMonitoringService;
+import de.metas.monitoring.adapter.PerformanceMonitoringService;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.SpanMetadata;
+
+/**
+ * Compares the throughput of a small unit of work (roughly a cheap model interceptor) when monitored by the noop service and by the metrics service.
+ * It prints both durations and the relative overhead of the metrics service; it has no pass/fail threshold.
+ */
+public class MetricsPerformanceMonitoringServiceManualTest
+{
+	private static final int ITERATIONS = 2_000_000;
+	private static final int ROUNDS = 5;
+
+	public static void main(final String[] args)
+	{
+		final PerformanceMonitoringService noopService = NoopPerformanceMonitoringService.INSTANCE;
+		final PerformanceMonitoringService metricsService = new MetricsPerformanceMonitoringService(noopService, new PerformanceMetricsRegistry(), true);
+
+		// warm up
+		run(noopService);
+		run(metricsService);
+
+		long noopNanos = 0;
+		long metricsNanos = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			noopNanos += run(noopService);
+			metricsNanos += run(metricsService);
+		}
+
+		System.out.printf("noop: %d ms, metrics: %d ms, overhead: %.2f%%%n",
+				noopNanos / 1_000_000, metricsNanos / 1_000_000, (metricsNanos - noopNanos) * 100.0 / noopNanos);
+	}
+
+	private static long run(final PerformanceMonitoringService service)
+	{
+		final SpanMetadata metadata = SpanMetadata.builder()
+				.name("AFTER_CHANGE C_OrderLine")
+				.type("modelInterceptor")
+				.subType("modelChange")
+				.build();
+
+		final long start = System.nanoTime();
+		long blackhole = 0;
+		for (int i = 0; i < ITERATIONS; i++)
+		{
+			final int seed = i;
+			blackhole += service.monitorSpan(() -> doSomeWork(seed), metadata);
+		}
+		final long duration = System.nanoTime() - start;
+
+		if (blackhole == 42)
+		{
+			System.out.println(blackhole);
+		}
+		return duration;
+	}
+
+	private static long doSomeWork(final int seed)
+	{
+		long result = seed;
+		for (int i = 0; i < 500; i++)
+		{
+			result = result * 31 + (result >>> 7);
+		}
+		return result;
+	}
+}
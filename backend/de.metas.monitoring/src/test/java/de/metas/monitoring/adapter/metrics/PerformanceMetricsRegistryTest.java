@@ -0,0 +1,140 @@
+package de.metas.monitoring.adapter.metrics;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.monitoring.adapter.NoopPerformanceMonitoringService;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.SpanMetadata;
+
+public class PerformanceMetricsRegistryTest
+{
+	private PerformanceMetricsRegistry registry;
+
+	@BeforeEach
+	public void init()
+	{
+		registry = new PerformanceMetricsRegistry();
+	}
+
+	@Test
+	public void getBucketIndex()
+	{
+		assertThat(DurationHistogram.getBucketIndex(0)).isEqualTo(0);
+		assertThat(DurationHistogram.getBucketIndex(TimeUnit.MICROSECONDS.toNanos(100))).isEqualTo(0);
+		assertThat(DurationHistogram.getBucketIndex(TimeUnit.MICROSECONDS.toNanos(101))).isEqualTo(1);
+		assertThat(DurationHistogram.getBucketIndex(TimeUnit.MINUTES.toNanos(5))).isEqualTo(DurationHistogram.BUCKET_UPPER_BOUNDS_NANOS.length);
+	}
+
+	@Test
+	public void record_and_snapshot()
+	{
+		registry.record("modelInterceptor", "modelChange", "AFTER_NEW C_Order", TimeUnit.MILLISECONDS.toNanos(1), false);
+		registry.record("modelInterceptor", "modelChange", "AFTER_NEW C_Order", TimeUnit.MILLISECONDS.toNanos(3), false);
+		registry.record("modelInterceptor", "modelChange", "AFTER_NEW C_Order", TimeUnit.MILLISECONDS.toNanos(200), true);
+
+		assertThat(registry.getSnapshots()).hasSize(1);
+		final DurationHistogramSnapshot snapshot = registry.getSnapshots().get(0);
+		assertThat(snapshot.getCount()).isEqualTo(3);
+		assertThat(snapshot.getErrorsCount()).isEqualTo(1);
+		assertThat(snapshot.getMaxMillis()).isEqualTo(200);
+		assertThat(snapshot.getAvgMillis()).isEqualTo(68);
+		assertThat(snapshot.getPercentileMillis(0.5)).isEqualTo(5);
+		assertThat(snapshot.getPercentileMillis(0.99)).isEqualTo(200);
+	}
+
+	@Test
+	public void differentSubTypes_areRecordedSeparately()
+	{
+		registry.record("cache-operation", "cache-invalidate", "C_Order", TimeUnit.MILLISECONDS.toNanos(1), false);
+		registry.record("cache-operation", "cache-reset", "C_Order", TimeUnit.MILLISECONDS.toNanos(1), false);
+		registry.record("cache-operation", "cache-reset", "C_Order", TimeUnit.MILLISECONDS.toNanos(1), false);
+
+		assertThat(registry.getSnapshots())
+				.extracting(DurationHistogramSnapshot::getSubType, DurationHistogramSnapshot::getCount)
+				.containsExactly(tuple("cache-invalidate", 1L), tuple("cache-reset", 2L));
+	}
+
+	@Test
+	public void toPrometheusString()
+	{
+		registry.record("cache-operation", "cache-invalidate", "Full \"CacheReset\"", TimeUnit.MILLISECONDS.toNanos(2), false);
+
+		final String text = registry.toPrometheusString();
+		assertThat(text)
+				.contains("# TYPE metasfresh_span_duration_seconds histogram")
+				.contains("metasfresh_span_duration_seconds_bucket{type=\"cache-operation\",subType=\"cache-invalidate\",name=\"Full \\\"CacheReset\\\"\",le=\"0.001000\"} 0\n")
+				.contains("metasfresh_span_duration_seconds_bucket{type=\"cache-operation\",subType=\"cache-invalidate\",name=\"Full \\\"CacheReset\\\"\",le=\"0.002500\"} 1\n")
+				.contains("metasfresh_span_duration_seconds_bucket{type=\"cache-operation\",subType=\"cache-invalidate\",name=\"Full \\\"CacheReset\\\"\",le=\"+Inf\"} 1\n")
+				.contains("metasfresh_span_duration_seconds_count{type=\"cache-operation\",subType=\"cache-invalidate\",name=\"Full \\\"CacheReset\\\"\"} 1\n")
+				.contains("metasfresh_span_errors_total{type=\"cache-operation\",subType=\"cache-invalidate\",name=\"Full \\\"CacheReset\\\"\"} 0\n");
+	}
+
+	@Test
+	public void toPrometheusString_infBucketAndCountIncludeTheOverflowBucket()
+	{
+		registry.record("process", null, "MyProcess", TimeUnit.MILLISECONDS.toNanos(2), false);
+		registry.record("process", null, "MyProcess", TimeUnit.MINUTES.toNanos(5), false);
+
+		final String text = registry.toPrometheusString();
+		assertThat(text)
+				.contains("metasfresh_span_duration_seconds_bucket{type=\"process\",subType=\"\",name=\"MyProcess\",le=\"60.000000\"} 1\n")
+				.contains("metasfresh_span_duration_seconds_bucket{type=\"process\",subType=\"\",name=\"MyProcess\",le=\"+Inf\"} 2\n")
+				.contains("metasfresh_span_duration_seconds_count{type=\"process\",subType=\"\",name=\"MyProcess\"} 2\n");
+	}
+
+	@Test
+	public void noSubType_isRecordedSeparately()
+	{
+		registry.record("process", null, "MyProcess", TimeUnit.MILLISECONDS.toNanos(1), false);
+		registry.record("process", "sub", "MyProcess", TimeUnit.MILLISECONDS.toNanos(1), false);
+		registry.record("process", null, "MyProcess", TimeUnit.MILLISECONDS.toNanos(1), false);
+
+		assertThat(registry.getSnapshots())
+				.extracting(DurationHistogramSnapshot::getSubType, DurationHistogramSnapshot::getCount)
+				.containsExactly(tuple(null, 2L), tuple("sub", 1L));
+	}
+
+	@Test
+	public void metricsPerformanceMonitoringService_recordsErrors()
+	{
+		final MetricsPerformanceMonitoringService service = new MetricsPerformanceMonitoringService(NoopPerformanceMonitoringService.INSTANCE, registry, true);
+		final SpanMetadata metadata = SpanMetadata.builder().name("span").type("type").build();
+
+		assertThat(service.monitorSpan(() -> "result", metadata)).isEqualTo("result");
+		assertThatThrownBy(() -> service.monitorSpan(() -> {
+			throw new IllegalStateException("failed");
+		}, metadata)).isInstanceOf(IllegalStateException.class);
+
+		final DurationHistogramSnapshot snapshot = registry.getSnapshots().get(0);
+		assertThat(snapshot.getCount()).isEqualTo(2);
+		assertThat(snapshot.getErrorsCount()).isEqualTo(1);
+	}
+}
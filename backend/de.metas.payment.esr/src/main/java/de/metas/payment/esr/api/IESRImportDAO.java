@@ -26,6 +26,7 @@ import java.util.Collection;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 
@@ -34,6 +35,7 @@ import javax.annotation.Nullable;
 import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_Payment;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.banking.BankStatementAndLineAndRefId;
@@ -80,6 +82,14 @@ public interface IESRImportDAO extends ISingletonService
 	 */
 	I_C_ReferenceNo_Doc retrieveESRInvoiceReferenceNumberDocument(OrgId orgId, String esrReferenceNumber);
 
+	/**
+	 * Like {@link #retrieveESRInvoiceReferenceNumberDocument(OrgId, String)}, but for many ref nos with a constant number of queries.
+	 *
+	 * @return the invoice's document (or empty if there is none) for each given ref no, except those which are ambiguous; for these, the caller needs to fall back to
+	 *         {@link #retrieveESRInvoiceReferenceNumberDocument(OrgId, String)}.
+	 */
+	ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>> retrieveESRInvoiceReferenceNumberDocuments(OrgId orgId, Set<String> esrReferenceNumbers);
+
 	/**
 	 * Retrieve the existing esr imports of the organization given as parameter (through ID)
 	 */
@@ -108,6 +118,13 @@ public interface IESRImportDAO extends ISingletonService
 	 */
 	I_ESR_ImportLine fetchLineForESRLineText(I_ESR_Import import1, String esrImportLineText);
 
+	/**
+	 * Set-based variant of {@link #fetchLineForESRLineText(I_ESR_Import, String)}.
+	 *
+	 * @return the (trimmed) texts of those of the given esr line texts for which the given esr import already has a line
+	 */
+	ImmutableSet<String> retrieveExistingESRLineTexts(I_ESR_Import esrImport, Collection<String> esrImportLineTexts);
+
 	List<I_ESR_Import> getByIds(@NonNull Set<ESRImportId> esrImportIds);
 
 	ImmutableSet<ESRImportId> retrieveNotReconciledESRImportIds(@NonNull Set<ESRImportId> esrImportIds);
@@ -44,8 +44,10 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import de.metas.allocation.api.IAllocationBL;
@@ -88,12 +90,14 @@ import de.metas.payment.esr.dataimporter.ESRImportEnqueuerDuplicateFilePolicy;
 import de.metas.payment.esr.dataimporter.ESRStatement;
 import de.metas.payment.esr.dataimporter.ESRTransaction;
 import de.metas.payment.esr.dataimporter.IESRDataImporter;
+import de.metas.payment.esr.dataimporter.PrefetchedESRReferenceNumberDocuments;
 import de.metas.payment.esr.dataimporter.impl.v11.ESRTransactionLineMatcherUtil;
 import de.metas.payment.esr.exception.ESRImportLockedException;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.payment.esr.model.I_ESR_ImportLine;
 import de.metas.payment.esr.model.X_ESR_ImportLine;
 import de.metas.util.Check;
+import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
 
@@ -117,6 +121,12 @@ public class ESRImportBL implements IESRImportBL
 
 	private static final String ESR_NO_HAS_WRONG_ORG_2P = "de.metas.payment.esr.EsrNoHasWrongOrg";
 
+	/**
+	 * How many transactions are turned into lines, and how many lines are evaluated, with one set of duplicate-check and reference number queries.
+	 */
+	private static final String SYSCONFIG_ImportBatchSize = "de.metas.payment.esr.ImportBatchSize";
+	private static final int DEFAULT_ImportBatchSize = 500;
+
 	/**
 	 * Filled by {@link #registerActionHandler(String, IESRActionHandler)}.
 	 */
@@ -186,14 +196,17 @@ public class ESRImportBL implements IESRImportBL
 			@NonNull final I_ESR_Import esrImport,
 			@NonNull final InputStream in)
 	{
-		int countLines = 0;
-		if (sysConfigBL.getBooleanValue(ESRConstants.SYSCONFIG_CHECK_DUPLICATED, false))
-		{
-			countLines = esrImportDAO.countLines(esrImport, null);
-		}
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		// if there are already lines before starting reading the file, means that we already tried to import once
+		final boolean checkDuplicates = sysConfigBL.getBooleanValue(ESRConstants.SYSCONFIG_CHECK_DUPLICATED, false)
+				&& esrImportDAO.countLines(esrImport, null) > 0;
+
+		final ESRImportLinesBatchCreator linesCreator = new ESRImportLinesBatchCreator(esrImport, checkDuplicates, getImportBatchSize());
 
 		final IESRDataImporter loader = ESRDataLoaderFactory.createImporter(esrImport, in);
-		final ESRStatement esrStatement = loader.importData();
+		final ESRStatement esrStatement = loader.importData(linesCreator::add);
+		linesCreator.flush();
 		try
 		{
 			in.close();
@@ -214,29 +227,97 @@ public class ESRImportBL implements IESRImportBL
 		// TODO verify that the bankaccounts match!
 		esrImportDAO.save(esrImport);
 
-		final List<ESRTransaction> transactions = esrStatement.getTransactions();
-		int lineNo = 0;
-		for (final ESRTransaction esrTransaction : transactions)
+		Loggables.addLog("Created {} ESR_ImportLines from {} transactions in {}", linesCreator.getCreatedLinesCount(), linesCreator.getTransactionsCount(), stopwatch);
+
+		evaluate(esrImport);
+
+		Loggables.addLog("Loaded and evaluated ESR_Import_ID={} in {}", esrImport.getESR_Import_ID(), stopwatch);
+	}
+
+	private int getImportBatchSize()
+	{
+		final int importBatchSize = sysConfigBL.getIntValue(SYSCONFIG_ImportBatchSize, DEFAULT_ImportBatchSize);
+		return importBatchSize > 0 ? importBatchSize : DEFAULT_ImportBatchSize;
+	}
+
+	/**
+	 * Collects the transactions which the importer reads and creates their lines batch-wise, so that the duplicates check needs just one query per batch.
+	 */
+	private final class ESRImportLinesBatchCreator
+	{
+		private final I_ESR_Import esrImport;
+		private final boolean checkDuplicates;
+		private final int batchSize;
+
+		private final List<ESRTransaction> batch;
+		private int transactionsCount = 0;
+		private int createdLinesCount = 0;
+
+		private ESRImportLinesBatchCreator(
+				@NonNull final I_ESR_Import esrImport,
+				final boolean checkDuplicates,
+				final int batchSize)
+		{
+			this.esrImport = esrImport;
+			this.checkDuplicates = checkDuplicates;
+			this.batchSize = batchSize;
+			this.batch = new ArrayList<>(batchSize);
+		}
+
+		public void add(@NonNull final ESRTransaction esrTransaction)
 		{
-			lineNo++;
+			batch.add(esrTransaction);
+			if (batch.size() >= batchSize)
+			{
+				flush();
+			}
+		}
 
-			//
-			// create line only if does not exist
-			I_ESR_ImportLine existentLine = null;
-			// if there are already lines before starting reading the file, means that we already tried to import once
-			if (countLines > 0)
+		public void flush()
+		{
+			if (batch.isEmpty())
 			{
-				existentLine = esrImportDAO.fetchLineForESRLineText(esrImport, esrTransaction.getTransactionKey());
-				if (existentLine != null)
+				return;
+			}
+
+			final Set<String> existingLineTexts = checkDuplicates
+					? esrImportDAO.retrieveExistingESRLineTexts(esrImport, extractTransactionKeys(batch))
+					: ImmutableSet.of();
+
+			for (final ESRTransaction esrTransaction : batch)
+			{
+				transactionsCount++;
+
+				//
+				// create line only if does not exist
+				if (checkDuplicates && existingLineTexts.contains(esrTransaction.getTransactionKey().trim()))
 				{
 					continue;
 				}
+
+				createEsrImportLine(esrImport, transactionsCount, esrTransaction);
+				createdLinesCount++;
 			}
 
-			createEsrImportLine(esrImport, lineNo, esrTransaction);
+			batch.clear();
 		}
 
-		evaluate(esrImport);
+		public int getTransactionsCount()
+		{
+			return transactionsCount;
+		}
+
+		public int getCreatedLinesCount()
+		{
+			return createdLinesCount;
+		}
+	}
+
+	private static ImmutableSet<String> extractTransactionKeys(@NonNull final List<ESRTransaction> esrTransactions)
+	{
+		return esrTransactions.stream()
+				.map(ESRTransaction::getTransactionKey)
+				.collect(ImmutableSet.toImmutableSet());
 	}
 
 	private I_ESR_ImportLine createEsrImportLine(final I_ESR_Import esrImport, final int lineNo, final ESRTransaction esrTransaction)
@@ -269,14 +350,20 @@ public class ESRImportBL implements IESRImportBL
 
 		final List<I_ESR_ImportLine> esrImportLines = esrImportDAO.retrieveLines(esrImport);
 
-		for (final I_ESR_ImportLine importLine : esrImportLines)
+		for (final List<I_ESR_ImportLine> esrImportLinesBatch : Lists.partition(esrImportLines, getImportBatchSize()))
 		{
-			//
-			// now do different validations with the values loaded from the input file
-			evaluateLine(esrImport, importLine);
+			// load the invoice reference number documents of the whole batch at once, instead of line by line
+			final PrefetchedESRReferenceNumberDocuments prefetched = ESRDataLoaderUtil.prefetchEsrReferenceNumberDocuments(esrImportLinesBatch);
+
+			for (final I_ESR_ImportLine importLine : esrImportLinesBatch)
+			{
+				//
+				// now do different validations with the values loaded from the input file
+				evaluateLine(esrImport, importLine, prefetched);
 
-			importAmt = importAmt.add(importLine.getAmount());
-			trxQty++;
+				importAmt = importAmt.add(importLine.getAmount());
+				trxQty++;
+			}
 		}
 
 		final boolean hasLines = esrImportLines.size() > 0;
@@ -326,6 +413,14 @@ public class ESRImportBL implements IESRImportBL
 
 	@VisibleForTesting
 	public void evaluateLine(@NonNull final I_ESR_Import esrImport, @NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateLine(esrImport, importLine, PrefetchedESRReferenceNumberDocuments.EMPTY);
+	}
+
+	private void evaluateLine(
+			@NonNull final I_ESR_Import esrImport,
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final PrefetchedESRReferenceNumberDocuments prefetched)
 	{
 		if (isReverseBookingLine(importLine))
 		{
@@ -343,7 +438,7 @@ public class ESRImportBL implements IESRImportBL
 		}
 
 		// The reference number of the ESR Import line
-		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine);
+		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine, prefetched);
 
 		// task 05917: check if the the payment date from the ESR file is OK for us
 		try
@@ -30,11 +30,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
@@ -48,8 +51,11 @@ import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_Payment;
 import org.compiere.util.Env;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
 
 import de.metas.banking.BankStatementAndLineAndRefId;
 import de.metas.banking.BankStatementLineId;
@@ -74,6 +80,11 @@ public class ESRImportDAO implements IESRImportDAO
 {
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 
+	/**
+	 * Length of the ESR reference number that we match, i.e. without the bank account no (first digits) and the check digit (the last one).
+	 */
+	private static final int ESR_REFERENCE_NUMBER_LENGTH = 19;
+
 	/**
 	 * Used to order lines by <code>LineNo, ESR_ImportLine_ID</code>.
 	 */
@@ -268,6 +279,96 @@ public class ESRImportDAO implements IESRImportDAO
 		return referenceNoRecord;
 	}
 
+	@Override
+	public ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>> retrieveESRInvoiceReferenceNumberDocuments(
+			@NonNull final OrgId orgId,
+			@NonNull final Set<String> esrReferenceNumbers)
+	{
+		if (esrReferenceNumbers.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final IReferenceNoDAO refNoDAO = Services.get(IReferenceNoDAO.class);
+		final I_C_ReferenceNo_Type refNoType = refNoDAO.retrieveRefNoTypeByName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
+
+		// one query with one LIKE per reference number, instead of one query per reference number; see fetchESRInvoiceReferenceNumber() about the wild cards
+		final ICompositeQueryFilter<I_C_ReferenceNo> referenceNoFilter = queryBL.createCompositeQueryFilter(I_C_ReferenceNo.class)
+				.setJoinOr();
+		for (final String esrReferenceNumber : esrReferenceNumbers)
+		{
+			referenceNoFilter.addCompareFilter(I_C_ReferenceNo.COLUMNNAME_ReferenceNo, Operator.STRING_LIKE, "%" + esrReferenceNumber + "_");
+		}
+
+		final List<I_C_ReferenceNo> referenceNoRecords = queryBL.createQueryBuilder(I_C_ReferenceNo.class)
+				.addOnlyActiveRecordsFilter()
+				.filter(referenceNoFilter)
+				.addEqualsFilter(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_Type_ID, refNoType.getC_ReferenceNo_Type_ID())
+				.addInArrayFilter(I_C_ReferenceNo_Type.COLUMNNAME_AD_Org_ID, orgId, OrgId.ANY)
+				.create()
+				.setRequiredAccess(Access.READ)
+				.list(I_C_ReferenceNo.class);
+
+		final ListMultimap<String, I_C_ReferenceNo> referenceNoRecordsByEsrReferenceNumber = ArrayListMultimap.create();
+		for (final I_C_ReferenceNo referenceNoRecord : referenceNoRecords)
+		{
+			final String referenceNo = referenceNoRecord.getReferenceNo();
+			if (referenceNo == null || referenceNo.length() < ESR_REFERENCE_NUMBER_LENGTH + 1)
+			{
+				continue;
+			}
+
+			// invert the LIKE from above: the ESR reference number ends right before the check digit
+			final String esrReferenceNumber = referenceNo.substring(referenceNo.length() - ESR_REFERENCE_NUMBER_LENGTH - 1, referenceNo.length() - 1);
+			if (esrReferenceNumbers.contains(esrReferenceNumber))
+			{
+				referenceNoRecordsByEsrReferenceNumber.put(esrReferenceNumber, referenceNoRecord);
+			}
+		}
+
+		final ImmutableSet<Integer> referenceNoIds = referenceNoRecords.stream()
+				.map(I_C_ReferenceNo::getC_ReferenceNo_ID)
+				.collect(ImmutableSet.toImmutableSet());
+
+		final ListMultimap<Integer, I_C_ReferenceNo_Doc> invoiceDocsByReferenceNoId = ArrayListMultimap.create();
+		if (!referenceNoIds.isEmpty())
+		{
+			queryBL.createQueryBuilder(I_C_ReferenceNo_Doc.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_ID, referenceNoIds)
+					.addEqualsFilter(I_C_ReferenceNo_Doc.COLUMNNAME_AD_Table_ID, getTableId(I_C_Invoice.class))
+					.orderBy(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_Doc_ID)
+					.create()
+					.setRequiredAccess(Access.READ)
+					.list(I_C_ReferenceNo_Doc.class)
+					.forEach(doc -> invoiceDocsByReferenceNoId.put(doc.getC_ReferenceNo_ID(), doc));
+		}
+
+		final ImmutableMap.Builder<String, Optional<I_C_ReferenceNo_Doc>> result = ImmutableMap.builder();
+		for (final String esrReferenceNumber : esrReferenceNumbers)
+		{
+			final List<I_C_ReferenceNo> referenceNoRecordsForNumber = referenceNoRecordsByEsrReferenceNumber.get(esrReferenceNumber);
+			if (referenceNoRecordsForNumber.isEmpty())
+			{
+				Loggables.addLog("Found no C_ReferenceNo record for esrReferenceNumber={}", esrReferenceNumber);
+				result.put(esrReferenceNumber, Optional.empty());
+				continue;
+			}
+			else if (referenceNoRecordsForNumber.size() > 1)
+			{
+				continue; // ambiguous; leave it to retrieveESRInvoiceReferenceNumberDocument()
+			}
+
+			final List<I_C_ReferenceNo_Doc> invoiceDocs = invoiceDocsByReferenceNoId.get(referenceNoRecordsForNumber.get(0).getC_ReferenceNo_ID());
+			if (invoiceDocs.size() > 1)
+			{
+				continue; // leave it to retrieveESRInvoiceReferenceNumberDocument(), which fails with a meaningful error
+			}
+			result.put(esrReferenceNumber, invoiceDocs.stream().findFirst());
+		}
+		return result.build();
+	}
+
 	@Override
 	public List<I_ESR_ImportLine> retrieveAllLinesByBankStatementLineIds(@NonNull final Collection<BankStatementLineId> bankStatementLineIds)
 	{
@@ -352,6 +453,33 @@ public class ESRImportDAO implements IESRImportDAO
 				.firstOnly(I_ESR_ImportLine.class);
 	}
 
+	@Override
+	public ImmutableSet<String> retrieveExistingESRLineTexts(@NonNull final I_ESR_Import esrImport, @NonNull final Collection<String> esrImportLineTexts)
+	{
+		if (esrImportLineTexts.isEmpty())
+		{
+			return ImmutableSet.of();
+		}
+
+		final Properties ctx = InterfaceWrapperHelper.getCtx(esrImport);
+		final String trxName = InterfaceWrapperHelper.getTrxName(esrImport);
+		final ESRImportId esrImportId = ESRImportId.ofRepoId(esrImport.getESR_Import_ID());
+
+		final ImmutableSet<String> texts = esrImportLineTexts.stream()
+				.flatMap(text -> Stream.of(text, text.trim()))
+				.collect(ImmutableSet.toImmutableSet());
+
+		return queryBL.createQueryBuilder(I_ESR_ImportLine.class, ctx, trxName)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_ESR_ImportLine.COLUMNNAME_ESR_Import_ID, esrImportId)
+				.addInArrayFilter(I_ESR_ImportLine.COLUMNNAME_ESRLineText, texts)
+				.create()
+				.listDistinct(I_ESR_ImportLine.COLUMNNAME_ESRLineText, String.class)
+				.stream()
+				.map(String::trim)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
 	@Override
 	public ImmutableSet<ESRImportId> retrieveNotReconciledESRImportIds(final Set<ESRImportId> esrImportIds)
 	{
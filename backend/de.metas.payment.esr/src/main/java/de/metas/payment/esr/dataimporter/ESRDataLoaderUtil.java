@@ -1,6 +1,9 @@
 package de.metas.payment.esr.dataimporter;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrx;
@@ -10,6 +13,11 @@ import org.compiere.model.I_C_BPartner;
 import org.compiere.model.I_C_Invoice;
 import org.compiere.util.Env;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+
 import de.metas.banking.BankAccount;
 import de.metas.banking.BankAccountId;
 import de.metas.banking.api.IBPBankAccountDAO;
@@ -113,6 +121,16 @@ public class ESRDataLoaderUtil
 	 * @param completeEsrReferenceNumberStr
 	 */
 	public void evaluateEsrReferenceNumber(@NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateEsrReferenceNumber(importLine, PrefetchedESRReferenceNumberDocuments.EMPTY);
+	}
+
+	/**
+	 * Like {@link #evaluateEsrReferenceNumber(I_ESR_ImportLine)}, but takes the reference number document and its invoice from the given {@code prefetched}, if they are there.
+	 */
+	public void evaluateEsrReferenceNumber(
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final PrefetchedESRReferenceNumberDocuments prefetched)
 	{
 		final String completeEsrReferenceNumberStr = importLine.getESRFullReferenceNumber();
 		if (Check.isEmpty(completeEsrReferenceNumberStr, true))
@@ -121,12 +139,14 @@ public class ESRDataLoaderUtil
 		}
 
 		// When matching, we will ignore the first 7 digits (the bank account no), and the last digit (check digit)
-		final String esrReferenceNumberToMatch = completeEsrReferenceNumberStr.substring(7, 26);
+		final String esrReferenceNumberToMatch = extractEsrReferenceNumberToMatch(completeEsrReferenceNumberStr);
 
 		importLine.setESRReferenceNumber(esrReferenceNumberToMatch);
 
-		final I_C_ReferenceNo_Doc esrReferenceNumberDocument = esrImportDAO
-				.retrieveESRInvoiceReferenceNumberDocument(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), esrReferenceNumberToMatch);
+		final OrgId orgId = OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID());
+		final I_C_ReferenceNo_Doc esrReferenceNumberDocument = prefetched.isPrefetched(orgId, esrReferenceNumberToMatch)
+				? prefetched.getDocumentOrNull(orgId, esrReferenceNumberToMatch)
+				: esrImportDAO.retrieveESRInvoiceReferenceNumberDocument(orgId, esrReferenceNumberToMatch);
 
 		if (esrReferenceNumberDocument == null)
 		{
@@ -136,10 +156,11 @@ public class ESRDataLoaderUtil
 		}
 		else
 		{
-			final I_C_ReferenceNo currentReferenceNo = esrReferenceNumberDocument.getC_ReferenceNo();
+			final I_C_ReferenceNo prefetchedReferenceNo = prefetched.getReferenceNoOrNull(esrReferenceNumberDocument.getC_ReferenceNo_ID());
+			final I_C_ReferenceNo currentReferenceNo = prefetchedReferenceNo != null ? prefetchedReferenceNo : esrReferenceNumberDocument.getC_ReferenceNo();
 
 			importLine.setESR_IsManual_ReferenceNo(currentReferenceNo.isManual());
-			importLine.setESRReferenceNumber(esrReferenceNumberDocument.getC_ReferenceNo().getReferenceNo());
+			importLine.setESRReferenceNumber(currentReferenceNo.getReferenceNo());
 
 			// check if invoice
 			final String tableName = Services.get(IADTableDAO.class).retrieveTableName(esrReferenceNumberDocument.getAD_Table_ID());
@@ -148,7 +169,8 @@ public class ESRDataLoaderUtil
 				importLine.setC_ReferenceNo_ID(esrReferenceNumberDocument.getC_ReferenceNo_ID());
 
 				final int invoiceID = esrReferenceNumberDocument.getRecord_ID();
-				final I_C_Invoice invoice = InterfaceWrapperHelper.create(Env.getCtx(), invoiceID, I_C_Invoice.class, ITrx.TRXNAME_None);
+				final I_C_Invoice prefetchedInvoice = prefetched.getInvoiceOrNull(invoiceID);
+				final I_C_Invoice invoice = prefetchedInvoice != null ? prefetchedInvoice : InterfaceWrapperHelper.create(Env.getCtx(), invoiceID, I_C_Invoice.class, ITrx.TRXNAME_None);
 
 				final boolean match = Services.get(IESRLineHandlersService.class)
 						.applyESRMatchingBPartnerOfTheInvoice(invoice, importLine);
@@ -183,6 +205,52 @@ public class ESRDataLoaderUtil
 		}
 	}
 
+	/**
+	 * Loads the reference number documents, reference numbers and invoices which {@link #evaluateEsrReferenceNumber(I_ESR_ImportLine, PrefetchedESRReferenceNumberDocuments)} needs
+	 * for the given lines with a few queries, instead of a few queries per line.
+	 */
+	public PrefetchedESRReferenceNumberDocuments prefetchEsrReferenceNumberDocuments(@NonNull final List<I_ESR_ImportLine> importLines)
+	{
+		final SetMultimap<OrgId, String> esrReferenceNumbersByOrgId = HashMultimap.create();
+		for (final I_ESR_ImportLine importLine : importLines)
+		{
+			final String completeEsrReferenceNumberStr = importLine.getESRFullReferenceNumber();
+			if (Check.isEmpty(completeEsrReferenceNumberStr, true) || completeEsrReferenceNumberStr.length() < 26)
+			{
+				continue; // evaluateEsrReferenceNumber() will deal with it
+			}
+			esrReferenceNumbersByOrgId.put(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), extractEsrReferenceNumberToMatch(completeEsrReferenceNumberStr));
+		}
+		if (esrReferenceNumbersByOrgId.isEmpty())
+		{
+			return PrefetchedESRReferenceNumberDocuments.EMPTY;
+		}
+
+		final ImmutableMap.Builder<OrgId, ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>>> documentsByOrgId = ImmutableMap.builder();
+		final Set<Integer> referenceNoIds = new HashSet<>();
+		final Set<Integer> invoiceIds = new HashSet<>();
+		for (final OrgId orgId : esrReferenceNumbersByOrgId.keySet())
+		{
+			final ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>> documents = esrImportDAO.retrieveESRInvoiceReferenceNumberDocuments(orgId, esrReferenceNumbersByOrgId.get(orgId));
+			documentsByOrgId.put(orgId, documents);
+
+			documents.values().forEach(document -> document.ifPresent(doc -> {
+				referenceNoIds.add(doc.getC_ReferenceNo_ID());
+				invoiceIds.add(doc.getRecord_ID());
+			}));
+		}
+
+		return new PrefetchedESRReferenceNumberDocuments(
+				documentsByOrgId.build(),
+				Maps.uniqueIndex(InterfaceWrapperHelper.loadByIdsOutOfTrx(referenceNoIds, I_C_ReferenceNo.class), I_C_ReferenceNo::getC_ReferenceNo_ID),
+				Maps.uniqueIndex(InterfaceWrapperHelper.loadByIdsOutOfTrx(invoiceIds, I_C_Invoice.class), I_C_Invoice::getC_Invoice_ID));
+	}
+
+	private String extractEsrReferenceNumberToMatch(@NonNull final String completeEsrReferenceNumberStr)
+	{
+		return completeEsrReferenceNumberStr.substring(7, 26);
+	}
+
 	private void setValuesFromInvoice(final I_ESR_ImportLine importLine, final I_C_Invoice invoice)
 	{
 		importLine.setC_BPartner_ID(invoice.getC_BPartner_ID()); // 04582: no need to load the whole bpartner when we just need the ID
@@ -35,7 +35,7 @@ import lombok.Singular;
  *
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ESRStatement
 {
 	private final BigDecimal ctrlAmount;
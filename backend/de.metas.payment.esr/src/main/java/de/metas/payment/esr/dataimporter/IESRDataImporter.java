@@ -22,6 +22,10 @@ package de.metas.payment.esr.dataimporter;
  * #L%
  */
 
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+
 public interface IESRDataImporter
 {
 	/**
@@ -30,4 +34,18 @@ public interface IESRDataImporter
 	 * @return
 	 */
 	ESRStatement importData();
+
+	/**
+	 * Like {@link #importData()}, but hands each transaction to the given consumer as soon as it was read, instead of collecting them in the returned statement.
+	 * <p>
+	 * This default implementation is fine for importers whose transactions are small anyways; importers of potentially big files should override it.
+	 *
+	 * @return the statement, without transactions
+	 */
+	default ESRStatement importData(@NonNull final Consumer<ESRTransaction> transactionConsumer)
+	{
+		final ESRStatement statement = importData();
+		statement.getTransactions().forEach(transactionConsumer);
+		return statement.toBuilder().clearTransactions().build();
+	}
 }
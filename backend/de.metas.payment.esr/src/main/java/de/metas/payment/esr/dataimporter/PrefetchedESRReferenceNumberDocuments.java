@@ -0,0 +1,96 @@
+package de.metas.payment.esr.dataimporter;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+import org.compiere.model.I_C_Invoice;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.organization.OrgId;
+import lombok.NonNull;
+
+/**
+ * The invoice reference number documents, their reference numbers and invoices of many ESR import lines, loaded with a few queries.
+ * <p>
+ * Created by {@link ESRDataLoaderUtil#prefetchEsrReferenceNumberDocuments(java.util.List)}
+ * and used by {@link ESRDataLoaderUtil#evaluateEsrReferenceNumber(de.metas.payment.esr.model.I_ESR_ImportLine, PrefetchedESRReferenceNumberDocuments)}.
+ */
+public final class PrefetchedESRReferenceNumberDocuments
+{
+	public static final PrefetchedESRReferenceNumberDocuments EMPTY = new PrefetchedESRReferenceNumberDocuments(ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of());
+
+	private final ImmutableMap<OrgId, ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>>> documentsByOrgIdAndEsrReferenceNumber;
+	private final ImmutableMap<Integer, I_C_ReferenceNo> referenceNosById;
+	private final ImmutableMap<Integer, I_C_Invoice> invoicesById;
+
+	PrefetchedESRReferenceNumberDocuments(
+			@NonNull final ImmutableMap<OrgId, ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>>> documentsByOrgIdAndEsrReferenceNumber,
+			@NonNull final ImmutableMap<Integer, I_C_ReferenceNo> referenceNosById,
+			@NonNull final ImmutableMap<Integer, I_C_Invoice> invoicesById)
+	{
+		this.documentsByOrgIdAndEsrReferenceNumber = documentsByOrgIdAndEsrReferenceNumber;
+		this.referenceNosById = referenceNosById;
+		this.invoicesById = invoicesById;
+	}
+
+	/**
+	 * @return {@code false} if the given reference number was not prefetched (e.g. because it's ambiguous), so the caller needs to retrieve its document on its own
+	 */
+	public boolean isPrefetched(@NonNull final OrgId orgId, @NonNull final String esrReferenceNumber)
+	{
+		return getDocumentsByEsrReferenceNumber(orgId).containsKey(esrReferenceNumber);
+	}
+
+	/**
+	 * @return the invoice's reference number document or {@code null} if there is none; see {@link #isPrefetched(OrgId, String)}
+	 */
+	@Nullable
+	public I_C_ReferenceNo_Doc getDocumentOrNull(@NonNull final OrgId orgId, @NonNull final String esrReferenceNumber)
+	{
+		final Optional<I_C_ReferenceNo_Doc> document = getDocumentsByEsrReferenceNumber(orgId).get(esrReferenceNumber);
+		return document != null ? document.orElse(null) : null;
+	}
+
+	private ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>> getDocumentsByEsrReferenceNumber(@NonNull final OrgId orgId)
+	{
+		return documentsByOrgIdAndEsrReferenceNumber.getOrDefault(orgId, ImmutableMap.of());
+	}
+
+	@Nullable
+	public I_C_ReferenceNo getReferenceNoOrNull(final int referenceNoId)
+	{
+		return referenceNosById.get(referenceNoId);
+	}
+
+	@Nullable
+	public I_C_Invoice getInvoiceOrNull(final int invoiceId)
+	{
+		return invoicesById.get(invoiceId);
+	}
+}
@@ -0,0 +1,132 @@
+package de.metas.payment.esr.dataimporter.impl.camt54;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reads a camt.54 document element by element, so that the importers can unmarshal one {@code Ntry} header field or one {@code TxDtls} at a time
+ * instead of the whole document.
+ * <p>
+ * After {@link #unmarshal(Class)}, {@link #skipElement()} and {@link #exitElement()}, the reader is positioned right after the respective element's end tag.
+ */
+final class Camt54FragmentReader
+{
+	private final XMLStreamReader xsr;
+	private final Unmarshaller unmarshaller;
+
+	Camt54FragmentReader(
+			@NonNull final XMLStreamReader xsr,
+			@NonNull final JAXBContext jaxbContext) throws JAXBException
+	{
+		this.xsr = xsr;
+		this.unmarshaller = jaxbContext.createUnmarshaller();
+	}
+
+	/**
+	 * Moves forward to the next start tag, at whatever depth. Does nothing if the reader is already positioned on a start tag.
+	 *
+	 * @return {@code false} if the document has no more start tags
+	 */
+	public boolean moveToStartElement() throws XMLStreamException
+	{
+		while (!xsr.isStartElement())
+		{
+			if (!xsr.hasNext())
+			{
+				return false;
+			}
+			xsr.next();
+		}
+		return true;
+	}
+
+	/**
+	 * Moves forward to the next start tag within the current element.
+	 *
+	 * @return {@code false} if the current element's end tag was reached instead; then call {@link #exitElement()}.
+	 */
+	public boolean moveToChildElement() throws XMLStreamException
+	{
+		while (!xsr.isStartElement() && !xsr.isEndElement())
+		{
+			xsr.next();
+		}
+		return xsr.isStartElement();
+	}
+
+	public String getLocalName()
+	{
+		return xsr.getLocalName();
+	}
+
+	/**
+	 * Moves from the current element's start tag to its content.
+	 */
+	public void enterElement() throws XMLStreamException
+	{
+		xsr.next();
+	}
+
+	/**
+	 * Moves from the current element's end tag to whatever follows it.
+	 */
+	public void exitElement() throws XMLStreamException
+	{
+		xsr.next();
+	}
+
+	public void skipElement() throws XMLStreamException
+	{
+		int depth = 0;
+		while (true)
+		{
+			final int event = xsr.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				depth++;
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT)
+			{
+				if (depth == 0)
+				{
+					break;
+				}
+				depth--;
+			}
+		}
+		exitElement();
+	}
+
+	public <T> T unmarshal(@NonNull final Class<T> declaredType) throws JAXBException
+	{
+		return unmarshaller.unmarshal(xsr, declaredType).getValue();
+	}
+}
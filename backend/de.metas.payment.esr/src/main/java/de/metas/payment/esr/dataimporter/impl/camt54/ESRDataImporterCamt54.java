@@ -3,6 +3,9 @@ package de.metas.payment.esr.dataimporter.impl.camt54;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 import javax.xml.stream.XMLInputFactory;
@@ -21,9 +24,8 @@ import com.google.common.base.Objects;
 
 import ch.qos.logback.classic.Level;
 import de.metas.logging.LogManager;
-import de.metas.payment.camt054_001_02.BankToCustomerDebitCreditNotificationV02;
-import de.metas.payment.camt054_001_06.BankToCustomerDebitCreditNotificationV06;
 import de.metas.payment.esr.dataimporter.ESRStatement;
+import de.metas.payment.esr.dataimporter.ESRTransaction;
 import de.metas.payment.esr.dataimporter.IESRDataImporter;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.util.Loggables;
@@ -135,6 +137,20 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 
 	@Override
 	public ESRStatement importData()
+	{
+		final List<ESRTransaction> transactions = new ArrayList<>();
+		final ESRStatement statement = importData(transactions::add);
+
+		return statement.toBuilder()
+				.transactions(transactions)
+				.build();
+	}
+
+	/**
+	 * Streams the camt.54 data, so also big files with many thousand transactions can be imported without keeping the whole document in memory.
+	 */
+	@Override
+	public ESRStatement importData(@NonNull final Consumer<ESRTransaction> transactionConsumer)
 	{
 		XMLStreamReader xsr = null;
 		try
@@ -146,15 +162,18 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 			// use a delegate to make sure that the unmarshaller won't refuse camt.054.001.04 and amt.054.001.05
 			final MultiVersionStreamReaderDelegate mxsr = new MultiVersionStreamReaderDelegate(xsr);
 
-			if (isVersion2Schema(getNameSpaceURI(mxsr)))
+			final boolean version2Schema = isVersion2Schema(getNameSpaceURI(mxsr));
+			try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
 			{
-				return importCamt54v02(mxsr);
-			}
-			else
-			{
-				return importCamt54v06(mxsr);
+				if (version2Schema)
+				{
+					return new ESRDataImporterCamt54v02(header, mxsr).importData(transactionConsumer);
+				}
+				else
+				{
+					return new ESRDataImporterCamt54v06(header, mxsr).importData(transactionConsumer);
+				}
 			}
-
 		}
 		catch (final XMLStreamException e)
 		{
@@ -164,36 +183,13 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 		{
 			closeXmlReaderAndInputStream(xsr);
 		}
-
 	}
 
-	private ESRStatement importCamt54v02(final MultiVersionStreamReaderDelegate mxsr)
+	static void logIfTestFile(@Nullable final String grpHdrAddtlInf)
 	{
-		final ESRDataImporterCamt54v02 importerV02 = new ESRDataImporterCamt54v02(header, mxsr);
-		final BankToCustomerDebitCreditNotificationV02 bkToCstmrDbtCdtNtfctn = importerV02.loadXML();
-		if (bkToCstmrDbtCdtNtfctn.getGrpHdr() != null && bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf() != null)
-		{
-			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf());
-		}
-
-		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
-		{
-			return importerV02.createESRStatement(bkToCstmrDbtCdtNtfctn);
-		}
-	}
-
-	private ESRStatement importCamt54v06(final MultiVersionStreamReaderDelegate mxsr)
-	{
-		final ESRDataImporterCamt54v06 importerV06 = new ESRDataImporterCamt54v06(header, mxsr);
-		final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn = importerV06.loadXML();
-		if (bkToCstmrDbtCdtNtfctn.getGrpHdr() != null && bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf() != null)
-		{
-			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf());
-		}
-
-		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
+		if (grpHdrAddtlInf != null)
 		{
-			return importerV06.createESRStatement(bkToCstmrDbtCdtNtfctn);
+			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", grpHdrAddtlInf);
 		}
 	}
 
@@ -6,18 +6,20 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 import javax.xml.bind.JAXB;
 import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.Env;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 
 import de.metas.banking.BankAccount;
 import de.metas.banking.BankAccountId;
@@ -25,14 +27,14 @@ import de.metas.banking.api.IBPBankAccountDAO;
 import de.metas.currency.ICurrencyDAO;
 import de.metas.i18n.IMsgBL;
 import de.metas.money.CurrencyId;
-import de.metas.payment.camt054_001_06.AccountNotification12;
 import de.metas.payment.camt054_001_06.ActiveOrHistoricCurrencyAndAmount;
-import de.metas.payment.camt054_001_06.BankToCustomerDebitCreditNotificationV06;
+import de.metas.payment.camt054_001_06.BatchInformation2;
 import de.metas.payment.camt054_001_06.CreditDebitCode;
 import de.metas.payment.camt054_001_06.DateAndDateTimeChoice;
 import de.metas.payment.camt054_001_06.Document;
 import de.metas.payment.camt054_001_06.EntryDetails7;
 import de.metas.payment.camt054_001_06.EntryTransaction8;
+import de.metas.payment.camt054_001_06.GroupHeader58;
 import de.metas.payment.camt054_001_06.ReportEntry8;
 import de.metas.payment.esr.ESRConstants;
 import de.metas.payment.esr.dataimporter.ESRStatement;
@@ -74,7 +76,7 @@ import lombok.NonNull;
  * Lots of methods are duplicated from <code>ESRDataImporterCamt54v02</code>
  * Important logical differences are in methods:
  * <ul>
- * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.loadXML()/code>
+ * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.importData(Consumer)</code>
  * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.verifyTransactionCurrency(EntryTransaction8, ESRTransactionBuilder)/code>
  * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.extractAmountAndType(ReportEntry8, EntryTransaction8, ESRTransactionBuilder)</code>
  * </ul>	
@@ -95,6 +97,11 @@ import lombok.NonNull;
  */
 public class ESRDataImporterCamt54v06 
 {
+	/**
+	 * The context is thread-safe and expensive to create, so we share it.
+	 */
+	private static final Supplier<JAXBContext> JAXB_CONTEXT = Suppliers.memoize(ESRDataImporterCamt54v06::createJAXBContext);
+
 	private final IBPBankAccountDAO bpBankAccountRepo = Services.get(IBPBankAccountDAO.class);
 
 	private final I_ESR_Import header;
@@ -118,39 +125,147 @@ public class ESRDataImporterCamt54v06
 
 	
 	/**
-	 * create ESRStatement using <code>BankToCustomerDebitCreditNotificationV06</code>
-	 * @param bkToCstmrDbtCdtNtfctn
-	 * @return
+	 * Reads the camt.54 document fragment by fragment: the header fields of each {@code Ntry} are read first, then each {@code TxDtls} is unmarshalled,
+	 * converted into an {@link ESRTransaction} and handed to the given consumer. So only one transaction detail at a time is kept in memory.
+	 *
+	 * @return the statement with control amount and quantity, but without transactions
 	 */
-	public ESRStatement createESRStatement(@NonNull final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn)
+	public ESRStatement importData(@NonNull final Consumer<ESRTransaction> transactionConsumer)
 	{
-		final ESRStatementBuilder stmtBuilder = ESRStatement.builder();
-
 		BigDecimal ctrAmount = BigDecimal.ZERO;
 
 		BigDecimal ctrlQty = ESRDataImporterCamt54.CTRL_QTY_NOT_YET_SET;
 
-		for (final AccountNotification12 ntfctn : bkToCstmrDbtCdtNtfctn.getNtfctn())
+		try
 		{
-			for (final ReportEntry8 ntry : ntfctn.getNtry()) // gh #1947: there can be many ntry records
+			final Camt54FragmentReader reader = new Camt54FragmentReader(xsr, JAXB_CONTEXT.get());
+			while (reader.moveToStartElement())
 			{
-				final BigDecimal ntryAmt = ntry.getAmt().getValue()
-						.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
-						.multiply(getRvslMultiplier(ntry));
+				final String localName = reader.getLocalName();
+				if ("GrpHdr".equals(localName))
+				{
+					final GroupHeader58 grpHdr = reader.unmarshal(GroupHeader58.class);
+					ESRDataImporterCamt54.logIfTestFile(grpHdr.getAddtlInf());
+				}
+				else if ("Ntry".equals(localName)) // gh #1947: there can be many ntry records
+				{
+					final ReportEntry8 ntry = readEntry(reader, transactionConsumer);
 
-				ctrAmount = ctrAmount.add(ntryAmt);
-				ctrlQty = iterateEntryDetails(stmtBuilder, ctrlQty, ntry);
-			} // for ntry
-		} // ntfctn
+					final BigDecimal ntryAmt = ntry.getAmt().getValue()
+							.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
+							.multiply(getRvslMultiplier(ntry));
+
+					ctrAmount = ctrAmount.add(ntryAmt);
+
+					// the ntry's TxDtls were already handed over; this just sums up the control qty of its NtryDtls
+					ctrlQty = iterateEntryDetails(ESRStatement.builder(), ctrlQty, ntry);
+				}
+				else
+				{
+					reader.enterElement();
+				}
+			}
+		}
+		catch (final JAXBException | XMLStreamException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
 
 		// only use the control qty if all ntry had one set. If one was null, then forward null
 		final BigDecimal ctrlQtyForStatement = ctrlQty.compareTo(ESRDataImporterCamt54.CTRL_QTY_AT_LEAST_ONE_NULL) == 0 ? null : ctrlQty;
 
-		return stmtBuilder
+		return ESRStatement.builder()
 				.ctrlAmount(ctrAmount)
 				.ctrlQty(ctrlQtyForStatement)
 				.build();
 	}
+
+	/**
+	 * Reads the {@code Ntry} at which the given {@code reader} is positioned.
+	 *
+	 * @return the ntry with the header fields that we need and with its {@code NtryDtls}, but without their {@code TxDtls}
+	 */
+	private ReportEntry8 readEntry(
+			@NonNull final Camt54FragmentReader reader,
+			@NonNull final Consumer<ESRTransaction> transactionConsumer) throws JAXBException, XMLStreamException
+	{
+		final ReportEntry8 ntry = new ReportEntry8();
+
+		reader.enterElement();
+		while (reader.moveToChildElement())
+		{
+			// NOTE: according to the XSD, all the header fields come before the NtryDtls
+			switch (reader.getLocalName())
+			{
+				case "NtryRef":
+					ntry.setNtryRef(reader.unmarshal(String.class));
+					break;
+				case "Amt":
+					ntry.setAmt(reader.unmarshal(ActiveOrHistoricCurrencyAndAmount.class));
+					break;
+				case "CdtDbtInd":
+					ntry.setCdtDbtInd(reader.unmarshal(CreditDebitCode.class));
+					break;
+				case "RvslInd":
+					ntry.setRvslInd(reader.unmarshal(Boolean.class));
+					break;
+				case "BookgDt":
+					ntry.setBookgDt(reader.unmarshal(DateAndDateTimeChoice.class));
+					break;
+				case "ValDt":
+					ntry.setValDt(reader.unmarshal(DateAndDateTimeChoice.class));
+					break;
+				case "NtryDtls":
+					ntry.getNtryDtls().add(readEntryDetails(reader, ntry, transactionConsumer));
+					break;
+				default:
+					reader.skipElement();
+			}
+		}
+		reader.exitElement();
+
+		return ntry;
+	}
+
+	private EntryDetails7 readEntryDetails(
+			@NonNull final Camt54FragmentReader reader,
+			@NonNull final ReportEntry8 ntry,
+			@NonNull final Consumer<ESRTransaction> transactionConsumer) throws JAXBException, XMLStreamException
+	{
+		final EntryDetails7 ntryDtl = new EntryDetails7();
+
+		reader.enterElement();
+		while (reader.moveToChildElement())
+		{
+			switch (reader.getLocalName())
+			{
+				case "Btch":
+					ntryDtl.setBtch(reader.unmarshal(BatchInformation2.class));
+					break;
+				case "TxDtls":
+					final EntryTransaction8 txDtl = reader.unmarshal(EntryTransaction8.class);
+					transactionConsumer.accept(createESRTransaction(ntry, txDtl));
+					break;
+				default:
+					reader.skipElement();
+			}
+		}
+		reader.exitElement();
+
+		return ntryDtl;
+	}
+
+	private static JAXBContext createJAXBContext()
+	{
+		try
+		{
+			return JAXBContext.newInstance(Document.class);
+		}
+		catch (final JAXBException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
 	
 	
 	/**
@@ -211,23 +326,29 @@ public class ESRDataImporterCamt54v06
 
 		for (final EntryTransaction8 txDtl : ntryDtl.getTxDtls())
 		{
-			final ESRTransactionBuilder trxBuilder = ESRTransaction.builder();
+			transactions.add(createESRTransaction(ntry, txDtl));
+		}
+		return transactions;
+	}
 
-			new ReferenceStringHelper().extractAndSetEsrReference(txDtl, trxBuilder);
+	private ESRTransaction createESRTransaction(
+			@NonNull final ReportEntry8 ntry,
+			@NonNull final EntryTransaction8 txDtl)
+	{
+		final ESRTransactionBuilder trxBuilder = ESRTransaction.builder();
 
-			verifyTransactionCurrency(txDtl, trxBuilder);
+		new ReferenceStringHelper().extractAndSetEsrReference(txDtl, trxBuilder);
 
-			extractAmountAndType(ntry, txDtl, trxBuilder);
+		verifyTransactionCurrency(txDtl, trxBuilder);
 
-			final ESRTransaction esrTransaction = trxBuilder
-					.accountingDate(asTimestamp(ntry.getBookgDt()))
-					.paymentDate(asTimestamp(ntry.getValDt()))
-					.esrParticipantNo(ntry.getNtryRef())
-					.transactionKey(mkTrxKey(txDtl))
-					.build();
-			transactions.add(esrTransaction);
-		}
-		return transactions;
+		extractAmountAndType(ntry, txDtl, trxBuilder);
+
+		return trxBuilder
+				.accountingDate(asTimestamp(ntry.getBookgDt()))
+				.paymentDate(asTimestamp(ntry.getValDt()))
+				.esrParticipantNo(ntry.getNtryRef())
+				.transactionKey(mkTrxKey(txDtl))
+				.build();
 	}
 	
 	
@@ -346,32 +467,6 @@ public class ESRDataImporterCamt54v06
 		}
 	}
 	
-	public BankToCustomerDebitCreditNotificationV06 loadXML()
-	{
-		final Document document;
-		try
-		{
-			final JAXBContext context = JAXBContext.newInstance(Document.class);
-			final Unmarshaller unmarshaller = context.createUnmarshaller();
-
-			// https://github.com/metasfresh/metasfresh/issues/1903
-			// use a delegate to make sure that the unmarshaller won't refuse camt.054.001.02 , camt.054.001.04 and amt.054.001.05
-			@SuppressWarnings("unchecked")
-			final JAXBElement<Document> e = (JAXBElement<Document>)unmarshaller.unmarshal(xsr);
-			document = e.getValue();
-			
-		}
-		catch (final JAXBException  e)
-		{
-			throw AdempiereException.wrapIfNeeded(e);
-		}
-		
-		
-
-		final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn = document.getBkToCstmrDbtCdtNtfctn();
-		return bkToCstmrDbtCdtNtfctn;
-	}
-
 
 	/**
 	 * Marshals the given {@code} into an XML string and return that as the "key".
@@ -0,0 +1,131 @@
+package de.metas.payment.esr.dataimporter.impl.camt54;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.MaxUsedHeapSampler;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
+
+import de.metas.payment.esr.dataimporter.ESRStatement;
+import de.metas.payment.esr.model.I_ESR_Import;
+
+/**
+ * Generates a camt.054 file with 50k transactions from the {@code Ntry} of {@code /camt054.xml}, imports it once collecting the whole statement and once streaming the transactions,
+ * and prints the durations and the heap used while importing.
+ * <p>
+ * To compare how the heap scales, start it with a low -Xmx and change the number of generated transactions.
+ */
+public class ESRDataImporterCamt54ManualTest
+{
+	/**
+	 * The sample file's {@code Ntry} has 10 {@code TxDtls}.
+	 */
+	private static final int NTRY_COUNT = 5_000;
+
+	public static void main(final String[] args)
+	{
+		AdempiereTestHelper.get().init();
+
+		final byte[] data = createCamt54Data();
+
+		// warm up
+		run(data, false);
+
+		run(data, false);
+		run(data, true);
+	}
+
+	private static void run(final byte[] data, final boolean streaming)
+	{
+		final MaxUsedHeapSampler heapSampler = new MaxUsedHeapSampler();
+		final ESRDataImporterCamt54 importer = new ESRDataImporterCamt54(newInstance(I_ESR_Import.class), new ByteArrayInputStream(data));
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int transactionsCount;
+		if (streaming)
+		{
+			final int[] count = { 0 };
+			importer.importData(esrTransaction -> {
+				if (++count[0] % 1000 == 0)
+				{
+					heapSampler.sample();
+				}
+			});
+			transactionsCount = count[0];
+		}
+		else
+		{
+			final ESRStatement statement = importer.importData();
+			heapSampler.sample();
+			transactionsCount = statement.getTransactions().size();
+		}
+		stopwatch.stop();
+
+		System.out.println((streaming ? "Streaming: " : "Statement: ")
+				+ transactionsCount + " transactions"
+				+ ", " + data.length / 1024 + " KB"
+				+ ", " + stopwatch
+				+ ", max used heap " + heapSampler.getMaxUsedHeapBytes() / 1024 / 1024 + " MB");
+	}
+
+	private static byte[] createCamt54Data()
+	{
+		final String sample = readSample();
+
+		final int ntryStart = sample.indexOf("<Ntry>");
+		final int ntryEnd = sample.indexOf("</Ntry>") + "</Ntry>".length();
+		final String ntry = sample.substring(ntryStart, ntryEnd);
+
+		final StringBuilder sb = new StringBuilder(sample.length() + ntry.length() * NTRY_COUNT);
+		sb.append(sample, 0, ntryStart);
+		for (int i = 0; i < NTRY_COUNT; i++)
+		{
+			sb.append(ntry);
+		}
+		sb.append(sample, ntryEnd, sample.length());
+
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String readSample()
+	{
+		try (final InputStream in = ESRDataImporterCamt54ManualTest.class.getResourceAsStream("/camt054.xml"))
+		{
+			return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -5,6 +5,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.assertj.core.api.Condition;
@@ -96,6 +98,51 @@ public class ESRDataImporterCamt54V06Tests
 		assertThat(importData.getCtrlQty()).isNull();
 	}
 
+	/**
+	 * Verifies that the transactions are streamed to the consumer in the file's order, while the returned statement has only the control values.
+	 */
+	@Test
+	public void testWithSampleFile_streaming()
+	{
+		final List<ESRTransaction> streamedTransactions = new ArrayList<>();
+		final ESRStatement streamedImportData = new ESRDataImporterCamt54(newInstance(I_ESR_Import.class), getClass().getResourceAsStream("/camt054.xml"))
+				.importData(streamedTransactions::add);
+
+		assertThat(streamedImportData.getTransactions()).isEmpty();
+		assertThat(streamedImportData.getErrorMsgs()).isEmpty();
+		assertThat(streamedImportData.getCtrlAmount()).isEqualByComparingTo("1000");
+		assertThat(streamedImportData.getCtrlQty()).isEqualByComparingTo("10");
+
+		assertThat(streamedTransactions).are(trxHasNoErrors);
+		assertThat(streamedTransactions)
+				.extracting(ESRTransaction::getEsrReferenceNumber)
+				.containsExactly(
+						"000000000002015110002913192",
+						"000000000002016030002820804",
+						"000000000002016030001581632",
+						"000000000002015110003015939",
+						"000000000002016030000535990",
+						"000000000002016030002463591",
+						"000000000002016030002780613",
+						"000000000002016030001554373",
+						"000000000002016030000985620",
+						"000000000002016030001593614");
+		assertThat(streamedTransactions)
+				.extracting(ESRTransaction::getAmount)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(
+						new BigDecimal("100"),
+						new BigDecimal("50"),
+						new BigDecimal("200"),
+						new BigDecimal("50"),
+						new BigDecimal("100"),
+						new BigDecimal("200"),
+						new BigDecimal("50"),
+						new BigDecimal("100"),
+						new BigDecimal("50"),
+						new BigDecimal("100"));
+	}
+
 	/**
 	 * Verifies the behavior of {@link ESRDataImporterCamt54#iterateEntryDetails(ESRStatementBuilder, BigDecimal, ReportEntry8)} a bit closer.
 	 */
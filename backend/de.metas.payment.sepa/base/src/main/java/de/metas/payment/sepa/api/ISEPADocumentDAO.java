@@ -1,5 +1,7 @@
 package de.metas.payment.sepa.api;
 
+import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
@@ -23,6 +25,21 @@ public interface ISEPADocumentDAO extends ISingletonService
 
 	List<I_SEPA_Export_Line> retrieveLines(I_SEPA_Export doc);
 
+	/**
+	 * Iterates the same lines as {@link #retrieveLines(I_SEPA_Export)}, in the same order, but without loading all of them at once.
+	 */
+	Iterator<I_SEPA_Export_Line> iterateLines(I_SEPA_Export doc);
+
+	/**
+	 * @return number of the lines which are returned by {@link #retrieveLines(I_SEPA_Export)}
+	 */
+	int countLines(I_SEPA_Export doc);
+
+	/**
+	 * @return sum of the amounts of the lines which are returned by {@link #retrieveLines(I_SEPA_Export)}
+	 */
+	BigDecimal sumLinesAmt(I_SEPA_Export doc);
+
 	/**
 	 * Vs82 05761
 	 * Retrieve all SEPA export lines with IsDebitTrxFailed = 'Y' and action Partner-Zahlungsweise zu "auf Rechnung" ändern (change payment rule to from direct debit to invoice)
@@ -22,14 +22,18 @@ package de.metas.payment.sepa.api.impl;
  * #L%
  */
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_BPartner;
+import org.compiere.model.IQuery;
+import org.compiere.model.IQuery.Aggregate;
 import org.compiere.model.Query;
 
 import de.metas.payment.sepa.api.ISEPADocumentDAO;
@@ -62,6 +66,30 @@ public class SEPADocumentDAO implements ISEPADocumentDAO
 
 	@Override
 	public List<I_SEPA_Export_Line> retrieveLines(@NonNull final I_SEPA_Export doc)
+	{
+		return createLinesQuery(doc).list();
+	}
+
+	@Override
+	public Iterator<I_SEPA_Export_Line> iterateLines(@NonNull final I_SEPA_Export doc)
+	{
+		return createLinesQuery(doc).iterate(I_SEPA_Export_Line.class);
+	}
+
+	@Override
+	public int countLines(@NonNull final I_SEPA_Export doc)
+	{
+		return createLinesQuery(doc).count();
+	}
+
+	@Override
+	public BigDecimal sumLinesAmt(@NonNull final I_SEPA_Export doc)
+	{
+		final BigDecimal sum = createLinesQuery(doc).aggregate(I_SEPA_Export_Line.COLUMNNAME_Amt, Aggregate.SUM, BigDecimal.class);
+		return sum != null ? sum : BigDecimal.ZERO;
+	}
+
+	private IQuery<I_SEPA_Export_Line> createLinesQuery(@NonNull final I_SEPA_Export doc)
 	{
 		return Services.get(IQueryBL.class).createQueryBuilder(I_SEPA_Export_Line.class)
 				.addOnlyActiveRecordsFilter()
@@ -70,8 +98,7 @@ public class SEPADocumentDAO implements ISEPADocumentDAO
 				.orderBy()
 				.addColumn(I_SEPA_Export_Line.COLUMNNAME_C_Currency_ID)
 				.addColumn(I_SEPA_Export_Line.COLUMNNAME_SEPA_Export_Line_ID).endOrderBy()
-				.create()
-				.list();
+				.create();
 	}
 
 	@Override
@@ -1,26 +1,39 @@
 package de.metas.payment.sepa.sepamarshaller.impl;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 
-import javax.xml.bind.JAXBContext;
+import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.bind.annotation.XmlSchema;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import de.metas.common.util.time.SystemTime;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.TimeUtil;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.payment.sepa.api.ISEPADocumentBL;
@@ -65,15 +78,35 @@ import de.metas.common.util.CoalesceUtil;
 import de.metas.util.xml.DynamicObjectFactory;
 import lombok.NonNull;
 
+/**
+ * Marshals a SEPA direct debit export.
+ * <p>
+ * Exports with at least as many lines as configured in {@value #SYSCONFIG_StreamingMinLines} are streamed: the group header is written first and then one payment instruction block per line,
+ * so the whole document is never kept in memory. See {@link #marshalStreaming(I_SEPA_Export, int, OutputStream)}.
+ */
 public class SEPACustomerDirectDebitMarshaler_Pain_008_003_02 implements SEPAMarshaler
 {
 	private static final String JAXB_SchemaLocation = "urn:sepade:xsd:pain.008.003.02 pain.008.003.02.xsd";
 	private static final String JAXB_ContextPath = ObjectFactory.class.getPackage().getName();
 	private static final DynamicObjectFactory JAXB_ObjectFactory = new DynamicObjectFactory(new ObjectFactory());
 
+	private static final String JAXB_Namespace = ObjectFactory.class.getPackage().getAnnotation(XmlSchema.class).namespace();
+	private static final QName QNAME_GrpHdr = new QName(JAXB_Namespace, "GrpHdr");
+	private static final QName QNAME_PmtInf = new QName(JAXB_Namespace, "PmtInf");
+
+	private static final String STREAMING_Encoding = "UTF-8";
+
+	/**
+	 * Minimum number of lines starting from which the export is streamed. Zero or less means never.
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_StreamingMinLines = "de.metas.payment.sepa.sepamarshaller.impl.SEPACustomerDirectDebitMarshaler_Pain_008_003_02.StreamingMinLines";
+	private static final int DEFAULT_StreamingMinLines = 1000;
+
 	private final DatatypeFactory datatypeFactory;
 
 	private final IBPartnerBL bpartnerService = Services.get(IBPartnerBL.class);
+	private final ISEPADocumentDAO sepaDocumentDAO = Services.get(ISEPADocumentDAO.class);
 
 	public SEPACustomerDirectDebitMarshaler_Pain_008_003_02()
 	{
@@ -94,8 +127,17 @@ public class SEPACustomerDirectDebitMarshaler_Pain_008_003_02 implements SEPAMar
 	{
 		try
 		{
-			final Document xmlDocument = createDocument(sepaDocument);
-			marshal(xmlDocument, out);
+			final int linesCount = sepaDocumentDAO.countLines(sepaDocument);
+			final int streamingMinLines = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_StreamingMinLines, DEFAULT_StreamingMinLines);
+			if (streamingMinLines > 0 && linesCount >= streamingMinLines)
+			{
+				marshalStreaming(sepaDocument, linesCount, out);
+			}
+			else
+			{
+				final Document xmlDocument = createDocument(sepaDocument);
+				marshal(xmlDocument, out);
+			}
 		}
 		catch (final Exception e)
 		{
@@ -111,8 +153,7 @@ public class SEPACustomerDirectDebitMarshaler_Pain_008_003_02 implements SEPAMar
 		{
 			final JAXBElement<Document> jaxbDocument = JAXB_ObjectFactory.createJAXBElement(xmlDocument);
 
-			final JAXBContext jaxbContext = JAXBContext.newInstance(JAXB_ContextPath);
-			final Marshaller marshaller = jaxbContext.createMarshaller();
+			final Marshaller marshaller = SEPAJAXBContexts.getJAXBContext(JAXB_ContextPath).createMarshaller();
 			marshaller.setProperty("jaxb.formatted.output", Boolean.TRUE);
 			marshaller.setProperty("jaxb.schemaLocation", JAXB_SchemaLocation);
 			marshaller.marshal(jaxbDocument, xmlWriter);
@@ -123,46 +164,123 @@ public class SEPACustomerDirectDebitMarshaler_Pain_008_003_02 implements SEPAMar
 		}
 	}
 
-	public Document createDocument(final I_SEPA_Export sepaDocument)
+	/**
+	 * Writes the same document as {@link #createDocument(I_SEPA_Export)}, but line by line.
+	 * <p>
+	 * The group header comes before the payment instructions, so its number of transactions and control sum are aggregated from the database upfront.
+	 * They are verified after all lines were written, in case the lines were changed in the meantime.
+	 * To make sure that nothing is written to the given output stream if they don't match, the document is written to a temporary file first.
+	 * <p>
+	 * Note: unlike {@link #marshal(Document, OutputStream)}, the output is not indented.
+	 */
+	private void marshalStreaming(
+			@NonNull final I_SEPA_Export sepaDocument,
+			final int linesCount,
+			@NonNull final OutputStream out) throws JAXBException, XMLStreamException, IOException
 	{
-		final Document document = new Document();
+		if (linesCount <= 0)
+		{
+			throw new AdempiereException("@NoLines@: " + sepaDocument);
+		}
 
-		final CustomerDirectDebitInitiationV02 customerDirectDebitInitiation = new CustomerDirectDebitInitiationV02();
-		document.setCstmrDrctDbtInitn(customerDirectDebitInitiation);
+		final Path tempFile = Files.createTempFile(SEPACustomerDirectDebitMarshaler_Pain_008_003_02.class.getSimpleName(), ".xml");
+		try
+		{
+			final int pmtInfCount;
+			try (final OutputStream tempOut = new BufferedOutputStream(Files.newOutputStream(tempFile)))
+			{
+				pmtInfCount = writeStreaming(sepaDocument, linesCount, tempOut);
+			}
 
-		//
-		// Group Header
+			Files.copy(tempFile, out);
+
+			sepaDocument.setProcessed(pmtInfCount > 0);
+			InterfaceWrapperHelper.save(sepaDocument);
+		}
+		finally
 		{
-			final GroupHeaderSDD groupHeader = new GroupHeaderSDD();
-			customerDirectDebitInitiation.setGrpHdr(groupHeader);
+			Files.deleteIfExists(tempFile);
+		}
+	}
 
-			// MessageIdentification
-			groupHeader.setMsgId(sepaDocument.getDocumentNo()); // unique identifier in our system
+	/**
+	 * @return number of written payment instructions
+	 */
+	private int writeStreaming(
+			@NonNull final I_SEPA_Export sepaDocument,
+			final int linesCount,
+			@NonNull final OutputStream out) throws JAXBException, XMLStreamException
+	{
+		final GroupHeaderSDD groupHeader = createGroupHeader(sepaDocument);
+		groupHeader.setNbOfTxs(String.valueOf(linesCount));
+		groupHeader.setCtrlSum(sepaDocumentDAO.sumLinesAmt(sepaDocument));
+
+		final Marshaller marshaller = SEPAJAXBContexts.getJAXBContext(JAXB_ContextPath).createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+
+		final XMLStreamWriter xmlWriter = XMLOutputFactory.newFactory().createXMLStreamWriter(out, STREAMING_Encoding);
+		xmlWriter.writeStartDocument(STREAMING_Encoding, "1.0");
+		xmlWriter.setDefaultNamespace(JAXB_Namespace);
+		xmlWriter.writeStartElement(JAXB_Namespace, "Document");
+		xmlWriter.writeDefaultNamespace(JAXB_Namespace);
+		xmlWriter.writeNamespace("xsi", XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+		xmlWriter.writeAttribute(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation", JAXB_SchemaLocation);
+		xmlWriter.writeStartElement(JAXB_Namespace, "CstmrDrctDbtInitn");
+
+		marshaller.marshal(new JAXBElement<>(QNAME_GrpHdr, GroupHeaderSDD.class, groupHeader), xmlWriter);
+
+		int pmtInfCount = 0;
+		BigDecimal ctrlSum = BigDecimal.ZERO;
+		for (final Iterator<I_SEPA_Export_Line> lines = sepaDocumentDAO.iterateLines(sepaDocument); lines.hasNext();)
+		{
+			final I_SEPA_Export_Line line = lines.next();
+			if (!line.isActive() || line.isError())
+			{
+				// Error on line. Don't create payment instruction information.
+				continue;
+			}
 
-			// CreationDateTime: The system-generated date and time stamp at the time of formatting of the message.
-			groupHeader.setCreDtTm(datatypeFactory.newXMLGregorianCalendar(SystemTime.asGregorianCalendar()));
+			pmtInfCount++;
+			final PaymentInstructionInformationSDD pmtInf = createPaymentInstructionInformation(groupHeader, sepaDocument, line, pmtInfCount);
+			marshaller.marshal(new JAXBElement<>(QNAME_PmtInf, PaymentInstructionInformationSDD.class, pmtInf), xmlWriter);
 
-			// Number of transactions: The total number of direct debit transaction blocks in the message.
-			// NOTE: You can have only one direct debit transaction by payment information.
-			// NOTE: it will be set later, after we know the number of lines
-			groupHeader.setNbOfTxs(null);
+			ctrlSum = ctrlSum.add(pmtInf.getCtrlSum());
+		}
 
-			// Control Sum: This is the total amount of the collection.
-			// NOTE: it will be set later, after each payment information
-			groupHeader.setCtrlSum(BigDecimal.ZERO);
+		xmlWriter.writeEndElement(); // CstmrDrctDbtInitn
+		xmlWriter.writeEndElement(); // Document
+		xmlWriter.writeEndDocument();
+		xmlWriter.flush();
+		xmlWriter.close(); // NOTE: does not close the underlying output stream
 
-			//
-			// Initiating party
-			{
-				final PartyIdentificationSEPA1 initiatingParty = new PartyIdentificationSEPA1();
-				initiatingParty.setNm(sepaDocument.getSEPA_CreditorName());
-				groupHeader.setInitgPty(initiatingParty);
-			}
+		if (pmtInfCount != linesCount || ctrlSum.compareTo(groupHeader.getCtrlSum()) != 0)
+		{
+			throw new AdempiereException("The lines were changed while exporting")
+					.appendParametersToMessage()
+					.setParameter("SEPA_Export", sepaDocument)
+					.setParameter("NbOfTxs", groupHeader.getNbOfTxs())
+					.setParameter("ActualNbOfTxs", pmtInfCount)
+					.setParameter("CtrlSum", groupHeader.getCtrlSum())
+					.setParameter("ActualCtrlSum", ctrlSum);
 		}
 
+		return pmtInfCount;
+	}
+
+	public Document createDocument(final I_SEPA_Export sepaDocument)
+	{
+		final Document document = new Document();
+
+		final CustomerDirectDebitInitiationV02 customerDirectDebitInitiation = new CustomerDirectDebitInitiationV02();
+		document.setCstmrDrctDbtInitn(customerDirectDebitInitiation);
+
+		//
+		// Group Header
+		customerDirectDebitInitiation.setGrpHdr(createGroupHeader(sepaDocument));
+
 		//
 		// Payment Informations: create one PaymentInstructionInformationSDD for each line
-		final List<I_SEPA_Export_Line> sepaDocumentLines = Services.get(ISEPADocumentDAO.class).retrieveLines(sepaDocument);
+		final List<I_SEPA_Export_Line> sepaDocumentLines = sepaDocumentDAO.retrieveLines(sepaDocument);
 		if (sepaDocumentLines.isEmpty())
 		{
 			throw new AdempiereException("@NoLines@: " + sepaDocument);
@@ -176,7 +294,9 @@ public class SEPACustomerDirectDebitMarshaler_Pain_008_003_02 implements SEPAMar
 				continue;
 			}
 
-			final PaymentInstructionInformationSDD pmtInf = createPaymentInstructionInformation(customerDirectDebitInitiation, sepaDocument, line);
+			// Current index of this payment instruction information
+			final int pmtInfIndex = customerDirectDebitInitiation.getPmtInf().size() + 1;
+			final PaymentInstructionInformationSDD pmtInf = createPaymentInstructionInformation(customerDirectDebitInitiation.getGrpHdr(), sepaDocument, line, pmtInfIndex);
 			Check.assumeNotNull(pmtInf, "pmtInf not null");
 
 			customerDirectDebitInitiation.getPmtInf().add(pmtInf);
@@ -197,18 +317,49 @@ public class SEPACustomerDirectDebitMarshaler_Pain_008_003_02 implements SEPAMar
 		return document;
 	}
 
+	private GroupHeaderSDD createGroupHeader(final I_SEPA_Export sepaDocument)
+	{
+		final GroupHeaderSDD groupHeader = new GroupHeaderSDD();
+		// MessageIdentification
+		groupHeader.setMsgId(sepaDocument.getDocumentNo()); // unique identifier in our system
+
+		// CreationDateTime: The system-generated date and time stamp at the time of formatting of the message.
+		groupHeader.setCreDtTm(datatypeFactory.newXMLGregorianCalendar(SystemTime.asGregorianCalendar()));
+
+		// Number of transactions: The total number of direct debit transaction blocks in the message.
+		// NOTE: You can have only one direct debit transaction by payment information.
+		// NOTE: it will be set later, after we know the number of lines
+		groupHeader.setNbOfTxs(null);
+
+		// Control Sum: This is the total amount of the collection.
+		// NOTE: it will be set later, after each payment information
+		groupHeader.setCtrlSum(BigDecimal.ZERO);
+
+		//
+		// Initiating party
+		{
+			final PartyIdentificationSEPA1 initiatingParty = new PartyIdentificationSEPA1();
+			initiatingParty.setNm(sepaDocument.getSEPA_CreditorName());
+			groupHeader.setInitgPty(initiatingParty);
+		}
+
+		return groupHeader;
+	}
+
+	/**
+	 * @param pmtInfIndex 1-based index of this payment instruction information
+	 */
 	private PaymentInstructionInformationSDD createPaymentInstructionInformation(
-			final CustomerDirectDebitInitiationV02 customerDirectDebitInitiation,
+			final GroupHeaderSDD groupHeader,
 			final I_SEPA_Export sepaHdr,
-			final I_SEPA_Export_Line line)
+			final I_SEPA_Export_Line line,
+			final int pmtInfIndex)
 	{
 		final PaymentInstructionInformationSDD pmtInf = new PaymentInstructionInformationSDD();
 
 		// PaymentInformationIdentification: A system-generated internal code.
 		{
-			// Current index of this payment instruction information
-			final int currentIndex = customerDirectDebitInitiation.getPmtInf().size() + 1;
-			final String pmtInfId = customerDirectDebitInitiation.getGrpHdr().getMsgId() + "-" + currentIndex;
+			final String pmtInfId = groupHeader.getMsgId() + "-" + pmtInfIndex;
 			pmtInf.setPmtInfId(pmtInfId);
 		}
 
@@ -266,7 +417,7 @@ public class SEPACustomerDirectDebitMarshaler_Pain_008_003_02 implements SEPAMar
 		// Creditor BPartner (Cdtr)
 		// NOTE: actually it's same as GroupHeader's initiating party
 		{
-			final PartyIdentificationSEPA5 cdtr = convertPartyIdentificationSEPA5(customerDirectDebitInitiation.getGrpHdr().getInitgPty());
+			final PartyIdentificationSEPA5 cdtr = convertPartyIdentificationSEPA5(groupHeader.getInitgPty());
 			pmtInf.setCdtr(cdtr);
 		}
 
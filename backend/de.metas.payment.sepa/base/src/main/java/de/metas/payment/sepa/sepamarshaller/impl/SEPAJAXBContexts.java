@@ -0,0 +1,69 @@
+package de.metas.payment.sepa.sepamarshaller.impl;
+
+/*
+ * #%L
+ * de.metas.payment.sepa.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Shares one {@link JAXBContext} per context path between all SEPA marshalers.
+ * <p>
+ * Creating a context is expensive (it introspects all classes of the schema), but a context is thread-safe once created.
+ * {@link javax.xml.bind.Marshaller}s are not thread-safe, so they shall still be created per use.
+ */
+@UtilityClass
+class SEPAJAXBContexts
+{
+	private final ConcurrentHashMap<String, JAXBContext> contextsByPath = new ConcurrentHashMap<>();
+
+	public JAXBContext getJAXBContext(@NonNull final String contextPath)
+	{
+		// NOTE: try get() first, because on java 8 computeIfAbsent() locks even if the key is present
+		final JAXBContext jaxbContext = contextsByPath.get(contextPath);
+		if (jaxbContext != null)
+		{
+			return jaxbContext;
+		}
+
+		return contextsByPath.computeIfAbsent(contextPath, SEPAJAXBContexts::createJAXBContext);
+	}
+
+	private JAXBContext createJAXBContext(final String contextPath)
+	{
+		try
+		{
+			return JAXBContext.newInstance(contextPath);
+		}
+		catch (final JAXBException e)
+		{
+			throw new AdempiereException("Failed creating JAXB context for " + contextPath, e);
+		}
+	}
+}
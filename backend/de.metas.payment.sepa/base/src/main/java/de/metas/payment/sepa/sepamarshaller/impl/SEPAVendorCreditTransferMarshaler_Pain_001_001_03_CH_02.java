@@ -38,7 +38,6 @@ import java.util.Properties;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
@@ -220,9 +219,7 @@ public class SEPAVendorCreditTransferMarshaler_Pain_001_001_03_CH_02 implements
 			final JAXBElement<Document> jaxbDocument = new DynamicObjectFactory(new ObjectFactory()).createJAXBElement(xmlDocument);
 
 			final String jaxbContextPath = Document.class.getPackage().getName();
-			final JAXBContext jaxbContext = JAXBContext.newInstance(jaxbContextPath);
-
-			final Marshaller marshaller = jaxbContext.createMarshaller();
+			final Marshaller marshaller = SEPAJAXBContexts.getJAXBContext(jaxbContextPath).createMarshaller();
 			marshaller.setProperty("jaxb.formatted.output", Boolean.TRUE);
 			marshaller.setProperty("jaxb.schemaLocation", PAIN_001_001_03_CH_02_SCHEMALOCATION + PAIN_001_001_03_CH_02 + ".xsd " + PAIN_001_001_03_CH_02 + ".xsd");
 			marshaller.marshal(jaxbDocument, xmlWriter);
@@ -0,0 +1,173 @@
+package de.metas.payment.sepa.sepamarshaller.impl;
+
+/*
+ * #%L
+ * de.metas.payment.sepa.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.MaxUsedHeapSampler;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+
+import de.metas.bpartner.service.IBPartnerBL;
+import de.metas.bpartner.service.impl.BPartnerBL;
+import de.metas.common.util.time.SystemTime;
+import de.metas.currency.CurrencyCode;
+import de.metas.currency.impl.PlainCurrencyDAO;
+import de.metas.money.CurrencyId;
+import de.metas.organization.OrgId;
+import de.metas.payment.sepa.api.SEPAProtocol;
+import de.metas.payment.sepa.model.I_SEPA_Export;
+import de.metas.payment.sepa.model.I_SEPA_Export_Line;
+import de.metas.user.UserRepository;
+import de.metas.util.Services;
+
+/**
+ * Marshals a 100k transactions direct debit export, once as a whole document and once streamed, and prints the durations, the file sizes and the heap used while marshalling.
+ * <p>
+ * Run it manually, preferably with a limited heap (e.g. -Xmx512m) to see the difference.
+ */
+public class SEPACustomerDirectDebitMarshaler_Pain_008_003_02ManualTest
+{
+	private static final int TRANSACTIONS = 100_000;
+
+	public static void main(final String[] args)
+	{
+		AdempiereTestHelper.get().init();
+		Services.registerService(IBPartnerBL.class, new BPartnerBL(new UserRepository()));
+
+		final I_SEPA_Export sepaExport = createSEPAExport();
+
+		// warm up
+		run(sepaExport, false);
+
+		run(sepaExport, false);
+		run(sepaExport, true);
+	}
+
+	private static void run(final I_SEPA_Export sepaExport, final boolean streaming)
+	{
+		Services.get(ISysConfigBL.class).setValue(
+				SEPACustomerDirectDebitMarshaler_Pain_008_003_02.SYSCONFIG_StreamingMinLines,
+				streaming ? 1 : 0,
+				ClientId.SYSTEM,
+				OrgId.ANY);
+
+		final MaxUsedHeapSampler heapSampler = new MaxUsedHeapSampler();
+		final CountingOutputStream out = new CountingOutputStream(ByteStreams.nullOutputStream());
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		new SEPACustomerDirectDebitMarshaler_Pain_008_003_02().marshal(sepaExport, new HeapSamplingOutputStream(out, heapSampler));
+		stopwatch.stop();
+
+		System.out.println((streaming ? "Streaming: " : "Document:  ")
+				+ TRANSACTIONS + " transactions"
+				+ ", " + stopwatch
+				+ ", " + out.getCount() / 1024 + " KB"
+				+ ", max used heap " + heapSampler.getMaxUsedHeapBytes() / 1024 / 1024 + " MB");
+	}
+
+	private static I_SEPA_Export createSEPAExport()
+	{
+		final CurrencyId eur = PlainCurrencyDAO.createCurrencyId(CurrencyCode.EUR);
+
+		final I_SEPA_Export sepaExport = newInstance(I_SEPA_Export.class);
+		sepaExport.setSEPA_Protocol(SEPAProtocol.DIRECT_DEBIT_PAIN_008_003_02.getCode());
+		sepaExport.setDocumentNo("Benchmark");
+		sepaExport.setSEPA_CreditorName("SEPA_CreditorName");
+		sepaExport.setSEPA_CreditorIdentifier("SEPA_CreditorIdentifier");
+		sepaExport.setIBAN("NL31INGB0000000044");
+		sepaExport.setSwiftCode("INGBNL2A");
+		sepaExport.setPaymentDate(SystemTime.asTimestamp());
+		sepaExport.setIsExportBatchBookings(true);
+		saveRecord(sepaExport);
+
+		for (int i = 1; i <= TRANSACTIONS; i++)
+		{
+			final I_SEPA_Export_Line line = newInstance(I_SEPA_Export_Line.class);
+			line.setSEPA_Export_ID(sepaExport.getSEPA_Export_ID());
+			line.setIBAN("NL31INGB0000000044");
+			line.setSwiftCode("INGBNL2A");
+			line.setAmt(BigDecimal.valueOf(i, 2));
+			line.setC_Currency_ID(eur.getRepoId());
+			line.setSEPA_MandateRefNo("Mandate-" + i);
+			line.setDescription("Invoice " + i);
+			line.setIsActive(true);
+			line.setIsError(false);
+			saveRecord(line);
+		}
+
+		return sepaExport;
+	}
+
+	/**
+	 * Samples the used heap every 1MB which is written.
+	 */
+	private static final class HeapSamplingOutputStream extends OutputStream
+	{
+		private static final int SAMPLE_EVERY_BYTES = 1024 * 1024;
+
+		private final OutputStream delegate;
+		private final MaxUsedHeapSampler heapSampler;
+		private int bytesSinceLastSample = 0;
+
+		private HeapSamplingOutputStream(final OutputStream delegate, final MaxUsedHeapSampler heapSampler)
+		{
+			this.delegate = delegate;
+			this.heapSampler = heapSampler;
+		}
+
+		@Override
+		public void write(final int b) throws IOException
+		{
+			delegate.write(b);
+			countWritten(1);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException
+		{
+			delegate.write(b, off, len);
+			countWritten(len);
+		}
+
+		private void countWritten(final int len)
+		{
+			bytesSinceLastSample += len;
+			if (bytesSinceLastSample >= SAMPLE_EVERY_BYTES)
+			{
+				bytesSinceLastSample = 0;
+				heapSampler.sample();
+			}
+		}
+	}
+}
@@ -3,8 +3,17 @@ package de.metas.payment.sepa.sepamarshaller.impl;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 
+import javax.xml.bind.JAXBElement;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,9 +23,13 @@ import de.metas.bpartner.service.impl.BPartnerBL;
 import de.metas.currency.CurrencyCode;
 import de.metas.currency.impl.PlainCurrencyDAO;
 import de.metas.money.CurrencyId;
+import de.metas.organization.OrgId;
 import de.metas.payment.esr.model.I_C_BP_BankAccount;
+import de.metas.payment.sepa.api.ISEPADocumentDAO;
+import de.metas.payment.sepa.api.impl.SEPADocumentDAO;
 import de.metas.payment.sepa.api.SEPAProtocol;
 import de.metas.payment.sepa.jaxb.sct.pain_008_003_02.Document;
+import de.metas.payment.sepa.jaxb.sct.pain_008_003_02.PaymentInstructionInformationSDD;
 import de.metas.payment.sepa.model.I_SEPA_Export;
 import de.metas.payment.sepa.model.I_SEPA_Export_Line;
 import de.metas.user.UserRepository;
@@ -106,6 +119,90 @@ class SEPACustomerDirectDebitMarshaler_Pain_008_003_02Test
 		assertThat(xmlDocument.getCstmrDrctDbtInitn().getPmtInf()).allSatisfy(pmtInf -> assertThat(pmtInf.getCdtrSchmeId().getId().getPrvtId().getOthr().getId()).isEqualTo("SEPA_CreditorIdentifier"));
 	}
 
+	@Test
+	public void marshal_streaming() throws Exception
+	{
+		Services.get(ISysConfigBL.class).setValue(SEPACustomerDirectDebitMarshaler_Pain_008_003_02.SYSCONFIG_StreamingMinLines, 1, ClientId.SYSTEM, OrgId.ANY);
+
+		final I_SEPA_Export sepaExport = createSEPAExport(
+				"SEPA_CreditorName", // SEPA_CreditorName
+				"SEPA_CreditorIdentifier", // SEPA_CreditorIdentifier
+				"INGBNL2A" // bic
+		);
+		sepaExport.setDocumentNo("DocNo");
+		save(sepaExport);
+		createSEPAExportLine(sepaExport,
+				"001",// SEPA_MandateRefNo
+				"NL31INGB0000000044",// IBAN
+				"INGBNL2A", // BIC
+				new BigDecimal("100"), // amount
+				eur);
+		createSEPAExportLine(sepaExport,
+				"002", // SEPA_MandateRefNo
+				"NL31INGB0000000044", // IBAN
+				"INGBNL2A",// BIC
+				new BigDecimal("30"), // amount
+				eur);
+
+		// invoke the method under test
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		xmlGenerator.marshal(sepaExport, out);
+
+		@SuppressWarnings("unchecked")
+		final JAXBElement<Document> jaxbDocument = (JAXBElement<Document>)SEPAJAXBContexts.getJAXBContext(Document.class.getPackage().getName())
+				.createUnmarshaller()
+				.unmarshal(new ByteArrayInputStream(out.toByteArray()));
+		xmlDocument = jaxbDocument.getValue();
+
+		assertThat(xmlDocument.getCstmrDrctDbtInitn().getGrpHdr().getCtrlSum()).isEqualByComparingTo("130");
+		assertThat(xmlDocument.getCstmrDrctDbtInitn().getGrpHdr().getNbOfTxs()).isEqualTo("2");
+		assertThat(xmlDocument.getCstmrDrctDbtInitn().getPmtInf())
+				.extracting(PaymentInstructionInformationSDD::getPmtInfId)
+				.containsExactly("DocNo-1", "DocNo-2");
+		assertThat(xmlDocument.getCstmrDrctDbtInitn().getPmtInf())
+				.extracting(PaymentInstructionInformationSDD::getCtrlSum)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("100"), new BigDecimal("30"));
+		assertThat(sepaExport.isProcessed()).isTrue();
+	}
+
+	@Test
+	public void marshal_streaming_linesChangedWhileExporting() throws Exception
+	{
+		Services.get(ISysConfigBL.class).setValue(SEPACustomerDirectDebitMarshaler_Pain_008_003_02.SYSCONFIG_StreamingMinLines, 1, ClientId.SYSTEM, OrgId.ANY);
+
+		// the group header's control sum is aggregated before the lines are exported; pretend that a line was changed in between
+		Services.registerService(ISEPADocumentDAO.class, new SEPADocumentDAO()
+		{
+			@Override
+			public BigDecimal sumLinesAmt(final I_SEPA_Export doc)
+			{
+				return super.sumLinesAmt(doc).add(BigDecimal.ONE);
+			}
+		});
+		xmlGenerator = new SEPACustomerDirectDebitMarshaler_Pain_008_003_02();
+
+		final I_SEPA_Export sepaExport = createSEPAExport(
+				"SEPA_CreditorName", // SEPA_CreditorName
+				"SEPA_CreditorIdentifier", // SEPA_CreditorIdentifier
+				"INGBNL2A" // bic
+		);
+		createSEPAExportLine(sepaExport,
+				"001",// SEPA_MandateRefNo
+				"NL31INGB0000000044",// IBAN
+				"INGBNL2A", // BIC
+				new BigDecimal("100"), // amount
+				eur);
+
+		// invoke the method under test
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertThatThrownBy(() -> xmlGenerator.marshal(sepaExport, out))
+				.isInstanceOf(AdempiereException.class);
+
+		assertThat(out.size()).isZero();
+		assertThat(sepaExport.isProcessed()).isFalse();
+	}
+
 	private I_SEPA_Export createSEPAExport(
 			final String SEPA_CreditorName,
 			final String SEPA_CreditorIdentifier,
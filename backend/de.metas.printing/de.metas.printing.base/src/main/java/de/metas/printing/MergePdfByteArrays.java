@@ -15,6 +15,11 @@ import com.lowagie.text.pdf.PdfReader;
 import com.lowagie.text.pdf.PdfWriter;
 
 /**
+ * Merges PDFs in memory.
+ * <p>
+ * It's used to put together the PDF of one print package (and its summary page), which is then stored as one {@code AD_Archive} byte array anyway,
+ * so streaming it would not save any memory. To concatenate many documents, use {@link StreamingPdfConcatenator}.
+ *
  * @author cg
  *
  */
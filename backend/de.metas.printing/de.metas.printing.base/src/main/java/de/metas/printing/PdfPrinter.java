@@ -39,6 +39,20 @@ public class PdfPrinter
 	 * @return A byte-array with the pdf file.
 	 */
 	public static byte[] print(final Printable printable, final Printable clone)
+	{
+		return print(printable, clone, createA4PageFormat(), getPdfFontDir());
+	}
+
+	/**
+	 * Same as {@link #print(Printable, Printable)}, but with the page format and the font directory already resolved.
+	 * <p>
+	 * Those two involve the {@link PrinterJob} and the system configuration, so when printing on several threads, resolve them once on the calling thread
+	 * using {@link #createA4PageFormat()} and {@link #getPdfFontDir()}. Everything else that is used here is created per invocation.
+	 *
+	 * @param pageFormat is not changed; each run is using its own copy
+	 * @param pdfFontDir directory with additional fonts; may be empty
+	 */
+	public static byte[] print(final Printable printable, final Printable clone, final PageFormat pageFormat, final String pdfFontDir)
 	{
 		// The bytes to be returned
 		byte[] bytes = null;
@@ -60,15 +74,7 @@ public class PdfPrinter
 				document.open();
 				final PdfContentByte contentByte = writer.getDirectContent();
 
-				final PrinterJob pjob = PrinterJob.getPrinterJob();
-
-				final PageFormat pf = pjob.defaultPage();
-				final Paper paper = pjob.defaultPage().getPaper();
-				final MediaSize size = MediaSize.getMediaSizeForName(MediaSizeName.ISO_A4);
-
-				paper.setSize(size.getSize(Size2DSyntax.INCH)[0] * 72, size.getSize(Size2DSyntax.INCH)[1] * 72);
-				paper.setImageableArea(0, 0, size.getSize(Size2DSyntax.INCH)[0] * 72, size.getSize(Size2DSyntax.INCH)[1] * 72);
-				pf.setPaper(paper);
+				final PageFormat pf = (PageFormat)pageFormat.clone();
 
 				final float width = (float)pf.getWidth();
 				final float height = (float)pf.getHeight();
@@ -76,14 +82,12 @@ public class PdfPrinter
 				final DefaultFontMapper mapper = new DefaultFontMapper();
 
 				// Elaine 2009/02/17 - load additional font from directory set in PDF_FONT_DIR of System Configurator
-				String pdfFontDir = MSysConfig.getValue(PDF_FONT_DIR, "");
 				if (pdfFontDir != null && pdfFontDir.trim().length() > 0)
 				{
-					pdfFontDir = pdfFontDir.trim();
-					final File dir = new File(pdfFontDir);
+					final File dir = new File(pdfFontDir.trim());
 					if (dir.exists() && dir.isDirectory())
 					{
-						mapper.insertDirectory(pdfFontDir);
+						mapper.insertDirectory(pdfFontDir.trim());
 					}
 				}
 				//
@@ -123,6 +127,26 @@ public class PdfPrinter
 		return bytes;
 	}
 
+	public static PageFormat createA4PageFormat()
+	{
+		final PrinterJob pjob = PrinterJob.getPrinterJob();
+
+		final PageFormat pf = pjob.defaultPage();
+		final Paper paper = pjob.defaultPage().getPaper();
+		final MediaSize size = MediaSize.getMediaSizeForName(MediaSizeName.ISO_A4);
+
+		paper.setSize(size.getSize(Size2DSyntax.INCH)[0] * 72, size.getSize(Size2DSyntax.INCH)[1] * 72);
+		paper.setImageableArea(0, 0, size.getSize(Size2DSyntax.INCH)[0] * 72, size.getSize(Size2DSyntax.INCH)[1] * 72);
+		pf.setPaper(paper);
+
+		return pf;
+	}
+
+	public static String getPdfFontDir()
+	{
+		return MSysConfig.getValue(PDF_FONT_DIR, "");
+	}
+
 	public static class PrintException extends RuntimeException
 	{
 		private static final long serialVersionUID = -37592114843097156L;
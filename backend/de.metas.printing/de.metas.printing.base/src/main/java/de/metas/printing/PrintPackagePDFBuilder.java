@@ -3,18 +3,36 @@
  */
 package de.metas.printing;
 
+import java.awt.print.PageFormat;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import lombok.NonNull;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
 import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
 import com.lowagie.text.pdf.PdfCopy;
 import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
+
+import de.metas.logging.LogManager;
 
 import de.metas.printing.api.IPrintingDAO;
 import de.metas.printing.client.engine.PrintablePDF;
@@ -26,9 +44,35 @@ import de.metas.util.Services;
 
 public class PrintPackagePDFBuilder
 {
+	private static final transient Logger logger = LogManager.getLogger(PrintPackagePDFBuilder.class);
 	private final IPrintingDAO printingDAO = Services.get(IPrintingDAO.class);
 
+	private static final int DEFAULT_PagesPerChunk = 20;
+
+	/**
+	 * Shared by all print packages, so that packages which are printed at the same time don't multiply the number of rendering threads.
+	 */
+	private static final ExecutorService renderingExecutor = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(),
+			CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(PrintPackagePDFBuilder.class.getSimpleName())
+					.setDaemon(true)
+					.build());
+
 	private I_C_Print_Package printPackage;
+	private int parallelism = 1;
+	private int pagesPerChunk = DEFAULT_PagesPerChunk;
+	private ChunkRenderer chunkRenderer = null;
+
+	/**
+	 * Renders the given pages of the print package data.
+	 */
+	@FunctionalInterface
+	@VisibleForTesting
+	interface ChunkRenderer
+	{
+		byte[] render(byte[] data, int pageFrom, int pageTo, int calX, int calY) throws Exception;
+	}
 
 	public PrintPackagePDFBuilder setPrintPackage(@NonNull final I_C_Print_Package printPackage)
 	{
@@ -36,6 +80,31 @@ public class PrintPackagePDFBuilder
 		return this;
 	}
 
+	/**
+	 * If greater than one, the pages are rendered in chunks of {@link #setPagesPerChunk(int)} pages, on up to that many threads.
+	 * The rendered chunks are still written in their original order.
+	 * <p>
+	 * The threads are shared by all print packages and there are not more of them than available processors.
+	 */
+	public PrintPackagePDFBuilder setParallelism(final int parallelism)
+	{
+		this.parallelism = Math.max(parallelism, 1);
+		return this;
+	}
+
+	public PrintPackagePDFBuilder setPagesPerChunk(final int pagesPerChunk)
+	{
+		this.pagesPerChunk = pagesPerChunk > 0 ? pagesPerChunk : DEFAULT_PagesPerChunk;
+		return this;
+	}
+
+	@VisibleForTesting
+	PrintPackagePDFBuilder setChunkRenderer(@NonNull final ChunkRenderer chunkRenderer)
+	{
+		this.chunkRenderer = chunkRenderer;
+		return this;
+	}
+
 	private PrintablePDF createPrintable()
 	{
 		final byte[] data = printingDAO.retrievePrintPackageData(printPackage).getPrintData();
@@ -57,6 +126,12 @@ public class PrintPackagePDFBuilder
 
 	public void print(@NonNull final OutputStream bos) throws Exception
 	{
+		if (parallelism > 1)
+		{
+			printParallel(bos);
+			return;
+		}
+
 		final I_C_Print_Job_Instructions print_Job_Instructions = printPackage.getC_Print_Job_Instructions();
 		final Document document = new Document();
 
@@ -108,4 +183,166 @@ public class PrintPackagePDFBuilder
 		final PrintablePDF clone = printable;
 		return PdfPrinter.print(printable, clone);
 	}
+
+	/**
+	 * Same output as the sequential mode, but the pages are rendered in chunks on the shared {@link #renderingExecutor}.
+	 * <p>
+	 * Each chunk reads its pages from the shared package data using its own partial {@link PdfReader}, so the data is neither copied nor parsed completely per chunk.
+	 * At most two chunks per {@link #setParallelism(int)} are rendered or waiting at a time; the oldest one is written to the output as soon as it's ready, so the page order is kept.
+	 * That bounds the memory which is needed for rendering. Note that the output itself is still kept in memory if it's a {@link ByteArrayOutputStream}, like in {@link #printToBytes()}.
+	 * <p>
+	 * Only this method's thread accesses the database and the {@link java.awt.print.PrinterJob}; see {@link #createChunkRenderer()}.
+	 * The rendering threads don't share any {@link PrintablePDF}, PDF renderer or iText instance.
+	 * Still, the first chunk is rendered on this thread, so that the lazy static initialization of the PDF renderer and of the fonts is not done concurrently.
+	 */
+	private void printParallel(@NonNull final OutputStream out)
+	{
+		final I_C_Print_Job_Instructions print_Job_Instructions = printPackage.getC_Print_Job_Instructions();
+
+		final byte[] data = printingDAO.retrievePrintPackageData(printPackage).getPrintData();
+		if (data == null)
+		{
+			return;
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final Deque<Future<byte[]>> pendingChunks = new ArrayDeque<>();
+		final int maxPendingChunks = parallelism * 2;
+
+		try (final StreamingPdfConcatenator concatenator = new StreamingPdfConcatenator(out))
+		{
+			final ChunkRenderer chunkRendererToUse = chunkRenderer != null ? chunkRenderer : createChunkRenderer();
+			final int numberOfPages = getNumberOfPages(data);
+			final List<I_C_Print_PackageInfo> printPackageInfos = printingDAO.retrievePrintPackageInfos(printPackage);
+			boolean firstChunk = true;
+			for (final I_C_Print_PackageInfo printPackageInfo : printPackageInfos)
+			{
+				final int calX = printPackageInfo.getCalX();
+				final int calY = printPackageInfo.getCalY();
+				for (int pageFrom = 1; pageFrom <= numberOfPages; pageFrom += pagesPerChunk)
+				{
+					if (pendingChunks.size() >= maxPendingChunks)
+					{
+						concatenator.addDocument(waitForChunk(pendingChunks.removeFirst()));
+					}
+
+					final int chunkPageFrom = pageFrom;
+					final int chunkPageTo = Math.min(pageFrom + pagesPerChunk - 1, numberOfPages);
+					if (firstChunk)
+					{
+						pendingChunks.addLast(CompletableFuture.completedFuture(chunkRendererToUse.render(data, chunkPageFrom, chunkPageTo, calX, calY)));
+						firstChunk = false;
+					}
+					else
+					{
+						pendingChunks.addLast(renderingExecutor.submit(() -> chunkRendererToUse.render(data, chunkPageFrom, chunkPageTo, calX, calY)));
+					}
+				}
+			}
+
+			while (!pendingChunks.isEmpty())
+			{
+				concatenator.addDocument(waitForChunk(pendingChunks.removeFirst()));
+			}
+			concatenator.close();
+
+			logger.debug("Rendered {} with parallelism={}, pagesPerChunk={}: {}", printPackage, parallelism, pagesPerChunk, concatenator.getStats());
+
+			print_Job_Instructions.setErrorMsg(null);
+			print_Job_Instructions.setStatus(X_C_Print_Job_Instructions.STATUS_Done);
+			InterfaceWrapperHelper.save(print_Job_Instructions);
+		}
+		catch (final Exception e)
+		{
+			print_Job_Instructions.setErrorMsg(e.getLocalizedMessage());
+			print_Job_Instructions.setStatus(X_C_Print_Job_Instructions.STATUS_Error);
+			InterfaceWrapperHelper.save(print_Job_Instructions);
+
+			throw new AdempiereException(e.getLocalizedMessage());
+		}
+		finally
+		{
+			// NOTE: the executor is shared, so we only cancel this package's chunks
+			pendingChunks.forEach(chunk -> chunk.cancel(true));
+			logger.debug("Rendering {} took {}", printPackage, stopwatch);
+		}
+	}
+
+	/**
+	 * Resolves the page format and the PDF font directory on the calling thread, because they involve the {@link java.awt.print.PrinterJob} and the system configuration.
+	 */
+	private static ChunkRenderer createChunkRenderer()
+	{
+		final PageFormat pageFormat = PdfPrinter.createA4PageFormat();
+		final String pdfFontDir = PdfPrinter.getPdfFontDir();
+		return (data, pageFrom, pageTo, calX, calY) -> renderChunk(data, pageFrom, pageTo, calX, calY, pageFormat, pdfFontDir);
+	}
+
+	private static int getNumberOfPages(@NonNull final byte[] data) throws IOException
+	{
+		final PdfReader reader = new PdfReader(new RandomAccessFileOrArray(data), null);
+		try
+		{
+			return reader.getNumberOfPages();
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	private static byte[] waitForChunk(@NonNull final Future<byte[]> chunk) throws InterruptedException
+	{
+		try
+		{
+			return chunk.get();
+		}
+		catch (final ExecutionException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e.getCause());
+		}
+	}
+
+	/**
+	 * Renders the given pages like {@link #print(I_C_Print_PackageInfo, PrintablePDF)} does for the whole document.
+	 */
+	private static byte[] renderChunk(
+			@NonNull final byte[] data,
+			final int pageFrom,
+			final int pageTo,
+			final int calX,
+			final int calY,
+			@NonNull final PageFormat pageFormat,
+			final String pdfFontDir) throws IOException, DocumentException
+	{
+		final PrintablePDF printable = new PrintablePDF(new ByteArrayInputStream(extractPages(data, pageFrom, pageTo)));
+		printable.setCalX(calX);
+		printable.setCalY(calY);
+
+		return PdfPrinter.print(printable, printable, pageFormat, pdfFontDir);
+	}
+
+	@VisibleForTesting
+	static byte[] extractPages(@NonNull final byte[] data, final int pageFrom, final int pageTo) throws IOException, DocumentException
+	{
+		// partial reading: only the objects of the requested pages are read
+		final PdfReader reader = new PdfReader(new RandomAccessFileOrArray(data), null);
+		try
+		{
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final Document document = new Document();
+			final PdfCopy copy = new PdfCopy(document, out);
+			document.open();
+			for (int page = pageFrom; page <= pageTo; page++)
+			{
+				copy.addPage(copy.getImportedPage(reader, page));
+			}
+			document.close();
+			return out.toByteArray();
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
 }
@@ -366,10 +366,19 @@ public class PrintJobLinesAggregator implements IPrintJobLinesAggregator
 						continue;
 					}
 
+					// consecutive parts of the same printing data are added together, so the data's PDF is parsed only once
 					int pagesAdded = 0;
-					for (final PrintItemPart printItemPart : printItemParts)
+					int partIdx = 0;
+					while (partIdx < printItemParts.size())
 					{
-						pagesAdded += printingDataToPDFWriter.addArchivePartToPDF(printItemPart.getPrintingData(), printItemPart.getPrintingSegment());
+						final PrintingData printingData = printItemParts.get(partIdx).getPrintingData();
+						final List<PrintingSegment> segments = new ArrayList<>();
+						while (partIdx < printItemParts.size() && printItemParts.get(partIdx).getPrintingData() == printingData)
+						{
+							segments.add(printItemParts.get(partIdx).getPrintingSegment());
+							partIdx++;
+						}
+						pagesAdded += printingDataToPDFWriter.addArchivePartsToPDF(printingData, segments);
 					}
 					if (pagesAdded == 0)
 					{
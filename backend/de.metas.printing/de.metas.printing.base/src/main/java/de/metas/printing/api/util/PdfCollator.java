@@ -39,6 +39,12 @@ import com.lowagie.text.pdf.PdfReader;
 
 import de.metas.util.Check;
 
+/**
+ * Collates pages of PDFs into one PDF.
+ * <p>
+ * By default, the result is collected in memory, because the callers need it as byte array (see {@link #toByteArray()}).
+ * To write big results without holding them in memory, use {@link #PdfCollator(OutputStream)}.
+ */
 public class PdfCollator
 {
 	private final OutputStream out;
@@ -9,6 +9,7 @@ import de.metas.common.util.time.SystemTime;
 import de.metas.i18n.ILanguageBL;
 import de.metas.i18n.IMsgBL;
 import de.metas.i18n.Language;
+import de.metas.logging.LogManager;
 import de.metas.printing.MergePdfByteArrays;
 import de.metas.printing.PrintPackagePDFBuilder;
 import de.metas.printing.api.IPrintPackageBL;
@@ -29,16 +30,21 @@ import de.metas.report.client.ReportsClient;
 import de.metas.report.server.OutputType;
 import de.metas.report.server.ReportResult;
 import de.metas.util.Check;
+import de.metas.util.Loggables;
 import de.metas.util.Services;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.archive.api.ArchiveRequest;
 import org.adempiere.archive.api.ArchiveResult;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.apache.commons.collections4.IteratorUtils;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.I_AD_PInstance;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
 
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
@@ -62,9 +68,18 @@ import java.util.UUID;
  */
 public class PDFDocPrintingWorkpackageProcessor implements IWorkpackageProcessor
 {
+	private static final Logger logger = LogManager.getLogger(PDFDocPrintingWorkpackageProcessor.class);
+
 	// services
 	private final IPrintingDAO dao = Services.get(IPrintingDAO.class);
 	private final IQueueDAO queueDAO = Services.get(IQueueDAO.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	/**
+	 * Number of threads which render the pages of one print package. The default (1) renders the package in the calling thread, in one go.
+	 */
+	private static final String SYSCONFIG_RenderingParallelism = "de.metas.printing.async.spi.impl.PDFDocPrintingWorkpackageProcessor.RenderingParallelism";
+	private static final String SYSCONFIG_PagesPerChunk = "de.metas.printing.async.spi.impl.PDFDocPrintingWorkpackageProcessor.PagesPerChunk";
 
 	private final String PDFArchiveName = "PDFDocPrintingWorkpackageProcessor_ArchiveName";
 	private final String PDFPrintJob_Done = "PDFPrintingAsyncBatchListener_PrintJob_Done_2";
@@ -141,10 +156,16 @@ public class PDFDocPrintingWorkpackageProcessor implements IWorkpackageProcessor
 			}
 		}
 
+		final int renderingParallelism = sysConfigBL.getIntValue(SYSCONFIG_RenderingParallelism, 1);
+		final int pagesPerChunk = sysConfigBL.getIntValue(SYSCONFIG_PagesPerChunk, 20);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
 		for (final I_C_Print_Package printPackage : printPackages.values())
 		{
 			final byte[] pdfScaled = new PrintPackagePDFBuilder()
 					.setPrintPackage(printPackage)
+					.setParallelism(renderingParallelism)
+					.setPagesPerChunk(pagesPerChunk)
 					.printToBytes();
 			if (pdfScaled == null || pdfScaled.length == 0)
 			{
@@ -173,6 +194,9 @@ public class PDFDocPrintingWorkpackageProcessor implements IWorkpackageProcessor
 			createArchive(printPackage, mergedPDF, asyncBatch, currentIndex);
 		}
 
+		stopwatch.stop();
+		Loggables.addLog("Printed {} print package(s) of {} with renderingParallelism={} in {}", printPackages.size(), jobInstructions, renderingParallelism, stopwatch);
+		logger.debug("Printed {} print package(s) of {} with renderingParallelism={} in {}", printPackages.size(), jobInstructions, renderingParallelism, stopwatch);
 	}
 
 	private byte[] createSummaryPage(final I_C_Print_Job_Instructions jobInstructions, final int index, final int countExpected, final int noInvoices)
@@ -23,6 +23,7 @@
 package de.metas.printing.printingdata;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import de.metas.common.util.time.SystemTime;
 import de.metas.logging.LogManager;
@@ -89,11 +90,9 @@ public class PrintingDataToPDFFileStorer
 			createDirectories(path);
 			try (final PrintingDataToPDFWriter printingDataToPDFWriter = new PrintingDataToPDFWriter(new FileOutputStream(file)))
 			{
-				for (final PrintingSegment segment : path2Segments.get(path))
-				{
-					logger.debug("Going to store PrintingSegment to file={}; segment={}", file, segment);
-					printingDataToPDFWriter.addArchivePartToPDF(printingData, segment);
-				}
+				final ImmutableList<PrintingSegment> segments = path2Segments.get(path).asList();
+				logger.debug("Going to store {} PrintingSegments to file={}; segments={}", segments.size(), file, segments);
+				printingDataToPDFWriter.addArchivePartsToPDF(printingData, segments);
 			}
 			catch (final FileNotFoundException e)
 			{
@@ -22,6 +22,7 @@
 
 package de.metas.printing.printingdata;
 
+import com.google.common.collect.ImmutableList;
 import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
 import com.lowagie.text.pdf.BadPdfFormatException;
@@ -36,6 +37,7 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.List;
 
 public class PrintingDataToPDFWriter implements IAutoCloseable
 {
@@ -59,10 +61,20 @@ public class PrintingDataToPDFWriter implements IAutoCloseable
 	}
 
 	public int addArchivePartToPDF(@NonNull final PrintingData data, @NonNull final PrintingSegment segment)
+	{
+		return addArchivePartsToPDF(data, ImmutableList.of(segment));
+	}
+
+	/**
+	 * Adds the given segments of the given data. The data's PDF is parsed only once, no matter how many segments there are.
+	 *
+	 * @return number of pages added
+	 */
+	public int addArchivePartsToPDF(@NonNull final PrintingData data, @NonNull final List<PrintingSegment> segments)
 	{
 		try
 		{
-			return addArchivePartToPDF0(data, segment);
+			return addArchivePartsToPDF0(data, segments);
 		}
 		catch (final Exception e)
 		{
@@ -70,17 +82,39 @@ public class PrintingDataToPDFWriter implements IAutoCloseable
 		}
 	}
 
-	private int addArchivePartToPDF0(@NonNull final PrintingData data, @NonNull final PrintingSegment segment) throws IOException
+	private int addArchivePartsToPDF0(@NonNull final PrintingData data, @NonNull final List<PrintingSegment> segments) throws IOException
 	{
 		if (!data.hasData())
 		{
 			logger.info("PrintingData {} does not contain any data; -> returning", data);
 			return 0;
 		}
-		logger.debug("Adding data={}; segment={}", data, segment);
+		if (segments.isEmpty())
+		{
+			return 0;
+		}
 
 		final PdfReader reader = new PdfReader(data.getData());
+		try
+		{
+			int pagesAdded = 0;
+			for (final PrintingSegment segment : segments)
+			{
+				logger.debug("Adding data={}; segment={}", data, segment);
+				pagesAdded += addArchivePartToPDF0(reader, segment);
+			}
+
+			pdfCopy.freeReader(reader);
+			return pagesAdded;
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
 
+	private int addArchivePartToPDF0(@NonNull final PdfReader reader, @NonNull final PrintingSegment segment)
+	{
 		final int archivePageNums = reader.getNumberOfPages();
 
 		int pageFrom = segment.getPageFrom();
@@ -112,16 +146,13 @@ public class PrintingDataToPDFWriter implements IAutoCloseable
 			{
 				pdfCopy.addPage(pdfCopy.getImportedPage(reader, page));
 			}
-			catch (final BadPdfFormatException e)
+			catch (final BadPdfFormatException | IOException e)
 			{
 				throw new AdempiereException("@Invalid@ " + segment + " (Page: " + page + ")", e);
 			}
 			pagesAdded++;
 		}
 
-		pdfCopy.freeReader(reader);
-		reader.close();
-
 		logger.debug("Added {} pages", pagesAdded);
 		return pagesAdded;
 	}
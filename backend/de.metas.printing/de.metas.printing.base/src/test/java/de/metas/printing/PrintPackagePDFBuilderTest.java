@@ -0,0 +1,161 @@
+/*
+ * #%L
+ * de.metas.printing.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.printing;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+import de.metas.printing.api.impl.Helper;
+import de.metas.printing.model.I_C_PrintPackageData;
+import de.metas.printing.model.I_C_Print_Job_Instructions;
+import de.metas.printing.model.I_C_Print_Package;
+import de.metas.printing.model.I_C_Print_PackageInfo;
+import de.metas.printing.model.X_C_Print_Job_Instructions;
+import lombok.NonNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.refresh;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrintPackagePDFBuilderTest
+{
+	private static final int NUMBER_OF_PAGES = 25;
+
+	@BeforeEach
+	void beforeEach(@NonNull final TestInfo testInfo)
+	{
+		new Helper(testInfo).setup();
+	}
+
+	/**
+	 * Each page of the package data has its own width, so the order of the output pages can be checked.
+	 * The chunks are rendered in the reverse order, so they are finished in the reverse order too.
+	 */
+	@Test
+	void printParallel_keepsThePageOrder() throws Exception
+	{
+		final I_C_Print_Job_Instructions jobInstructions = newInstance(I_C_Print_Job_Instructions.class);
+		saveRecord(jobInstructions);
+		final I_C_Print_Package printPackage = createPrintPackage(jobInstructions, createPdf(NUMBER_OF_PAGES));
+
+		final byte[] result = new PrintPackagePDFBuilder()
+				.setPrintPackage(printPackage)
+				.setParallelism(4)
+				.setPagesPerChunk(2)
+				.setChunkRenderer((data, pageFrom, pageTo, calX, calY) -> {
+					Thread.sleep((NUMBER_OF_PAGES - pageFrom) * 5L);
+					return PrintPackagePDFBuilder.extractPages(data, pageFrom, pageTo);
+				})
+				.printToBytes();
+
+		// all pages once per package info
+		final List<Integer> expectedPageWidths = new ArrayList<>();
+		for (int i = 0; i < 2; i++)
+		{
+			for (int page = 1; page <= NUMBER_OF_PAGES; page++)
+			{
+				expectedPageWidths.add(pageWidth(page));
+			}
+		}
+		assertThat(getPageWidths(result)).isEqualTo(expectedPageWidths);
+
+		refresh(jobInstructions);
+		assertThat(jobInstructions.getStatus()).isEqualTo(X_C_Print_Job_Instructions.STATUS_Done);
+	}
+
+	private static I_C_Print_Package createPrintPackage(final I_C_Print_Job_Instructions jobInstructions, final byte[] printData)
+	{
+		final I_C_Print_Package printPackage = newInstance(I_C_Print_Package.class);
+		printPackage.setC_Print_Job_Instructions_ID(jobInstructions.getC_Print_Job_Instructions_ID());
+		saveRecord(printPackage);
+
+		final I_C_PrintPackageData printPackageData = newInstance(I_C_PrintPackageData.class);
+		printPackageData.setC_Print_Package_ID(printPackage.getC_Print_Package_ID());
+		printPackageData.setPrintData(printData);
+		saveRecord(printPackageData);
+
+		for (int i = 1; i <= 2; i++)
+		{
+			final I_C_Print_PackageInfo printPackageInfo = newInstance(I_C_Print_PackageInfo.class);
+			printPackageInfo.setC_Print_Package_ID(printPackage.getC_Print_Package_ID());
+			printPackageInfo.setAD_PrinterHW_ID(i);
+			saveRecord(printPackageInfo);
+		}
+
+		return printPackage;
+	}
+
+	private static int pageWidth(final int page)
+	{
+		return 200 + page;
+	}
+
+	private static byte[] createPdf(final int numberOfPages) throws DocumentException
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Document document = new Document(new Rectangle(pageWidth(1), 300));
+		PdfWriter.getInstance(document, out);
+		document.open();
+		for (int page = 1; page <= numberOfPages; page++)
+		{
+			if (page > 1)
+			{
+				document.setPageSize(new Rectangle(pageWidth(page), 300));
+				document.newPage();
+			}
+			document.add(new Paragraph("Page " + page));
+		}
+		document.close();
+		return out.toByteArray();
+	}
+
+	private static List<Integer> getPageWidths(final byte[] pdf) throws IOException
+	{
+		final PdfReader reader = new PdfReader(pdf);
+		try
+		{
+			final List<Integer> pageWidths = new ArrayList<>();
+			for (int page = 1; page <= reader.getNumberOfPages(); page++)
+			{
+				pageWidths.add(Math.round(reader.getPageSize(page).getWidth()));
+			}
+			return pageWidths;
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 
 import java.io.InputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.util.HashMap;
 import java.util.List;
@@ -37,6 +38,8 @@ import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
@@ -69,12 +72,14 @@ import lombok.NonNull;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRExporterParameter;
 import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRVirtualizer;
 import net.sf.jasperreports.engine.JasperExportManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.export.JRXlsAbstractExporterParameter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
 import net.sf.jasperreports.engine.query.JsonQLQueryExecuterFactory;
-import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSwapFile;
 import net.sf.jasperreports.export.XlsReportConfiguration;
 
 public class JasperEngine extends AbstractReportEngine
@@ -90,7 +95,13 @@ public class JasperEngine extends AbstractReportEngine
 	private static final String PARAM_BARCODE_URL = "barcodeURL";
 	private static final String PARAM_SQL_VALUE = "SQL_VALUE";
 
-	private static final String JRPROPERTY_ReportPath = JasperEngine.class.getName() + ".ReportPath";
+	/**
+	 * If greater than zero, the filled pages are swapped to disk, keeping only this many pages in memory. This allows filling big reports with a limited heap.
+	 */
+	private static final String SYSCONFIG_VirtualizerMaxPagesInMemory = "de.metas.report.jasper.JasperEngine.VirtualizerMaxPagesInMemory";
+	private static final String SYSCONFIG_VirtualizerSwapDirectory = "de.metas.report.jasper.JasperEngine.VirtualizerSwapDirectory";
+	private static final int VIRTUALIZER_SwapFileBlockSize = 4096;
+	private static final int VIRTUALIZER_SwapFileMinGrowCount = 100;
 
 	/**
 	 * Desired output type.
@@ -106,16 +117,73 @@ public class JasperEngine extends AbstractReportEngine
 	@Override
 	public ReportResult report(@NonNull final ReportContext reportContext)
 	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		report(reportContext, out);
+
+		return ReportResult.builder()
+				.outputType(getOutputType(reportContext))
+				.reportContentBase64(Util.encodeBase64(out.toByteArray()))
+				.build();
+	}
+
+	@Override
+	public void report(@NonNull final ReportContext reportContext, @NonNull final OutputStream out)
+	{
+		final OutputType outputType = getOutputType(reportContext);
+		final JRSwapFileVirtualizer virtualizer = createVirtualizerOrNull(outputType);
 		try
 		{
-			final JasperPrint jasperPrint = createJasperPrint(reportContext);
-			return createOutput(jasperPrint, reportContext.getOutputType());
+			final JasperPrint jasperPrint = createJasperPrint(reportContext, virtualizer);
+			if (virtualizer != null)
+			{
+				// the report is filled; from now on the swapped pages are only read
+				virtualizer.setReadOnly(true);
+			}
+
+			createOutput(jasperPrint, outputType, out);
 		}
 		catch (final Exception e)
 		{
 			throw AdempiereException.wrapIfNeeded(e);
 		}
+		finally
+		{
+			if (virtualizer != null)
+			{
+				virtualizer.cleanup();
+			}
+		}
+	}
+
+	private static OutputType getOutputType(final ReportContext reportContext)
+	{
+		final OutputType outputType = reportContext.getOutputType();
+		return outputType != null ? outputType : DEFAULT_OutputType;
+	}
+
+	/**
+	 * @return swap file virtualizer or <code>null</code> if it's not enabled.
+	 *         NOTE: not used for {@link OutputType#JasperPrint}, because the serialized print would reference the swap file which is deleted afterwards.
+	 */
+	@Nullable
+	private static JRSwapFileVirtualizer createVirtualizerOrNull(final OutputType outputType)
+	{
+		if (OutputType.JasperPrint == outputType)
+		{
+			return null;
+		}
 
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int maxPagesInMemory = sysConfigBL.getIntValue(SYSCONFIG_VirtualizerMaxPagesInMemory, 0);
+		if (maxPagesInMemory <= 0)
+		{
+			return null;
+		}
+
+		final String swapDirectory = sysConfigBL.getValue(SYSCONFIG_VirtualizerSwapDirectory, System.getProperty("java.io.tmpdir"));
+		final JRSwapFile swapFile = new JRSwapFile(swapDirectory, VIRTUALIZER_SwapFileBlockSize, VIRTUALIZER_SwapFileMinGrowCount);
+		logger.debug("Using swap file virtualizer: maxPagesInMemory={}, swapDirectory={}", maxPagesInMemory, swapDirectory);
+		return new JRSwapFileVirtualizer(maxPagesInMemory, swapFile, true);
 	}
 
 	/**
@@ -128,7 +196,7 @@ public class JasperEngine extends AbstractReportEngine
 		return DB.getConnectionRW();
 	}
 
-	private JasperPrint createJasperPrint(final ReportContext reportContext) throws JRException
+	private JasperPrint createJasperPrint(final ReportContext reportContext, @Nullable final JRVirtualizer virtualizer) throws JRException
 	{
 		logger.debug("Creating jasper print for {}", reportContext);
 
@@ -137,7 +205,13 @@ public class JasperEngine extends AbstractReportEngine
 		final ClassLoader jasperLoader = createReportClassLoader(reportContext);
 
 		final Map<String, Object> jrParameters = createJRParameters(reportContext);
-		final JasperReport jasperReport = createJasperReport(reportContext.getAD_Process_ID(), jrParameters, jasperLoader);
+		if (virtualizer != null)
+		{
+			jrParameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		}
+
+		final String reportPath = getReportPath(reportContext.getAD_Process_ID(), jrParameters);
+		final JasperReport jasperReport = createJasperReport(reportPath, jrParameters, jasperLoader);
 
 		// JSON Data source
 		if (jsonDSService.isJasperJSONReport(reportContext))
@@ -156,7 +230,7 @@ public class JasperEngine extends AbstractReportEngine
 				//
 				// Create jasper's JDBC connection
 				conn = getConnection();
-				final String sqlQueryInfo = "jasper main report=" + jasperReport.getProperty(JRPROPERTY_ReportPath)
+				final String sqlQueryInfo = "jasper main report=" + reportPath
 						+ ", AD_PInstance_ID=" + reportContext.getPinstanceId();
 
 				final String securityWhereClause;
@@ -187,38 +261,34 @@ public class JasperEngine extends AbstractReportEngine
 	}
 
 	private final JasperReport createJasperReport(
-			final AdProcessId adProcessId,
+			final String reportPath,
 			final Map<String, Object> jrParameters,
 			final ClassLoader jasperLoader) throws JRException
 	{
-		final String reportPath = getReportPath(adProcessId, jrParameters);
-		final InputStream jasperInputStream;
+		final String name;
 		if (reportPath.startsWith("resource:"))
 		{
 			// load the jasper file(s) using an ordinary class loader.
-			final String name = reportPath.substring("resource:".length()).trim();
+			name = reportPath.substring("resource:".length()).trim();
 			logger.debug("reportPath = {}", reportPath);
-			// logger.debug("getting resource from = {}", jasperLoader.getResource(name));
-
-			jasperInputStream = jasperLoader.getResourceAsStream(name);
 		}
 		else
 		{
-			jasperInputStream = jasperLoader.getResourceAsStream(reportPath);
+			name = reportPath;
 			jrParameters.put(JRParameter.REPORT_CLASS_LOADER, jasperLoader);
 		}
 
-		// Make sure the jasper input stream is not null
-		if (jasperInputStream == null)
+		//
+		// Load the jasper report; the loaded reports are cached and shared, so they shall not be changed
+		final JasperReport jasperReport = JasperReportCache.getInstance().getJasperReport(name, jasperLoader);
+
+		// Make sure the jasper report was found
+		if (jasperReport == null)
 		{
 			// TODO ->A AD_Message
 			throw new AdempiereException("Berichtsdatei '" + reportPath + "' konnte nicht geöffnet werden");
 		}
 
-		//
-		// Load the jasper report from stream
-		final JasperReport jasperReport = (JasperReport)JRLoader.loadObject(jasperInputStream);
-
 		//
 		// Load report's resource bundles, if any.
 		// NOTE: we need to load them here because jasper engine is not using our "jasperLoader" to load the bundles, but the thread context one.
@@ -229,8 +299,6 @@ public class JasperEngine extends AbstractReportEngine
 			loadJasperReportResourceBundle(resourceBundleName, jrParameters, jasperLoader);
 		}
 
-		jasperReport.setProperty(JRPROPERTY_ReportPath, reportPath);
-
 		return jasperReport;
 	}
 
@@ -505,20 +573,11 @@ public class JasperEngine extends AbstractReportEngine
 		return false; // not loaded
 	}
 
-	private ReportResult createOutput(final JasperPrint jasperPrint, OutputType outputType) throws JRException, IOException
+	private void createOutput(final JasperPrint jasperPrint, final OutputType outputType, final OutputStream out) throws JRException, IOException
 	{
-		if (outputType == null)
-		{
-			outputType = DEFAULT_OutputType;
-		}
-
 		if (OutputType.PDF == outputType)
 		{
-			final byte[] data = JasperExportManager.exportReportToPdf(jasperPrint);
-			return ReportResult.builder()
-					.outputType(outputType)
-					.reportContentBase64(Util.encodeBase64(data))
-					.build();
+			JasperExportManager.exportReportToPdfStream(jasperPrint, out);
 		}
 		else if (OutputType.HTML == outputType)
 		{
@@ -526,31 +585,19 @@ public class JasperEngine extends AbstractReportEngine
 			JasperExportManager.exportReportToHtmlFile(jasperPrint, file.getAbsolutePath());
 			// TODO: handle image links
 
-			final ByteArrayOutputStream out = new ByteArrayOutputStream();
 			FileUtil.copy(file, out);
-
-			return ReportResult.builder()
-					.outputType(outputType)
-					.reportContentBase64(Util.encodeBase64(out.toByteArray()))
-					.build();
 		}
 		else if (OutputType.XML == outputType)
 		{
-			final ByteArrayOutputStream out = new ByteArrayOutputStream();
 			JasperExportManager.exportReportToXmlStream(jasperPrint, out);
-
-			return ReportResult.builder()
-					.outputType(outputType)
-					.reportContentBase64(Util.encodeBase64(out.toByteArray()))
-					.build();
 		}
 		else if (OutputType.JasperPrint == outputType)
 		{
-			return exportAsJasperPrint(jasperPrint);
+			exportAsJasperPrint(jasperPrint, out);
 		}
 		else if (OutputType.XLS == outputType)
 		{
-			return exportAsExcel(jasperPrint);
+			exportAsExcel(jasperPrint, out);
 		}
 		else
 		{
@@ -558,22 +605,15 @@ public class JasperEngine extends AbstractReportEngine
 		}
 	}
 
-	private ReportResult exportAsJasperPrint(final JasperPrint jasperPrint) throws IOException
+	private void exportAsJasperPrint(final JasperPrint jasperPrint, final OutputStream out) throws IOException
 	{
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
 		final ObjectOutputStream oos = new ObjectOutputStream(out);
 		oos.writeObject(jasperPrint);
-
-		return ReportResult.builder()
-				.outputType(OutputType.JasperPrint)
-				.reportContentBase64(Util.encodeBase64(out.toByteArray()))
-				.build();
+		oos.flush();
 	}
 
-	private ReportResult exportAsExcel(final JasperPrint jasperPrint) throws JRException
+	private void exportAsExcel(final JasperPrint jasperPrint, final OutputStream out) throws JRException
 	{
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
-
 		final MetasJRXlsExporter exporter = new MetasJRXlsExporter();
 		exporter.setParameter(JRExporterParameter.OUTPUT_STREAM, out); // Output
 		exporter.setParameter(JRExporterParameter.JASPER_PRINT, jasperPrint); // Input
@@ -599,10 +639,5 @@ public class JasperEngine extends AbstractReportEngine
 		}
 
 		exporter.exportReport();
-
-		return ReportResult.builder()
-				.outputType(OutputType.XLS)
-				.reportContentBase64(Util.encodeBase64(out.toByteArray()))
-				.build();
 	}
 }
@@ -0,0 +1,162 @@
+package de.metas.report.jasper;
+
+/*
+ * #%L
+ * metasfresh-report-service
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.slf4j.Logger;
+
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/**
+ * Caches the loaded (deserialized) {@link JasperReport}s, so that each report is loaded only once and not on every print.
+ * <p>
+ * The cache key is the resolved resource URL together with the resource's last modification time (for local files),
+ * so a report which was changed on disk is loaded again. Reports which are loaded from other locations (e.g. a remote server) expire after
+ * {@value #SYSCONFIG_ExpireMinutes} minutes, or when the cache is reset.
+ * <p>
+ * A loaded {@link JasperReport} is not changed when it's filled, so it's safe to share it between concurrent fills.
+ */
+/* package */final class JasperReportCache
+{
+	private static final transient Logger logger = LogManager.getLogger(JasperReportCache.class);
+
+	private static final String SYSCONFIG_MaxSize = "de.metas.report.jasper.JasperReportCache.MaxSize";
+	private static final String SYSCONFIG_ExpireMinutes = "de.metas.report.jasper.JasperReportCache.ExpireMinutes";
+
+	private static JasperReportCache instance;
+
+	public static synchronized JasperReportCache getInstance()
+	{
+		if (instance == null)
+		{
+			instance = new JasperReportCache();
+		}
+		return instance;
+	}
+
+	private final CCache<JasperReportKey, JasperReport> cache;
+
+	private JasperReportCache()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int maxSize = sysConfigBL.getIntValue(SYSCONFIG_MaxSize, 500);
+		final int expireMinutes = sysConfigBL.getIntValue(SYSCONFIG_ExpireMinutes, 60);
+
+		cache = CCache.<JasperReportKey, JasperReport> builder()
+				.cacheName("JasperReportCache")
+				.cacheMapType(CacheMapType.LRU)
+				.initialCapacity(maxSize)
+				.expireMinutes(expireMinutes > 0 ? expireMinutes : CCache.EXPIREMINUTES_Never)
+				.build();
+	}
+
+	/**
+	 * @param name         resource name, as understood by given class loader
+	 * @param jasperLoader class loader used to resolve and load the report
+	 * @return loaded report or <code>null</code> if the resource was not found
+	 */
+	@Nullable
+	public JasperReport getJasperReport(@NonNull final String name, @NonNull final ClassLoader jasperLoader) throws JRException
+	{
+		final URL url = jasperLoader.getResource(name);
+		if (url == null)
+		{
+			// we can't tell where the report comes from, so we can't cache it
+			logger.debug("No resource URL found for {}; loading it without cache", name);
+			return loadJasperReport(name, jasperLoader);
+		}
+
+		final JasperReportKey key = new JasperReportKey(url.toExternalForm(), getLastModified(url));
+		try
+		{
+			return cache.getOrLoad(key, () -> loadJasperReport(name, jasperLoader)); // null results are not cached
+		}
+		catch (final AdempiereException e)
+		{
+			final Throwable cause = AdempiereException.extractCause(e);
+			if (cause instanceof JRException)
+			{
+				throw (JRException)cause;
+			}
+			throw e;
+		}
+	}
+
+	@Nullable
+	private static JasperReport loadJasperReport(final String name, final ClassLoader jasperLoader) throws JRException
+	{
+		final InputStream jasperInputStream = jasperLoader.getResourceAsStream(name);
+		if (jasperInputStream == null)
+		{
+			return null;
+		}
+
+		logger.debug("Loading jasper report {}", name);
+		return (JasperReport)JRLoader.loadObject(jasperInputStream);
+	}
+
+	/**
+	 * @return last modification time of local files; for other resources <code>0</code>, because checking it could be as expensive as loading the report
+	 */
+	private static long getLastModified(@NonNull final URL url)
+	{
+		if (!"file".equals(url.getProtocol()))
+		{
+			return 0;
+		}
+
+		try
+		{
+			return new File(url.toURI()).lastModified();
+		}
+		catch (final URISyntaxException | IllegalArgumentException e)
+		{
+			logger.debug("Cannot get last modified for {}", url, e);
+			return 0;
+		}
+	}
+
+	@Value
+	private static class JasperReportKey
+	{
+		@NonNull
+		String url;
+		long lastModified;
+	}
+}
@@ -22,6 +22,7 @@
 
 package de.metas.report.rest;
 
+import de.metas.JsonObjectMapperHolder;
 import de.metas.Profiles;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.Language;
@@ -52,6 +53,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -102,6 +105,53 @@ public class ReportRestController
 		}
 	}
 
+	/**
+	 * Same as {@link #report(int, int, String, String)}, but the report's binary content is streamed directly to the response, instead of being wrapped into JSON.
+	 * This way the report is neither kept in memory nor base64 encoded, which matters for big reports.
+	 */
+	@GetMapping("/stream")
+	public void reportToStream(
+			@RequestParam(name = "AD_Process_ID", required = false) final int processId,
+			@RequestParam(name = "AD_PInstance_ID", required = false) final int pinstanceId,
+			@RequestParam(name = "AD_Language", required = false) final String adLanguage,
+			@RequestParam(name = "output", required = false) final String outputStr,
+			final HttpServletResponse response) throws IOException
+	{
+		try (final MDCCloseable c1 = MDC.putCloseable("AD_Process_ID", String.valueOf(processId));
+				final MDCCloseable c2 = MDC.putCloseable("AD_PInstance_ID", String.valueOf(pinstanceId));
+				final MDCCloseable c3 = MDC.putCloseable("output", String.valueOf(outputStr)))
+		{
+			try
+			{
+				final OutputType outputType = outputStr == null ? IReportServer.DEFAULT_OutputType : OutputType.valueOf(outputStr);
+
+				response.setContentType(outputType.getContentType());
+				response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"report." + outputType.getFileExtension() + "\"");
+				response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
+
+				server.reportToStream(processId, pinstanceId, adLanguage, outputType, response.getOutputStream());
+				response.flushBuffer();
+			}
+			catch (final Throwable ex)
+			{
+				logger.error("Failed streaming report for processId={}, pinstanceId={}, adLanguage={}, outputType={}",
+						processId, pinstanceId, adLanguage, outputStr,
+						ex);
+
+				// the report is filled before anything is written, so usually we can still send a proper error
+				if (response.isCommitted())
+				{
+					throw AdempiereException.wrapIfNeeded(ex);
+				}
+
+				response.reset();
+				response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+				response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+				JsonObjectMapperHolder.sharedJsonObjectMapper().writeValue(response.getOutputStream(), toJsonReportError(ex, adLanguage));
+			}
+		}
+	}
+
 	private String extractReportFilename(final ReportResult report)
 	{
 		if (Check.isNotBlank(report.getReportFilename()))
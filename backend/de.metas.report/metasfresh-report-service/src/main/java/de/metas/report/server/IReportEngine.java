@@ -22,7 +22,29 @@ package de.metas.report.server;
  * #L%
  */
 
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.adempiere.exceptions.AdempiereException;
+
 public interface IReportEngine
 {
 	ReportResult report(final ReportContext reportContext);
+
+	/**
+	 * Writes the report's binary content directly to given stream. The stream is not closed.
+	 * <p>
+	 * Engines which can export directly to a stream should override this method, to avoid keeping the whole report in memory.
+	 */
+	default void report(final ReportContext reportContext, final OutputStream out)
+	{
+		try
+		{
+			out.write(report(reportContext).getReportContent());
+		}
+		catch (final IOException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
 }
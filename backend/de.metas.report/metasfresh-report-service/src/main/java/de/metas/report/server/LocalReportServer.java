@@ -10,12 +10,14 @@ import de.metas.report.jasper.JasperEngine;
 import de.metas.report.xls.engine.XlsReportEngine;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import java.io.OutputStream;
 import java.util.Properties;
 
 public class LocalReportServer implements IReportServer
@@ -28,6 +30,51 @@ public class LocalReportServer implements IReportServer
 			final int pinstanceRepoId,
 			final String adLanguage,
 			final OutputType outputType)
+	{
+		final ReportContext reportContext = createReportContext(processId, pinstanceRepoId, adLanguage, outputType);
+
+		//
+		// Create the report
+		try (final IAutoCloseable ignored = Env.switchContext(reportContext.getCtx()))
+		{
+			final IReportEngine engine = createReportEngine(reportContext);
+			return engine.report(reportContext);
+		}
+		catch (final Exception e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	/**
+	 * Same as {@link #report(int, int, String, OutputType)}, but writes the report's binary content directly to given stream,
+	 * without keeping it in memory. The stream is not closed.
+	 */
+	public void reportToStream(
+			final int processId,
+			final int pinstanceRepoId,
+			final String adLanguage,
+			final OutputType outputType,
+			@NonNull final OutputStream out)
+	{
+		final ReportContext reportContext = createReportContext(processId, pinstanceRepoId, adLanguage, outputType);
+
+		try (final IAutoCloseable ignored = Env.switchContext(reportContext.getCtx()))
+		{
+			final IReportEngine engine = createReportEngine(reportContext);
+			engine.report(reportContext, out);
+		}
+		catch (final Exception e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	private ReportContext createReportContext(
+			final int processId,
+			final int pinstanceRepoId,
+			final String adLanguage,
+			final OutputType outputType)
 	{
 		//
 		// Load process info
@@ -54,7 +101,7 @@ public class LocalReportServer implements IReportServer
 
 		//
 		// Create report context based on processInfo
-		final ReportContext reportContext = ReportContext.builder()
+		return ReportContext.builder()
 				.setCtx(processInfo.getCtx())
 				.setAD_Process_ID(processInfo.getAdProcessId())
 				.setPInstanceId(processInfo.getPinstanceId())
@@ -67,18 +114,6 @@ public class LocalReportServer implements IReportServer
 				.setType(processInfo.getType())
 				.setJSONPath(processInfo.getJsonPath().orElse(null))
 				.build();
-
-		//
-		// Create the report
-		try (final IAutoCloseable ignored = Env.switchContext(reportContext.getCtx()))
-		{
-			final IReportEngine engine = createReportEngine(reportContext);
-			return engine.report(reportContext);
-		}
-		catch (final Exception e)
-		{
-			throw AdempiereException.wrapIfNeeded(e);
-		}
 	}
 
 	private IReportEngine createReportEngine(final ReportContext reportContext)
@@ -0,0 +1,183 @@
+package test.tools;
+
+/*
+ * #%L
+ * metasfresh-report-service
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperExportManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.data.JRMapCollectionDataSource;
+import net.sf.jasperreports.engine.design.JRDesignBand;
+import net.sf.jasperreports.engine.design.JRDesignExpression;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.design.JRDesignSection;
+import net.sf.jasperreports.engine.design.JRDesignTextField;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+
+/**
+ * Fills and exports a 50k rows report with and without the swap file virtualizer and prints the duration and the heap which is retained by the filled report.
+ * <p>
+ * Start it from the IDE with a small -Xmx. To see how the retained heap scales, run it again with a bigger {@link #ROWS};
+ * the virtualizer keeps at most {@link #VIRTUALIZER_MaxPagesInMemory} pages in memory.
+ */
+public class JasperVirtualizerManualTest
+{
+	private static final int ROWS = 50000;
+	private static final int VIRTUALIZER_MaxPagesInMemory = 50;
+
+	public static void main(final String[] args) throws Exception
+	{
+		final JasperReport jasperReport = JasperCompileManager.compileReport(createDesign());
+		final List<Map<String, ?>> rows = createRows();
+
+		// warm up
+		run(jasperReport, rows, false);
+
+		run(jasperReport, rows, false);
+		run(jasperReport, rows, true);
+	}
+
+	private static void run(final JasperReport jasperReport, final List<Map<String, ?>> rows, final boolean useVirtualizer) throws Exception
+	{
+		final Map<String, Object> params = new HashMap<>();
+		JRSwapFileVirtualizer virtualizer = null;
+		if (useVirtualizer)
+		{
+			final JRSwapFile swapFile = new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 100);
+			virtualizer = new JRSwapFileVirtualizer(VIRTUALIZER_MaxPagesInMemory, swapFile, true);
+			params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		}
+
+		try
+		{
+			final Stopwatch fillStopwatch = Stopwatch.createStarted();
+			final JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, params, new JRMapCollectionDataSource(rows));
+			fillStopwatch.stop();
+			if (virtualizer != null)
+			{
+				virtualizer.setReadOnly(true);
+			}
+
+			final long retainedHeapBytes = usedHeapAfterGC();
+
+			final Stopwatch exportStopwatch = Stopwatch.createStarted();
+			final OutputStream out = ByteStreams.nullOutputStream();
+			JasperExportManager.exportReportToPdfStream(jasperPrint, out);
+			exportStopwatch.stop();
+
+			System.out.println((useVirtualizer ? "With virtualizer:    " : "Without virtualizer: ")
+					+ jasperPrint.getPages().size() + " pages"
+					+ ", fill " + fillStopwatch
+					+ ", export " + exportStopwatch
+					+ ", heap after fill " + retainedHeapBytes / 1024 / 1024 + " MB");
+		}
+		finally
+		{
+			if (virtualizer != null)
+			{
+				virtualizer.cleanup();
+			}
+		}
+	}
+
+	private static long usedHeapAfterGC()
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static List<Map<String, ?>> createRows()
+	{
+		final List<Map<String, ?>> rows = new ArrayList<>(ROWS);
+		for (int i = 1; i <= ROWS; i++)
+		{
+			final Map<String, Object> row = new HashMap<>();
+			row.put("Line", i);
+			row.put("Name", "Product " + i);
+			row.put("Amount", BigDecimal.valueOf(i, 2));
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private static JasperDesign createDesign() throws Exception
+	{
+		final JasperDesign design = new JasperDesign();
+		design.setName("JasperVirtualizerManualTest");
+		design.setPageWidth(595);
+		design.setPageHeight(842);
+		design.setColumnWidth(555);
+		design.setLeftMargin(20);
+		design.setRightMargin(20);
+		design.setTopMargin(20);
+		design.setBottomMargin(20);
+
+		final JRDesignBand detail = new JRDesignBand();
+		detail.setHeight(15);
+
+		final Map<String, Class<?>> fields = ImmutableMap.of(
+				"Line", Integer.class,
+				"Name", String.class,
+				"Amount", BigDecimal.class);
+
+		int x = 0;
+		for (final Map.Entry<String, Class<?>> fieldEntry : fields.entrySet())
+		{
+			final String fieldName = fieldEntry.getKey();
+
+			final JRDesignField field = new JRDesignField();
+			field.setName(fieldName);
+			field.setValueClass(fieldEntry.getValue());
+			design.addField(field);
+
+			final JRDesignTextField textField = new JRDesignTextField();
+			textField.setX(x);
+			textField.setY(0);
+			textField.setWidth(185);
+			textField.setHeight(15);
+			textField.setExpression(new JRDesignExpression("$F{" + fieldName + "}"));
+			detail.addElement(textField);
+
+			x += 185;
+		}
+
+		((JRDesignSection)design.getDetailSection()).addBand(detail);
+		return design;
+	}
+}
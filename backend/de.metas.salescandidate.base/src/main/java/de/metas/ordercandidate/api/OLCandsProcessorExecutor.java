@@ -2,26 +2,45 @@ package de.metas.ordercandidate.api;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import de.metas.common.util.time.SystemTime;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.ArrayKeyBuilder;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 
 import ch.qos.logback.classic.Level;
+import de.metas.bpartner.BPartnerId;
 import de.metas.impex.InputDataSourceId;
 import de.metas.impex.api.IInputDataSourceDAO;
 import de.metas.logging.LogManager;
@@ -29,6 +48,8 @@ import de.metas.ordercandidate.OrderCandidate_Constants;
 import de.metas.ordercandidate.api.OLCandAggregationColumn.Granularity;
 import de.metas.ordercandidate.spi.IOLCandGroupingProvider;
 import de.metas.ordercandidate.spi.IOLCandListener;
+import de.metas.product.IProductDAO;
+import de.metas.product.ProductId;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.ILoggable;
@@ -36,6 +57,7 @@ import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -65,6 +87,15 @@ import lombok.NonNull;
 public class OLCandsProcessorExecutor
 {
 	private static final Logger logger = LogManager.getLogger(OLCandsProcessorExecutor.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final IProductDAO productDAO = Services.get(IProductDAO.class);
+
+	/**
+	 * If greater than 1, the orders of different business partners are created concurrently, by that many threads.
+	 */
+	private static final String SYSCONFIG_Threads = "de.metas.ordercandidate.api.OLCandsProcessorExecutor.Threads";
+
 	private final ILoggable loggable;
 
 	private final IOLCandListener olCandListeners;
@@ -103,6 +134,8 @@ public class OLCandsProcessorExecutor
 
 	public void process()
 	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
 		// Note: We could make life easier by constructing a ORDER and GROUP BY SQL statement,
 		// but I'm afraid that grouping by time - granularity is not really portable. Also there might be other
 		// granularity levels, that can't be put into an sql later on.
@@ -116,6 +149,29 @@ public class OLCandsProcessorExecutor
 				.collect(ImmutableList.toImmutableList());
 		loggable.addLog("Processing {} order line candidates", candidates.size());
 
+		final List<OrderToCreate> ordersToCreate = computeOrdersToCreate(candidates);
+
+		final int threads = sysConfigBL.getIntValue(SYSCONFIG_Threads, 1);
+		if (threads > 1 && ordersToCreate.size() > 1)
+		{
+			createOrdersInParallel(candidates, ordersToCreate, threads);
+		}
+		else
+		{
+			ordersToCreate.forEach(orderToCreate -> createOrder(orderToCreate, loggable));
+		}
+
+		stopwatch.stop();
+		final double ordersPerMinute = ordersToCreate.size() * 60_000.0 / Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		loggable.addLog("Processed {} orders in {} ({} orders/min)", ordersToCreate.size(), stopwatch, String.format("%.1f", ordersPerMinute));
+	}
+
+	/**
+	 * Splits the candidates into orders and order lines, without creating anything yet.
+	 */
+	@VisibleForTesting
+	List<OrderToCreate> computeOrdersToCreate(@NonNull final List<OLCand> candidates)
+	{
 		//
 		// Compute a grouping key for each candidate and group them according to their key
 		final Map<Integer, ArrayKey> toProcess = new HashMap<>();
@@ -135,10 +191,11 @@ public class OLCandsProcessorExecutor
 			grouping.put(groupingKey, candidate);
 		}
 
-		// 'processedIds' contains the candidates that have already been processed
+		// 'processedIds' contains the candidates that have already been assigned to an order
 		final Set<Integer> processedIds = new HashSet<>();
 
-		OLCandOrderFactory currentOrder = null;
+		final List<OrderToCreate> ordersToCreate = new ArrayList<>();
+		OrderToCreate currentOrder = null;
 
 		// This variable is used to decide if the current candidate differs from the previous one in a way that requires a new order.
 		OLCand previousCandidate = null;
@@ -152,10 +209,7 @@ public class OLCandsProcessorExecutor
 			}
 
 			// Each group shall go to a separate order line
-			if (currentOrder != null)
-			{
-				currentOrder.closeCurrentOrderLine();
-			}
+			boolean orderLineStarted = false;
 
 			// get the group of the current unprocessed candidate
 			final ArrayKey groupingKey = toProcess.get(olCandId);
@@ -163,12 +217,18 @@ public class OLCandsProcessorExecutor
 			{
 				if (currentOrder != null && isOrderSplit(candOfGroup, previousCandidate))
 				{
-					currentOrder.completeOrDelete();
 					currentOrder = null;
 				}
 				if (currentOrder == null)
 				{
-					currentOrder = newOrderFactory();
+					currentOrder = new OrderToCreate();
+					ordersToCreate.add(currentOrder);
+					orderLineStarted = false;
+				}
+				if (!orderLineStarted)
+				{
+					currentOrder.newOrderLine();
+					orderLineStarted = true;
 				}
 
 				currentOrder.addOLCand(candOfGroup);
@@ -178,12 +238,129 @@ public class OLCandsProcessorExecutor
 			}
 		}
 
-		if (currentOrder != null)
+		Check.assume(processedIds.size() == candidates.size(), "All candidates have been processed");
+
+		return ordersToCreate;
+	}
+
+	private void createOrder(@NonNull final OrderToCreate orderToCreate, @NonNull final ILoggable loggable)
+	{
+		final OLCandOrderFactory orderFactory = newOrderFactory(loggable);
+		for (final List<OLCand> orderLineCandidates : orderToCreate.getOrderLines())
 		{
-			currentOrder.completeOrDelete();
+			orderFactory.closeCurrentOrderLine();
+			orderLineCandidates.forEach(orderFactory::addOLCand);
 		}
+		orderFactory.completeOrDelete();
+	}
 
-		Check.assume(processedIds.size() == candidates.size(), "All candidates have been processed");
+	/**
+	 * Creates the orders of different business partners concurrently, each order in its own transaction.
+	 * <p>
+	 * The orders of one business partner are created by the same worker, in the same sequence as the sequential mode would create them,
+	 * so they get their document numbers in a deterministic order.
+	 * If creating an order fails, its transaction is rolled back and its candidates stay unprocessed, so they are picked up again by the next run.
+	 * The other orders are still created; after that, the failures are reported by throwing an exception.
+	 */
+	private void createOrdersInParallel(
+			@NonNull final List<OLCand> candidates,
+			@NonNull final List<OrderToCreate> ordersToCreate,
+			final int threads)
+	{
+		prefetchProducts(candidates);
+
+		final Map<BPartnerId, List<OrderToCreate>> ordersToCreateByBPartnerId = new LinkedHashMap<>();
+		for (final OrderToCreate orderToCreate : ordersToCreate)
+		{
+			final BPartnerId bpartnerId = orderToCreate.getFirstOLCand().getBPartnerInfo().getBpartnerId();
+			ordersToCreateByBPartnerId.computeIfAbsent(bpartnerId, k -> new ArrayList<>()).add(orderToCreate);
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads, CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(getClass().getSimpleName())
+				.setDaemon(true)
+				.build());
+		final ILoggable workerLoggable = Loggables.synchronizedLoggable(loggable);
+		final List<OrderCreationFailure> failures = Collections.synchronizedList(new ArrayList<>());
+		final List<Future<?>> futures = new ArrayList<>();
+
+		try
+		{
+			for (final List<OrderToCreate> ordersOfBPartner : ordersToCreateByBPartnerId.values())
+			{
+				final Properties ctx = Env.copyCtx(Env.getCtx());
+				futures.add(executor.submit(() -> {
+					try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx);
+							final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(workerLoggable))
+					{
+						for (final OrderToCreate orderToCreate : ordersOfBPartner)
+						{
+							try
+							{
+								trxManager.runInNewTrx(() -> createOrder(orderToCreate, workerLoggable));
+							}
+							catch (final Exception ex)
+							{
+								failures.add(new OrderCreationFailure(orderToCreate, ex));
+								workerLoggable.addLog("Failed creating an order from {}; the candidates stay unprocessed: {}", orderToCreate, ex.getLocalizedMessage());
+								logger.warn("Failed creating an order from {}", orderToCreate, ex);
+							}
+						}
+					}
+				}));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
+		finally
+		{
+			futures.forEach(future -> future.cancel(true));
+			executor.shutdownNow();
+		}
+
+		loggable.addLog("Created the orders of {} business partners using {} threads; {} orders failed", ordersToCreateByBPartnerId.size(), threads, failures.size());
+
+		if (!failures.isEmpty())
+		{
+			final AdempiereException ex = new AdempiereException("Failed creating " + failures.size() + " of " + ordersToCreate.size() + " orders; their candidates stay unprocessed",
+					failures.get(0).getException())
+							.setParameter("failedOLCandIds", failures.stream()
+									.map(failure -> failure.getOrderToCreate().getOLCandIds())
+									.collect(ImmutableList.toImmutableList()))
+							.appendParametersToMessage();
+			failures.stream().skip(1).forEach(failure -> ex.addSuppressed(failure.getException()));
+			throw ex;
+		}
+	}
+
+	/**
+	 * Loads the products of all candidates with one query, so that the workers find them in the model cache instead of loading them one by one.
+	 * <p>
+	 * This works because {@code M_Product} is cached out of transaction, and lookups within the workers' transactions fall back to that cache.
+	 * Business partners are not prefetched, because {@code C_BPartner} is only cached within a transaction and each order is created in a new one.
+	 */
+	private void prefetchProducts(@NonNull final List<OLCand> candidates)
+	{
+		final ImmutableSet<ProductId> productIds = candidates.stream()
+				.map(candidate -> ProductId.ofRepoIdOrNull(candidate.getM_Product_ID()))
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		if (!productIds.isEmpty())
+		{
+			productDAO.getByIds(productIds);
+		}
 	}
 
 	private OLCand prepareOLCandBeforeProcessing(final OLCand candidate)
@@ -196,7 +373,7 @@ public class OLCandsProcessorExecutor
 		return candidate;
 	}
 
-	private OLCandOrderFactory newOrderFactory()
+	private OLCandOrderFactory newOrderFactory(@NonNull final ILoggable loggable)
 	{
 		return OLCandOrderFactory.builder()
 				.orderDefaults(orderDefaults)
@@ -341,4 +518,58 @@ public class OLCandsProcessorExecutor
 
 		return true;
 	}
+
+	/**
+	 * The candidates of one order to create, one list per order line.
+	 */
+	@VisibleForTesting
+	static final class OrderToCreate
+	{
+		private final List<List<OLCand>> orderLines = new ArrayList<>();
+
+		private void newOrderLine()
+		{
+			orderLines.add(new ArrayList<>());
+		}
+
+		private void addOLCand(@NonNull final OLCand candidate)
+		{
+			orderLines.get(orderLines.size() - 1).add(candidate);
+		}
+
+		List<List<OLCand>> getOrderLines()
+		{
+			return orderLines;
+		}
+
+		private OLCand getFirstOLCand()
+		{
+			return orderLines.get(0).get(0);
+		}
+
+		private ImmutableList<Integer> getOLCandIds()
+		{
+			return orderLines.stream()
+					.flatMap(List::stream)
+					.map(OLCand::getId)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		@Override
+		public String toString()
+		{
+			return MoreObjects.toStringHelper(this)
+					.add("olCandIds", getOLCandIds())
+					.toString();
+		}
+	}
+
+	@Value
+	private static class OrderCreationFailure
+	{
+		@NonNull
+		OrderToCreate orderToCreate;
+		@NonNull
+		Exception exception;
+	}
 }
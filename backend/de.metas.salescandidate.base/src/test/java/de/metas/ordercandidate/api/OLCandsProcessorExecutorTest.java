@@ -0,0 +1,209 @@
+/*
+ * #%L
+ * de.metas.salescandidate.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.ordercandidate.api;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.impex.model.I_AD_InputDataSource;
+import de.metas.ordercandidate.OrderCandidate_Constants;
+import de.metas.ordercandidate.api.OLCandsProcessorExecutor.OrderToCreate;
+import de.metas.ordercandidate.model.I_C_OLCand;
+import de.metas.ordercandidate.spi.NullOLCandListener;
+import de.metas.user.UserId;
+import de.metas.util.Services;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OLCandsProcessorExecutorTest
+{
+	private static final int BPARTNER_1 = 10;
+	private static final int BPARTNER_2 = 20;
+	private static final int PRODUCT_1 = 100;
+	private static final int PRODUCT_2 = 200;
+
+	private I_C_UOM uom;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		final I_AD_InputDataSource dataDestination = newInstance(I_AD_InputDataSource.class);
+		dataDestination.setInternalName(OrderCandidate_Constants.DATA_DESTINATION_INTERNAL_NAME);
+		dataDestination.setIsActive(true);
+		saveRecord(dataDestination);
+
+		uom = newInstance(I_C_UOM.class);
+		saveRecord(uom);
+	}
+
+	private OLCand olCand(final int bpartnerId, final int productId, final String poReference)
+	{
+		final I_C_OLCand olCandRecord = newInstance(I_C_OLCand.class);
+		olCandRecord.setC_BPartner_ID(bpartnerId);
+		olCandRecord.setC_BPartner_Location_ID(bpartnerId + 1);
+		olCandRecord.setM_Product_ID(productId);
+		olCandRecord.setC_UOM_ID(uom.getC_UOM_ID());
+		olCandRecord.setPOReference(poReference);
+		saveRecord(olCandRecord);
+
+		return OLCand.builder()
+				.olCandEffectiveValuesBL(Services.get(IOLCandEffectiveValuesBL.class))
+				.olCandRecord(olCandRecord)
+				.build();
+	}
+
+	private static OLCandsProcessorExecutor executor(final OLCandAggregation aggregation)
+	{
+		final OLCandProcessorDescriptor processorDescriptor = OLCandProcessorDescriptor.builder()
+				.id(1)
+				.defaults(OLCandOrderDefaults.builder().build())
+				.aggregationInfo(aggregation)
+				.userInChangeId(UserId.ofRepoId(100))
+				.build();
+
+		return OLCandsProcessorExecutor.builder()
+				.processorDescriptor(processorDescriptor)
+				.olCandListeners(NullOLCandListener.instance)
+				.groupingValuesProviders(candidate -> ImmutableList.of(candidate.getM_Product_ID()))
+				.candidatesSource(Stream::empty)
+				.build();
+	}
+
+	/**
+	 * Makes the executor group the candidates into order lines by the values of the grouping provider, i.e. by product.
+	 */
+	private static OLCandAggregation groupByProduct()
+	{
+		return OLCandAggregation.of(ImmutableList.of(OLCandAggregationColumn.builder()
+				.columnName(I_C_OLCand.COLUMNNAME_M_PricingSystem_ID)
+				.adColumnId(1)
+				.groupByColumn(true)
+				.build()));
+	}
+
+	/**
+	 * @return the candidate IDs of each order line of each order
+	 */
+	private static List<List<List<Integer>>> toOLCandIds(final List<OrderToCreate> ordersToCreate)
+	{
+		return ordersToCreate.stream()
+				.map(orderToCreate -> orderToCreate.getOrderLines().stream()
+						.map(orderLine -> orderLine.stream()
+								.map(OLCand::getId)
+								.collect(ImmutableList.toImmutableList()))
+						.collect(ImmutableList.<List<Integer>> toImmutableList()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@SafeVarargs
+	private static List<List<Integer>> order(final List<Integer>... orderLines)
+	{
+		return ImmutableList.copyOf(orderLines);
+	}
+
+	private static List<Integer> line(final OLCand... candidates)
+	{
+		return Stream.of(candidates).map(OLCand::getId).collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	void withoutGroupByColumns_eachCandidateGetsItsOwnOrderLine()
+	{
+		final OLCand cand1 = olCand(BPARTNER_1, PRODUCT_1, null);
+		final OLCand cand2 = olCand(BPARTNER_1, PRODUCT_1, null);
+		final OLCand cand3 = olCand(BPARTNER_1, PRODUCT_2, null);
+
+		final List<OrderToCreate> ordersToCreate = executor(OLCandAggregation.of(ImmutableList.of()))
+				.computeOrdersToCreate(ImmutableList.of(cand1, cand2, cand3));
+
+		assertThat(toOLCandIds(ordersToCreate)).containsExactly(
+				order(line(cand1), line(cand2), line(cand3)));
+	}
+
+	@Test
+	void withGroupByColumns_candidatesWithTheSameGroupingValuesShareAnOrderLine()
+	{
+		final OLCand cand1 = olCand(BPARTNER_1, PRODUCT_1, null);
+		final OLCand cand2 = olCand(BPARTNER_1, PRODUCT_2, null);
+		final OLCand cand3 = olCand(BPARTNER_1, PRODUCT_1, null);
+
+		final List<OrderToCreate> ordersToCreate = executor(groupByProduct())
+				.computeOrdersToCreate(ImmutableList.of(cand1, cand2, cand3));
+
+		assertThat(toOLCandIds(ordersToCreate)).containsExactly(
+				order(line(cand1, cand3), line(cand2)));
+	}
+
+	@Test
+	void differentBPartners_splitTheOrder()
+	{
+		final OLCand cand1 = olCand(BPARTNER_1, PRODUCT_1, null);
+		final OLCand cand2 = olCand(BPARTNER_1, PRODUCT_2, null);
+		final OLCand cand3 = olCand(BPARTNER_2, PRODUCT_1, null);
+
+		final List<OrderToCreate> ordersToCreate = executor(OLCandAggregation.of(ImmutableList.of()))
+				.computeOrdersToCreate(ImmutableList.of(cand1, cand2, cand3));
+
+		assertThat(toOLCandIds(ordersToCreate)).containsExactly(
+				order(line(cand1), line(cand2)),
+				order(line(cand3)));
+	}
+
+	@Test
+	void differentPOReferences_splitTheOrder()
+	{
+		final OLCand cand1 = olCand(BPARTNER_1, PRODUCT_1, "PO1");
+		final OLCand cand2 = olCand(BPARTNER_1, PRODUCT_2, "PO2");
+
+		final List<OrderToCreate> ordersToCreate = executor(OLCandAggregation.of(ImmutableList.of()))
+				.computeOrdersToCreate(ImmutableList.of(cand1, cand2));
+
+		assertThat(toOLCandIds(ordersToCreate)).containsExactly(
+				order(line(cand1)),
+				order(line(cand2)));
+	}
+
+	@Test
+	void groupedCandidatesOfDifferentBPartners_goToDifferentOrders()
+	{
+		final OLCand cand1 = olCand(BPARTNER_1, PRODUCT_1, null);
+		final OLCand cand2 = olCand(BPARTNER_2, PRODUCT_1, null);
+		final OLCand cand3 = olCand(BPARTNER_2, PRODUCT_2, null);
+
+		final List<OrderToCreate> ordersToCreate = executor(groupByProduct())
+				.computeOrdersToCreate(ImmutableList.of(cand1, cand2, cand3));
+
+		assertThat(toOLCandIds(ordersToCreate)).containsExactly(
+				order(line(cand1)),
+				order(line(cand2), line(cand3)));
+	}
+}
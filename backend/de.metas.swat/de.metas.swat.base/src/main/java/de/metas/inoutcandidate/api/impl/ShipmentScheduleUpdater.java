@@ -2,6 +2,7 @@ package de.metas.inoutcandidate.api.impl;
 
 import ch.qos.logback.classic.Level;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import de.metas.bpartner.BPartnerId;
@@ -74,13 +75,16 @@ import org.slf4j.MDC.MDCCloseable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /*
@@ -249,6 +253,18 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 	 * {@link I_M_ShipmentSchedule#COLUMNNAME_AllowConsolidateInOut}
 	 * <p>
 	 * To actually set those values, this method calls the registered {@link IShipmentSchedulesAfterFirstPassUpdater}.
+	 * <p>
+	 * The stock is loaded just once, for all given schedules; both runs work on their own copy of that snapshot.
+	 * The duration of each phase is logged at the end.
+	 * <p>
+	 * Note that the schedules are deliberately not partitioned by (warehouse, product) and evaluated on parallel threads:
+	 * <ul>
+	 * <li>the per-line reads (qtyDelivered, qtyPickedAndUnconfirmed) and the delivery rules go through the thread-inherited transaction,
+	 * which may contain not yet committed schedules and allocations; worker threads would not see them.
+	 * <li>delivery groups (one per order or per shipper and address) span several products and warehouses, and the "complete order" rule needs all lines of a group.
+	 * <li>the stock of picking BOM components is shared between different main products, so (warehouse, product) does not separate the stock.
+	 * </ul>
+	 * Also the schedules are saved one by one, because the {@code M_ShipmentSchedule} model interceptors need to see each change.
 	 */
 	@VisibleForTesting
 	void updateSchedules(final Properties ctx, final List<OlAndSched> olsAndScheds)
@@ -258,6 +274,9 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			return;
 		}
 
+		final LinkedHashMap<String, Duration> phaseDurations = new LinkedHashMap<>();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
 		//
 		// Briefly update our shipment schedules:
 		// * set BPartnerAddress_Override if was not set before
@@ -279,11 +298,17 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				updateShipmentConstraints(sched);
 			}
 		}
+		recordPhaseDuration(phaseDurations, "prepare", stopwatch);
 
-		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(ctx, olsAndScheds);
+		final ShipmentScheduleQtyOnHandStorage qtyOnHandsSnapshot = shipmentScheduleQtyOnHandStorageFactory.ofOlAndScheds(olsAndScheds);
+		recordPhaseDuration(phaseDurations, "loadStock", stopwatch);
+
+		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(ctx, olsAndScheds, qtyOnHandsSnapshot);
 		firstRun.updateCompleteStatusAndSetQtyToZeroWhereNeeded();
+		recordPhaseDuration(phaseDurations, "firstRun", stopwatch);
 
 		applyCandidateProcessors(ctx, firstRun);
+		recordPhaseDuration(phaseDurations, "candidateProcessors", stopwatch);
 
 		// evaluate the processor's result: lines that have been discarded won't
 		// be delivered and won't be validated in the second run.
@@ -303,7 +328,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 
 		// make the second run
-		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(ctx, olsAndScheds, firstRun);
+		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(ctx, olsAndScheds, firstRun, qtyOnHandsSnapshot.newStorageFromSnapshot());
+		recordPhaseDuration(phaseDurations, "secondRun", stopwatch);
 
 		// finally update the shipment schedule entries
 		for (final OlAndSched olAndSched : olsAndScheds)
@@ -412,40 +438,60 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			// shipmentScheduleBL.updateCanBeExportedAfter(schedRecord);
 			shipmentSchedulePA.save(schedRecord);
 		}
+		recordPhaseDuration(phaseDurations, "updateAndSave", stopwatch);
+
+		Loggables.withLogger(logger, Level.INFO).addLog("ShipmentScheduleUpdater - updated {} shipment schedules; phase durations: {}", olsAndScheds.size(), phaseDurations);
 	}
 
+	private static void recordPhaseDuration(
+			@NonNull final LinkedHashMap<String, Duration> phaseDurations,
+			@NonNull final String phaseName,
+			@NonNull final Stopwatch stopwatch)
+	{
+		phaseDurations.put(phaseName, Duration.ofMillis(stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+		stopwatch.reset().start();
+	}
+
+	@VisibleForTesting
 	ShipmentSchedulesDuringUpdate generate_FirstRun(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines)
+	{
+		return generate_FirstRun(ctx, lines, shipmentScheduleQtyOnHandStorageFactory.ofOlAndScheds(lines));
+	}
+
+	private ShipmentSchedulesDuringUpdate generate_FirstRun(
+			@NonNull final Properties ctx,
+			@NonNull final List<OlAndSched> lines,
+			@NonNull final ShipmentScheduleQtyOnHandStorage qtyOnHands)
 	{
 		try (final MDCCloseable ignored = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(1))
 		{
 			final ShipmentSchedulesDuringUpdate firstRun = new ShipmentSchedulesDuringUpdate();
-			return generate(ctx, lines, firstRun);
+			return generate(lines, firstRun, qtyOnHands);
 		}
 	}
 
-	ShipmentSchedulesDuringUpdate generate_SecondRun(
+	private ShipmentSchedulesDuringUpdate generate_SecondRun(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate firstRun)
+			@NonNull final ShipmentSchedulesDuringUpdate firstRun,
+			@NonNull final ShipmentScheduleQtyOnHandStorage qtyOnHands)
 	{
 		try (final MDCCloseable ignored = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(2))
 		{
-			return generate(ctx, lines, firstRun);
+			return generate(lines, firstRun, qtyOnHands);
 		}
 	}
 
+	/**
+	 * @param qtyOnHands the QtyOnHand in scope for our lines. While iterating the lines, the quantities that are allocated are subtracted from it.
+	 */
 	private ShipmentSchedulesDuringUpdate generate(
-			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate candidates)
+			@NonNull final ShipmentSchedulesDuringUpdate candidates,
+			@NonNull final ShipmentScheduleQtyOnHandStorage qtyOnHands)
 	{
-		//
-		// Load QtyOnHand in scope for our lines
-		// i.e. iterate all lines to cache the required storage info and to subtract the quantities that can't be allocated from the storage allocation.
-		final ShipmentScheduleQtyOnHandStorage qtyOnHands = shipmentScheduleQtyOnHandStorageFactory.ofOlAndScheds(lines);
-
 		//
 		// Iterate and try to allocate the QtyOnHand
 		for (final OlAndSched olAndSched : lines)
@@ -12,6 +12,7 @@ import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.adempiere.warehouse.WarehouseId;
 import org.adempiere.warehouse.api.IWarehouseDAO;
@@ -22,8 +23,10 @@ import org.slf4j.MDC.MDCCloseable;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
 
 import de.metas.inoutcandidate.api.IShipmentScheduleEffectiveBL;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
@@ -44,6 +47,8 @@ import lombok.ToString;
 /**
  * Loads stock details which are relevant to given {@link I_M_ShipmentSchedule}s.
  * Allows to change (in memory!) the qtyOnHand.
+ * <p>
+ * The loaded stock data is kept as an immutable snapshot, so {@link #newStorageFromSnapshot()} can provide a fresh storage (with the original qtyOnHands) without querying the database again.
  */
 @ToString(of = "stockDetails")
 public class ShipmentScheduleQtyOnHandStorage
@@ -53,24 +58,56 @@ public class ShipmentScheduleQtyOnHandStorage
 	private final IWarehouseDAO warehouseDAO = Services.get(IWarehouseDAO.class);
 	private final IPPOrderBL ppOrdersBL = Services.get(IPPOrderBL.class);
 
+	@Nullable
+	private final ImmutableList<StockDataItem> stockDataItemsSnapshot;
 	private final ImmutableList<ShipmentScheduleAvailableStockDetail> stockDetails;
-	private final Map<ArrayKey, StockDataQuery> cachedMaterialQueries = new HashMap<>();
-	private final Map<PPOrderId, Optional<QtyCalculationsBOM>> cachedPickingBOMs = new HashMap<>();
+	private final ImmutableListMultimap<ProductId, ShipmentScheduleAvailableStockDetail> stockDetailsByProductId;
+	private final Map<ArrayKey, StockDataQuery> cachedMaterialQueries;
+	private final Map<PPOrderId, Optional<QtyCalculationsBOM>> cachedPickingBOMs;
 
 	public ShipmentScheduleQtyOnHandStorage(
 			@NonNull final List<I_M_ShipmentSchedule> shipmentSchedules,
 			@NonNull final StockRepository stockRepository)
 	{
-		this.stockDetails = toStockDetails(shipmentSchedules, stockRepository);
+		this.cachedMaterialQueries = new HashMap<>();
+		this.cachedPickingBOMs = new HashMap<>();
+		this.stockDataItemsSnapshot = retrieveStockDataItems(shipmentSchedules, stockRepository);
+		this.stockDetails = toStockDetails(stockDataItemsSnapshot);
+		this.stockDetailsByProductId = indexByProductId(stockDetails);
 	}
 
 	@VisibleForTesting
 	ShipmentScheduleQtyOnHandStorage(@NonNull final List<ShipmentScheduleAvailableStockDetail> stockDetails)
 	{
+		this.cachedMaterialQueries = new HashMap<>();
+		this.cachedPickingBOMs = new HashMap<>();
+		this.stockDataItemsSnapshot = null;
 		this.stockDetails = ImmutableList.copyOf(stockDetails);
+		this.stockDetailsByProductId = indexByProductId(this.stockDetails);
 	}
 
-	private final ImmutableList<ShipmentScheduleAvailableStockDetail> toStockDetails(
+	private ShipmentScheduleQtyOnHandStorage(@NonNull final ShipmentScheduleQtyOnHandStorage from)
+	{
+		this.cachedMaterialQueries = from.cachedMaterialQueries;
+		this.cachedPickingBOMs = from.cachedPickingBOMs;
+		this.stockDataItemsSnapshot = from.stockDataItemsSnapshot;
+		this.stockDetails = toStockDetails(stockDataItemsSnapshot);
+		this.stockDetailsByProductId = indexByProductId(stockDetails);
+	}
+
+	/**
+	 * @return a new storage which is based on the same stock data snapshot as this one, but which has its own (untouched) qtyOnHands.
+	 */
+	public ShipmentScheduleQtyOnHandStorage newStorageFromSnapshot()
+	{
+		if (stockDataItemsSnapshot == null)
+		{
+			throw new AdempiereException("Storage was not created from a stock data snapshot: " + this);
+		}
+		return new ShipmentScheduleQtyOnHandStorage(this);
+	}
+
+	private ImmutableList<StockDataItem> retrieveStockDataItems(
 			final List<I_M_ShipmentSchedule> shipmentSchedules,
 			final StockRepository stockRepository)
 	{
@@ -84,11 +121,14 @@ public class ShipmentScheduleQtyOnHandStorage
 			return ImmutableList.of();
 		}
 
-		final List<StockDataItem> stockResult = stockRepository
+		return stockRepository
 				.streamStockDataItems(multiQuery)
 				.collect(ImmutableList.toImmutableList());
+	}
 
-		return toStockDetails(stockResult);
+	private static ImmutableListMultimap<ProductId, ShipmentScheduleAvailableStockDetail> indexByProductId(@NonNull final List<ShipmentScheduleAvailableStockDetail> stockDetails)
+	{
+		return Multimaps.index(stockDetails, ShipmentScheduleAvailableStockDetail::getProductId);
 	}
 
 	private StockDataMultiQuery toMultiQueryOrNull(@NonNull final List<I_M_ShipmentSchedule> shipmentSchedules)
@@ -283,7 +323,9 @@ public class ShipmentScheduleQtyOnHandStorage
 
 	private ImmutableList<ShipmentScheduleAvailableStockDetail> getStockDetailsMatching(@NonNull final StockDataQuery query)
 	{
-		return stockDetails
+		// only look at the stock details of the query's product, instead of scanning all of them
+		return stockDetailsByProductId
+				.get(query.getProductId())
 				.stream()
 				.filter(stockDetail -> matching(query, stockDetail))
 				.collect(ImmutableList.toImmutableList());
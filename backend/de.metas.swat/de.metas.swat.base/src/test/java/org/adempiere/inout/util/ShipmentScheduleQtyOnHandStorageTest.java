@@ -0,0 +1,148 @@
+package org.adempiere.inout.util;
+
+import static java.math.BigDecimal.TEN;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.OrderLineSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.OrderSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.ProductSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.ShipmentScheduleSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.StockSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.TestSetupSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.TestSetupSpecHelper;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.UomSpec;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.material.cockpit.model.I_MD_Stock;
+import de.metas.material.cockpit.stock.StockRepository;
+import de.metas.order.DeliveryRule;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@ExtendWith(AdempiereTestWatcher.class)
+public class ShipmentScheduleQtyOnHandStorageTest
+{
+	private ShipmentScheduleQtyOnHandStorageFactory storageFactory;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		storageFactory = new ShipmentScheduleQtyOnHandStorageFactory(new StockRepository());
+	}
+
+	private ImmutableList<OlAndSched> setup()
+	{
+		final TestSetupSpec spec = TestSetupSpec.builder()
+				.uom(UomSpec.builder().name("stockUom").build())
+				.product(ProductSpec.builder().value("prod1").uomValue("stockUom").stocked(true).build())
+				.product(ProductSpec.builder().value("prod2").uomValue("stockUom").stocked(true).build())
+				.stock(StockSpec.builder().product("prod1").qtyStock(new BigDecimal("1")).build())
+				.stock(StockSpec.builder().product("prod1").qtyStock(new BigDecimal("3")).build())
+				.stock(StockSpec.builder().product("prod2").qtyStock(new BigDecimal("7")).build())
+				.order(OrderSpec.builder().value("order1").build())
+				.orderLine(OrderLineSpec.builder().value("ol1").product("prod1").order("order1").qtyOrdered(TEN).build())
+				.orderLine(OrderLineSpec.builder().value("ol2").product("prod2").order("order1").qtyOrdered(TEN).build())
+				.shipmentSchedule(ShipmentScheduleSpec.builder().product("prod1").order("order1").orderLine("ol1").qtyOrdered(TEN).deliveryRule(DeliveryRule.AVAILABILITY).build())
+				.shipmentSchedule(ShipmentScheduleSpec.builder().product("prod2").order("order1").orderLine("ol2").qtyOrdered(TEN).deliveryRule(DeliveryRule.AVAILABILITY).build())
+				.build();
+
+		return TestSetupSpecHelper.setup(spec);
+	}
+
+	@Test
+	public void getStockDetailsMatching_onlyStockOfScheduleProduct()
+	{
+		final List<OlAndSched> olAndScheds = setup();
+		final ShipmentScheduleQtyOnHandStorage storage = storageFactory.ofOlAndScheds(olAndScheds);
+
+		assertThat(storage.getStockDetailsMatching(olAndScheds.get(0).getSched()).getTotalQtyAvailable()).isEqualByComparingTo("4");
+		assertThat(storage.getStockDetailsMatching(olAndScheds.get(1).getSched()).getTotalQtyAvailable()).isEqualByComparingTo("7");
+	}
+
+	@Test
+	public void newStorageFromSnapshot_hasUntouchedQtyOnHands()
+	{
+		final List<OlAndSched> olAndScheds = setup();
+		final I_M_ShipmentSchedule sched1 = olAndScheds.get(0).getSched();
+		final ShipmentScheduleQtyOnHandStorage storage = storageFactory.ofOlAndScheds(olAndScheds);
+
+		final ShipmentScheduleAvailableStock stock = storage.getStockDetailsMatching(sched1);
+		for (int i = 0; i < stock.size(); i++)
+		{
+			stock.subtractQtyOnHand(i, stock.getQtyAvailable(i));
+		}
+		assertThat(storage.getStockDetailsMatching(sched1).getTotalQtyAvailable()).isZero();
+
+		final ShipmentScheduleQtyOnHandStorage newStorage = storage.newStorageFromSnapshot();
+		assertThat(newStorage.getStockDetailsMatching(sched1).getTotalQtyAvailable()).isEqualByComparingTo("4");
+
+		// the original storage shall not be affected by the new one
+		assertThat(storage.getStockDetailsMatching(sched1).getTotalQtyAvailable()).isZero();
+	}
+
+	@Test
+	public void newStorageFromSnapshot_doesNotReloadStock()
+	{
+		final List<OlAndSched> olAndScheds = setup();
+		final I_M_ShipmentSchedule sched1 = olAndScheds.get(0).getSched();
+		final ShipmentScheduleQtyOnHandStorage storage = storageFactory.ofOlAndScheds(olAndScheds);
+
+		for (final I_MD_Stock stockRecord : Services.get(IQueryBL.class).createQueryBuilder(I_MD_Stock.class).create().list())
+		{
+			stockRecord.setQtyOnHand(BigDecimal.ZERO);
+			saveRecord(stockRecord);
+		}
+
+		// the new storage shall see the quantities from the snapshot, not the changed MD_Stock records
+		final ShipmentScheduleQtyOnHandStorage newStorage = storage.newStorageFromSnapshot();
+		assertThat(newStorage.getStockDetailsMatching(sched1).getTotalQtyAvailable()).isEqualByComparingTo("4");
+
+		// a freshly loaded storage shall see the changed records
+		assertThat(storageFactory.ofOlAndScheds(olAndScheds).getStockDetailsMatching(sched1).getTotalQtyAvailable()).isZero();
+	}
+
+	@Test
+	public void newStorageFromSnapshot_notCreatedFromSnapshot()
+	{
+		final ShipmentScheduleQtyOnHandStorage storage = new ShipmentScheduleQtyOnHandStorage(ImmutableList.of());
+
+		assertThatThrownBy(storage::newStorageFromSnapshot).isInstanceOf(AdempiereException.class);
+	}
+}
@@ -27,6 +27,7 @@ import de.metas.ui.web.view.event.ViewChanges;
 import de.metas.ui.web.websocket.WebsocketActiveSubscriptionsIndex;
 import de.metas.ui.web.websocket.WebsocketEventLogRecord;
 import de.metas.ui.web.websocket.WebsocketSender;
+import de.metas.ui.web.websocket.WebsocketSenderStats;
 import de.metas.ui.web.websocket.WebsocketSubscriptionId;
 import de.metas.ui.web.websocket.WebsocketTopicName;
 import de.metas.ui.web.websocket.WebsocketTopicNames;
@@ -152,6 +153,20 @@ public class DebugWebsocketRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("/stats")
+	public WebsocketSenderStats getStats(
+			@RequestParam(value = "reset", required = false, defaultValue = "false") final boolean reset)
+	{
+		userSession.assertLoggedIn();
+
+		final WebsocketSenderStats stats = websocketSender.getStats();
+		if (reset)
+		{
+			websocketSender.resetStats();
+		}
+		return stats;
+	}
+
 	@GetMapping("/activeSubscriptions")
 	public Map<String, ?> getActiveSubscriptions()
 	{
@@ -27,6 +27,8 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
+import de.metas.ui.web.websocket.MergeableWebsocketPayload;
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
 import de.metas.ui.web.websocket.WebsocketTopicName;
 import de.metas.ui.web.websocket.WebsocketTopicNames;
@@ -35,11 +37,13 @@ import de.metas.ui.web.window.datatypes.WindowId;
 import lombok.NonNull;
 import lombok.Value;
 
+import javax.annotation.Nullable;
+import java.util.Objects;
 import java.util.Set;
 
 @Value
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public class JSONViewChanges implements WebsocketEndpointAware
+public class JSONViewChanges implements WebsocketEndpointAware, MergeableWebsocketPayload
 {
 	public static JSONViewChanges of(@NonNull final ViewChanges changes)
 	{
@@ -92,5 +96,66 @@ public class JSONViewChanges implements WebsocketEndpointAware
 
 		websocketEndpoint = WebsocketTopicNames.buildViewNotificationsTopicName(viewId);
 	}
+
+	private JSONViewChanges(
+			@NonNull final String viewId,
+			@NonNull final WindowId windowId,
+			@Nullable final Boolean fullyChanged,
+			@Nullable final Set<String> changedIds,
+			@Nullable final Boolean headerPropertiesChanged,
+			@NonNull final WebsocketTopicName websocketEndpoint)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+		this.headerPropertiesChanged = headerPropertiesChanged;
+		this.websocketEndpoint = websocketEndpoint;
+	}
+
+	@Nullable
+	@Override
+	public JSONViewChanges mergeWith(@NonNull final MergeableWebsocketPayload next)
+	{
+		if (!(next instanceof JSONViewChanges))
+		{
+			return null;
+		}
+
+		final JSONViewChanges nextChanges = (JSONViewChanges)next;
+		if (!Objects.equals(viewId, nextChanges.viewId)
+				|| !Objects.equals(websocketEndpoint, nextChanges.websocketEndpoint))
+		{
+			return null;
+		}
+
+		final Boolean fullyChangedNew;
+		final Set<String> changedIdsNew;
+		if (Boolean.TRUE.equals(fullyChanged) || Boolean.TRUE.equals(nextChanges.fullyChanged))
+		{
+			fullyChangedNew = Boolean.TRUE;
+			changedIdsNew = null;
+		}
+		else
+		{
+			final ImmutableSet.Builder<String> changedIdsBuilder = ImmutableSet.builder();
+			if (changedIds != null)
+			{
+				changedIdsBuilder.addAll(changedIds);
+			}
+			if (nextChanges.changedIds != null)
+			{
+				changedIdsBuilder.addAll(nextChanges.changedIds);
+			}
+			final ImmutableSet<String> changedIdsUnion = changedIdsBuilder.build();
+
+			fullyChangedNew = changedIdsUnion.isEmpty() ? null : Boolean.FALSE;
+			changedIdsNew = changedIdsUnion.isEmpty() ? null : changedIdsUnion;
+		}
+
+		final Boolean headerPropertiesChangedNew = Boolean.TRUE.equals(headerPropertiesChanged) || Boolean.TRUE.equals(nextChanges.headerPropertiesChanged) ? true : null;
+
+		return new JSONViewChanges(viewId, windowId, fullyChangedNew, changedIdsNew, headerPropertiesChangedNew, websocketEndpoint);
+	}
 }
 
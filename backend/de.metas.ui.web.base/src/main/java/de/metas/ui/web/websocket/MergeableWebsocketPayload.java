@@ -0,0 +1,43 @@
+package de.metas.ui.web.websocket;
+
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Websocket payload which can be merged with a payload sent later to the same destination.
+ * <p>
+ * When the queued events are flushed, {@link WebsocketSender} merges consecutive mergeable payloads of the same destination
+ * and sends only the merged one (e.g. several "view rows changed" notifications are sent as one notification with all changed row IDs).
+ */
+public interface MergeableWebsocketPayload
+{
+	/**
+	 * @param next the payload which was enqueued after this one, for the same destination
+	 * @return the merged payload or null if the given payload cannot be merged with this one
+	 */
+	@Nullable
+	MergeableWebsocketPayload mergeWith(@NonNull MergeableWebsocketPayload next);
+}
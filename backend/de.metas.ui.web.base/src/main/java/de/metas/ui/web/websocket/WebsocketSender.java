@@ -1,5 +1,7 @@
 package de.metas.ui.web.websocket;
 
+import com.google.common.annotations.VisibleForTesting;
+import de.metas.common.util.time.SystemTime;
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
 import de.metas.util.async.Debouncer;
@@ -13,12 +15,23 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /*
  * #%L
@@ -64,6 +77,9 @@ public class WebsocketSender implements InitializingBean
 
 	private final Debouncer<WebsocketEvent> debouncer;
 
+	private final ConcurrentHashMap<String, TopicCounters> countersByTopic = new ConcurrentHashMap<>();
+	private volatile Instant countersResetTimestamp = SystemTime.asInstant();
+
 	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
 	{
 		this.websocketMessagingTemplate = websocketMessagingTemplate;
@@ -100,11 +116,13 @@ public class WebsocketSender implements InitializingBean
 	public void convertAndSend(final WebsocketTopicName destination, final Object event)
 	{
 		getQueue().enqueueObject(destination, event);
+		getCounters(destination).eventsEnqueued.increment();
 	}
 
 	public void sendMessage(final WebsocketTopicName destination, final Message<?> message)
 	{
 		getQueue().enqueueMessage(destination, message);
+		getCounters(destination).eventsEnqueued.increment();
 	}
 
 	private WebsocketEventsQueue getQueue()
@@ -154,22 +172,105 @@ public class WebsocketSender implements InitializingBean
 		return eventsLog.getLoggedEvents(destinationFilter);
 	}
 
+	public WebsocketSenderStats getStats()
+	{
+		final Duration interval = Duration.between(countersResetTimestamp, SystemTime.asInstant());
+		final long intervalSeconds = Math.max(interval.getSeconds(), 1);
+
+		final WebsocketSenderStats.WebsocketSenderStatsBuilder stats = WebsocketSenderStats.builder()
+				.queueSize(debouncer.getBufferSize())
+				.interval(interval);
+		countersByTopic.forEach((topic, counters) -> stats.topic(WebsocketSenderStats.TopicStats.builder()
+				.topic(topic)
+				.eventsEnqueued(counters.eventsEnqueued.sum())
+				.messagesSent(counters.messagesSent.sum())
+				.bytesSent(counters.bytesSent.sum())
+				.bytesPerSecond(counters.bytesSent.sum() / intervalSeconds)
+				.build()));
+		return stats.build();
+	}
+
+	public void resetStats()
+	{
+		countersByTopic.clear();
+		countersResetTimestamp = SystemTime.asInstant();
+	}
+
+	private TopicCounters getCounters(final WebsocketTopicName destination)
+	{
+		return countersByTopic.computeIfAbsent(extractTopic(destination), topic -> new TopicCounters());
+	}
+
+	/**
+	 * @return first segment of given destination, e.g. {@code /view} for {@code /view/someViewId}
+	 */
+	private static String extractTopic(final WebsocketTopicName destination)
+	{
+		final String destinationStr = destination.getAsString();
+		final int idx = destinationStr.indexOf('/', 1);
+		return idx > 0 ? destinationStr.substring(0, idx) : destinationStr;
+	}
+
 	private void sendEventsNow(final List<WebsocketEvent> events)
 	{
-		events.forEach(this::sendEventNow);
+		final List<WebsocketEvent> eventsToSend = mergeEvents(events);
+
+		// Convert each payload only once, even if it's sent to more destinations
+		final IdentityHashMap<Object, Message<?>> messagesByPayload = new IdentityHashMap<>();
+		eventsToSend.forEach(event -> sendEventNow(event, messagesByPayload));
+	}
+
+	/**
+	 * Merges consecutive {@link MergeableWebsocketPayload}s which are sent to the same destination.
+	 *
+	 * @return events to be sent, in the same order as they were enqueued (per destination)
+	 */
+	@VisibleForTesting
+	static List<WebsocketEvent> mergeEvents(final List<WebsocketEvent> events)
+	{
+		if (events.size() <= 1)
+		{
+			return events;
+		}
+
+		final ArrayList<WebsocketEvent> result = new ArrayList<>(events.size());
+		final HashMap<WebsocketTopicName, Integer> lastEventIndexByDestination = new HashMap<>();
+		for (final WebsocketEvent event : events)
+		{
+			final WebsocketTopicName destination = event.getDestination();
+			final Integer lastEventIndex = lastEventIndexByDestination.get(destination);
+			final WebsocketEvent mergedEvent = lastEventIndex != null ? result.get(lastEventIndex).mergeWith(event) : null;
+			if (mergedEvent != null)
+			{
+				result.set(lastEventIndex, mergedEvent);
+			}
+			else
+			{
+				lastEventIndexByDestination.put(destination, result.size());
+				result.add(event);
+			}
+		}
+
+		if (result.size() < events.size())
+		{
+			logger.debug("Merged {} events into {} events", events.size(), result.size());
+		}
+
+		return result;
 	}
 
-	private void sendEventNow(final WebsocketEvent event)
+	private void sendEventNow(final WebsocketEvent event, final Map<Object, Message<?>> messagesByPayload)
 	{
 		logger.debug("Sending {}", event);
 
 		final WebsocketTopicName destination = event.getDestination();
 		final Object payload = event.getPayload();
-		final boolean converted = event.isConverted();
 
-		if (converted)
+		final Message<?> message = event.isConverted()
+				? (Message<?>)payload
+				: messagesByPayload.computeIfAbsent(payload, this::toMessageOrNull);
+		if (message != null)
 		{
-			final Message<?> message = (Message<?>)payload;
 			websocketMessagingTemplate.send(destination.getAsString(), message);
 		}
 		else
@@ -177,17 +278,76 @@ public class WebsocketSender implements InitializingBean
 			websocketMessagingTemplate.convertAndSend(destination.getAsString(), payload);
 		}
 
+		final TopicCounters counters = getCounters(destination);
+		counters.messagesSent.increment();
+		counters.bytesSent.add(message != null ? extractPayloadSize(message) : 0);
+
 		eventsLog.logEvent(destination, payload);
-		System.out.println("\tSent to " + destination + ": " + payload);
+		logger.trace("Sent to {}: {}", destination, payload);
+	}
+
+	private Message<?> toMessageOrNull(final Object payload)
+	{
+		final MessageConverter messageConverter = websocketMessagingTemplate.getMessageConverter();
+		return messageConverter.toMessage(payload, null);
+	}
+
+	private static long extractPayloadSize(final Message<?> message)
+	{
+		final Object payload = message.getPayload();
+		if (payload instanceof byte[])
+		{
+			return ((byte[])payload).length;
+		}
+		else if (payload instanceof String)
+		{
+			return ((String)payload).getBytes(StandardCharsets.UTF_8).length;
+		}
+		else
+		{
+			return 0;
+		}
+	}
+
+	private static class TopicCounters
+	{
+		private final LongAdder eventsEnqueued = new LongAdder();
+		private final LongAdder messagesSent = new LongAdder();
+		private final LongAdder bytesSent = new LongAdder();
 	}
 
 	@lombok.Value
-	@lombok.Builder
-	private static class WebsocketEvent
+	@lombok.Builder(toBuilder = true)
+	@VisibleForTesting
+	static class WebsocketEvent
 	{
 		WebsocketTopicName destination;
 		Object payload;
 		boolean converted;
+
+		/**
+		 * @return merged event or null if the events cannot be merged
+		 */
+		@Nullable
+		WebsocketEvent mergeWith(@NonNull final WebsocketEvent next)
+		{
+			if (converted
+					|| next.isConverted()
+					|| !destination.equals(next.getDestination())
+					|| !(payload instanceof MergeableWebsocketPayload)
+					|| !(next.getPayload() instanceof MergeableWebsocketPayload))
+			{
+				return null;
+			}
+
+			final MergeableWebsocketPayload mergedPayload = ((MergeableWebsocketPayload)payload).mergeWith((MergeableWebsocketPayload)next.getPayload());
+			if (mergedPayload == null)
+			{
+				return null;
+			}
+
+			return toBuilder().payload(mergedPayload).build();
+		}
 	}
 
 	private static class WebsocketEventsQueue
@@ -0,0 +1,64 @@
+package de.metas.ui.web.websocket;
+
+import com.google.common.collect.ImmutableList;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+import java.time.Duration;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link WebsocketSender} statistics, grouped by topic (i.e. the first segment of the destination, e.g. {@code /view}).
+ */
+@Value
+@Builder
+public class WebsocketSenderStats
+{
+	/**
+	 * How many events are waiting to be sent
+	 */
+	int queueSize;
+
+	@NonNull
+	Duration interval;
+
+	@NonNull
+	@Singular
+	ImmutableList<TopicStats> topics;
+
+	@Value
+	@Builder
+	public static class TopicStats
+	{
+		@NonNull
+		String topic;
+
+		long eventsEnqueued;
+		long messagesSent;
+		long bytesSent;
+		long bytesPerSecond;
+	}
+}
@@ -227,6 +227,11 @@ public final class JSONDocument extends JSONDocumentBase
 		final DocumentPath documentPath = documentChangedEvents.getDocumentPath();
 		final JSONDocument jsonDocument = new JSONDocument(documentPath);
 
+		if (WindowConstants.isProtocolDebugging())
+		{
+			jsonDocument.putDebugProperty("logic-evaluations-count", documentChangedEvents.getLogicEvaluationsCount());
+		}
+
 		// If the document was deleted, we just need to export that flag. All the other changes are not relevant.
 		if (documentChangedEvents.isDeleted())
 		{
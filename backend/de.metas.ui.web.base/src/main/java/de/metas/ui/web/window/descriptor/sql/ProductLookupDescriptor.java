@@ -11,6 +11,7 @@ import de.metas.bpartner.BPartnerId;
 import de.metas.common.util.CoalesceUtil;
 import de.metas.common.util.time.SystemTime;
 import de.metas.i18n.IMsgBL;
+import de.metas.i18n.Language;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.TranslatableStringBuilder;
 import de.metas.i18n.TranslatableStrings;
@@ -313,7 +314,8 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		{
 			appendFilterByDiscontinued(sqlWhereClause, sqlWhereClauseParams);
 		}
-		appendFilterBySearchString(sqlWhereClause, sqlWhereClauseParams, evalCtx.getFilter(), isFullTextSearchEnabled());
+		final boolean useLookupSearchKey = isUseLookupSearchKey(evalCtx);
+		appendFilterBySearchString(sqlWhereClause, sqlWhereClauseParams, evalCtx.getFilter(), isFullTextSearchEnabled(), useLookupSearchKey);
 		appendFilterById(sqlWhereClause, sqlWhereClauseParams, evalCtx);
 		appendFilterByBPartner(sqlWhereClause, sqlWhereClauseParams, evalCtx);
 		appendFilterByPriceList(sqlWhereClause, sqlWhereClauseParams, evalCtx);
@@ -341,7 +343,12 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_IsBOM
 				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_Value
 				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_Name
+				+ (useLookupSearchKey ? "\n, sk." + SqlLookupDescriptor.COLUMNNAME_LookupSearchKey : "")
 				+ "\n FROM " + I_M_Product_Lookup_V.Table_Name + " p ");
+		if (useLookupSearchKey)
+		{
+			sql.append("\n INNER JOIN " + I_M_Product.Table_Name + " sk ON sk." + I_M_Product.COLUMNNAME_M_Product_ID + "=p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID);
+		}
 		sql.insert(0, "SELECT * FROM (").append(") p");
 
 		//
@@ -351,8 +358,15 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 
 		//
 		// SQL: ORDER BY
-		sql.append("\n ORDER BY ")
-				.append("p." + COLUMNNAME_ProductDisplayName)
+		sql.append("\n ORDER BY ");
+		if (useLookupSearchKey && !isNoFilter(evalCtx.getFilter()))
+		{
+			// rank by match quality: prefix matches first, then the more similar ones
+			final String sqlFilter = convertFilterToSql(evalCtx.getFilter());
+			sql.append("(p." + SqlLookupDescriptor.COLUMNNAME_LookupSearchKey + " ILIKE ltrim(" + SqlLookupDescriptor.FUNCNAME_LookupSearchKey_Normalize + "(").append(sqlParams.placeholder(sqlFilter)).append("), '%')) DESC")
+					.append(", similarity(p." + SqlLookupDescriptor.COLUMNNAME_LookupSearchKey + ", trim(both '%' from " + SqlLookupDescriptor.FUNCNAME_LookupSearchKey_Normalize + "(").append(sqlParams.placeholder(sqlFilter)).append("))) DESC, ");
+		}
+		sql.append("p." + COLUMNNAME_ProductDisplayName)
 				.append(", p." + I_M_Product_Lookup_V.COLUMNNAME_C_BPartner_ID + " DESC NULLS LAST");
 
 		// SQL: LIMIT and OFFSET
@@ -376,22 +390,37 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 			final StringBuilder sqlWhereClause,
 			final SqlParamsCollector sqlWhereClauseParams,
 			final String filter,
-			final boolean fullTextSearchEnabled)
+			final boolean fullTextSearchEnabled,
+			final boolean useLookupSearchKey)
 	{
-		if (filter == LookupDataSourceContext.FILTER_Any)
+		if (isNoFilter(filter))
 		{
 			// no filtering, we are matching everything
 			return;
 		}
-		if (Check.isEmpty(filter, true))
-		{
-			// same, consider it as no filtering
-			return;
-		}
 
 		final String sqlFilter = convertFilterToSql(filter);
 
-		if (fullTextSearchEnabled)
+		if (useLookupSearchKey)
+		{
+			// the trigram indexed search key contains the product's normalized Value and Name
+			final String sqlFilterOnSearchKey = "p." + SqlLookupDescriptor.COLUMNNAME_LookupSearchKey
+					+ " ILIKE " + SqlLookupDescriptor.FUNCNAME_LookupSearchKey_Normalize + "(" + sqlWhereClauseParams.placeholder(sqlFilter) + ")";
+			if (fullTextSearchEnabled)
+			{
+				sqlWhereClause.append("\n AND (")
+						.append(" ").append(sqlFilterOnSearchKey)
+						.append(" OR ").append("p." + I_M_Product_Lookup_V.COLUMNNAME_UPC + " ILIKE ").append(sqlWhereClauseParams.placeholder(sqlFilter))
+						.append(" OR ").append("p." + I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductNo + " ILIKE ").append(sqlWhereClauseParams.placeholder(sqlFilter))
+						.append(" OR ").append("p." + I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductName + " ILIKE ").append(sqlWhereClauseParams.placeholder(sqlFilter))
+						.append(")");
+			}
+			else
+			{
+				sqlWhereClause.append("\n AND ").append(sqlFilterOnSearchKey);
+			}
+		}
+		else if (fullTextSearchEnabled)
 		{
 			sqlWhereClause.append("\n AND (")
 					.append(" ").append("p." + COLUMNNAME_ProductDisplayName + " ILIKE ").append(sqlWhereClauseParams.placeholder(sqlFilter))
@@ -476,6 +505,12 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		sqlWhereClause.append("\n AND p." + I_M_Product_Lookup_V.COLUMNNAME_IsBOM + "=" + sqlWhereClauseParams.placeholder(false));
 	}
 
+	private static boolean isNoFilter(@Nullable final String filter)
+	{
+		// FILTER_Any means we are matching everything; consider an empty filter the same way
+		return filter == LookupDataSourceContext.FILTER_Any || Check.isEmpty(filter, true);
+	}
+
 	private static final String convertFilterToSql(final String filter)
 	{
 		String sqlFilter = filter.trim();
@@ -865,6 +900,15 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 				.build();
 	}
 
+	/**
+	 * The {@value SqlLookupDescriptor#COLUMNNAME_LookupSearchKey} is not translated, so it's only used for the base language.
+	 */
+	private static boolean isUseLookupSearchKey(final LookupDataSourceContext evalCtx)
+	{
+		return Language.isBaseLanguage(evalCtx.getAD_Language())
+				&& Services.get(ISysConfigBL.class).getBooleanValue(SqlLookupDescriptor.SYSCONFIG_UseLookupSearchKey, true);
+	}
+
 	private boolean isFullTextSearchEnabled()
 	{
 		final boolean disabled = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_DisableFullTextSearch, false);
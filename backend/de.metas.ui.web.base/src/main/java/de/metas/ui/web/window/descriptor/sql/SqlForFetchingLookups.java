@@ -2,11 +2,15 @@ package de.metas.ui.web.window.descriptor.sql;
 
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
 import org.adempiere.ad.expression.api.IStringExpression;
 import org.compiere.util.CtxName;
 import org.compiere.util.CtxNames;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.ui.web.window.model.lookup.LookupDataSourceContext;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -43,12 +47,18 @@ public class SqlForFetchingLookups
 	public static final CtxName PARAM_Limit = CtxNames.ofNameAndDefaultValue("Limit", "1000");
 
 	private final IStringExpression sql;
+	/**
+	 * Optional SQL to be used when the lookup is not filtered (i.e. {@link LookupDataSourceContext#isAnyFilter()}), e.g. one which does not rank the results by the filter.
+	 */
+	private final IStringExpression sqlWhenAnyFilter;
 
 	@Builder
 	private SqlForFetchingLookups(
-			@NonNull final IStringExpression sql)
+			@NonNull final IStringExpression sql,
+			@Nullable final IStringExpression sqlWhenAnyFilter)
 	{
 		this.sql = sql;
+		this.sqlWhenAnyFilter = sqlWhenAnyFilter;
 	}
 
 	public IStringExpression toStringExpression()
@@ -63,11 +73,22 @@ public class SqlForFetchingLookups
 
 	public Set<CtxName> getParameters()
 	{
-		return sql.getParameters();
+		if (sqlWhenAnyFilter == null)
+		{
+			return sql.getParameters();
+		}
+
+		return ImmutableSet.<CtxName> builder()
+				.addAll(sql.getParameters())
+				.addAll(sqlWhenAnyFilter.getParameters())
+				.build();
 	}
 
 	public String evaluate(LookupDataSourceContext evalCtx)
 	{
-		return sql.evaluate(evalCtx, OnVariableNotFound.Fail);
+		final IStringExpression sqlEffective = sqlWhenAnyFilter != null && evalCtx.isAnyFilter()
+				? sqlWhenAnyFilter
+				: sql;
+		return sqlEffective.evaluate(evalCtx, OnVariableNotFound.Fail);
 	}
 }
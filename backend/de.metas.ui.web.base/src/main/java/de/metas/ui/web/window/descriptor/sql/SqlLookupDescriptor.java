@@ -23,9 +23,9 @@
 package de.metas.ui.web.window.descriptor.sql;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import de.metas.adempiere.service.impl.TooltipType;
-import de.metas.i18n.TranslatableParameterizedString;
 import de.metas.security.IUserRolePermissions;
 import de.metas.security.impl.AccessSqlStringExpression;
 import de.metas.security.permissions.Access;
@@ -43,6 +43,7 @@ import de.metas.ui.web.window.model.lookup.LookupDataSourceContext;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceFetcher;
 import de.metas.ui.web.window.model.sql.DocActionValidationRule;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 import lombok.ToString;
 import org.adempiere.ad.element.api.AdWindowId;
@@ -58,12 +59,17 @@ import org.adempiere.ad.validationRule.impl.NullValidationRule;
 import org.adempiere.db.DBConstants;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_AD_Client;
 import org.compiere.model.I_AD_Org;
+import org.compiere.model.I_C_BPartner;
 import org.compiere.model.I_M_AttributeSetInstance;
+import org.compiere.model.I_M_Product;
+import org.compiere.model.ILookupDisplayColumn;
 import org.compiere.model.MLookupFactory;
 import org.compiere.model.MLookupInfo;
 import org.compiere.util.DisplayType;
+import org.compiere.util.Env;
 
 import javax.annotation.concurrent.Immutable;
 import java.util.ArrayList;
@@ -141,6 +147,21 @@ public final class SqlLookupDescriptor implements ISqlLookupDescriptor
 
 	private static final int WINDOWNO_Dummy = 99999;
 
+	static final String SYSCONFIG_UseLookupSearchKey = //
+			"de.metas.ui.web.window.descriptor.sql.SqlLookupDescriptor.UseLookupSearchKey";
+
+	/**
+	 * Tables which have a DB-trigger maintained {@value #COLUMNNAME_LookupSearchKey} column, backed by a pg_trgm GIN index.
+	 * The column contains {@code LookupSearchKey_Normalize(concat_ws('_', Value, Name))}, i.e. the normalized standard display name of the record.
+	 */
+	private static final ImmutableSet<String> TABLENAMES_WithLookupSearchKey = ImmutableSet.of(I_C_BPartner.Table_Name, I_M_Product.Table_Name);
+	static final String COLUMNNAME_LookupSearchKey = "LookupSearchKey";
+	/**
+	 * IMMUTABLE DB function which normalizes the search key and the filter the same way. Unlike the VOLATILE unaccent_string, it allows postgres to use the trigram index.
+	 */
+	static final String FUNCNAME_LookupSearchKey_Normalize = "LookupSearchKey_Normalize";
+	private static final ImmutableList<String> LookupSearchKey_DisplayColumnNames = ImmutableList.of("Value", "Name");
+
 	private final Optional<String> tableName;
 	private final Optional<WindowId> zoomIntoWindowId;
 	private final SqlForFetchingLookups sqlForFetchingExpression;
@@ -566,7 +587,6 @@ public final class SqlLookupDescriptor implements ISqlLookupDescriptor
 		{
 			final String tableName = lookupInfo.getTableName();
 			final String lookup_SqlWhere = lookupInfo.getWhereClauseSqlPart();
-			final TranslatableParameterizedString displayColumnSql = lookupInfo.getDisplayColumnSql();
 
 			final CompositeStringExpression.Builder sqlWhereFinal = IStringExpression.composer();
 
@@ -586,10 +606,7 @@ public final class SqlLookupDescriptor implements ISqlLookupDescriptor
 
 			// Filter's WHERE
 			sqlWhereFinal.appendIfNotEmpty("\n AND ");
-			sqlWhereFinal.append(" /* filter */ ")
-					.append(DBConstants.FUNCNAME_unaccent_string).append("(").append(displayColumnSql).append(", 1)")
-					.append(" ILIKE ")
-					.append(DBConstants.FUNCNAME_unaccent_string).append("(").append(LookupDataSourceContext.PARAM_FilterSql).append(", 1)");
+			sqlWhereFinal.append(" /* filter */ ").append(buildSqlFilter(lookupInfo));
 
 			// IsActive WHERE
 			if (!lookupInfo.isShowInactiveValues())
@@ -602,6 +619,77 @@ public final class SqlLookupDescriptor implements ISqlLookupDescriptor
 			return sqlWhereFinal.build();
 		}
 
+		/**
+		 * @return the filter's WHERE. If the lookup table has a {@value #COLUMNNAME_LookupSearchKey} column, then that trigram-indexed column is matched instead of the display column SQL,
+		 * but only for the base language, because the search key is not translated.
+		 */
+		private static IStringExpression buildSqlFilter(final MLookupInfo lookupInfo)
+		{
+			final IStringExpression sqlFilterOnDisplayColumn = IStringExpression.composer()
+					.append(DBConstants.FUNCNAME_unaccent_string).append("(").append(lookupInfo.getDisplayColumnSql()).append(", 1)")
+					.append(" ILIKE ")
+					.append(DBConstants.FUNCNAME_unaccent_string).append("(").append(LookupDataSourceContext.PARAM_FilterSql).append(", 1)")
+					.build();
+			if (!isUseLookupSearchKey(lookupInfo))
+			{
+				return sqlFilterOnDisplayColumn;
+			}
+
+			final IStringExpression sqlFilterOnSearchKey = IStringExpression.composer()
+					.append(lookupInfo.getTableName()).append(".").append(COLUMNNAME_LookupSearchKey)
+					.append(" ILIKE ")
+					.append(FUNCNAME_LookupSearchKey_Normalize).append("(").append(LookupDataSourceContext.PARAM_FilterSql).append(")")
+					.build();
+
+			return lookupInfo.isTranslated()
+					? TranslatableParameterizedStringExpression.of(Env.CTXNAME_AD_Language, sqlFilterOnSearchKey, sqlFilterOnDisplayColumn)
+					: sqlFilterOnSearchKey;
+		}
+
+		/**
+		 * @return the ORDER BY which ranks the records by match quality first, if the {@value #COLUMNNAME_LookupSearchKey} is used:
+		 * prefix matches come before infix matches, then the more similar ones (trigram similarity) come first.
+		 * Not used when there is no filter, because then all records would have the same rank.
+		 */
+		private static IStringExpression buildSqlOrderByRanked(final MLookupInfo lookupInfo, final String sqlOrderBy)
+		{
+			final IStringExpression sqlOrderByExpr = ConstantStringExpression.of(sqlOrderBy);
+			final String searchKeyColumnFQ = lookupInfo.getTableName() + "." + COLUMNNAME_LookupSearchKey;
+			final IStringExpression sqlOrderByRanked = IStringExpression.composer()
+					.append("(").append(searchKeyColumnFQ).append(" ILIKE ltrim(")
+					.append(FUNCNAME_LookupSearchKey_Normalize).append("(").append(LookupDataSourceContext.PARAM_FilterSql).append(")")
+					.append(", '%')) DESC")
+					.append(", similarity(").append(searchKeyColumnFQ).append(", trim(both '%' from ")
+					.append(FUNCNAME_LookupSearchKey_Normalize).append("(").append(LookupDataSourceContext.PARAM_FilterSql).append(")")
+					.append(")) DESC")
+					.append(", ").append(sqlOrderBy)
+					.build();
+
+			return lookupInfo.isTranslated()
+					? TranslatableParameterizedStringExpression.of(Env.CTXNAME_AD_Language, sqlOrderByRanked, sqlOrderByExpr)
+					: sqlOrderByRanked;
+		}
+
+		private static boolean isUseLookupSearchKey(final MLookupInfo lookupInfo)
+		{
+			if (!TABLENAMES_WithLookupSearchKey.contains(lookupInfo.getTableName()))
+			{
+				return false;
+			}
+
+			// the search key mirrors the standard display columns; if they were customized, we have to search the display column SQL
+			final List<String> displayColumnNames = lookupInfo.getDisplayColumns()
+					.stream()
+					.map(ILookupDisplayColumn::getColumnName)
+					.collect(ImmutableList.toImmutableList());
+			if (!LookupSearchKey_DisplayColumnNames.equals(displayColumnNames))
+			{
+				return false;
+			}
+
+			return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_UseLookupSearchKey, true);
+		}
+
 		private static IStringExpression buildSqlWhereClauseFromValidationRule(final IValidationRule validationRule, final LookupScope scope)
 		{
 			final IStringExpression validationRuleWhereClause = validationRule.getPrefilterWhereClause();
@@ -621,20 +709,34 @@ public final class SqlLookupDescriptor implements ISqlLookupDescriptor
 
 		private SqlForFetchingLookups buildSqlForFetching(final MLookupInfo lookupInfo, final IStringExpression sqlWhere, final String sqlOrderBy)
 		{
-			final String tableName = lookupInfo.getTableName();
+			final IStringExpression sqlNotRanked = buildSqlForFetching0(lookupInfo, sqlWhere, ConstantStringExpression.of(sqlOrderBy));
+			if (!isUseLookupSearchKey(lookupInfo))
+			{
+				return SqlForFetchingLookups.builder()
+						.sql(sqlNotRanked)
+						.build();
+			}
+
 			return SqlForFetchingLookups.builder()
-					.sql(IStringExpression.composer()
-							.append(lookupInfo.getSelectSqlPart()) // SELECT .. FROM ...
-							.append("\n WHERE \n").append(sqlWhere) // WHERE
-							.append("\n ORDER BY ").append(sqlOrderBy) // ORDER BY
-							.append("\n OFFSET ").append(SqlForFetchingLookups.PARAM_Offset) // OFFSET
-							.append("\n LIMIT ").append(SqlForFetchingLookups.PARAM_Limit) // LIMIT
-							.wrapIfTrue(!lookupInfo.isSecurityDisabled(), AccessSqlStringExpression.wrapper(tableName, IUserRolePermissions.SQL_FULLYQUALIFIED, getRequiredAccess(tableName))) // security
-							.build()
-							.caching())
+					.sql(buildSqlForFetching0(lookupInfo, sqlWhere, buildSqlOrderByRanked(lookupInfo, sqlOrderBy)))
+					.sqlWhenAnyFilter(sqlNotRanked)
 					.build();
 		}
 
+		private IStringExpression buildSqlForFetching0(final MLookupInfo lookupInfo, final IStringExpression sqlWhere, final IStringExpression sqlOrderBy)
+		{
+			final String tableName = lookupInfo.getTableName();
+			return IStringExpression.composer()
+					.append(lookupInfo.getSelectSqlPart()) // SELECT .. FROM ...
+					.append("\n WHERE \n").append(sqlWhere) // WHERE
+					.append("\n ORDER BY ").append(sqlOrderBy) // ORDER BY
+					.append("\n OFFSET ").append(SqlForFetchingLookups.PARAM_Offset) // OFFSET
+					.append("\n LIMIT ").append(SqlForFetchingLookups.PARAM_Limit) // LIMIT
+					.wrapIfTrue(!lookupInfo.isSecurityDisabled(), AccessSqlStringExpression.wrapper(tableName, IUserRolePermissions.SQL_FULLYQUALIFIED, getRequiredAccess(tableName))) // security
+					.build()
+					.caching();
+		}
+
 		private SqlForFetchingLookupById buildSqlForFetchingById(final MLookupInfo lookupInfo)
 		{
 			final IStringExpression displayColumnSQL = TranslatableParameterizedStringExpression.of(lookupInfo.getDisplayColumnSql());
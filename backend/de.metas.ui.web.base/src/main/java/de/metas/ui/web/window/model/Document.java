@@ -5,6 +5,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import de.metas.document.engine.IDocument;
 import de.metas.document.engine.IDocumentBL;
 import de.metas.document.exceptions.DocumentProcessingException;
@@ -42,6 +43,7 @@ import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.lang.RepoIdAware;
 import lombok.NonNull;
+import lombok.Value;
 import org.adempiere.ad.callout.api.ICalloutExecutor;
 import org.adempiere.ad.callout.api.ICalloutRecord;
 import org.adempiere.ad.element.api.AdWindowId;
@@ -60,6 +62,7 @@ import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -111,6 +114,12 @@ public final class Document
 	private static final ReasonSupplier REASON_Value_Refreshing = () -> "direct set on Document (refresh)";
 	private static final ReasonSupplier REASON_Value_ParentLinkUpdateOnSave = () -> "parent link update on save";
 
+	/** Field level dependencies which are not changing any value, so they can be updated after all callouts were executed */
+	private static final ImmutableSet<DependencyType> DEPENDENCYTYPES_Postponable = Sets.immutableEnumSet(
+			DependencyType.ReadonlyLogic,
+			DependencyType.MandatoryLogic,
+			DependencyType.DisplayLogic);
+
 	//
 	// Descriptors & paths
 	private final DocumentEntityDescriptor entityDescriptor;
@@ -158,6 +167,13 @@ public final class Document
 	// Changes tracking
 	private final transient IDocumentChangesCollector changesCollector;
 
+	//
+	// Dependencies tracking
+	/** How many {@link #setValue(IDocumentField, Object, ReasonSupplier)} calls are currently running (i.e. nested by callouts) */
+	private transient int valueChangesDepth = 0;
+	/** Logic dependencies to be updated after the outermost value change, mapped to the field which first triggered them */
+	private final transient LinkedHashMap<FieldDependency, String> pendingLogicDependencies = new LinkedHashMap<>();
+
 	//
 	// Misc
 	private Map<String, Object> _dynAttributes = null; // lazy
@@ -972,6 +988,22 @@ public final class Document
 		return fieldsByName.keySet();
 	}
 
+	/**
+	 * @return the weight of this document in {@link DocumentCollection}'s cache, i.e. the number of its fields plus the weight of the included documents which are kept in memory
+	 */
+	/* package */ int getWeight()
+	{
+		int weight = fieldsByName.size();
+		for (final IIncludedDocumentsCollection includedDocumentsForDetailId : includedDocuments.values())
+		{
+			for (final Document includedDocument : includedDocumentsForDetailId.getRetainedDocuments())
+			{
+				weight += includedDocument.getWeight();
+			}
+		}
+		return weight;
+	}
+
 	public boolean hasField(final String fieldName)
 	{
 		return fieldsByName.containsKey(fieldName);
@@ -1270,11 +1302,26 @@ public final class Document
 		// collect changed value
 		changesCollector.collectValueChanged(documentField, reason != null ? reason : REASON_Value_DirectSetOnDocument);
 
-		// Update all dependencies
-		updateFieldsWhichDependsOn(documentField.getFieldName());
+		valueChangesDepth++;
+		try
+		{
+			// Update all dependencies
+			updateFieldsWhichDependsOn(documentField.getFieldName());
+
+			// Callouts
+			fieldCalloutExecutor.execute(documentField.asCalloutField());
+		}
+		finally
+		{
+			valueChangesDepth--;
 
-		// Callouts
-		fieldCalloutExecutor.execute(documentField.asCalloutField());
+			// Update logic dependencies which were postponed while the callouts were running.
+			// Do it even if a callout failed, because the value was changed anyways.
+			if (valueChangesDepth == 0)
+			{
+				updatePendingLogicDependencies();
+			}
+		}
 
 		// Notify parent that one of it's children was changed
 		if (!isRootDocument() && hasChanges())
@@ -1356,6 +1403,7 @@ public final class Document
 		LogicExpressionResult allFieldsReadonly;
 		try
 		{
+			changesCollector.collectLogicEvaluated(getDocumentPath());
 			allFieldsReadonly = allFieldsReadonlyLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
 		}
 		catch (final Exception e)
@@ -1397,6 +1445,7 @@ public final class Document
 		final ILogicExpression fieldReadonlyLogic = documentField.getDescriptor().getReadonlyLogic();
 		try
 		{
+			changesCollector.collectLogicEvaluated(getDocumentPath());
 			final LogicExpressionResult readonly = fieldReadonlyLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
 			return readonly;
 		}
@@ -1414,6 +1463,7 @@ public final class Document
 		final ILogicExpression displayLogic = documentField.getDescriptor().getDisplayLogic();
 		try
 		{
+			changesCollector.collectLogicEvaluated(getDocumentPath());
 			displayed = displayLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
 		}
 		catch (final Exception e)
@@ -1429,18 +1479,51 @@ public final class Document
 	{
 		final DocumentFieldDependencyMap dependencies = getEntityDescriptor().getDependencies();
 		dependencies.consumeForChangedFieldName(triggeringFieldName, (dependentFieldName, dependencyType) -> {
-			final IDocumentField dependentField = getFieldOrNull(dependentFieldName);
-			if (dependentField == null)
+			// A callout usually sets several fields which are triggering the same readonly/mandatory/display logic.
+			// Those logics are not affecting the values, so we evaluate them only once, after the outermost value change.
+			if (valueChangesDepth > 0 && DEPENDENCYTYPES_Postponable.contains(dependencyType))
 			{
-				// shall not happen
-				logger.warn("Skip setting dependent propery {} because field is missing", dependentFieldName);
+				pendingLogicDependencies.putIfAbsent(FieldDependency.of(dependentFieldName, dependencyType), triggeringFieldName);
 				return;
 			}
 
-			updateOnDependencyChanged(dependentFieldName, dependentField, triggeringFieldName, dependencyType);
+			updateDependentField(dependentFieldName, triggeringFieldName, dependencyType);
 		});
 	}
 
+	private void updatePendingLogicDependencies()
+	{
+		while (!pendingLogicDependencies.isEmpty())
+		{
+			final FieldDependency dependency = pendingLogicDependencies.keySet().iterator().next();
+			final String triggeringFieldName = pendingLogicDependencies.remove(dependency);
+
+			updateDependentField(dependency.getFieldName(), triggeringFieldName, dependency.getDependencyType());
+		}
+	}
+
+	private void updateDependentField(final String dependentFieldName, final String triggeringFieldName, final DependencyType dependencyType)
+	{
+		final IDocumentField dependentField = getFieldOrNull(dependentFieldName);
+		if (dependentField == null)
+		{
+			// shall not happen
+			logger.warn("Skip setting dependent propery {} because field is missing", dependentFieldName);
+			return;
+		}
+
+		updateOnDependencyChanged(dependentFieldName, dependentField, triggeringFieldName, dependencyType);
+	}
+
+	@Value(staticConstructor = "of")
+	private static class FieldDependency
+	{
+		@NonNull
+		String fieldName;
+		@NonNull
+		DependencyType dependencyType;
+	}
+
 	/**
 	 * Updates document or fields characteristics (e.g. readonly, mandatory, displayed, lookupValuesStaled etc).
 	 *
@@ -1471,6 +1554,7 @@ public final class Document
 			final ILogicExpression mandatoryLogic = documentField.getDescriptor().getMandatoryLogic();
 			try
 			{
+				changesCollector.collectLogicEvaluated(getDocumentPath());
 				final LogicExpressionResult mandatory = mandatoryLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
 				documentField.setMandatory(mandatory, changesCollector);
 			}
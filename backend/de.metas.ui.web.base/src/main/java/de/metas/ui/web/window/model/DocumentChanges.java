@@ -53,6 +53,8 @@ public final class DocumentChanges
 	private DocumentValidStatus documentValidStatus = null;
 	private DocumentSaveStatus documentSaveStatus = null;
 	private Boolean deleted = null;
+	/** How many readonly/mandatory/display logic expressions were evaluated for this document (debugging info) */
+	private int logicEvaluationsCount = 0;
 
 	private final Map<DetailId, IncludedDetailInfo> includedDetailInfos = new HashMap<>();
 
@@ -95,6 +97,16 @@ public final class DocumentChanges
 		return primaryChange;
 	}
 
+	/* package */void collectLogicEvaluated()
+	{
+		logicEvaluationsCount++;
+	}
+
+	public int getLogicEvaluationsCount()
+	{
+		return logicEvaluationsCount;
+	}
+
 	public Set<String> getFieldNames()
 	{
 		return ImmutableSet.copyOf(fieldChangesByName.keySet());
@@ -173,6 +185,8 @@ public final class DocumentChanges
 			setPrimaryChange();
 		}
 
+		logicEvaluationsCount += fromDocumentChanges.logicEvaluationsCount;
+
 		for (final DocumentFieldChange fromFieldChange : fromDocumentChanges.getFieldChangesList())
 		{
 			final DocumentFieldChange toFieldChange = fieldChangesOf(fromFieldChange.getFieldName(), fromFieldChange.isKey(), fromFieldChange.isPublicField(), fromFieldChange.isAdvancedField(),
@@ -273,6 +273,13 @@ public class DocumentChangesCollector implements IDocumentChangesCollector
 				.collectEvent(event);
 	}
 
+	@Override
+	public void collectLogicEvaluated(final DocumentPath documentPath)
+	{
+		documentChanges(documentPath)
+				.collectLogicEvaluated();
+	}
+
 	@Override
 	public void collectFieldWarning(final IDocumentFieldView documentField, final DocumentFieldWarning fieldWarning)
 	{
@@ -24,8 +24,6 @@ package de.metas.ui.web.window.model;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import de.metas.document.references.zoom_into.RecordWindowFinder;
@@ -99,6 +97,21 @@ public class DocumentCollection
 	private static final String SYSCONFIG_CACHE_SIZE = "de.metas.ui.web.window.model.DocumentCollection.CacheSize";
 	private static final int DEFAULT_CACHE_SIZE = 800;
 
+	/**
+	 * If set (greater than zero), the cache is bounded by the total weight of the cached documents instead of {@link #SYSCONFIG_CACHE_SIZE}.
+	 * A document weights as much as the number of its fields, plus the fields of the included documents it keeps in memory (see {@link Document#getWeight()}).
+	 */
+	private static final String SYSCONFIG_CACHE_MAX_WEIGHT = "de.metas.ui.web.window.model.DocumentCollection.CacheMaxWeight";
+	private static final int DEFAULT_CACHE_MAX_WEIGHT = -1;
+
+	/** Number of independently locked segments (shards) of the cache. */
+	private static final String SYSCONFIG_CACHE_CONCURRENCY_LEVEL = "de.metas.ui.web.window.model.DocumentCollection.CacheConcurrencyLevel";
+	private static final int DEFAULT_CACHE_CONCURRENCY_LEVEL = 16;
+
+	/** If enabled, readonly access is not waiting for documents which are currently checked out for writing. See {@link #forRootDocumentReadonly(DocumentPath, Function)}. */
+	private static final String SYSCONFIG_OPTIMISTIC_READS = "de.metas.ui.web.window.model.DocumentCollection.OptimisticReads";
+	private static final boolean DEFAULT_OPTIMISTIC_READS = false;
+
 	private static final Logger logger = LogManager.getLogger(DocumentCollection.class);
 	public static final AdMessageKey MSG_CLONING_NOT_ALLOWED_FOR_CURRENT_WINDOW = AdMessageKey.of("de.metas.ui.web.window.model.DocumentCollection.CloningNotAllowedForCurrentWindow");
 
@@ -106,7 +119,13 @@ public class DocumentCollection
 	private final UserSession userSession;
 	private final DocumentWebsocketPublisher websocketPublisher;
 
-	private final Cache<DocumentKey, Document> rootDocuments;
+	/**
+	 * Checked-in root documents.
+	 * <p>
+	 * IMPORTANT: the cached instances are never changed. Writers check out a copy and put back another copy, so readers can copy them any time.
+	 */
+	private final RootDocumentsCache<DocumentKey, Document> rootDocuments;
+	private final boolean optimisticReads;
 	private final ConcurrentHashMap<String, Set<WindowId>> tableName2windowIds = new ConcurrentHashMap<>();
 
 	/* package */ DocumentCollection(
@@ -119,14 +138,20 @@ public class DocumentCollection
 		this.websocketPublisher = websocketPublisher;
 
 		// setup the cache
-		final int cacheSize = Services
-				.get(ISysConfigBL.class)
-				.getIntValue(SYSCONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int cacheSize = sysConfigBL.getIntValue(SYSCONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+		final int cacheMaxWeight = sysConfigBL.getIntValue(SYSCONFIG_CACHE_MAX_WEIGHT, DEFAULT_CACHE_MAX_WEIGHT);
+		final int cacheConcurrencyLevel = sysConfigBL.getIntValue(SYSCONFIG_CACHE_CONCURRENCY_LEVEL, DEFAULT_CACHE_CONCURRENCY_LEVEL);
 
-		rootDocuments = CacheBuilder
-				.newBuilder()
+		rootDocuments = RootDocumentsCache.<DocumentKey, Document> builder()
 				.maximumSize(cacheSize)
+				.maximumWeight(cacheMaxWeight)
+				.weigher(Document::getWeight)
+				.concurrencyLevel(cacheConcurrencyLevel)
+				.windowIdExtractor(DocumentKey::getWindowIdOrNull)
 				.build();
+
+		optimisticReads = sysConfigBL.getBooleanValue(SYSCONFIG_OPTIMISTIC_READS, DEFAULT_OPTIMISTIC_READS);
 	}
 
 	public DocumentDescriptorFactory getDocumentDescriptorFactory()
@@ -223,6 +248,18 @@ public class DocumentCollection
 	{
 		final DocumentKey rootDocumentKey = DocumentKey.ofRootDocumentPath(documentPath.getRootDocumentPath());
 
+		//
+		// Optimistic read: the cached document is never changed (see rootDocuments),
+		// so we can work on our own copy of it, even if somebody else has currently checked it out for writing.
+		// In that case we will see the document as it was before that change, i.e. the last committed version.
+		if (optimisticReads)
+		{
+			final Document rootDocument = getOrLoadDocument(rootDocumentKey).copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
+			DocumentPermissionsHelper.assertCanView(rootDocument, UserSession.getCurrentPermissions());
+
+			return rootDocumentProcessor.apply(rootDocument);
+		}
+
 		try (@SuppressWarnings("unused") final IAutoCloseable readLock = getOrLoadDocument(rootDocumentKey).lockForReading())
 		{
 			final Document rootDocument = getOrLoadDocument(rootDocumentKey).copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
@@ -655,15 +692,7 @@ public class DocumentCollection
 	public void invalidateDocumentsByWindowId(@NonNull final WindowId windowId)
 
 	{
-		final ImmutableList<DocumentKey> documentKeys = rootDocuments.asMap().keySet()
-				.stream()
-				.filter(documentKey -> windowId.equals(documentKey.getWindowId()))
-				.collect(ImmutableList.toImmutableList());
-		if (documentKeys.isEmpty())
-		{
-			return;
-		}
-		rootDocuments.invalidateAll(documentKeys);
+		rootDocuments.invalidateAllByWindowId(windowId);
 	}
 
 	public void invalidateAll(final Collection<DocumentToInvalidate> documentToInvalidateList)
@@ -688,11 +717,13 @@ public class DocumentCollection
 		{
 			final WindowId windowId = entityDescriptor.getWindowId();
 			final DocumentKey rootDocumentKey = DocumentKey.of(windowId, rootDocumentId);
-			final Document rootDocument = rootDocuments.getIfPresent(rootDocumentKey);
-			if (rootDocument != null)
+			final Document cachedRootDocument = rootDocuments.getIfPresent(rootDocumentKey);
+			if (cachedRootDocument != null && !documentToInvalidate.getIncludedDocuments().isEmpty())
 			{
-				try (final IAutoCloseable ignored = rootDocument.lockForWriting())
+				try (final IAutoCloseable ignored = cachedRootDocument.lockForWriting())
 				{
+					// NOTE: the cached instance is never changed (see rootDocuments), so we mark the included documents as stale on a copy and put that copy back
+					final Document rootDocument = cachedRootDocument.copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
 					for (final IncludedDocumentToInvalidate includedDocumentToInvalidate : documentToInvalidate.getIncludedDocuments())
 					{
 						final DocumentIdsSelection includedRowIds = includedDocumentToInvalidate.toDocumentIdsSelection();
@@ -708,6 +739,9 @@ public class DocumentCollection
 							rootDocument.getIncludedDocumentsCollection(Check.assumeNotNull(detailId, "Expected detailId not null")).markStale(includedRowIds);
 						}
 					}
+
+					// replace it only if it wasn't replaced or removed in meantime
+					rootDocuments.replace(rootDocumentKey, cachedRootDocument, rootDocument);
 				}
 			}
 
@@ -958,6 +992,12 @@ public class DocumentCollection
 			return WindowId.of(documentTypeId);
 		}
 
+		@Nullable
+		public WindowId getWindowIdOrNull()
+		{
+			return documentType == DocumentType.Window ? WindowId.of(documentTypeId) : null;
+		}
+
 		public DocumentId getDocumentId()
 		{
 			return documentId;
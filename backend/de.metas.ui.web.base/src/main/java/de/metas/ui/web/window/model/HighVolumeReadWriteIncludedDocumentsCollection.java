@@ -15,6 +15,7 @@ import org.compiere.util.Evaluatee;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -464,6 +465,12 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 		return staled;
 	}
 
+	@Override
+	public Collection<Document> getRetainedDocuments()
+	{
+		return ImmutableList.copyOf(getChangedDocuments());
+	}
+
 	@Override
 	public int getNextLineNo()
 	{
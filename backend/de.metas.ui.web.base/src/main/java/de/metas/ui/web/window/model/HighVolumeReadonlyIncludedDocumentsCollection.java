@@ -1,10 +1,12 @@
 package de.metas.ui.web.window.model;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.adempiere.ad.expression.api.LogicExpressionResult;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -209,4 +211,11 @@ public final class HighVolumeReadonlyIncludedDocumentsCollection implements IInc
 	{
 		throw new UnsupportedOperationException();
 	}
+
+	@Override
+	public Collection<Document> getRetainedDocuments()
+	{
+		// this collection is not keeping any documents
+		return ImmutableList.of();
+	}
 }
@@ -85,6 +85,11 @@ public interface IDocumentChangesCollector
 
 	void collectEvent(IDocumentFieldChangedEvent event);
 
+	/**
+	 * Counts one evaluation of a readonly/mandatory/display logic of given document (debugging info).
+	 */
+	void collectLogicEvaluated(DocumentPath documentPath);
+
 	@FunctionalInterface
 	public interface ReasonSupplier
 	{
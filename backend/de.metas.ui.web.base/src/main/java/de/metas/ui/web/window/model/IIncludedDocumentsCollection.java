@@ -1,5 +1,6 @@
 package de.metas.ui.web.window.model;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.adempiere.ad.expression.api.LogicExpressionResult;
@@ -76,6 +77,11 @@ public interface IIncludedDocumentsCollection
 
 	int getNextLineNo();
 
+	/**
+	 * @return the included documents which are currently kept in memory by this collection; documents are never loaded by this method
+	 */
+	Collection<Document> getRetainedDocuments();
+
 	default void onChildSaved(final Document document)
 	{
 		// nothing
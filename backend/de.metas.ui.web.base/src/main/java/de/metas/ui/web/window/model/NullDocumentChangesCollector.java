@@ -159,4 +159,10 @@ public final class NullDocumentChangesCollector implements IDocumentChangesColle
 	{
 		// do nothing
 	}
+
+	@Override
+	public void collectLogicEvaluated(final DocumentPath documentPath)
+	{
+		// do nothing
+	}
 }
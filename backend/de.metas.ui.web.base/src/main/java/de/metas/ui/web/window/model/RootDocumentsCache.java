@@ -0,0 +1,237 @@
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.ui.web.window.model;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.Builder;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The root documents cache of {@link DocumentCollection}.
+ * <p>
+ * Besides the cache itself, it maintains an index of the cached keys by window, so that all documents of a window can be invalidated without scanning the whole cache.
+ *
+ * @param <K> document key type
+ * @param <V> document type
+ */
+/* package */ final class RootDocumentsCache<K, V>
+{
+	private final Cache<K, V> cache;
+	private final Function<K, WindowId> windowIdExtractor;
+
+	/**
+	 * Keys of {@link #cache} indexed by window.
+	 * <p>
+	 * IMPORTANT: guarded by itself. The cache and this index are not changed atomically, so each index update is checking under this lock
+	 * if the key is currently cached or not. The last index update of a key is always done after the last cache change of that key,
+	 * so the index ends up with what's actually in the cache.
+	 */
+	private final Map<WindowId, Set<K>> keysByWindowId = new HashMap<>();
+
+	/**
+	 * @param maximumSize       maximum number of documents; used if {@code maximumWeight} is not greater than zero
+	 * @param maximumWeight     if greater than zero, the cache is bounded by the total weight of the documents instead
+	 * @param weigher           computes the weight of a document; required if {@code maximumWeight} is set
+	 * @param concurrencyLevel  number of independently locked segments of the cache
+	 * @param windowIdExtractor extracts the window of a document key; returns {@code null} for documents which are not window documents
+	 */
+	@Builder
+	private RootDocumentsCache(
+			final int maximumSize,
+			final int maximumWeight,
+			@Nullable final ToIntFunction<V> weigher,
+			final int concurrencyLevel,
+			@NonNull final Function<K, WindowId> windowIdExtractor)
+	{
+		this.windowIdExtractor = windowIdExtractor;
+
+		final CacheBuilder<K, V> cacheBuilder = CacheBuilder.newBuilder()
+				.concurrencyLevel(Math.max(concurrencyLevel, 1))
+				.removalListener(this::onRemoved);
+		if (maximumWeight > 0)
+		{
+			if (weigher == null)
+			{
+				throw new IllegalArgumentException("weigher is required when maximumWeight is set");
+			}
+			cacheBuilder.maximumWeight(maximumWeight)
+					.weigher((key, document) -> weigher.applyAsInt(document));
+		}
+		else
+		{
+			cacheBuilder.maximumSize(maximumSize);
+		}
+		cache = cacheBuilder.build();
+	}
+
+	public V get(@NonNull final K key, @NonNull final Callable<V> loader) throws ExecutionException
+	{
+		final boolean[] loaded = new boolean[] { false };
+		final V document = cache.get(key, () -> {
+			final V loadedDocument = loader.call();
+			loaded[0] = true;
+			return loadedDocument;
+		});
+
+		// NOTE: only the thread which actually loaded the document has to index it
+		if (loaded[0])
+		{
+			updateIndex(key);
+		}
+
+		return document;
+	}
+
+	@Nullable
+	public V getIfPresent(@NonNull final K key)
+	{
+		return cache.getIfPresent(key);
+	}
+
+	public void put(@NonNull final K key, @NonNull final V document)
+	{
+		cache.put(key, document);
+		updateIndex(key);
+	}
+
+	/**
+	 * Replaces the cached document, but only if it's still the expected one.
+	 */
+	public void replace(@NonNull final K key, @NonNull final V expectedDocument, @NonNull final V newDocument)
+	{
+		cache.asMap().replace(key, expectedDocument, newDocument);
+	}
+
+	public void invalidate(@NonNull final K key)
+	{
+		cache.invalidate(key);
+	}
+
+	public void invalidateAll(@NonNull final Iterable<K> keys)
+	{
+		cache.invalidateAll(keys);
+	}
+
+	public void invalidateAll()
+	{
+		cache.invalidateAll();
+	}
+
+	public void invalidateAllByWindowId(@NonNull final WindowId windowId)
+	{
+		final ImmutableList<K> keys;
+		synchronized (keysByWindowId)
+		{
+			final Set<K> windowKeys = keysByWindowId.get(windowId);
+			if (windowKeys == null || windowKeys.isEmpty())
+			{
+				return;
+			}
+			keys = ImmutableList.copyOf(windowKeys);
+		}
+
+		cache.invalidateAll(keys);
+	}
+
+	public long size()
+	{
+		return cache.size();
+	}
+
+	public Map<K, V> asMap()
+	{
+		return cache.asMap();
+	}
+
+	public void cleanUp()
+	{
+		cache.cleanUp();
+	}
+
+	@VisibleForTesting
+	ImmutableSet<K> getIndexedKeys(@NonNull final WindowId windowId)
+	{
+		synchronized (keysByWindowId)
+		{
+			final Set<K> windowKeys = keysByWindowId.get(windowId);
+			return windowKeys != null ? ImmutableSet.copyOf(windowKeys) : ImmutableSet.of();
+		}
+	}
+
+	private void onRemoved(final RemovalNotification<K, V> notification)
+	{
+		final K key = notification.getKey();
+		if (key == null)
+		{
+			return;
+		}
+
+		// NOTE: also in case the document was replaced, updateIndex won't remove the key, because it's still cached
+		updateIndex(key);
+	}
+
+	private void updateIndex(@NonNull final K key)
+	{
+		final WindowId windowId = windowIdExtractor.apply(key);
+		if (windowId == null)
+		{
+			return;
+		}
+
+		synchronized (keysByWindowId)
+		{
+			if (cache.asMap().containsKey(key))
+			{
+				keysByWindowId.computeIfAbsent(windowId, k -> new LinkedHashSet<>()).add(key);
+			}
+			else
+			{
+				final Set<K> windowKeys = keysByWindowId.get(windowId);
+				if (windowKeys != null)
+				{
+					windowKeys.remove(key);
+					if (windowKeys.isEmpty())
+					{
+						keysByWindowId.remove(windowId);
+					}
+				}
+			}
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package de.metas.ui.web.window.model;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.adempiere.ad.expression.api.LogicExpressionResult;
@@ -280,4 +281,11 @@ public class SingleRowDetailIncludedDocumentsCollection implements IIncludedDocu
 		return 0;
 	}
 
+	@Override
+	public Collection<Document> getRetainedDocuments()
+	{
+		final Document singleDocument = getSingleDocumentOrNull();
+		return singleDocument != null ? ImmutableList.of(singleDocument) : ImmutableList.of();
+	}
+
 }
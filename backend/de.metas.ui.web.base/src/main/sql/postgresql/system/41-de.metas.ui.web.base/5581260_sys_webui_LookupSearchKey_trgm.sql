@@ -0,0 +1,88 @@
+--
+-- Trigram indexed search key for typeahead lookups on C_BPartner and M_Product.
+-- SqlLookupDescriptor matches the filter against LookupSearchKey instead of unaccent_string(concat_ws('_', Value, Name), 1)
+-- so that the ILIKE '%...%' can be answered from the GIN index instead of a sequential scan.
+--
+CREATE EXTENSION IF NOT EXISTS pg_trgm
+;
+
+--
+-- unaccent_string is declared VOLATILE, so postgres would evaluate "LookupSearchKey ILIKE unaccent_string(<filter>, 1)" for every row and not use the index.
+-- This wrapper is declared IMMUTABLE (the unaccent rules don't change at runtime), so the filter is evaluated once and the index can be used.
+-- It is used both to fill LookupSearchKey and to normalize the typed filter, so both sides are normalized the same way.
+--
+CREATE OR REPLACE FUNCTION LookupSearchKey_Normalize(p_Text text)
+    RETURNS text AS
+$BODY$
+SELECT unaccent_string(p_Text, 1)
+$BODY$
+    LANGUAGE sql IMMUTABLE
+;
+
+--
+-- C_BPartner
+--
+ALTER TABLE C_BPartner ADD COLUMN IF NOT EXISTS LookupSearchKey text
+;
+
+CREATE OR REPLACE FUNCTION C_BPartner_LookupSearchKey_Trg()
+    RETURNS trigger AS
+$BODY$
+BEGIN
+    NEW.LookupSearchKey := LookupSearchKey_Normalize(concat_ws('_', NEW.Value, NEW.Name));
+    RETURN NEW;
+END;
+$BODY$
+    LANGUAGE plpgsql VOLATILE
+;
+
+DROP TRIGGER IF EXISTS C_BPartner_LookupSearchKey_Trg ON C_BPartner
+;
+
+CREATE TRIGGER C_BPartner_LookupSearchKey_Trg
+    BEFORE INSERT OR UPDATE OF Value, Name
+    ON C_BPartner
+    FOR EACH ROW
+EXECUTE PROCEDURE C_BPartner_LookupSearchKey_Trg()
+;
+
+UPDATE C_BPartner
+SET LookupSearchKey=LookupSearchKey_Normalize(concat_ws('_', Value, Name))
+;
+
+CREATE INDEX IF NOT EXISTS C_BPartner_LookupSearchKey_Trgm ON C_BPartner USING gin (LookupSearchKey gin_trgm_ops)
+;
+
+--
+-- M_Product
+--
+ALTER TABLE M_Product ADD COLUMN IF NOT EXISTS LookupSearchKey text
+;
+
+CREATE OR REPLACE FUNCTION M_Product_LookupSearchKey_Trg()
+    RETURNS trigger AS
+$BODY$
+BEGIN
+    NEW.LookupSearchKey := LookupSearchKey_Normalize(concat_ws('_', NEW.Value, NEW.Name));
+    RETURN NEW;
+END;
+$BODY$
+    LANGUAGE plpgsql VOLATILE
+;
+
+DROP TRIGGER IF EXISTS M_Product_LookupSearchKey_Trg ON M_Product
+;
+
+CREATE TRIGGER M_Product_LookupSearchKey_Trg
+    BEFORE INSERT OR UPDATE OF Value, Name
+    ON M_Product
+    FOR EACH ROW
+EXECUTE PROCEDURE M_Product_LookupSearchKey_Trg()
+;
+
+UPDATE M_Product
+SET LookupSearchKey=LookupSearchKey_Normalize(concat_ws('_', Value, Name))
+;
+
+CREATE INDEX IF NOT EXISTS M_Product_LookupSearchKey_Trgm ON M_Product USING gin (LookupSearchKey gin_trgm_ops)
+;
@@ -0,0 +1,102 @@
+package de.metas.ui.web.view.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JSONViewChangesTest
+{
+	private static final ViewId VIEW_ID = ViewId.ofParts(WindowId.of(123), "A");
+
+	private static JSONViewChanges rowsChanged(final ViewId viewId, final Integer... rowIds)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.addChangedRowIds(DocumentIdsSelection.ofIntSet(ImmutableList.copyOf(rowIds)));
+		return JSONViewChanges.of(changes);
+	}
+
+	private static JSONViewChanges fullyChanged(final ViewId viewId)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.setFullyChanged();
+		return JSONViewChanges.of(changes);
+	}
+
+	private static JSONViewChanges headerPropertiesChanged(final ViewId viewId)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.setHeaderPropertiesChanged();
+		return JSONViewChanges.of(changes);
+	}
+
+	@Test
+	public void changedRowIds_areUnitedInTheOrderTheyWereChanged()
+	{
+		final JSONViewChanges merged = rowsChanged(VIEW_ID, 3)
+				.mergeWith(rowsChanged(VIEW_ID, 1))
+				.mergeWith(rowsChanged(VIEW_ID, 2, 1));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getFullyChanged()).isFalse();
+		assertThat(merged.getChangedIds()).containsExactly("3", "1", "2");
+		assertThat(merged.getHeaderPropertiesChanged()).isNull();
+		assertThat(merged.getWebsocketEndpoint()).isEqualTo(rowsChanged(VIEW_ID, 1).getWebsocketEndpoint());
+	}
+
+	@Test
+	public void fullyChanged_winsOverChangedRowIds()
+	{
+		assertThat(rowsChanged(VIEW_ID, 1).mergeWith(fullyChanged(VIEW_ID)))
+				.isEqualTo(fullyChanged(VIEW_ID));
+
+		assertThat(fullyChanged(VIEW_ID).mergeWith(rowsChanged(VIEW_ID, 1)))
+				.isEqualTo(fullyChanged(VIEW_ID));
+	}
+
+	@Test
+	public void headerPropertiesChanged_isKept()
+	{
+		final JSONViewChanges merged = headerPropertiesChanged(VIEW_ID)
+				.mergeWith(rowsChanged(VIEW_ID, 1));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getHeaderPropertiesChanged()).isTrue();
+		assertThat(merged.getChangedIds()).containsExactly("1");
+	}
+
+	@Test
+	public void changesOfDifferentViews_areNotMerged()
+	{
+		final ViewId otherViewId = ViewId.ofParts(WindowId.of(123), "B");
+
+		assertThat(rowsChanged(VIEW_ID, 1).mergeWith(rowsChanged(otherViewId, 2))).isNull();
+	}
+}
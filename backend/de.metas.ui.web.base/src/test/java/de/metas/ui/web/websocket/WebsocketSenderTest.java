@@ -0,0 +1,136 @@
+package de.metas.ui.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.websocket.WebsocketSender.WebsocketEvent;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WebsocketSenderTest
+{
+	private static final WebsocketTopicName DESTINATION_A = WebsocketTopicName.ofString("/view/A");
+	private static final WebsocketTopicName DESTINATION_B = WebsocketTopicName.ofString("/view/B");
+
+	/**
+	 * Payload which is merged by concatenating the texts.
+	 */
+	@Value
+	private static class TextPayload implements MergeableWebsocketPayload
+	{
+		String text;
+
+		@Nullable
+		@Override
+		public MergeableWebsocketPayload mergeWith(@NonNull final MergeableWebsocketPayload next)
+		{
+			return new TextPayload(text + ((TextPayload)next).getText());
+		}
+	}
+
+	private static WebsocketEvent event(final WebsocketTopicName destination, final String text)
+	{
+		return WebsocketEvent.builder()
+				.destination(destination)
+				.payload(new TextPayload(text))
+				.converted(false)
+				.build();
+	}
+
+	private static WebsocketEvent convertedEvent(final WebsocketTopicName destination, final String text)
+	{
+		final Message<String> message = MessageBuilder.withPayload(text).build();
+		return WebsocketEvent.builder()
+				.destination(destination)
+				.payload(message)
+				.converted(true)
+				.build();
+	}
+
+	private static List<String> toStrings(final List<WebsocketEvent> events)
+	{
+		return events.stream()
+				.map(event -> {
+					final Object payload = event.getPayload();
+					final String text = payload instanceof TextPayload ? ((TextPayload)payload).getText() : ((Message<?>)payload).getPayload().toString();
+					return event.getDestination().getAsString() + ":" + text;
+				})
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	public void eventsOfTheSameDestination_areMergedInTheOrderTheyWereEnqueued()
+	{
+		final List<WebsocketEvent> result = WebsocketSender.mergeEvents(ImmutableList.of(
+				event(DESTINATION_A, "1"),
+				event(DESTINATION_A, "2"),
+				event(DESTINATION_A, "3")));
+
+		assertThat(toStrings(result)).containsExactly("/view/A:123");
+	}
+
+	@Test
+	public void eventsOfDifferentDestinations_areKeptSeparate()
+	{
+		final List<WebsocketEvent> result = WebsocketSender.mergeEvents(ImmutableList.of(
+				event(DESTINATION_A, "1"),
+				event(DESTINATION_B, "2"),
+				event(DESTINATION_A, "3"),
+				event(DESTINATION_B, "4")));
+
+		assertThat(toStrings(result)).containsExactly("/view/A:13", "/view/B:24");
+	}
+
+	@Test
+	public void convertedEvent_isNotMerged_andNothingIsMergedAcrossIt()
+	{
+		final List<WebsocketEvent> result = WebsocketSender.mergeEvents(ImmutableList.of(
+				event(DESTINATION_A, "1"),
+				convertedEvent(DESTINATION_A, "2"),
+				event(DESTINATION_A, "3"),
+				event(DESTINATION_A, "4")));
+
+		assertThat(toStrings(result)).containsExactly("/view/A:1", "/view/A:2", "/view/A:34");
+	}
+
+	@Test
+	public void notMergeablePayloads_areSentAsEnqueued()
+	{
+		final WebsocketEvent event1 = WebsocketEvent.builder().destination(DESTINATION_A).payload("1").converted(false).build();
+		final WebsocketEvent event2 = WebsocketEvent.builder().destination(DESTINATION_A).payload("2").converted(false).build();
+
+		assertThat(WebsocketSender.mergeEvents(ImmutableList.of(event1, event2)))
+				.containsExactly(event1, event2);
+	}
+}
@@ -0,0 +1,150 @@
+package de.metas.ui.web.window.descriptor.sql;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Measures the typeahead latency on a generated product table, once with the previous {@code unaccent_string(..) ILIKE} filter and once with the trigram indexed search key.
+ * <p>
+ * The products are generated into a temporary table of the given database, so its {@code M_Product} is not touched.
+ * The database needs the {@code pg_trgm} extension and the {@code LookupSearchKey_Normalize} function of the migration {@code 5581260_sys_webui_LookupSearchKey_trgm.sql}.
+ * Connection and size are configured with {@code -Djdbc.url=.. -Djdbc.user=.. -Djdbc.password=.. -Dproducts=1000000}.
+ */
+public class ProductLookupSearchKeyManualTest
+{
+	private static final int RUNS = 10;
+	private static final int LIMIT = 100;
+
+	private static final ImmutableList<String> FILTERS = ImmutableList.of("%abc%", "%0815%", "%schrau%", "%zzzz%");
+
+	private static final String SQL_ILIKE = "SELECT p.M_Product_ID FROM tmp_product_lookup p"
+			+ " WHERE unaccent_string(p.Value || '_' || p.Name, 1) ILIKE unaccent_string(?, 1)"
+			+ " ORDER BY p.Value || '_' || p.Name"
+			+ " LIMIT " + LIMIT;
+
+	private static final String SQL_SearchKey = "SELECT p.M_Product_ID FROM tmp_product_lookup p"
+			+ " WHERE p.LookupSearchKey ILIKE LookupSearchKey_Normalize(?)"
+			+ " ORDER BY (p.LookupSearchKey ILIKE ltrim(LookupSearchKey_Normalize(?), '%')) DESC"
+			+ ", similarity(p.LookupSearchKey, trim(both '%' from LookupSearchKey_Normalize(?))) DESC"
+			+ ", p.Value || '_' || p.Name"
+			+ " LIMIT " + LIMIT;
+
+	public static void main(final String[] args) throws SQLException
+	{
+		final int products = Integer.getInteger("products", 1_000_000);
+		try (final Connection connection = DriverManager.getConnection(
+				System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/metasfresh"),
+				System.getProperty("jdbc.user", "metasfresh"),
+				System.getProperty("jdbc.password", "metasfresh")))
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			generateProducts(connection, products);
+			System.out.println("Generated " + products + " products in " + stopwatch.elapsed(TimeUnit.SECONDS) + "s");
+
+			for (final String filter : FILTERS)
+			{
+				measure(connection, "ILIKE      " + filter, SQL_ILIKE, filter, 1);
+				measure(connection, "search key " + filter, SQL_SearchKey, filter, 3);
+			}
+		}
+	}
+
+	/**
+	 * Generates products with random alphanumeric values and names, some of them with umlauts, and maintains their search key the way the C_BPartner/M_Product triggers do.
+	 */
+	private static void generateProducts(final Connection connection, final int products) throws SQLException
+	{
+		try (final Statement stmt = connection.createStatement())
+		{
+			stmt.execute("CREATE TEMPORARY TABLE tmp_product_lookup (M_Product_ID numeric(10) PRIMARY KEY, Value varchar(250), Name varchar(600), LookupSearchKey text)");
+			stmt.execute("INSERT INTO tmp_product_lookup (M_Product_ID, Value, Name)"
+					+ " SELECT i, lpad(i::text, 8, '0'), md5(i::text) || CASE WHEN i % 7 = 0 THEN ' Schräube' ELSE ' Mutter' END"
+					+ " FROM generate_series(1, " + products + ") i");
+			stmt.execute("UPDATE tmp_product_lookup SET LookupSearchKey=LookupSearchKey_Normalize(concat_ws('_', Value, Name))");
+			stmt.execute("CREATE INDEX tmp_product_lookup_trgm ON tmp_product_lookup USING gin (LookupSearchKey gin_trgm_ops)");
+			stmt.execute("ANALYZE tmp_product_lookup");
+		}
+	}
+
+	private static void measure(
+			final Connection connection,
+			final String name,
+			final String sql,
+			final String filter,
+			final int filterParamsCount) throws SQLException
+	{
+		// warm up
+		run(connection, sql, filter, filterParamsCount);
+
+		final long[] durationsMillis = new long[RUNS];
+		int rows = 0;
+		for (int i = 0; i < RUNS; i++)
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			rows = run(connection, sql, filter, filterParamsCount);
+			durationsMillis[i] = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		}
+
+		Arrays.sort(durationsMillis);
+		System.out.println(name + ": " + rows + " rows"
+				+ ", min " + durationsMillis[0] + "ms"
+				+ ", median " + durationsMillis[RUNS / 2] + "ms"
+				+ ", max " + durationsMillis[RUNS - 1] + "ms");
+	}
+
+	private static int run(
+			final Connection connection,
+			final String sql,
+			final String filter,
+			final int filterParamsCount) throws SQLException
+	{
+		try (final PreparedStatement pstmt = connection.prepareStatement(sql))
+		{
+			for (int i = 1; i <= filterParamsCount; i++)
+			{
+				pstmt.setString(i, filter);
+			}
+
+			int rows = 0;
+			try (final ResultSet rs = pstmt.executeQuery())
+			{
+				while (rs.next())
+				{
+					rows++;
+				}
+			}
+			return rows;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package de.metas.ui.web.window.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.adempiere.ad.callout.exceptions.CalloutExecutionException;
+import org.adempiere.ad.expression.api.impl.LogicExpressionCompiler;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvidersService;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentType;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor.Characteristic;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.LookupDescriptorProviders;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentTest
+{
+	private static final String FIELDNAME_Trigger = "Trigger";
+	private static final String FIELDNAME_Dependent = "Dependent";
+
+	/** Value of {@link #FIELDNAME_Trigger} which makes its callout fail */
+	private static final String VALUE_CalloutFails = "X";
+
+	private Document document;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final DocumentEntityDescriptor entityDescriptor = DocumentEntityDescriptor.builder()
+				.setDocumentType(DocumentType.Process, DocumentId.of(1))
+				.disableDefaultTableCallouts()
+				.setFilterDescriptorsProvidersService(new DocumentFilterDescriptorsProvidersService(ImmutableList.of()))
+				.addField(textField(FIELDNAME_Trigger)
+						.addCallout(calloutField -> {
+							if (VALUE_CalloutFails.equals(calloutField.getValue()))
+							{
+								throw new RuntimeException("callout failed");
+							}
+						}))
+				.addField(textField(FIELDNAME_Dependent)
+						.setReadonlyLogic(LogicExpressionCompiler.instance.compile("@" + FIELDNAME_Trigger + "/-@=X | @" + FIELDNAME_Trigger + "/-@=Y")))
+				.build();
+
+		document = Document.builder(entityDescriptor)
+				.initializeAsNewDocument(DocumentId.of(1), "0");
+	}
+
+	private static DocumentFieldDescriptor.Builder textField(final String fieldName)
+	{
+		return DocumentFieldDescriptor.builder(fieldName)
+				.setValueClass(String.class)
+				.setWidgetType(DocumentFieldWidgetType.Text)
+				.setLookupDescriptorProvider(LookupDescriptorProviders.NULL)
+				.setReadonlyLogic(false)
+				.setDisplayLogic(true)
+				.setMandatoryLogic(false)
+				.addCharacteristic(Characteristic.PublicField);
+	}
+
+	private void setTriggerValue(final String value)
+	{
+		document.setValue(FIELDNAME_Trigger, value, () -> "test");
+	}
+
+	private boolean isDependentReadonly()
+	{
+		return document.getFieldView(FIELDNAME_Dependent).isReadonly();
+	}
+
+	@Test
+	public void readonlyLogic_isUpdatedAfterCallouts()
+	{
+		assertThat(isDependentReadonly()).isFalse();
+
+		setTriggerValue("Y");
+		assertThat(isDependentReadonly()).isTrue();
+
+		setTriggerValue("Z");
+		assertThat(isDependentReadonly()).isFalse();
+	}
+
+	@Test
+	public void readonlyLogic_isUpdatedEvenIfCalloutFails()
+	{
+		assertThat(isDependentReadonly()).isFalse();
+
+		assertThatThrownBy(() -> setTriggerValue(VALUE_CalloutFails))
+				.isInstanceOf(CalloutExecutionException.class);
+
+		assertThat(document.getFieldView(FIELDNAME_Trigger).getValue()).isEqualTo(VALUE_CalloutFails);
+		assertThat(isDependentReadonly()).isTrue();
+
+		// the next value change shall start from a clean state
+		setTriggerValue("Z");
+		assertThat(isDependentReadonly()).isFalse();
+	}
+
+	@Test
+	public void weight_isTheNumberOfFields_ifThereAreNoIncludedDocuments()
+	{
+		assertThat(document.getWeight()).isEqualTo(2);
+	}
+}
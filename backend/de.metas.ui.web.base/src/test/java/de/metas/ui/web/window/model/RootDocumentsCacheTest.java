@@ -0,0 +1,223 @@
+package de.metas.ui.web.window.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class RootDocumentsCacheTest
+{
+	private static final WindowId WINDOW_1 = WindowId.of(1);
+	private static final WindowId WINDOW_2 = WindowId.of(2);
+
+	/**
+	 * Keys are like "1-a", where the part before "-" is the window; keys without "-" are not window documents.
+	 */
+	private static WindowId extractWindowId(final String key)
+	{
+		final int idx = key.indexOf('-');
+		return idx > 0 ? WindowId.of(Integer.parseInt(key.substring(0, idx))) : null;
+	}
+
+	private static RootDocumentsCache<String, String> newCache(final int maximumSize)
+	{
+		return RootDocumentsCache.<String, String> builder()
+				.maximumSize(maximumSize)
+				.concurrencyLevel(1)
+				.windowIdExtractor(RootDocumentsCacheTest::extractWindowId)
+				.build();
+	}
+
+	@Test
+	public void putAndInvalidate_updateTheIndex() throws Exception
+	{
+		final RootDocumentsCache<String, String> cache = newCache(100);
+
+		cache.put("1-a", "A");
+		cache.get("1-b", () -> "B");
+		cache.put("2-c", "C");
+		cache.put("noWindow", "X");
+		assertThat(cache.getIndexedKeys(WINDOW_1)).containsExactlyInAnyOrder("1-a", "1-b");
+		assertThat(cache.getIndexedKeys(WINDOW_2)).containsExactly("2-c");
+
+		cache.invalidate("1-a");
+		assertThat(cache.getIndexedKeys(WINDOW_1)).containsExactly("1-b");
+
+		cache.invalidateAll();
+		assertThat(cache.getIndexedKeys(WINDOW_1)).isEmpty();
+		assertThat(cache.getIndexedKeys(WINDOW_2)).isEmpty();
+	}
+
+	@Test
+	public void evictedKey_isRemovedFromTheIndex()
+	{
+		final RootDocumentsCache<String, String> cache = newCache(2);
+
+		cache.put("1-a", "A");
+		cache.put("1-b", "B");
+		cache.put("1-c", "C");
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getIndexedKeys(WINDOW_1)).isEqualTo(cache.asMap().keySet());
+	}
+
+	@Test
+	public void keyPutAgainAfterEviction_staysIndexed()
+	{
+		final RootDocumentsCache<String, String> cache = newCache(1);
+
+		cache.put("1-a", "A");
+		cache.put("1-b", "B"); // evicts 1-a
+		cache.put("1-a", "A2"); // evicts 1-b
+
+		assertThat(cache.getIndexedKeys(WINDOW_1)).containsExactly("1-a");
+		assertThat(cache.getIfPresent("1-a")).isEqualTo("A2");
+	}
+
+	@Test
+	public void replace_keepsTheKeyIndexed()
+	{
+		final RootDocumentsCache<String, String> cache = newCache(100);
+		cache.put("1-a", "A");
+
+		cache.replace("1-a", "A", "A2");
+		assertThat(cache.getIfPresent("1-a")).isEqualTo("A2");
+		assertThat(cache.getIndexedKeys(WINDOW_1)).containsExactly("1-a");
+
+		// not replaced, because the cached value is not the expected one anymore
+		cache.replace("1-a", "A", "A3");
+		assertThat(cache.getIfPresent("1-a")).isEqualTo("A2");
+	}
+
+	@Test
+	public void invalidateAllByWindowId_invalidatesOnlyTheDocumentsOfThatWindow()
+	{
+		final RootDocumentsCache<String, String> cache = newCache(100);
+		cache.put("1-a", "A");
+		cache.put("1-b", "B");
+		cache.put("2-c", "C");
+		cache.put("noWindow", "X");
+
+		cache.invalidateAllByWindowId(WINDOW_1);
+
+		assertThat(cache.asMap().keySet()).containsExactlyInAnyOrder("2-c", "noWindow");
+		assertThat(cache.getIndexedKeys(WINDOW_1)).isEmpty();
+		assertThat(cache.getIndexedKeys(WINDOW_2)).containsExactly("2-c");
+	}
+
+	@Test
+	public void weightBoundedCache_evictsByWeight()
+	{
+		final RootDocumentsCache<String, String> cache = RootDocumentsCache.<String, String> builder()
+				.maximumWeight(10)
+				.weigher(String::length)
+				.concurrencyLevel(1)
+				.windowIdExtractor(RootDocumentsCacheTest::extractWindowId)
+				.build();
+
+		cache.put("1-a", "aaaa");
+		cache.put("1-b", "bbbb");
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.put("1-c", "cccc");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getIndexedKeys(WINDOW_1)).isEqualTo(cache.asMap().keySet());
+	}
+
+	/**
+	 * Many threads are loading, putting and invalidating documents of the same window while the cache is evicting.
+	 * When they are done, the index shall contain exactly the cached keys.
+	 */
+	@Test
+	public void concurrentChanges_indexMatchesTheCacheAfterwards() throws Exception
+	{
+		final RootDocumentsCache<String, String> cache = RootDocumentsCache.<String, String> builder()
+				.maximumSize(20)
+				.concurrencyLevel(4)
+				.windowIdExtractor(RootDocumentsCacheTest::extractWindowId)
+				.build();
+
+		final int threadsCount = 8;
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+		try
+		{
+			final CountDownLatch start = new CountDownLatch(1);
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threadsCount; t++)
+			{
+				futures.add(executor.submit(() -> {
+					start.await();
+					final ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < 20_000; i++)
+					{
+						final String key = "1-" + random.nextInt(50);
+						switch (random.nextInt(4))
+						{
+							case 0:
+								cache.put(key, key);
+								break;
+							case 1:
+								cache.get(key, () -> key);
+								break;
+							case 2:
+								cache.invalidate(key);
+								break;
+							default:
+								cache.invalidateAllByWindowId(WINDOW_1);
+								break;
+						}
+					}
+					return null;
+				}));
+			}
+
+			start.countDown();
+			for (final Future<?> future : futures)
+			{
+				future.get(60, TimeUnit.SECONDS);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		cache.cleanUp();
+		final ImmutableSet<String> cachedKeys = ImmutableSet.copyOf(cache.asMap().keySet());
+		assertThat(cache.getIndexedKeys(WINDOW_1)).isEqualTo(cachedKeys);
+	}
+}
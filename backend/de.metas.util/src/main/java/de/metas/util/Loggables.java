@@ -99,6 +99,14 @@ public final class Loggables
 		return withLogger(logger, Level.WARN);
 	}
 
+	/**
+	 * Create a new {@link ILoggable} instance that delegates to the given loggable, so that multiple threads can log into the same loggable.
+	 */
+	public static ILoggable synchronizedLoggable(@NonNull final ILoggable loggable)
+	{
+		return loggable instanceof SynchronizedLoggable ? loggable : new SynchronizedLoggable(loggable);
+	}
+
 	public static PlainStringLoggable newPlainStringLoggable()
 	{
 		return new PlainStringLoggable();
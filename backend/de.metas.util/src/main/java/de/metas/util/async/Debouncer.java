@@ -103,6 +103,17 @@ public final class Debouncer<T>
 				.toString();
 	}
 
+	/**
+	 * @return how many items are currently waiting to be consumed
+	 */
+	public int getBufferSize()
+	{
+		synchronized (lock)
+		{
+			return buffer.size();
+		}
+	}
+
 	public void addAll(@NonNull final List<T> items)
 	{
 		if (items.isEmpty())
@@ -27,6 +27,7 @@ import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import de.metas.camel.externalsystems.common.ExternalSystemCamelConstants;
+import de.metas.camel.externalsystems.shopware6.processor.BPUpsertCamelRequestAggregationStrategy;
 import de.metas.camel.externalsystems.shopware6.processor.CreateBPartnerESRQueryProcessor;
 import de.metas.camel.externalsystems.shopware6.processor.CreateBPartnerUpsertReqProcessor;
 import de.metas.camel.externalsystems.shopware6.processor.GetOrdersProcessor;
@@ -41,14 +42,19 @@ import org.apache.camel.component.jackson.JacksonDataFormat;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.concurrent.ExecutorService;
 
 import static de.metas.camel.externalsystems.common.ExternalSystemCamelConstants.HEADER_PINSTANCE_ID;
 import static de.metas.camel.externalsystems.common.ExternalSystemCamelConstants.MF_ERROR_ROUTE_ID;
+import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.PROCESS_ORDER_MAX_REDELIVERIES;
+import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.PROCESS_ORDER_REDELIVERY_DELAY_MILLIS;
+import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.PROCESS_ORDER_THREADS;
 
 @Component
 public class GetOrdersRouteBuilder extends RouteBuilder
 {
 	public static final String GET_ORDERS_ROUTE_ID = "Shopware6-getOrders";
+	public static final String PROCESS_ORDERS_PAGE_ROUTE_ID = "Shopware6-processOrdersPage";
 	public static final String PROCESS_ORDER_ROUTE_ID = "Shopware6-processOrder";
 
 	public static final String GET_ORDERS_PROCESSOR_ID = "GetOrdersProcessorId";
@@ -59,23 +65,57 @@ public class GetOrdersRouteBuilder extends RouteBuilder
 	public void configure()
 	{
 		errorHandler(defaultErrorHandler());
+		// no redelivery here: the split of the orders pages can't be redelivered, because the pages iterator is closed after a failed page.
+		// the failed page was already retried by the iterator, so the error is reported and the route stops
 		onException(Exception.class)
 				.to(StaticEndpointBuilders.direct(MF_ERROR_ROUTE_ID));
 
+		final ExecutorService processOrderExecutor = getContext().getExecutorServiceManager()
+				.newFixedThreadPool(this, PROCESS_ORDER_ROUTE_ID, PROCESS_ORDER_THREADS);
+
 		//@formatter:off
+		// the body is an iterator which loads the orders page by page; streaming, so that we don't wait for all pages before processing the first one
 		from(StaticEndpointBuilders.direct(GET_ORDERS_ROUTE_ID))
 				.routeId(GET_ORDERS_ROUTE_ID)
 				.log("Route invoked")
 				.streamCaching()
 				.process(new GetOrdersProcessor()).id(GET_ORDERS_PROCESSOR_ID)
-				.split(body())
-					.to(StaticEndpointBuilders.direct(PROCESS_ORDER_ROUTE_ID))
+				.split(body()).streaming()
+					.to(StaticEndpointBuilders.direct(PROCESS_ORDERS_PAGE_ROUTE_ID))
 				.end()
 				.process((exchange) -> ProcessorHelper.logProcessMessage(exchange, "Shopware6:GetOrders process ended!" + Instant.now(),
 																		 exchange.getIn().getHeader(HEADER_PINSTANCE_ID, Integer.class)));
 
+		// the body is one page of orders; they are processed concurrently and their bpartners are upserted in one call
+		from(StaticEndpointBuilders.direct(PROCESS_ORDERS_PAGE_ROUTE_ID))
+				.routeId(PROCESS_ORDERS_PAGE_ROUTE_ID)
+				// retry a failed bpartner upsert; the failed orders don't get here, because the aggregation strategy leaves them out
+				.onException(Exception.class)
+					.maximumRedeliveries(PROCESS_ORDER_MAX_REDELIVERIES)
+					.redeliveryDelay(PROCESS_ORDER_REDELIVERY_DELAY_MILLIS)
+					.useExponentialBackOff()
+					.asyncDelayedRedelivery()
+					.to(StaticEndpointBuilders.direct(MF_ERROR_ROUTE_ID))
+				.end()
+				.log("Route invoked")
+				.split(body(), new BPUpsertCamelRequestAggregationStrategy()).parallelProcessing().executorService(processOrderExecutor)
+					.to(StaticEndpointBuilders.direct(PROCESS_ORDER_ROUTE_ID))
+				.end()
+				.filter(body().isNotNull())
+					.log(LoggingLevel.DEBUG, "Calling metasfresh-api to upsert BPartners: ${body}")
+					.to("{{" + ExternalSystemCamelConstants.MF_UPSERT_BPARTNER_CAMEL_URI + "}}")
+				.end();
+
 		from(StaticEndpointBuilders.direct(PROCESS_ORDER_ROUTE_ID))
 				.routeId(PROCESS_ORDER_ROUTE_ID)
+				// retry e.g. a failed metasfresh-api call of one order without blocking the thread, and thus the other orders of the page
+				.onException(Exception.class)
+					.maximumRedeliveries(PROCESS_ORDER_MAX_REDELIVERIES)
+					.redeliveryDelay(PROCESS_ORDER_REDELIVERY_DELAY_MILLIS)
+					.useExponentialBackOff()
+					.asyncDelayedRedelivery()
+					.to(StaticEndpointBuilders.direct(MF_ERROR_ROUTE_ID))
+				.end()
 				.log("Route invoked")
 				.process(new CreateBPartnerESRQueryProcessor()).id(CREATE_ESR_QUERY_REQ_PROCESSOR_ID)
 
@@ -84,10 +124,7 @@ public class GetOrdersRouteBuilder extends RouteBuilder
 
 				.unmarshal(setupJacksonDataFormatFor(getContext(), JsonExternalReferenceLookupResponse.class))
 				.log(LoggingLevel.DEBUG, "Metasfresh ESR API responded with: ${body}")
-				.process(new CreateBPartnerUpsertReqProcessor()).id(CREATE_BPARTNER_UPSERT_REQ_PROCESSOR_ID)
-
-				.log(LoggingLevel.DEBUG, "Calling metasfresh-api to upsert BPartners: ${body}")
-				.to("{{" + ExternalSystemCamelConstants.MF_UPSERT_BPARTNER_CAMEL_URI + "}}");
+				.process(new CreateBPartnerUpsertReqProcessor()).id(CREATE_BPARTNER_UPSERT_REQ_PROCESSOR_ID);
 		//@formatter:on
 	}
 
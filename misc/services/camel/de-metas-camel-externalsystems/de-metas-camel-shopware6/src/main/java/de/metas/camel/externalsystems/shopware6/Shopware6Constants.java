@@ -30,6 +30,7 @@ public interface Shopware6Constants
 
 	String FIELD_UPDATED_AT = "updatedAt";
 	String FIELD_CREATED_AT = "createdAt";
+	String FIELD_ID = "id";
 
 	String PARAMETERS_DATE_GTE =  "gte";
 
@@ -46,6 +47,17 @@ public interface Shopware6Constants
 	int CONNECTION_TIMEOUT_SECONDS = 600;
 	int READ_TIMEOUT_SECONDS = 600;
 
+	//orders paging; one page of orders is also one batch of bpartner upserts
+	int ORDERS_PAGE_SIZE = 100;
+	int MAX_ORDERS_PAGES_IN_FLIGHT = 4;
+	int MAX_ORDERS_PAGE_LOAD_ATTEMPTS = 3;
+	long ORDERS_PAGE_LOAD_BACKOFF_MILLIS = 1000;
+
+	//orders processing
+	int PROCESS_ORDER_THREADS = 4;
+	int PROCESS_ORDER_MAX_REDELIVERIES = 3;
+	long PROCESS_ORDER_REDELIVERY_DELAY_MILLIS = 1000;
+
 	//
 	String EXTERNAL_ID_PREFIX = "ext-";
 
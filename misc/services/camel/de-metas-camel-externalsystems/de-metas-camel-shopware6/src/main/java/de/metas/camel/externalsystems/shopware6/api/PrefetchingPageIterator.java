@@ -0,0 +1,206 @@
+/*
+ * #%L
+ * de-metas-camel-shopware6
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.camel.externalsystems.shopware6.api;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Builder;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Iterates the pages of a paged shopware query, one page per {@link #next()}.
+ * <p>
+ * Pages are loaded concurrently, but never more than {@code maxPagesInFlight} ahead of the consumer; so a slow consumer (e.g. the metasfresh upsert) throttles the loading.
+ * A failed page load is retried with exponential backoff within its own worker thread, so it doesn't hold up the loading of the other pages.
+ * The first page with less than {@code pageSize} items is taken to be the last one.
+ */
+public class PrefetchingPageIterator<T> implements Iterator<List<T>>, Closeable
+{
+	private static final Logger logger = Logger.getLogger(PrefetchingPageIterator.class.getName());
+
+	private final IntFunction<List<T>> pageLoader;
+	private final int pageSize;
+	private final int maxPagesInFlight;
+	private final int maxAttempts;
+	private final long initialBackoffMillis;
+
+	private final ExecutorService executorService;
+	private final Deque<Future<List<T>>> pagesInFlight = new ArrayDeque<>();
+	private int nextPageNo = 1;
+	private boolean noMorePagesToRequest = false;
+	private List<T> nextPage = null;
+
+	/**
+	 * @param pageLoader gets the 1-based page number and returns that page's items
+	 */
+	@Builder
+	private PrefetchingPageIterator(
+			@NonNull final String threadNamePrefix,
+			@NonNull final IntFunction<List<T>> pageLoader,
+			final int pageSize,
+			final int maxPagesInFlight,
+			final int maxAttempts,
+			final long initialBackoffMillis)
+	{
+		if (pageSize <= 0 || maxPagesInFlight <= 0 || maxAttempts <= 0)
+		{
+			throw new IllegalArgumentException("pageSize, maxPagesInFlight and maxAttempts need to be > 0");
+		}
+
+		this.pageLoader = pageLoader;
+		this.pageSize = pageSize;
+		this.maxPagesInFlight = maxPagesInFlight;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffMillis = initialBackoffMillis;
+
+		this.executorService = Executors.newFixedThreadPool(
+				maxPagesInFlight,
+				new ThreadFactoryBuilder()
+						.setNameFormat(threadNamePrefix + "-%d")
+						.setDaemon(true)
+						.build());
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		while (nextPage == null)
+		{
+			requestPages();
+
+			final Future<List<T>> pageFuture = pagesInFlight.poll();
+			if (pageFuture == null)
+			{
+				close();
+				return false;
+			}
+
+			final List<T> page = getPage(pageFuture);
+			if (page.size() < pageSize)
+			{
+				// the pages after this one are empty
+				noMorePagesToRequest = true;
+				cancelPagesInFlight();
+			}
+			if (!page.isEmpty())
+			{
+				nextPage = page;
+			}
+
+			// keep loading while the consumer processes this page
+			requestPages();
+		}
+		return true;
+	}
+
+	@Override
+	public List<T> next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		final List<T> page = nextPage;
+		nextPage = null;
+		return page;
+	}
+
+	@Override
+	public void close()
+	{
+		noMorePagesToRequest = true;
+		cancelPagesInFlight();
+		executorService.shutdownNow();
+	}
+
+	private void requestPages()
+	{
+		while (!noMorePagesToRequest && pagesInFlight.size() < maxPagesInFlight)
+		{
+			final int pageNo = nextPageNo++;
+			pagesInFlight.add(executorService.submit(() -> loadPageWithRetry(pageNo)));
+		}
+	}
+
+	private List<T> loadPageWithRetry(final int pageNo) throws InterruptedException
+	{
+		long backoffMillis = initialBackoffMillis;
+		for (int attempt = 1; ; attempt++)
+		{
+			try
+			{
+				return pageLoader.apply(pageNo);
+			}
+			catch (final RuntimeException e)
+			{
+				if (attempt >= maxAttempts)
+				{
+					throw e;
+				}
+				logger.log(Level.WARNING, "Loading page " + pageNo + " failed (attempt " + attempt + " of " + maxAttempts + "); retrying in " + backoffMillis + "ms", e);
+				Thread.sleep(backoffMillis);
+				backoffMillis *= 2;
+			}
+		}
+	}
+
+	private List<T> getPage(@NonNull final Future<List<T>> pageFuture)
+	{
+		try
+		{
+			return pageFuture.get();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			close();
+			throw new RuntimeException("Interrupted while waiting for the next page", e);
+		}
+		catch (final ExecutionException e)
+		{
+			close();
+			final Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException ? (RuntimeException)cause : new RuntimeException(cause);
+		}
+	}
+
+	private void cancelPagesInFlight()
+	{
+		pagesInFlight.forEach(pageFuture -> pageFuture.cancel(true));
+		pagesInFlight.clear();
+	}
+}
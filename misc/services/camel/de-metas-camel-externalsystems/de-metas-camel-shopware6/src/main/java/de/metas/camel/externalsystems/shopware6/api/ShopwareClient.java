@@ -243,7 +243,10 @@ public class ShopwareClient
 		return response;
 	}
 
-	private void refreshTokenIfExpired()
+	/**
+	 * Synchronized, because the orders are processed concurrently and share one client instance.
+	 */
+	private synchronized void refreshTokenIfExpired()
 	{
 		if (authToken.isExpired())
 		{
@@ -251,7 +254,7 @@ public class ShopwareClient
 		}
 	}
 
-	private void refreshToken()
+	private synchronized void refreshToken()
 	{
 		try
 		{
@@ -318,11 +321,11 @@ public class ShopwareClient
 		private final String clientSecret;
 
 		@NonNull
-		private Instant validUntil;
+		private volatile Instant validUntil;
 
 		@Nullable
 		@Getter
-		private String bearer;
+		private volatile String bearer;
 
 		public GetBearerRequest toGetBearerRequest()
 		{
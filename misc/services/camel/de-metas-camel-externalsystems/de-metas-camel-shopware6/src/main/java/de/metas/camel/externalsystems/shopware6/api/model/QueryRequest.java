@@ -22,6 +22,7 @@
 
 package de.metas.camel.externalsystems.shopware6.api.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Builder;
@@ -29,19 +30,43 @@ import lombok.NonNull;
 import lombok.Singular;
 import lombok.Value;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 @Value
 @JsonDeserialize(builder = QueryRequest.QueryRequestBuilder.class)
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class QueryRequest
 {
 	@NonNull
 	@JsonProperty("filter")
 	List<JsonFilter> filterList;
 
+	@NonNull
+	@JsonProperty("sort")
+	List<JsonSorting> sortingList;
+
+	/**
+	 * 1-based page number; {@code null} means that shopware shall return all matching records
+	 */
+	@Nullable
+	@JsonProperty("page")
+	Integer page;
+
+	@Nullable
+	@JsonProperty("limit")
+	Integer limit;
+
 	@Builder
-	public QueryRequest(@NonNull @Singular @JsonProperty("filters") final List<JsonFilter> filters)
+	public QueryRequest(
+			@NonNull @Singular @JsonProperty("filters") final List<JsonFilter> filters,
+			@NonNull @Singular @JsonProperty("sorts") final List<JsonSorting> sortings,
+			@Nullable @JsonProperty("page") final Integer page,
+			@Nullable @JsonProperty("limit") final Integer limit)
 	{
 		this.filterList = filters;
+		this.sortingList = sortings;
+		this.page = page;
+		this.limit = limit;
 	}
 }
@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * de-metas-camel-shopware6
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.camel.externalsystems.shopware6.processor;
+
+import de.metas.camel.externalsystems.common.BPUpsertCamelRequest;
+import de.metas.common.bpartner.request.JsonRequestBPartnerUpsert;
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+
+/**
+ * Merges the {@link BPUpsertCamelRequest}s of the single orders into one request, so that metasfresh's bpartner endpoint is called once per batch.
+ * <p>
+ * Orders whose processing failed are left out. Their error was already reported by the route's {@code onException}, and they shall not prevent the rest of the batch from being upserted.
+ * If all orders of the batch failed, the resulting body is {@code null}.
+ */
+public class BPUpsertCamelRequestAggregationStrategy implements AggregationStrategy
+{
+	@Override
+	public Exchange aggregate(final Exchange oldExchange, final Exchange newExchange)
+	{
+		if (newExchange.getException() != null)
+		{
+			if (oldExchange != null)
+			{
+				return oldExchange;
+			}
+			newExchange.setException(null);
+			newExchange.getIn().setBody(null);
+			return newExchange;
+		}
+
+		final BPUpsertCamelRequest newRequest = newExchange.getIn().getBody(BPUpsertCamelRequest.class);
+		final BPUpsertCamelRequest oldRequest = oldExchange != null ? oldExchange.getIn().getBody(BPUpsertCamelRequest.class) : null;
+		if (oldRequest == null)
+		{
+			return newExchange;
+		}
+
+		final JsonRequestBPartnerUpsert mergedUpsert = JsonRequestBPartnerUpsert.builder()
+				.syncAdvise(oldRequest.getJsonRequestBPartnerUpsert().getSyncAdvise())
+				.requestItems(oldRequest.getJsonRequestBPartnerUpsert().getRequestItems())
+				.requestItems(newRequest.getJsonRequestBPartnerUpsert().getRequestItems())
+				.build();
+
+		oldExchange.getIn().setBody(BPUpsertCamelRequest.builder()
+											.orgCode(oldRequest.getOrgCode())
+											.jsonRequestBPartnerUpsert(mergedUpsert)
+											.build());
+		return oldExchange;
+	}
+}
@@ -22,9 +22,11 @@
 
 package de.metas.camel.externalsystems.shopware6.processor;
 
+import de.metas.camel.externalsystems.shopware6.api.PrefetchingPageIterator;
 import de.metas.camel.externalsystems.shopware6.api.ShopwareClient;
 import de.metas.camel.externalsystems.shopware6.api.model.JsonFilter;
 import de.metas.camel.externalsystems.shopware6.api.model.JsonQuery;
+import de.metas.camel.externalsystems.shopware6.api.model.JsonSorting;
 import de.metas.camel.externalsystems.shopware6.api.model.QueryRequest;
 import de.metas.camel.externalsystems.shopware6.api.model.order.JsonOrder;
 import de.metas.camel.externalsystems.shopware6.api.model.order.JsonOrders;
@@ -37,12 +39,16 @@ import org.apache.camel.Processor;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 
 import static de.metas.camel.externalsystems.common.ExternalSystemCamelConstants.HEADER_ORG_CODE;
 import static de.metas.camel.externalsystems.common.ExternalSystemCamelConstants.HEADER_PINSTANCE_ID;
 import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.FIELD_CREATED_AT;
+import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.FIELD_ID;
 import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.FIELD_UPDATED_AT;
+import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.MAX_ORDERS_PAGES_IN_FLIGHT;
+import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.MAX_ORDERS_PAGE_LOAD_ATTEMPTS;
+import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.ORDERS_PAGE_LOAD_BACKOFF_MILLIS;
+import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.ORDERS_PAGE_SIZE;
 import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.PARAMETERS_DATE_GTE;
 import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.ROUTE_PROPERTY_ORG_CODE;
 import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.ROUTE_PROPERTY_SHOPWARE_CLIENT;
@@ -69,19 +75,25 @@ public class GetOrdersProcessor implements Processor
 		final String updatedAfter = request.getParameters().get(ExternalSystemConstants.PARAM_UPDATED_AFTER);
 
 		final ShopwareClient shopwareClient = ShopwareClient.of(clientId, clientSecret, basePath);
-		final QueryRequest getOrdersRequest = buildQueryOrdersRequest(updatedAfter);
 
-		final List<JsonOrder> ordersToProcess = shopwareClient.getOrders(getOrdersRequest)
-				.map(JsonOrders::getData)
-				.orElseGet(ArrayList::new);
+		final PrefetchingPageIterator<JsonOrder> ordersPages = PrefetchingPageIterator.<JsonOrder>builder()
+				.threadNamePrefix("Shopware6-getOrders")
+				.pageLoader(pageNo -> shopwareClient.getOrders(buildQueryOrdersRequest(updatedAfter, pageNo))
+						.map(JsonOrders::getData)
+						.orElseGet(ArrayList::new))
+				.pageSize(ORDERS_PAGE_SIZE)
+				.maxPagesInFlight(MAX_ORDERS_PAGES_IN_FLIGHT)
+				.maxAttempts(MAX_ORDERS_PAGE_LOAD_ATTEMPTS)
+				.initialBackoffMillis(ORDERS_PAGE_LOAD_BACKOFF_MILLIS)
+				.build();
 
-		exchange.getIn().setBody(ordersToProcess);
+		exchange.getIn().setBody(ordersPages);
 		exchange.setProperty(ROUTE_PROPERTY_ORG_CODE, request.getOrgCode());
 		exchange.setProperty(ROUTE_PROPERTY_SHOPWARE_CLIENT, shopwareClient);
 	}
 
 	@NonNull
-	private QueryRequest buildQueryOrdersRequest(@NonNull final String updatedAfter)
+	private QueryRequest buildQueryOrdersRequest(@NonNull final String updatedAfter, final int pageNo)
 	{
 		final HashMap<String, String> parameters = new HashMap<>();
 		parameters.put(PARAMETERS_DATE_GTE, updatedAfter);
@@ -101,6 +113,17 @@ public class GetOrdersProcessor implements Processor
 												   .parameters(parameters)
 												   .build())
 								.build())
+				// a stable sort order, so that orders which are created while we are paging don't shift the pages
+				.sorting(JsonSorting.builder()
+								 .field(FIELD_CREATED_AT)
+								 .orderType(JsonSorting.OrderType.ASC)
+								 .build())
+				.sorting(JsonSorting.builder()
+								 .field(FIELD_ID)
+								 .orderType(JsonSorting.OrderType.ASC)
+								 .build())
+				.page(pageNo)
+				.limit(ORDERS_PAGE_SIZE)
 				.build();
 	}
 }
@@ -26,8 +26,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import de.metas.camel.externalsystems.common.BPUpsertCamelRequest;
 import de.metas.camel.externalsystems.common.ExternalSystemCamelConstants;
+import de.metas.camel.externalsystems.shopware6.api.PrefetchingPageIterator;
 import de.metas.camel.externalsystems.shopware6.api.ShopwareClient;
 import de.metas.camel.externalsystems.shopware6.api.model.country.JsonCountry;
+import de.metas.camel.externalsystems.shopware6.api.model.order.JsonOrder;
 import de.metas.camel.externalsystems.shopware6.api.model.order.JsonOrderDeliveries;
 import de.metas.camel.externalsystems.shopware6.api.model.order.JsonOrders;
 import de.metas.common.externalreference.JsonExternalReferenceLookupRequest;
@@ -36,6 +38,7 @@ import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.apache.camel.builder.AdviceWithRouteBuilder;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.builder.endpoint.StaticEndpointBuilders;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.test.junit5.CamelTestSupport;
 import org.junit.jupiter.api.Test;
@@ -43,14 +46,18 @@ import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Function;
 
+import static de.metas.camel.externalsystems.common.ExternalSystemCamelConstants.MF_ERROR_ROUTE_ID;
 import static de.metas.camel.externalsystems.common.ExternalSystemCamelConstants.MF_LOOKUP_EXTERNALREFERENCE_CAMEL_URI;
 import static de.metas.camel.externalsystems.shopware6.GetOrdersRouteBuilder.CREATE_BPARTNER_UPSERT_REQ_PROCESSOR_ID;
 import static de.metas.camel.externalsystems.shopware6.GetOrdersRouteBuilder.CREATE_ESR_QUERY_REQ_PROCESSOR_ID;
 import static de.metas.camel.externalsystems.shopware6.GetOrdersRouteBuilder.GET_ORDERS_PROCESSOR_ID;
 import static de.metas.camel.externalsystems.shopware6.GetOrdersRouteBuilder.GET_ORDERS_ROUTE_ID;
+import static de.metas.camel.externalsystems.shopware6.GetOrdersRouteBuilder.PROCESS_ORDERS_PAGE_ROUTE_ID;
 import static de.metas.camel.externalsystems.shopware6.GetOrdersRouteBuilder.PROCESS_ORDER_ROUTE_ID;
 import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.ROUTE_PROPERTY_ORG_CODE;
 import static de.metas.camel.externalsystems.shopware6.Shopware6Constants.ROUTE_PROPERTY_SHOPWARE_CLIENT;
@@ -62,6 +69,7 @@ public class GetOrdersRouteBuilderTests extends CamelTestSupport
 {
 	private static final String MOCK_ESR_QUERY_REQUEST = "mock:esrQueryRequest";
 	private static final String MOCK_SHOPWARE_TO_MF_RESULT = "mock:ShopwareToMFResult";
+	private static final String MOCK_ERROR_ROUTE = "mock:errorRoute";
 
 	private static final String JSON_ORDERS_RESOURCE_PATH = "/de/metas/camel/externalsystems/shopware6/JsonOrders.json";
 	private static final String JSON_ORDER_DELIVERIES_PATH = "/de/metas/camel/externalsystems/shopware6/JsonOrderDeliveries.json";
@@ -103,7 +111,8 @@ public class GetOrdersRouteBuilderTests extends CamelTestSupport
 	{
 		final MockSuccessfullyCreatedBPartnerProcessor createdBPartnerProcessor = new MockSuccessfullyCreatedBPartnerProcessor();
 
-		prepareRouteForTesting(createdBPartnerProcessor);
+		// all orders on one page
+		prepareRouteForTesting(new MockGetOrdersProcessor(List::of), createdBPartnerProcessor);
 
 		context.start();
 
@@ -129,12 +138,67 @@ public class GetOrdersRouteBuilderTests extends CamelTestSupport
 		assertMockEndpointsSatisfied();
 	}
 
-	private void prepareRouteForTesting(final MockSuccessfullyCreatedBPartnerProcessor successfullyCreatedBPartnerProcessor) throws Exception
+	/**
+	 * Each page holds the mocked orders; the first two pages are processed, then the loading of the third page fails.
+	 * The route must neither go on as if there were no more pages, nor redeliver the split of the already closed pages iterator.
+	 */
+	@Test
+	void failedPageLoad_isReportedAndStopsTheRoute() throws Exception
+	{
+		final MockSuccessfullyCreatedBPartnerProcessor createdBPartnerProcessor = new MockSuccessfullyCreatedBPartnerProcessor();
+
+		prepareRouteForTesting(new MockGetOrdersProcessor(orders -> ordersPagesFailingAt(orders, 3)), createdBPartnerProcessor);
+
+		context.addRoutes(new RouteBuilder()
+		{
+			@Override
+			public void configure()
+			{
+				from(StaticEndpointBuilders.direct(MF_ERROR_ROUTE_ID)).to(MOCK_ERROR_ROUTE);
+			}
+		});
+
+		context.start();
+
+		final MockEndpoint errorRouteMockEndpoint = getMockEndpoint(MOCK_ERROR_ROUTE);
+		errorRouteMockEndpoint.expectedMessageCount(1);
+
+		//fire the route
+		final Exchange result = template.send("direct:" + GET_ORDERS_ROUTE_ID, exchange -> exchange.getIn().setBody("Empty body"));
+
+		assertThat(result.getException()).hasStackTraceContaining("Loading page 3 failed");
+		assertThat(createdBPartnerProcessor.called).isEqualTo(2);
+		assertMockEndpointsSatisfied();
+	}
+
+	/**
+	 * @return an iterator which returns all orders as one full page for each page number before {@code failingPageNo}, and fails to load {@code failingPageNo}
+	 */
+	private static PrefetchingPageIterator<JsonOrder> ordersPagesFailingAt(final List<JsonOrder> orders, final int failingPageNo)
+	{
+		return PrefetchingPageIterator.<JsonOrder>builder()
+				.threadNamePrefix("GetOrdersRouteBuilderTests")
+				.pageLoader(pageNo -> {
+					if (pageNo >= failingPageNo)
+					{
+						throw new RuntimeException("Loading page " + pageNo + " failed");
+					}
+					return orders;
+				})
+				.pageSize(orders.size())
+				.maxPagesInFlight(1)
+				.maxAttempts(1)
+				.build();
+	}
+
+	private void prepareRouteForTesting(
+			final MockGetOrdersProcessor getOrdersProcessor,
+			final MockSuccessfullyCreatedBPartnerProcessor successfullyCreatedBPartnerProcessor) throws Exception
 	{
 		AdviceWithRouteBuilder.adviceWith(context, GET_ORDERS_ROUTE_ID,
 										  advice -> advice.weaveById(GET_ORDERS_PROCESSOR_ID)
 												  .replace()
-												  .process(new MockGetOrdersProcessor()));
+												  .process(getOrdersProcessor));
 
 		AdviceWithRouteBuilder.adviceWith(context, PROCESS_ORDER_ROUTE_ID,
 										  advice -> {
@@ -150,11 +214,12 @@ public class GetOrdersRouteBuilderTests extends CamelTestSupport
 											  advice.weaveById(CREATE_BPARTNER_UPSERT_REQ_PROCESSOR_ID)
 													  .after()
 													  .to(MOCK_SHOPWARE_TO_MF_RESULT);
-
-											  advice.interceptSendToEndpoint("{{" + ExternalSystemCamelConstants.MF_UPSERT_BPARTNER_CAMEL_URI + "}}")
-													  .skipSendToOriginalEndpoint()
-													  .process(successfullyCreatedBPartnerProcessor);
 										  });
+
+		AdviceWithRouteBuilder.adviceWith(context, PROCESS_ORDERS_PAGE_ROUTE_ID,
+										  advice -> advice.interceptSendToEndpoint("{{" + ExternalSystemCamelConstants.MF_UPSERT_BPARTNER_CAMEL_URI + "}}")
+												  .skipSendToOriginalEndpoint()
+												  .process(successfullyCreatedBPartnerProcessor));
 	}
 
 	private static class MockSuccessfullyCreatedBPartnerProcessor implements Processor
@@ -170,6 +235,16 @@ public class GetOrdersRouteBuilderTests extends CamelTestSupport
 
 	private static class MockGetOrdersProcessor implements Processor
 	{
+		/**
+		 * Gets the mocked orders and returns the body which is split into the orders pages.
+		 */
+		private final Function<List<JsonOrder>, Object> ordersPagesFactory;
+
+		private MockGetOrdersProcessor(@NonNull final Function<List<JsonOrder>, Object> ordersPagesFactory)
+		{
+			this.ordersPagesFactory = ordersPagesFactory;
+		}
+
 		@Override
 		public void process(final Exchange exchange) throws IOException
 		{
@@ -182,7 +257,7 @@ public class GetOrdersRouteBuilderTests extends CamelTestSupport
 			final ShopwareClient shopwareClient = prepareShopwareClientMock(mapper);
 
 			//set up the exchange
-			exchange.getIn().setBody(jsonOrders.getData());
+			exchange.getIn().setBody(ordersPagesFactory.apply(jsonOrders.getData()));
 			exchange.setProperty(ROUTE_PROPERTY_ORG_CODE, MOCK_ORG_CODE);
 			exchange.setProperty(ROUTE_PROPERTY_SHOPWARE_CLIENT, shopwareClient);
 		}
@@ -0,0 +1,179 @@
+/*
+ * #%L
+ * de-metas-camel-shopware6
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.camel.externalsystems.shopware6.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Stopwatch;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.metas.camel.externalsystems.shopware6.api.model.QueryRequest;
+import de.metas.camel.externalsystems.shopware6.api.model.order.JsonOrder;
+import de.metas.camel.externalsystems.shopware6.api.model.order.JsonOrders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many orders per minute can be pulled from a local stub shopware server, with and without concurrent page loading.
+ * The stub serves {@value #ORDERS_COUNT} copies of the order from {@code JsonOrders.json} and answers each page request after {@value #SHOPWARE_LATENCY_MILLIS}ms;
+ * the consumer spends {@value #CONSUMER_MILLIS_PER_PAGE}ms per page, standing in for the bpartner upsert.
+ * <p>
+ * Run it manually; the parameters can be overridden with {@code -Dbenchmark.ordersCount=...} etc.
+ */
+public class GetOrdersStubServerManualTest
+{
+	private static final int ORDERS_COUNT = 5_000;
+	private static final int SHOPWARE_LATENCY_MILLIS = 300;
+	private static final int CONSUMER_MILLIS_PER_PAGE = 200;
+	private static final int PAGE_SIZE = 100;
+
+	private static final String JSON_ORDERS_RESOURCE_PATH = "/de/metas/camel/externalsystems/shopware6/JsonOrders.json";
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	public static void main(final String[] args) throws Exception
+	{
+		final int ordersCount = Integer.getInteger("benchmark.ordersCount", ORDERS_COUNT);
+		final int latencyMillis = Integer.getInteger("benchmark.shopwareLatencyMillis", SHOPWARE_LATENCY_MILLIS);
+		final int consumerMillisPerPage = Integer.getInteger("benchmark.consumerMillisPerPage", CONSUMER_MILLIS_PER_PAGE);
+
+		final HttpServer server = startStubShopware(ordersCount, latencyMillis);
+		try
+		{
+			final String baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+			for (final int maxPagesInFlight : new int[] { 1, 2, 4, 8 })
+			{
+				benchmark(baseUrl, maxPagesInFlight, ordersCount, consumerMillisPerPage);
+			}
+		}
+		finally
+		{
+			server.stop(0);
+		}
+	}
+
+	private static void benchmark(
+			final String baseUrl,
+			final int maxPagesInFlight,
+			final int expectedOrdersCount,
+			final int consumerMillisPerPage) throws InterruptedException
+	{
+		final ShopwareClient shopwareClient = ShopwareClient.of("clientId", "clientSecret", baseUrl);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		int ordersCount = 0;
+		try (final PrefetchingPageIterator<JsonOrder> pages = PrefetchingPageIterator.<JsonOrder>builder()
+				.threadNamePrefix("GetOrdersStubServerManualTest")
+				.pageLoader(pageNo -> shopwareClient.getOrders(QueryRequest.builder().page(pageNo).limit(PAGE_SIZE).build())
+						.map(JsonOrders::getData)
+						.orElseGet(ArrayList::new))
+				.pageSize(PAGE_SIZE)
+				.maxPagesInFlight(maxPagesInFlight)
+				.maxAttempts(3)
+				.initialBackoffMillis(100)
+				.build())
+		{
+			while (pages.hasNext())
+			{
+				ordersCount += pages.next().size();
+				Thread.sleep(consumerMillisPerPage);
+			}
+		}
+
+		final long durationMillis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		System.out.println("maxPagesInFlight=" + maxPagesInFlight
+				+ ": " + ordersCount + "/" + expectedOrdersCount + " orders"
+				+ ", " + durationMillis + "ms"
+				+ ", " + (ordersCount * 60_000L / durationMillis) + " orders/min");
+	}
+
+	private static HttpServer startStubShopware(final int ordersCount, final int latencyMillis) throws IOException
+	{
+		final JsonNode orderTemplate = objectMapper.readTree(GetOrdersStubServerManualTest.class.getResourceAsStream(JSON_ORDERS_RESOURCE_PATH))
+				.get("data")
+				.get(0);
+
+		final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+
+		server.createContext("/api/oauth/token", exchange -> respond(exchange, "{\"token_type\":\"Bearer\",\"expires_in\":600,\"access_token\":\"stubToken\"}"));
+
+		server.createContext("/api/v3/search/order", exchange -> {
+			final JsonNode queryRequest;
+			try (final InputStream requestBody = exchange.getRequestBody())
+			{
+				queryRequest = objectMapper.readTree(requestBody);
+			}
+			final int page = queryRequest.path("page").asInt(1);
+			final int limit = queryRequest.path("limit").asInt(PAGE_SIZE);
+
+			final ObjectNode response = objectMapper.createObjectNode();
+			final ArrayNode data = response.putArray("data");
+			for (int i = (page - 1) * limit; i < Math.min(page * limit, ordersCount); i++)
+			{
+				data.add(((ObjectNode)orderTemplate.deepCopy()).put("id", "order_" + i));
+			}
+			response.put("total", ordersCount);
+
+			sleep(latencyMillis);
+			respond(exchange, objectMapper.writeValueAsString(response));
+		});
+
+		server.start();
+		return server;
+	}
+
+	private static void respond(final HttpExchange exchange, final String json) throws IOException
+	{
+		final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (final OutputStream out = exchange.getResponseBody())
+		{
+			out.write(bytes);
+		}
+	}
+
+	private static void sleep(final int millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * #%L
+ * de-metas-camel-shopware6
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.camel.externalsystems.shopware6.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PrefetchingPageIteratorTest
+{
+	private static final int PAGE_SIZE = 10;
+
+	@Test
+	void allPagesInOrder()
+	{
+		final PrefetchingPageIterator<Integer> iterator = newIterator(25, new AtomicInteger(0));
+
+		final List<Integer> result = new ArrayList<>();
+		iterator.forEachRemaining(result::addAll);
+
+		assertThat(result).containsExactlyElementsOf(IntStream.range(0, 25).boxed().collect(Collectors.toList()));
+		assertThat(iterator.hasNext()).isFalse();
+		assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+	}
+
+	@Test
+	void lastPageIsFull()
+	{
+		final PrefetchingPageIterator<Integer> iterator = newIterator(20, new AtomicInteger(0));
+
+		final List<List<Integer>> pages = new ArrayList<>();
+		iterator.forEachRemaining(pages::add);
+
+		// the trailing empty page is not returned
+		assertThat(pages).hasSize(2);
+	}
+
+	@Test
+	void noItems()
+	{
+		final PrefetchingPageIterator<Integer> iterator = newIterator(0, new AtomicInteger(0));
+
+		assertThat(iterator.hasNext()).isFalse();
+	}
+
+	@Test
+	void failedPageLoadIsRetried()
+	{
+		final AtomicInteger failuresLeft = new AtomicInteger(2);
+		final PrefetchingPageIterator<Integer> iterator = newIterator(15, failuresLeft);
+
+		final List<Integer> result = new ArrayList<>();
+		iterator.forEachRemaining(result::addAll);
+
+		assertThat(result).hasSize(15);
+		assertThat(failuresLeft).hasValue(0);
+	}
+
+	@Test
+	void failedPageLoadIsPropagatedAfterMaxAttempts()
+	{
+		final PrefetchingPageIterator<Integer> iterator = newIterator(15, new AtomicInteger(Integer.MAX_VALUE));
+
+		assertThatThrownBy(iterator::hasNext).hasMessage("shopware not available");
+	}
+
+	private static PrefetchingPageIterator<Integer> newIterator(
+			final int itemsCount,
+			final AtomicInteger failuresLeft)
+	{
+		return PrefetchingPageIterator.<Integer>builder()
+				.threadNamePrefix("PrefetchingPageIteratorTest")
+				.pageLoader(pageNo -> {
+					if (failuresLeft.getAndUpdate(failures -> Math.max(failures - 1, 0)) > 0)
+					{
+						throw new RuntimeException("shopware not available");
+					}
+					return IntStream.range((pageNo - 1) * PAGE_SIZE, Math.min(pageNo * PAGE_SIZE, itemsCount))
+							.boxed()
+							.collect(Collectors.toList());
+				})
+				.pageSize(PAGE_SIZE)
+				.maxPagesInFlight(3)
+				.maxAttempts(3)
+				.initialBackoffMillis(1)
+				.build();
+	}
+}